@@ -0,0 +1,55 @@
+package com.mbragg.game.service.api.controller;
+
+import com.mbragg.game.service.api.dto.CacheStats;
+import com.mbragg.game.service.api.service.CompletedGameCache;
+import com.mbragg.game.service.api.service.EvaluationCache;
+import com.mbragg.game.service.api.service.LookupCache;
+import com.mbragg.game.service.api.service.UserCache;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Exposes the hit and miss counts of the caches.
+ */
+@RestController
+@RequestMapping(value = "/cache", produces = MediaType.APPLICATION_JSON_VALUE)
+@Api(value = "cache", description = "Operations for monitoring the caches")
+public class CacheController {
+
+    private final UserCache userCache;
+
+    private final CompletedGameCache completedGameCache;
+
+    private final EvaluationCache evaluationCache;
+
+    public CacheController(UserCache userCache, CompletedGameCache completedGameCache,
+                           EvaluationCache evaluationCache) {
+        this.userCache = userCache;
+        this.completedGameCache = completedGameCache;
+        this.evaluationCache = evaluationCache;
+    }
+
+    @ApiOperation(value = "Find the size, hits and misses of each cache")
+    @RequestMapping(value = "/", method = RequestMethod.GET)
+    @ResponseStatus(HttpStatus.OK)
+    public Map<String, CacheStats> stats() {
+        Map<String, CacheStats> stats = new LinkedHashMap<>();
+        stats.put("users", statsOf(userCache));
+        stats.put("completedGames", statsOf(completedGameCache));
+        stats.put("evaluations", statsOf(evaluationCache));
+        return stats;
+    }
+
+    private static CacheStats statsOf(LookupCache<?, ?> cache) {
+        return new CacheStats(cache.size(), cache.getCapacity(), cache.getHits(), cache.getMisses());
+    }
+}
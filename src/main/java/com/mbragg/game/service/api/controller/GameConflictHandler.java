@@ -0,0 +1,34 @@
+package com.mbragg.game.service.api.controller;
+
+import com.mbragg.game.service.api.dto.BoardFormat;
+import com.mbragg.game.service.api.dto.GameResponse;
+import com.mbragg.game.service.api.service.GameConflictException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.context.request.WebRequest;
+
+/**
+ * Answers moves made against a stale version of a game with 409 Conflict and the current state of the game.
+ */
+@ControllerAdvice
+public class GameConflictHandler {
+
+    private static Logger logger = LoggerFactory.getLogger(GameConflictHandler.class);
+
+    /**
+     * The game is sent in the board format the move asked for, as a successful move would have been.
+     */
+    @ExceptionHandler(GameConflictException.class)
+    public ResponseEntity<GameResponse> handleConflict(GameConflictException e, WebRequest request) {
+        logger.debug("Conflicting move on game {}: {}", e.getCurrentGame().getGameId(), e.getMessage());
+
+        BoardFormat format = GameController.boardFormat(request.getParameter(GameController.BOARD_PARAM),
+                request.getHeader(HttpHeaders.ACCEPT));
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getCurrentGame().withBoardFormat(format));
+    }
+}
@@ -1,15 +1,28 @@
 package com.mbragg.game.service.api.controller;
 
+import com.mbragg.game.service.api.domain.GameStatus;
+import com.mbragg.game.service.api.dto.BoardFormat;
 import com.mbragg.game.service.api.dto.CreateGameRequest;
 import com.mbragg.game.service.api.dto.GameResponse;
 import com.mbragg.game.service.api.dto.GamesSummaryResponse;
+import com.mbragg.game.service.api.dto.HintResponse;
+import com.mbragg.game.service.api.dto.MoveDelta;
 import com.mbragg.game.service.api.dto.MoveRequest;
+import com.mbragg.game.service.api.dto.MoveResult;
+import com.mbragg.game.service.api.service.GameEventStream;
 import com.mbragg.game.service.api.service.GameService;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.springframework.util.Assert.*;
 
@@ -21,40 +34,137 @@ import static org.springframework.util.Assert.*;
 @Api(value = "game", description = "Operations for creating and playing a Game")
 public class GameController {
 
+    static final String BOARD_PARAM = "board";
+
+    private static final String LAST_EVENT_ID = "Last-Event-ID";
+
     private final GameService gameService;
 
-    public GameController(GameService gameService) {
+    private final GameEventStream gameEventStream;
+
+    public GameController(GameService gameService, GameEventStream gameEventStream) {
         this.gameService = gameService;
+        this.gameEventStream = gameEventStream;
     }
 
     @ApiOperation(value = "Create a game")
-    @RequestMapping(value = "/", method = RequestMethod.POST)
+    @RequestMapping(value = "/", method = RequestMethod.POST, produces = {MediaType.APPLICATION_JSON_VALUE,
+            BoardFormat.BOARD_STRING_VALUE, BoardFormat.BOARD_PACKED_VALUE, BoardFormat.BOARD_SPARSE_VALUE})
     @ResponseStatus(HttpStatus.CREATED)
-    public GameResponse save(@RequestBody CreateGameRequest gameRequest) {
-        return gameService.create(gameRequest);
+    public GameResponse save(@RequestBody CreateGameRequest gameRequest,
+                             @RequestParam(value = BOARD_PARAM, required = false) String board,
+                             @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        return gameService.create(gameRequest).withBoardFormat(boardFormat(board, accept));
+    }
+
+    @ApiOperation(value = "Create many games at once")
+    @RequestMapping(value = "/bulk", method = RequestMethod.POST, produces = {MediaType.APPLICATION_JSON_VALUE,
+            BoardFormat.BOARD_STRING_VALUE, BoardFormat.BOARD_PACKED_VALUE, BoardFormat.BOARD_SPARSE_VALUE})
+    @ResponseStatus(HttpStatus.CREATED)
+    public List<GameResponse> saveAll(@RequestBody List<CreateGameRequest> gameRequests,
+                                      @RequestParam(value = BOARD_PARAM, required = false) String board,
+                                      @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        BoardFormat format = boardFormat(board, accept);
+
+        return gameService.createAll(gameRequests).stream()
+                .map(gameResponse -> gameResponse.withBoardFormat(format))
+                .collect(Collectors.toList());
     }
 
     @ApiOperation(value = "Find a game")
-    @RequestMapping(value = "/{gameId}", method = RequestMethod.GET)
-    @ResponseStatus(HttpStatus.OK)
-    public GameResponse findOne(@PathVariable("gameId") final Long id) {
-        return gameService.findOne(id);
+    @RequestMapping(value = "/{gameId}", method = RequestMethod.GET, produces = {MediaType.APPLICATION_JSON_VALUE,
+            BoardFormat.BOARD_STRING_VALUE, BoardFormat.BOARD_PACKED_VALUE, BoardFormat.BOARD_SPARSE_VALUE})
+    public ResponseEntity<GameResponse> findOne(@PathVariable("gameId") final Long id,
+                                                @RequestParam(value = BOARD_PARAM, required = false) String board,
+                                                @RequestHeader(value = HttpHeaders.ACCEPT, required = false)
+                                                        String accept,
+                                                WebRequest request) {
+        BoardFormat format = boardFormat(board, accept);
+
+        // Polls for a game that has not changed are answered from its version alone, without building the response
+        if (request.checkNotModified(etag(gameService.findVersion(id), format))) {
+            return null;
+        }
+
+        return ResponseEntity.ok(gameService.findOne(id).withBoardFormat(format));
     }
 
-    @ApiOperation(value = "Find all games")
+    @ApiOperation(value = "Follow a game, receiving an event for each move as it is made")
+    @RequestMapping(value = "/{gameId}/events", method = RequestMethod.GET,
+            produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events(@PathVariable("gameId") final Long id,
+                             @RequestHeader(value = LAST_EVENT_ID, required = false) Long lastEventId) {
+        return gameEventStream.subscribe(id, lastEventId, () -> gameService.findOne(id));
+    }
+
+    @ApiOperation(value = "Find a page of games, optionally by status and user")
     @RequestMapping(value = "/", method = RequestMethod.GET)
     @ResponseStatus(HttpStatus.OK)
-    public GamesSummaryResponse findAll() {
-        return gameService.findAll();
+    public GamesSummaryResponse findAll(@RequestParam(value = "status", required = false) GameStatus status,
+                                        @RequestParam(value = "userId", required = false) Long userId,
+                                        @RequestParam(value = "page", defaultValue = "0") int page,
+                                        @RequestParam(value = "size", defaultValue = "50") int size) {
+        return gameService.findAll(status, userId, page, size);
     }
 
     @ApiOperation(value = "Perform a move in a game")
-    @RequestMapping(value = "/{gameId}/move", method = RequestMethod.POST)
+    @RequestMapping(value = "/{gameId}/move", method = RequestMethod.POST, produces = {
+            MediaType.APPLICATION_JSON_VALUE, BoardFormat.BOARD_STRING_VALUE, BoardFormat.BOARD_PACKED_VALUE,
+            BoardFormat.BOARD_SPARSE_VALUE})
+    @ResponseStatus(HttpStatus.OK)
+    public GameResponse move(@PathVariable("gameId") final Long id, @RequestBody MoveRequest move,
+                             @RequestParam(value = BOARD_PARAM, required = false) String board,
+                             @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        isTrue(id.equals(move.getGameId()), "Path and body values for game id should match.");
+
+        // Resolved before moving, so a conflict is answered in the same format by the GameConflictHandler
+        BoardFormat format = boardFormat(board, accept);
+        return gameService.move(move).withBoardFormat(format);
+    }
+
+    @ApiOperation(value = "Perform a move in a game, answering with only the cells it changed")
+    @RequestMapping(value = "/{gameId}/move", method = RequestMethod.POST, produces = MoveDelta.MOVE_DELTA_VALUE)
     @ResponseStatus(HttpStatus.OK)
-    public GameResponse move(@PathVariable("gameId") final Long id, @RequestBody MoveRequest move) {
+    public MoveDelta moveDelta(@PathVariable("gameId") final Long id, @RequestBody MoveRequest move) {
         isTrue(id.equals(move.getGameId()), "Path and body values for game id should match.");
 
-        return gameService.move(move);
+        return gameService.moveDelta(move);
+    }
+
+    @ApiOperation(value = "Perform a move in a game, answering with only the cells it changed")
+    @RequestMapping(value = "/{gameId}/move", method = RequestMethod.POST, params = "response=delta")
+    @ResponseStatus(HttpStatus.OK)
+    public MoveDelta moveDeltaByParam(@PathVariable("gameId") final Long id, @RequestBody MoveRequest move) {
+        return moveDelta(id, move);
     }
 
+    @ApiOperation(value = "Perform a batch of moves across games, with a result for each move")
+    @RequestMapping(value = "/moves", method = RequestMethod.POST)
+    @ResponseStatus(HttpStatus.OK)
+    public List<MoveResult> moves(@RequestBody List<MoveRequest> moves) {
+        return gameService.moves(moves);
+    }
+
+    @ApiOperation(value = "Suggest the next move for the player whose turn it is")
+    @RequestMapping(value = "/{gameId}/hint", method = RequestMethod.GET)
+    @ResponseStatus(HttpStatus.OK)
+    public HintResponse hint(@PathVariable("gameId") final Long id) {
+        return gameService.hint(id);
+    }
+
+    /**
+     * The board is sent as a nested array unless a compact format is asked for, either by the 'board' query parameter
+     * or by one of the board media types in the 'Accept' header.
+     */
+    static BoardFormat boardFormat(String board, String accept) {
+        return BoardFormat.resolve(board, MediaType.parseMediaTypes(accept));
+    }
+
+    /**
+     * A strong entity tag for a version of a game, which also names the board format as each format is a different
+     * representation of the same version.
+     */
+    private static String etag(Long version, BoardFormat format) {
+        return "\"" + version + "-" + format.name().toLowerCase() + "\"";
+    }
 }
@@ -1,15 +1,23 @@
 package com.mbragg.game.service.api.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.mbragg.game.service.api.domain.User;
+import com.mbragg.game.service.api.dto.UsersPageResponse;
 import com.mbragg.game.service.api.service.UserService;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 
 /**
  * Exposes API for interacting with the User domain.
@@ -19,11 +27,18 @@ import java.util.List;
 @Api(value = "user", description = "Operations for creating and retrieving Users")
 public class UserController {
 
+    public static final String NDJSON_VALUE = "application/x-ndjson";
+
     private final UserService userService;
 
+    private final ObjectWriter userWriter;
+
     @Autowired
-    public UserController(UserService userService) {
+    public UserController(UserService userService, ObjectMapper objectMapper) {
         this.userService = userService;
+        this.userWriter = objectMapper.writerFor(User.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .withRootValueSeparator("");
     }
 
     @ApiOperation(value = "Create a user")
@@ -39,10 +54,33 @@ public class UserController {
         return userService.findOne(uuid);
     }
 
-    @ApiOperation(value = "Find all users")
+    @ApiOperation(value = "Find a page of users in id order")
     @RequestMapping(value = "/", method = RequestMethod.GET)
-    public List<User> findAll() {
-        return userService.findAll();
+    public UsersPageResponse findAll(@RequestParam(value = "after", required = false) Long afterId,
+                                     @RequestParam(value = "size", defaultValue = "100") int size) {
+        return userService.findPage(afterId, size);
+    }
+
+    @ApiOperation(value = "Export every user as newline delimited JSON")
+    @RequestMapping(value = "/export", method = RequestMethod.GET, produces = NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> export() {
+        StreamingResponseBody body = out -> {
+            // Users are buffered by the generator and written out as its buffer fills
+            JsonGenerator generator = userWriter.getFactory().createGenerator(out);
+            userService.export(user -> write(generator, user));
+            generator.flush();
+        };
+
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON_VALUE)).body(body);
+    }
+
+    private void write(JsonGenerator generator, User user) {
+        try {
+            userWriter.writeValue(generator, user);
+            generator.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
 }
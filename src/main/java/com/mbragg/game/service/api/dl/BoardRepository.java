@@ -0,0 +1,17 @@
+package com.mbragg.game.service.api.dl;
+
+import com.mbragg.game.service.api.domain.Board;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+/**
+ * Data repository for persisting the Board domain outside of its Game.
+ */
+public interface BoardRepository extends CrudRepository<Board, Long> {
+
+    @Modifying
+    @Query("update Board b set b.cells = :cells, b.version = :version where b.id = :id")
+    int updateCells(@Param("id") Long id, @Param("cells") byte[] cells, @Param("version") Long version);
+}
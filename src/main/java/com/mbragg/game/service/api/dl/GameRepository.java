@@ -1,10 +1,63 @@
 package com.mbragg.game.service.api.dl;
 
 import com.mbragg.game.service.api.domain.Game;
+import com.mbragg.game.service.api.domain.GameStatus;
+import com.mbragg.game.service.api.dto.GameSummary;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
 /**
  * Data repository for retrieving/persisting the Game domain.
  */
 public interface GameRepository extends CrudRepository<Game, Long> {
+
+    String SUMMARY_FILTER = "from Game g join g.playerOne p1 join g.playerTwo p2 "
+            + "where (:status is null or g.status = :status) "
+            + "and (:userId is null or p1.user.id = :userId or p2.user.id = :userId)";
+
+    /**
+     * Loads a game with its board, both players and their users in a single select, rather than the follow up
+     * selects findOne makes for the associations it does not join.
+     *
+     * @return The game, or null if it does not exist.
+     */
+    @Query("select g from Game g join fetch g.board "
+            + "join fetch g.playerOne p1 left join fetch p1.user "
+            + "join fetch g.playerTwo p2 left join fetch p2.user "
+            + "where g.id = :id")
+    Game findGame(@Param("id") Long id);
+
+    /**
+     * Reads only the version column of a game, so that a client's copy can be checked without loading the game.
+     *
+     * @return The version of the game, or null if it does not exist.
+     */
+    @Query("select g.version from Game g where g.id = :id")
+    Long findVersion(@Param("id") Long id);
+
+    /**
+     * Summaries of the games with a status and/or played by a user, either filter ignored when null. Only the game
+     * and player rows are read, the user ids come from the players' foreign keys and boards are not touched.
+     */
+    @Query(value = "select new com.mbragg.game.service.api.dto.GameSummary(g.id, g.status, p1.user.id, p2.user.id) "
+            + SUMMARY_FILTER,
+            countQuery = "select count(g) " + SUMMARY_FILTER)
+    Page<GameSummary> findSummaries(@Param("status") GameStatus status, @Param("userId") Long userId,
+                                    Pageable pageable);
+
+    /**
+     * Writes the state of a game held in memory, setting the version it was given in memory. Only applies if the row
+     * is still at the version last written, so changes made elsewhere are not overwritten.
+     *
+     * @return The number of rows updated, 0 if the row was not at the persisted version.
+     */
+    @Modifying
+    @Query("update Game g set g.status = :status, g.moveCount = :moveCount, g.version = :version "
+            + "where g.id = :id and g.version = :persistedVersion")
+    int updateState(@Param("id") Long id, @Param("status") GameStatus status, @Param("moveCount") int moveCount,
+                    @Param("version") Long version, @Param("persistedVersion") Long persistedVersion);
 }
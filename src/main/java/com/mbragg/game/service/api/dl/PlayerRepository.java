@@ -0,0 +1,18 @@
+package com.mbragg.game.service.api.dl;
+
+import com.mbragg.game.service.api.domain.Player;
+import com.mbragg.game.service.api.domain.PlayerStatus;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+/**
+ * Data repository for persisting the Player domain outside of its Game.
+ */
+public interface PlayerRepository extends CrudRepository<Player, Long> {
+
+    @Modifying
+    @Query("update Player p set p.turn = :turn, p.status = :status where p.id = :id")
+    int updateState(@Param("id") Long id, @Param("turn") boolean turn, @Param("status") PlayerStatus status);
+}
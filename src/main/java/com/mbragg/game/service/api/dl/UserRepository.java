@@ -1,10 +1,33 @@
 package com.mbragg.game.service.api.dl;
 
 import com.mbragg.game.service.api.domain.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 
+import javax.persistence.QueryHint;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
 /**
  * Data repository for retrieving/persisting the User domain.
  */
 public interface UserRepository extends CrudRepository<User, Long> {
+
+    /**
+     * The next users in id order after a given id. Seeks straight to the id on the primary key, so every page costs
+     * the same however deep into the table it is.
+     */
+    List<User> findByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
+
+    /**
+     * Every user in id order, read from a database cursor. The users are constructed rather than loaded, so they are
+     * not held by the persistence context as the stream is read. Must be read within a transaction.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.mbragg.game.service.api.domain.User(u.id, u.name) from User u order by u.id")
+    Stream<User> streamAll();
 }
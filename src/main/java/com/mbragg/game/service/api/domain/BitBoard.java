@@ -0,0 +1,66 @@
+package com.mbragg.game.service.api.domain;
+
+import static org.springframework.util.Assert.isTrue;
+
+/**
+ * Primitive representation of the cells on a Board. Holds one bitset per placed 'Mark', packed into long words in
+ * row-major order, so that lookups are performed as bit operations rather than by walking boxed characters.
+ */
+public class BitBoard implements CellStore {
+
+    private static final int WORD_BITS = 64;
+
+    private final int size;
+
+    private final long[] crosses;
+
+    private final long[] circles;
+
+    public BitBoard(int size) {
+        isTrue(size > 0, "Bit board size must be greater than zero.");
+        this.size = size;
+
+        int words = wordsFor(size * size);
+        this.crosses = new long[words];
+        this.circles = new long[words];
+    }
+
+    @Override
+    public Mark get(int row, int column) {
+        int index = row * size + column;
+
+        if (testBit(crosses, index)) {
+            return Mark.CROSS;
+        }
+        if (testBit(circles, index)) {
+            return Mark.CIRCLE;
+        }
+        return Mark.INITIAL;
+    }
+
+    @Override
+    public void set(int row, int column, Mark mark) {
+        setBit(bitsFor(mark), row * size + column);
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    private long[] bitsFor(Mark mark) {
+        isTrue(mark == Mark.CROSS || mark == Mark.CIRCLE, "Only a CROSS or CIRCLE can be placed on the board.");
+        return mark == Mark.CROSS ? crosses : circles;
+    }
+
+    private static int wordsFor(int bits) {
+        return (bits + WORD_BITS - 1) / WORD_BITS;
+    }
+
+    private static boolean testBit(long[] bits, int index) {
+        return (bits[index / WORD_BITS] & (1L << index)) != 0;
+    }
+
+    private static void setBit(long[] bits, int index) {
+        bits[index / WORD_BITS] |= 1L << index;
+    }
+}
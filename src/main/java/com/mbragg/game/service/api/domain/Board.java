@@ -5,10 +5,8 @@ import org.slf4j.LoggerFactory;
 
 import javax.persistence.*;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 import java.util.Objects;
-import java.util.stream.Stream;
 
 import static org.springframework.util.Assert.isTrue;
 
@@ -18,25 +16,74 @@ import static org.springframework.util.Assert.isTrue;
 @Entity
 public class Board {
 
+    /**
+     * Boards larger than this only store their occupied cells.
+     */
+    public static final int SPARSE_BOARD_SIZE = 64;
+
     private static Logger logger = LoggerFactory.getLogger(Board.class);
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "board_sequence")
+    @SequenceGenerator(name = "board_sequence", sequenceName = "board_sequence",
+            allocationSize = Game.ID_ALLOCATION_SIZE)
     private Long id;
 
-    @OneToMany(cascade = CascadeType.ALL)
-    private List<BoardRow> rows = new ArrayList<>();
-
     private int size;
 
+    /**
+     * The number of marks in an unbroken row, column or diagonal needed to win.
+     */
+    private int winLength;
+
+    private BoardMode mode;
+
+    /**
+     * The cells of the board packed into a single column, see {@link PackedCells} and {@link SparseCells}.
+     */
+    @Lob
+    @Column(nullable = false)
+    private byte[] cells;
+
+    @Version
+    private Long version;
+
+    @Transient
+    private CellStore store;
+
+    @Transient
+    private LineCounters lineCounters;
+
+    @Transient
+    private boolean won;
+
+    @Transient
+    private PositionKey positionKey;
+
     public Board() {
         // Required no-args constructor
     }
 
     public Board(int size) {
+        this(size, size);
+    }
+
+    public Board(int size, int winLength) {
         isTrue(size >= 3, "The minimum board size is 3.");
+        isTrue(winLength >= 3 && winLength <= size, "The win length must be between 3 and the board size.");
         this.size = size;
-        initiate();
+        this.winLength = winLength;
+
+        if (size > SPARSE_BOARD_SIZE) {
+            this.mode = BoardMode.SPARSE;
+            this.cells = SparseCells.create();
+        } else {
+            this.mode = BoardMode.DENSE;
+            this.cells = PackedCells.create(size * size);
+        }
+
+        logger.debug("{} board of size: {} with win length: {} initialized with: '{}'",
+                mode, size, winLength, Mark.INITIAL.getName());
     }
 
     /**
@@ -45,27 +92,114 @@ public class Board {
      * @return A Character[][] representation of the game board.
      */
     public Character[][] to2dArray() {
-        return this.getRows().stream()
-                .map(BoardRow::getCharacters)
-                .map(row -> row.toArray(new Character[0]))
-                .toArray(Character[][]::new);
+        ensureLoaded();
+        Character[][] characters = new Character[size][size];
+
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                characters[i][j] = store.get(i, j).getName();
+            }
+        }
+
+        return characters;
+    }
+
+    /**
+     * Copies the cells in the form they are persisted in, see {@link PackedCells} and {@link SparseCells}. A sparse
+     * board copies only its occupied cells, so the copy grows with the moves played rather than the area of the board.
+     *
+     * @return A copy of the cells, unaffected by later moves.
+     */
+    public byte[] copyCells() {
+        return isSparse() ? SparseCells.copy(cells) : cells.clone();
     }
 
     /**
-     * Performing a 'Move' on the board. Updates a given row/col coordinate with the given 'Mark'
+     * Visits every occupied cell without visiting the empty ones, so a sparse board is visited in time proportional to
+     * the moves played. The cells of a sparse board are visited in the order they were played.
+     *
+     * @param visitor Called with the row, column and Mark of each occupied cell.
+     */
+    public void forEachMark(MarkVisitor visitor) {
+        if (isSparse()) {
+            for (int i = 0; i < SparseCells.count(cells); i++) {
+                visitor.visit(SparseCells.row(cells, i), SparseCells.column(cells, i), SparseCells.mark(cells, i));
+            }
+            return;
+        }
+
+        for (int i = 0; i < size * size; i++) {
+            Mark mark = PackedCells.get(cells, i);
+            if (mark != Mark.INITIAL) {
+                visitor.visit(i / size, i % size, mark);
+            }
+        }
+    }
+
+    /**
+     * Finds the Mark placed at a given row/col coordinate.
+     *
+     * @param row    The row number to look up.
+     * @param column The column number to look up.
+     * @return The Mark at the coordinate, or Mark.INITIAL if the cell is empty.
+     */
+    public Mark getMark(int row, int column) {
+        ensureLoaded();
+        return store.get(row, column);
+    }
+
+    /**
+     * Performing a 'Move' on the board. Updates a given row/col coordinate with the given 'Mark'. Only the lines
+     * passing through the coordinate are re-evaluated, so the outcome is known without rescanning the board.
      *
      * @param row    The row number where to add the mark to.
      * @param column The column number where to add the mark to.
      * @param mark   The Mark to place at the specific row/col coordinate.
+     * @return The outcome of the move: a win, a draw, or continue playing.
      */
-    public void addMove(int row, int column, Mark mark) {
+    public MoveOutcome addMove(int row, int column, Mark mark) {
         isTrue(row >= 0 && row < size, "Row must be within the bound's of the board.");
         isTrue(column >= 0 && column < size, "Column must be within the bound's of the board.");
-        isTrue(boardPositionIsEmpty(getCharacterAt(row, column)), "Row/Column position must be empty.");
+
+        ensureLoaded();
+        isTrue(store.get(row, column) == Mark.INITIAL, "Row/Column position must be empty.");
 
         logger.debug("Adding mark {} to row: {} / column: {}", mark, row, column);
 
-        rows.get(row).getCharacters().set(column, mark.getName());
+        if (isSparse()) {
+            cells = SparseCells.append(cells, row, column, mark);
+        } else {
+            PackedCells.set(cells, row * size + column, mark);
+        }
+
+        if (place(row, column, mark)) {
+            won = true;
+            return MoveOutcome.WIN;
+        }
+
+        return lineCounters.isFull() ? MoveOutcome.DRAW : MoveOutcome.CONTINUE;
+    }
+
+    /**
+     * Takes back the most recent move, for when the rest of a move could not be completed. Only the cells are changed,
+     * the line counters and position hashes are rebuilt from them on next use.
+     *
+     * @param row    The row number of the most recent move.
+     * @param column The column number of the most recent move.
+     */
+    public void takeBack(int row, int column) {
+        isTrue(getMark(row, column) != Mark.INITIAL, "Row/Column position must not be empty.");
+
+        if (isSparse()) {
+            int last = SparseCells.count(cells) - 1;
+            isTrue(SparseCells.row(cells, last) == row && SparseCells.column(cells, last) == column,
+                    "Only the most recent move can be taken back.");
+            SparseCells.removeLast(cells);
+        } else {
+            PackedCells.set(cells, row * size + column, Mark.INITIAL);
+        }
+
+        store = null;
     }
 
     /**
@@ -74,15 +208,8 @@ public class Board {
      * @return boolean representing if the board is full (true) or not (false).
      */
     public boolean isBoardFull() {
-        boolean boardFull = true;
-
-        for (int i = 0; i < size; i++) {
-            for (int j = 0; j < size; j++) {
-                if (Mark.INITIAL.getName().equals(getCharacterAt(i, j))) {
-                    boardFull = false;
-                }
-            }
-        }
+        ensureLoaded();
+        boolean boardFull = lineCounters.isFull();
 
         logger.debug("Is board full: {}", boardFull);
 
@@ -90,90 +217,122 @@ public class Board {
     }
 
     /**
-     * Checks the board if there is a 'win', i.e. All of the marks in a row, col or diagonal are of the same type.
-     *
-     * @return boolean representing if a win is found (true) or not (false).
+     * @return The number of marks placed on the board.
      */
-    public boolean checkBoardForWin() {
-        return (checkColumnsForWin() || checkRowsForWin() || checkDiagonalsForWin());
+    public int getFilled() {
+        ensureLoaded();
+        return lineCounters.getFilled();
     }
 
-    private void addRow(BoardRow boardRow) {
-        this.rows.add(boardRow);
+    /**
+     * @return The position hashes of the board, kept up to date as moves are added.
+     */
+    public PositionKey getPositionKey() {
+        ensureLoaded();
+        return positionKey;
     }
 
-    private void initiate() {
-
-        for (int i = 0; i < size; i++) {
-            BoardRow boardRow = new BoardRow();
-            List<Character> characters = new ArrayList<>();
+    /**
+     * Checks the board if there is a 'win', i.e. 'win length' marks of the same type in an unbroken row, col or
+     * diagonal.
+     *
+     * @return boolean representing if a win is found (true) or not (false).
+     */
+    public boolean checkBoardForWin() {
+        ensureLoaded();
+        return won;
+    }
 
-            for (int j = 0; j < size; j++) {
-                characters.add(Mark.INITIAL.getName());
-            }
+    /**
+     * Places a mark on the in-memory board and checks whether it completes a winning line. When the whole row, column
+     * or diagonal is needed the line counters answer in constant time, otherwise only the cells within 'win length' of
+     * the move are scanned in each of the four directions.
+     *
+     * @return true if the mark completes a winning line.
+     */
+    private boolean place(int row, int column, Mark mark) {
+        store.set(row, column, mark);
+        positionKey.place(row, column, mark);
+        boolean line = lineCounters.record(row, column, mark);
 
-            boardRow.setCharacters(characters);
-            this.addRow(boardRow);
+        if (winLength == size) {
+            return line;
         }
 
-        logger.debug("Board of size: {} initialized with: '{}'", size, Mark.INITIAL.getName());
-    }
-
-    private static boolean boardPositionIsEmpty(Character character) {
-        return character.equals(Mark.INITIAL.getName());
-    }
-
-    private Character getCharacterAt(int row, int column) {
-        return rows.get(row).getCharacters().get(column);
+        return countLine(row, column, mark, 0, 1) >= winLength
+                || countLine(row, column, mark, 1, 0) >= winLength
+                || countLine(row, column, mark, 1, 1) >= winLength
+                || countLine(row, column, mark, 1, -1) >= winLength;
     }
 
-    private boolean checkRowsForWin() {
-        return rows.stream()
-                .map(row -> checkCharactersForWin(row.getCharacters().toArray(new Character[0])))
-                .anyMatch(rowCheckResult -> rowCheckResult.equals(true));
+    private int countLine(int row, int column, Mark mark, int rowStep, int columnStep) {
+        return 1 + countDirection(row, column, mark, rowStep, columnStep)
+                + countDirection(row, column, mark, -rowStep, -columnStep);
     }
 
-    private boolean checkColumnsForWin() {
-        Character[] characters = new Character[size];
+    private int countDirection(int row, int column, Mark mark, int rowStep, int columnStep) {
+        int count = 0;
+        int i = row + rowStep;
+        int j = column + columnStep;
 
-        for (int i = 0; i < size; i++) {
-            for (int j = 0; j < size; j++) {
-                characters[j] = getCharacterAt(j, i);
-            }
-
-            if (checkCharactersForWin(characters)) {
-                return true;
-            }
+        while (count < winLength - 1 && i >= 0 && i < size && j >= 0 && j < size && store.get(i, j) == mark) {
+            count++;
+            i += rowStep;
+            j += columnStep;
         }
 
-        return false;
+        return count;
     }
 
-    private boolean checkDiagonalsForWin() {
-        Character[] characters = new Character[size];
-
-        for (int i = 0; i < size; i++) {
-            characters[i] = getCharacterAt(i, i);
+    /**
+     * The cell store and line counters are not persisted, so they are built from the packed cells on first use.
+     */
+    private void ensureLoaded() {
+        if (store != null) {
+            return;
         }
 
-        if (checkCharactersForWin(characters)) {
-            return true;
-        }
+        lineCounters = new LineCounters(size);
+        positionKey = new PositionKey(size, winLength);
+        won = false;
 
-        int y = size - 1;
-        for (int i = 0; i < size; i++) {
-            characters[i] = getCharacterAt(i, y);
-            y--;
-        }
+        if (isSparse()) {
+            store = new SparseBoard();
 
-        return checkCharactersForWin(characters);
+            for (int i = 0; i < SparseCells.count(cells); i++) {
+                if (place(SparseCells.row(cells, i), SparseCells.column(cells, i), SparseCells.mark(cells, i))) {
+                    won = true;
+                }
+            }
+        } else {
+            store = new BitBoard(size);
+
+            for (int i = 0; i < size; i++) {
+                for (int j = 0; j < size; j++) {
+                    Mark mark = PackedCells.get(cells, i * size + j);
+                    if (mark != Mark.INITIAL && place(i, j, mark)) {
+                        won = true;
+                    }
+                }
+            }
+        }
     }
 
-    private boolean checkCharactersForWin(Character[] characters) {
-        isTrue(characters.length > 0, "Character sequence length must be greater than zero.");
-        Character firstCharacter = characters[0];
+    /**
+     * A sparse board keeps room to add cells without copying them, which is trimmed off before the board is saved so
+     * the column grows with the moves played. Games in play are written from {@link #copyCells()}, which is trimmed
+     * too.
+     */
+    @PrePersist
+    @PreUpdate
+    void trimCells() {
+        if (isSparse()) {
+            cells = SparseCells.trim(cells);
+        }
+    }
 
-        return !Mark.INITIAL.getName().equals(firstCharacter) && Stream.of(characters).allMatch(firstCharacter::equals);
+    private boolean isSparse() {
+        return mode == BoardMode.SPARSE;
     }
 
     public Long getId() {
@@ -184,6 +343,14 @@ public class Board {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public int getSize() {
         return size;
     }
@@ -192,13 +359,31 @@ public class Board {
         this.size = size;
     }
 
+    public int getWinLength() {
+        return winLength;
+    }
+
+    public void setWinLength(int winLength) {
+        this.winLength = winLength;
+        this.store = null;
+    }
+
+    public BoardMode getMode() {
+        return mode;
+    }
 
-    public List<BoardRow> getRows() {
-        return rows;
+    public void setMode(BoardMode mode) {
+        this.mode = mode;
+        this.store = null;
     }
 
-    public void setRows(List<BoardRow> rows) {
-        this.rows = rows;
+    public byte[] getCells() {
+        return cells;
+    }
+
+    public void setCells(byte[] cells) {
+        this.cells = cells;
+        this.store = null;
     }
 
     @Override
@@ -211,21 +396,33 @@ public class Board {
         }
         Board board = (Board) o;
         return Objects.equals(id, board.id)
-                && Objects.equals(rows, board.rows)
-                && Objects.equals(size, board.size);
+                && Arrays.equals(cells, board.cells)
+                && Objects.equals(size, board.size)
+                && Objects.equals(winLength, board.winLength)
+                && Objects.equals(mode, board.mode);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(id, rows, size);
+        return Objects.hash(id, Arrays.hashCode(cells), size, winLength, mode);
     }
 
     @Override
     public String toString() {
         return "Board{" +
                 "id=" + id +
-                ", rows=" + rows +
+                ", cells=" + Arrays.toString(cells) +
                 ", size=" + size +
+                ", winLength=" + winLength +
+                ", mode=" + mode +
                 '}';
     }
+
+    /**
+     * Receives the occupied cells of a Board, see {@link #forEachMark(MarkVisitor)}.
+     */
+    public interface MarkVisitor {
+
+        void visit(int row, int column, Mark mark);
+    }
 }
@@ -0,0 +1,15 @@
+package com.mbragg.game.service.api.domain;
+
+/**
+ * How the cells of a Board are held in memory and persisted.
+ */
+public enum BoardMode {
+    /**
+     * Every cell is stored, see {@link BitBoard} and {@link PackedCells}.
+     */
+    DENSE,
+    /**
+     * Only occupied cells are stored, see {@link SparseBoard} and {@link SparseCells}.
+     */
+    SPARSE
+}
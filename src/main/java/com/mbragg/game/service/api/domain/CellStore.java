@@ -0,0 +1,25 @@
+package com.mbragg.game.service.api.domain;
+
+/**
+ * In-memory storage for the cells of a Board.
+ */
+public interface CellStore {
+
+    /**
+     * Finds the Mark placed at a given row/col coordinate.
+     *
+     * @param row    The row number to look up.
+     * @param column The column number to look up.
+     * @return The Mark at the coordinate, or Mark.INITIAL if the cell is empty.
+     */
+    Mark get(int row, int column);
+
+    /**
+     * Places a Mark at a given row/col coordinate. The coordinate is expected to be empty.
+     *
+     * @param row    The row number where to add the mark to.
+     * @param column The column number where to add the mark to.
+     * @param mark   The Mark to place, either CROSS or CIRCLE.
+     */
+    void set(int row, int column, Mark mark);
+}
@@ -7,10 +7,18 @@ import java.util.Objects;
  * Represents a Game, composed of a Board and Players
  */
 @Entity
+@Table(indexes = @Index(name = "game_status", columnList = "status"))
 public class Game {
 
+    /**
+     * Ids of games, boards and players are taken from their sequences this many at a time, so saving a batch of new
+     * games does not go back to the database for every id and the inserts can be batched.
+     */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "game_sequence")
+    @SequenceGenerator(name = "game_sequence", sequenceName = "game_sequence", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @OneToOne(cascade = CascadeType.ALL)
@@ -24,6 +32,14 @@ public class Game {
 
     private GameStatus status;
 
+    /**
+     * The number of moves played, so that every move changes the game row and its version.
+     */
+    private int moveCount;
+
+    @Version
+    private Long version;
+
     public Long getId() {
         return id;
     }
@@ -68,6 +84,22 @@ public class Game {
         this.status = status;
     }
 
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    public void setMoveCount(int moveCount) {
+        this.moveCount = moveCount;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -81,12 +113,13 @@ public class Game {
                 && Objects.equals(board, game.board)
                 && Objects.equals(playerOne, game.playerOne)
                 && Objects.equals(playerTwo, game.playerTwo)
-                && Objects.equals(status, game.status);
+                && Objects.equals(status, game.status)
+                && moveCount == game.moveCount;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(id, board, playerOne, playerTwo, status);
+        return Objects.hash(id, board, playerOne, playerTwo, status, moveCount);
     }
 
     @Override
@@ -97,6 +130,8 @@ public class Game {
                 ", playerOne=" + playerOne +
                 ", playerTwo=" + playerTwo +
                 ", status=" + status +
+                ", moveCount=" + moveCount +
+                ", version=" + version +
                 '}';
     }
 }
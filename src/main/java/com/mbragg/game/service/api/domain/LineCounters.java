@@ -0,0 +1,78 @@
+package com.mbragg.game.service.api.domain;
+
+import static org.springframework.util.Assert.isTrue;
+
+/**
+ * Keeps a count of the marks placed in every row, column and main diagonal of a Board, for each 'Mark', along with
+ * the number of filled cells. Recording a move only touches the lines that pass through it, so a win or a full board
+ * is detected in constant time.
+ */
+public class LineCounters {
+
+    private final int size;
+
+    private final int[] rows;
+
+    private final int[] columns;
+
+    private final int[] diagonals;
+
+    private final int[] antiDiagonals;
+
+    private int filled;
+
+    public LineCounters(int size) {
+        isTrue(size > 0, "Line counters size must be greater than zero.");
+        this.size = size;
+        this.rows = new int[size * 2];
+        this.columns = new int[size * 2];
+        this.diagonals = new int[2];
+        this.antiDiagonals = new int[2];
+    }
+
+    /**
+     * Records a Mark placed at a given row/col coordinate.
+     *
+     * @param row    The row number the mark was added to.
+     * @param column The column number the mark was added to.
+     * @param mark   The Mark placed, either CROSS or CIRCLE.
+     * @return true if the mark completes its row, column or a main diagonal.
+     */
+    public boolean record(int row, int column, Mark mark) {
+        int offset = offsetFor(mark);
+        boolean line = false;
+
+        filled++;
+
+        if (++rows[offset * size + row] == size) {
+            line = true;
+        }
+        if (++columns[offset * size + column] == size) {
+            line = true;
+        }
+        if (row == column && ++diagonals[offset] == size) {
+            line = true;
+        }
+        if (row + column == size - 1 && ++antiDiagonals[offset] == size) {
+            line = true;
+        }
+
+        return line;
+    }
+
+    /**
+     * @return true if every cell of the board has been filled.
+     */
+    public boolean isFull() {
+        return filled == size * size;
+    }
+
+    public int getFilled() {
+        return filled;
+    }
+
+    private static int offsetFor(Mark mark) {
+        isTrue(mark == Mark.CROSS || mark == Mark.CIRCLE, "Only a CROSS or CIRCLE can be placed on the board.");
+        return mark == Mark.CROSS ? 0 : 1;
+    }
+}
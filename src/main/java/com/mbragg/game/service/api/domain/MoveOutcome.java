@@ -0,0 +1,10 @@
+package com.mbragg.game.service.api.domain;
+
+/**
+ * The result of placing a Mark on a Board.
+ */
+public enum MoveOutcome {
+    WIN,
+    DRAW,
+    CONTINUE
+}
@@ -0,0 +1,120 @@
+package com.mbragg.game.service.api.domain;
+
+/**
+ * Converts the cells of a Board to and from a packed form of 2 bits per cell in row-major order, so that a whole
+ * board is persisted as a single column and a move only changes the bits of one cell.
+ */
+public final class PackedCells {
+
+    private static final int BITS_PER_CELL = 2;
+
+    private static final int CELLS_PER_BYTE = 8 / BITS_PER_CELL;
+
+    private static final int CELL_MASK = 0b11;
+
+    private static final int EMPTY = 0;
+
+    private static final int CROSS = 1;
+
+    private static final int CIRCLE = 2;
+
+    private PackedCells() {
+        // Static helpers only
+    }
+
+    /**
+     * Creates the packed form of an empty board.
+     *
+     * @param cellCount The number of cells on the board.
+     * @return A byte array large enough to hold every cell, with every cell empty.
+     */
+    public static byte[] create(int cellCount) {
+        return new byte[(cellCount + CELLS_PER_BYTE - 1) / CELLS_PER_BYTE];
+    }
+
+    /**
+     * Reads the Mark of a single cell.
+     *
+     * @param cells The packed cells.
+     * @param index The row-major index of the cell.
+     * @return The Mark held in the cell, or Mark.INITIAL if the cell is empty.
+     */
+    public static Mark get(byte[] cells, int index) {
+        int value = (cells[index / CELLS_PER_BYTE] >> shiftFor(index)) & CELL_MASK;
+
+        switch (value) {
+            case CROSS:
+                return Mark.CROSS;
+            case CIRCLE:
+                return Mark.CIRCLE;
+            default:
+                return Mark.INITIAL;
+        }
+    }
+
+    /**
+     * Writes the Mark of a single cell.
+     *
+     * @param cells The packed cells.
+     * @param index The row-major index of the cell.
+     * @param mark  The Mark to write to the cell.
+     */
+    public static void set(byte[] cells, int index, Mark mark) {
+        int shift = shiftFor(index);
+        int value = valueFor(mark);
+        int current = cells[index / CELLS_PER_BYTE] & ~(CELL_MASK << shift);
+
+        cells[index / CELLS_PER_BYTE] = (byte) (current | (value << shift));
+    }
+
+    /**
+     * Writes the cells as one character per cell in row-major order, using the name of each 'Mark'.
+     *
+     * @param cells     The packed cells.
+     * @param cellCount The number of cells on the board.
+     * @return A String such as "X-O------" for a board of 9 cells.
+     */
+    public static String toCellString(byte[] cells, int cellCount) {
+        StringBuilder builder = new StringBuilder(cellCount);
+
+        for (int i = 0; i < cellCount; i++) {
+            builder.append(get(cells, i).getName().charValue());
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * Expands the cells into a two-dimensional array of 'Mark' names.
+     *
+     * @param cells The packed cells.
+     * @param size  The number of rows and columns on the board.
+     * @return A Character[][] representation of the board.
+     */
+    public static Character[][] toArray(byte[] cells, int size) {
+        Character[][] characters = new Character[size][size];
+
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                characters[i][j] = get(cells, i * size + j).getName();
+            }
+        }
+
+        return characters;
+    }
+
+    private static int shiftFor(int index) {
+        return (index % CELLS_PER_BYTE) * BITS_PER_CELL;
+    }
+
+    private static int valueFor(Mark mark) {
+        switch (mark) {
+            case CROSS:
+                return CROSS;
+            case CIRCLE:
+                return CIRCLE;
+            default:
+                return EMPTY;
+        }
+    }
+}
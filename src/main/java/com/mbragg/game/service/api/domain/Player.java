@@ -8,13 +8,20 @@ import java.util.Objects;
  * at the same time as different Players.
  */
 @Entity
+@Table(indexes = @Index(name = "player_user", columnList = "user_id"))
 public class Player {
 
     @Id
-    @GeneratedValue(strategy= GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "player_sequence")
+    @SequenceGenerator(name = "player_sequence", sequenceName = "player_sequence",
+            allocationSize = Game.ID_ALLOCATION_SIZE)
     private Long id;
 
-    @ManyToOne(cascade = {CascadeType.PERSIST, CascadeType.MERGE, CascadeType.REFRESH})
+    /**
+     * Users are saved on their own before they play, so a player only references its user, which may be a cached
+     * instance from outside the current persistence context.
+     */
+    @ManyToOne
     private User user;
 
     private Mark mark;
@@ -23,6 +30,8 @@ public class Player {
 
     private boolean turn;
 
+    private PlayerType type = PlayerType.HUMAN;
+
     public Player() {
         // Required no-args constructor
     }
@@ -76,6 +85,30 @@ public class Player {
         this.turn = turn;
     }
 
+    public PlayerType getType() {
+        return type;
+    }
+
+    public void setType(PlayerType type) {
+        this.type = type;
+    }
+
+    public boolean isComputer() {
+        return type == PlayerType.COMPUTER;
+    }
+
+    /**
+     * @return A copy of the player, unaffected by later moves.
+     */
+    public Player copy() {
+        Player copy = new Player(user, mark);
+        copy.id = id;
+        copy.status = status;
+        copy.turn = turn;
+        copy.type = type;
+        return copy;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -89,12 +122,13 @@ public class Player {
                 && Objects.equals(user, player.user)
                 && Objects.equals(mark, player.mark)
                 && Objects.equals(status, player.status)
-                && Objects.equals(turn, player.turn);
+                && Objects.equals(turn, player.turn)
+                && Objects.equals(type, player.type);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(id, user, mark, status, turn);
+        return Objects.hash(id, user, mark, status, turn, type);
     }
 
     @Override
@@ -105,6 +139,7 @@ public class Player {
                 ", mark=" + mark +
                 ", status=" + status +
                 ", turn=" + turn +
+                ", type=" + type +
                 '}';
     }
 }
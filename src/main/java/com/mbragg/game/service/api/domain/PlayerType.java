@@ -0,0 +1,9 @@
+package com.mbragg.game.service.api.domain;
+
+/**
+ * Who makes the moves for a Player.
+ */
+public enum PlayerType {
+    HUMAN,
+    COMPUTER
+}
@@ -0,0 +1,59 @@
+package com.mbragg.game.service.api.domain;
+
+/**
+ * Zobrist hashes of a position under each of the 8 symmetries of the board, updated in place as marks are placed.
+ * Symmetric positions share the same set of 8 hashes, so the lowest of them identifies the position regardless of
+ * how it is rotated or reflected.
+ */
+public class PositionKey {
+
+    private final int size;
+
+    private final long[] keys = new long[Symmetry.COUNT];
+
+    public PositionKey(int size, int winLength) {
+        this.size = size;
+
+        long rulesKey = Zobrist.rulesKey(size, winLength);
+        for (int symmetry = 0; symmetry < Symmetry.COUNT; symmetry++) {
+            keys[symmetry] = rulesKey;
+        }
+    }
+
+    public void place(int row, int column, Mark mark) {
+        for (int symmetry = 0; symmetry < Symmetry.COUNT; symmetry++) {
+            keys[symmetry] ^= Zobrist.key(Symmetry.map(symmetry, row, column, size), mark);
+        }
+    }
+
+    /**
+     * @return The hash of the position as it is, the same hash the search engines use.
+     */
+    public long getKey() {
+        return keys[0];
+    }
+
+    /**
+     * @return The hash shared by the position and all of its rotations and reflections.
+     */
+    public long getCanonicalKey() {
+        return keys[getCanonicalSymmetry()];
+    }
+
+    /**
+     * @return The symmetry taking the position to its canonical form, the lowest numbered one if several do.
+     */
+    public int getCanonicalSymmetry() {
+        int canonical = 0;
+        for (int symmetry = 1; symmetry < Symmetry.COUNT; symmetry++) {
+            if (keys[symmetry] < keys[canonical]) {
+                canonical = symmetry;
+            }
+        }
+        return canonical;
+    }
+
+    public int getSize() {
+        return size;
+    }
+}
@@ -0,0 +1,117 @@
+package com.mbragg.game.service.api.domain;
+
+import java.util.Arrays;
+
+import static org.springframework.util.Assert.isTrue;
+
+/**
+ * Primitive representation of the cells on a very large Board. Only occupied cells are held, in an open-addressing
+ * map from the packed (row, col) coordinate to the placed 'Mark', so memory grows with the number of moves played
+ * rather than with the area of the board.
+ */
+public class SparseBoard implements CellStore {
+
+    private static final long EMPTY_KEY = -1L;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private static final byte CROSS = 1;
+
+    private static final byte CIRCLE = 2;
+
+    private long[] keys;
+
+    private byte[] values;
+
+    private int count;
+
+    public SparseBoard() {
+        this.keys = newKeys(INITIAL_CAPACITY);
+        this.values = new byte[INITIAL_CAPACITY];
+    }
+
+    @Override
+    public Mark get(int row, int column) {
+        int slot = slotFor(keys, pack(row, column));
+
+        switch (values[slot]) {
+            case CROSS:
+                return Mark.CROSS;
+            case CIRCLE:
+                return Mark.CIRCLE;
+            default:
+                return Mark.INITIAL;
+        }
+    }
+
+    @Override
+    public void set(int row, int column, Mark mark) {
+        isTrue(mark == Mark.CROSS || mark == Mark.CIRCLE, "Only a CROSS or CIRCLE can be placed on the board.");
+
+        long key = pack(row, column);
+        int slot = slotFor(keys, key);
+
+        if (keys[slot] == EMPTY_KEY) {
+            keys[slot] = key;
+            count++;
+        }
+        values[slot] = mark == Mark.CROSS ? CROSS : CIRCLE;
+
+        // Keep the load factor at or below a half so probe sequences stay short
+        if (count * 2 > keys.length) {
+            grow();
+        }
+    }
+
+    /**
+     * @return The number of occupied cells.
+     */
+    public int getCount() {
+        return count;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        byte[] oldValues = values;
+
+        keys = newKeys(oldKeys.length * 2);
+        values = new byte[oldKeys.length * 2];
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY_KEY) {
+                int slot = slotFor(keys, oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    /**
+     * Linear probe for the slot holding the key, or the empty slot where it belongs.
+     */
+    private static int slotFor(long[] keys, long key) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+
+        while (keys[slot] != EMPTY_KEY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+
+        return slot;
+    }
+
+    private static long[] newKeys(int capacity) {
+        long[] keys = new long[capacity];
+        Arrays.fill(keys, EMPTY_KEY);
+        return keys;
+    }
+
+    private static long pack(int row, int column) {
+        return ((long) row << 32) | (column & 0xFFFFFFFFL);
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
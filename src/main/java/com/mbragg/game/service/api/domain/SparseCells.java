@@ -0,0 +1,126 @@
+package com.mbragg.game.service.api.domain;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Converts the occupied cells of a sparse Board to and from the single column it is persisted in. The column starts
+ * with the number of occupied cells, followed by an entry of the row, column and 'Mark' of each, appended in the order
+ * the moves were played. Room for further entries is kept after the last one, so that appending a move does not copy
+ * the entries already played.
+ */
+public final class SparseCells {
+
+    private static final int COUNT_BYTES = Integer.BYTES;
+
+    private static final int ENTRY_BYTES = Integer.BYTES + Integer.BYTES + 1;
+
+    private static final int INITIAL_ENTRIES = 8;
+
+    private static final byte CROSS = 1;
+
+    private static final byte CIRCLE = 2;
+
+    private SparseCells() {
+        // Static helpers only
+    }
+
+    /**
+     * @return The packed form of an empty board.
+     */
+    public static byte[] create() {
+        return new byte[COUNT_BYTES];
+    }
+
+    /**
+     * Appends an occupied cell, doubling the room for entries when it is used up.
+     *
+     * @param cells  The packed cells.
+     * @param row    The row number of the cell.
+     * @param column The column number of the cell.
+     * @param mark   The Mark placed in the cell.
+     * @return The packed cells holding the existing entries followed by the new one, which is a new byte array only
+     * when the existing one had no room left.
+     */
+    public static byte[] append(byte[] cells, int row, int column, Mark mark) {
+        int count = count(cells);
+        int offset = COUNT_BYTES + count * ENTRY_BYTES;
+
+        byte[] appended = cells;
+        if (offset + ENTRY_BYTES > cells.length) {
+            appended = Arrays.copyOf(cells, COUNT_BYTES + Math.max(INITIAL_ENTRIES, count * 2) * ENTRY_BYTES);
+        }
+
+        ByteBuffer.wrap(appended)
+                .putInt(0, count + 1)
+                .putInt(offset, row)
+                .putInt(offset + Integer.BYTES, column)
+                .put(offset + Integer.BYTES + Integer.BYTES, mark == Mark.CROSS ? CROSS : CIRCLE);
+
+        return appended;
+    }
+
+    /**
+     * Removes the most recently appended cell, keeping the room it took for the next entry.
+     *
+     * @param cells The packed cells, changed in place.
+     */
+    public static void removeLast(byte[] cells) {
+        ByteBuffer.wrap(cells).putInt(0, count(cells) - 1);
+    }
+
+    /**
+     * @param cells The packed cells.
+     * @return A copy of the occupied cells without the room kept for further entries.
+     */
+    public static byte[] copy(byte[] cells) {
+        return Arrays.copyOf(cells, COUNT_BYTES + count(cells) * ENTRY_BYTES);
+    }
+
+    /**
+     * @param cells The packed cells.
+     * @return The occupied cells without the room kept for further entries, the same array if there is none.
+     */
+    public static byte[] trim(byte[] cells) {
+        int length = COUNT_BYTES + count(cells) * ENTRY_BYTES;
+        return cells.length == length ? cells : Arrays.copyOf(cells, length);
+    }
+
+    /**
+     * @param cells The packed cells.
+     * @return The number of occupied cells.
+     */
+    public static int count(byte[] cells) {
+        return ByteBuffer.wrap(cells).getInt(0);
+    }
+
+    public static int row(byte[] cells, int entry) {
+        return ByteBuffer.wrap(cells).getInt(COUNT_BYTES + entry * ENTRY_BYTES);
+    }
+
+    public static int column(byte[] cells, int entry) {
+        return ByteBuffer.wrap(cells).getInt(COUNT_BYTES + entry * ENTRY_BYTES + Integer.BYTES);
+    }
+
+    public static Mark mark(byte[] cells, int entry) {
+        return cells[COUNT_BYTES + entry * ENTRY_BYTES + Integer.BYTES + Integer.BYTES] == CROSS
+                ? Mark.CROSS : Mark.CIRCLE;
+    }
+
+    /**
+     * Expands the occupied cells into the packed form of 2 bits per cell, see {@link PackedCells}.
+     *
+     * @param cells The packed cells.
+     * @param size  The number of rows and columns on the board.
+     * @return The cells of the whole board at 2 bits per cell.
+     */
+    public static byte[] toPackedCells(byte[] cells, int size) {
+        byte[] packed = PackedCells.create(size * size);
+
+        for (int i = 0; i < count(cells); i++) {
+            PackedCells.set(packed, row(cells, i) * size + column(cells, i), mark(cells, i));
+        }
+
+        return packed;
+    }
+}
@@ -0,0 +1,87 @@
+package com.mbragg.game.service.api.domain;
+
+/**
+ * The 8 symmetries of a square board: the four rotations, and the four reflections through the horizontal, vertical
+ * and two diagonal axes. Each symmetry is a permutation mapping a row-major cell index to the index the cell moves to.
+ */
+public final class Symmetry {
+
+    public static final int COUNT = 8;
+
+    private Symmetry() {
+        // Static helpers only
+    }
+
+    /**
+     * @param size The size of the board.
+     * @return The cell permutations of the 8 symmetries, indexed [symmetry][cell]. Symmetry 0 is the identity.
+     */
+    public static int[][] permutations(int size) {
+        int[][] permutations = new int[COUNT][size * size];
+
+        for (int symmetry = 0; symmetry < COUNT; symmetry++) {
+            for (int row = 0; row < size; row++) {
+                for (int column = 0; column < size; column++) {
+                    permutations[symmetry][row * size + column] = (int) map(symmetry, row, column, size);
+                }
+            }
+        }
+
+        return permutations;
+    }
+
+    /**
+     * Maps a single cell without building the permutation tables, for boards too large to tabulate.
+     *
+     * @return The row-major index the cell moves to under the symmetry.
+     */
+    public static long map(int symmetry, int row, int column, int size) {
+        long last = size - 1;
+
+        switch (symmetry) {
+            case 0:
+                return (long) row * size + column;
+            case 1:
+                return (long) column * size + (last - row);
+            case 2:
+                return (last - row) * size + (last - column);
+            case 3:
+                return (last - column) * size + row;
+            case 4:
+                return (long) row * size + (last - column);
+            case 5:
+                return (last - row) * size + column;
+            case 6:
+                return (long) column * size + row;
+            case 7:
+                return (last - column) * size + (last - row);
+            default:
+                throw new IllegalArgumentException("Symmetry must be between 0 and 7.");
+        }
+    }
+
+    /**
+     * @return The symmetry that undoes the given one. The two quarter turns undo each other, every other symmetry
+     * undoes itself.
+     */
+    public static int inverse(int symmetry) {
+        return symmetry == 1 ? 3 : symmetry == 3 ? 1 : symmetry;
+    }
+
+    /**
+     * @param permutations Cell permutations, indexed [symmetry][cell].
+     * @return The permutations that undo each symmetry, indexed [symmetry][cell].
+     */
+    public static int[][] inverses(int[][] permutations) {
+        int[][] inverses = new int[permutations.length][];
+
+        for (int i = 0; i < permutations.length; i++) {
+            inverses[i] = new int[permutations[i].length];
+            for (int cell = 0; cell < permutations[i].length; cell++) {
+                inverses[i][permutations[i][cell]] = cell;
+            }
+        }
+
+        return inverses;
+    }
+}
@@ -0,0 +1,46 @@
+package com.mbragg.game.service.api.domain;
+
+/**
+ * Zobrist keys for hashing positions. Keys are derived from the cell index and player rather than looked up in a
+ * table, so any board size can be hashed without allocating per-size key tables.
+ */
+public final class Zobrist {
+
+    private static final long SEED = 0x2545F4914F6CDD1DL;
+
+    private Zobrist() {
+        // Static helpers only
+    }
+
+    /**
+     * @param cell   The row-major index of a cell.
+     * @param player The player occupying the cell, 1 for a CROSS and 2 for a CIRCLE.
+     * @return The key to xor into a position hash when the player occupies the cell.
+     */
+    public static long key(long cell, int player) {
+        return mix(SEED + (cell << 1) + player);
+    }
+
+    /**
+     * @return The key to xor into a position hash when the Mark occupies the cell.
+     */
+    public static long key(long cell, Mark mark) {
+        return key(cell, mark == Mark.CROSS ? 1 : 2);
+    }
+
+    /**
+     * @return A key identifying the board dimensions and rules, so positions from different games never collide.
+     */
+    public static long rulesKey(int size, int winLength) {
+        return mix(~SEED ^ ((long) size << 32) ^ winLength);
+    }
+
+    /**
+     * SplitMix64 finalizer.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,88 @@
+package com.mbragg.game.service.api.dto;
+
+import org.springframework.http.MediaType;
+
+import java.util.List;
+
+import static org.springframework.util.Assert.isTrue;
+
+/**
+ * The representations a Game's board can be sent in. ARRAY is the default nested array of cells, while STRING and
+ * PACKED are compact forms for larger boards. SPARSE only sends the occupied cells, so its size does not grow with
+ * the area of the board.
+ */
+public enum BoardFormat {
+
+    /**
+     * A two-dimensional array holding the name of the 'Mark' in each cell.
+     */
+    ARRAY("array", MediaType.APPLICATION_JSON),
+
+    /**
+     * A single String with the name of the 'Mark' in each cell, in row-major order.
+     */
+    STRING("string", MediaType.valueOf(BoardFormat.BOARD_STRING_VALUE)),
+
+    /**
+     * Base64 of the cells packed at 2 bits per cell in row-major order: 0 empty, 1 cross and 2 circle, with the first
+     * cell in the lowest bits of each byte.
+     */
+    PACKED("packed", MediaType.valueOf(BoardFormat.BOARD_PACKED_VALUE)),
+
+    /**
+     * A list of the occupied cells, each with its row, column and the name of its 'Mark'.
+     */
+    SPARSE("sparse", MediaType.valueOf(BoardFormat.BOARD_SPARSE_VALUE));
+
+    public static final String BOARD_STRING_VALUE = "application/vnd.game.board-string+json";
+
+    public static final String BOARD_PACKED_VALUE = "application/vnd.game.board-packed+json";
+
+    public static final String BOARD_SPARSE_VALUE = "application/vnd.game.board-sparse+json";
+
+    private final String value;
+
+    private final MediaType mediaType;
+
+    BoardFormat(String value, MediaType mediaType) {
+        this.value = value;
+        this.mediaType = mediaType;
+    }
+
+    /**
+     * Resolves the requested format, with the query parameter taking precedence over the 'Accept' header.
+     *
+     * @param value      The value of the query parameter, or null if not given.
+     * @param mediaTypes The media types from the 'Accept' header.
+     * @return The requested format, or ARRAY if neither asks for a compact board.
+     */
+    public static BoardFormat resolve(String value, List<MediaType> mediaTypes) {
+        if (value != null) {
+            for (BoardFormat format : values()) {
+                if (format.value.equalsIgnoreCase(value)) {
+                    return format;
+                }
+            }
+            isTrue(false, "Board format must be one of: array, string, packed, sparse.");
+        }
+
+        for (MediaType mediaType : mediaTypes) {
+            if (STRING.matches(mediaType)) {
+                return STRING;
+            }
+            if (PACKED.matches(mediaType)) {
+                return PACKED;
+            }
+            if (SPARSE.matches(mediaType)) {
+                return SPARSE;
+            }
+        }
+
+        return ARRAY;
+    }
+
+    private boolean matches(MediaType other) {
+        return mediaType.getType().equalsIgnoreCase(other.getType())
+                && mediaType.getSubtype().equalsIgnoreCase(other.getSubtype());
+    }
+}
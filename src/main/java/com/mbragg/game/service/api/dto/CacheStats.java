@@ -0,0 +1,66 @@
+package com.mbragg.game.service.api.dto;
+
+/**
+ * Usage of one of the caches
+ */
+public class CacheStats {
+
+    private int size;
+
+    private int capacity;
+
+    private long hits;
+
+    private long misses;
+
+    public CacheStats() {
+        // Required no-args constructor
+    }
+
+    public CacheStats(int size, int capacity, long hits, long misses) {
+        this.size = size;
+        this.capacity = capacity;
+        this.hits = hits;
+        this.misses = misses;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public void setHits(long hits) {
+        this.hits = hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public void setMisses(long misses) {
+        this.misses = misses;
+    }
+
+    /**
+     * @return The fraction of lookups answered by the cache, 0 before any lookups.
+     */
+    public double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+}
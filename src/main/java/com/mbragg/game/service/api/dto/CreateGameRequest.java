@@ -1,5 +1,7 @@
 package com.mbragg.game.service.api.dto;
 
+import com.mbragg.game.service.api.domain.PlayerType;
+
 import java.util.List;
 
 /**
@@ -11,6 +13,16 @@ public class CreateGameRequest {
 
     private int boardSize;
 
+    /**
+     * The number of marks in a row needed to win. Defaults to the board size when not set.
+     */
+    private int winLength;
+
+    /**
+     * Who plays against the first user. Defaults to a second human user when not set.
+     */
+    private PlayerType opponentType;
+
     public List<Long> getUserIds() {
         return userIds;
     }
@@ -26,4 +38,20 @@ public class CreateGameRequest {
     public void setBoardSize(int boardSize) {
         this.boardSize = boardSize;
     }
+
+    public int getWinLength() {
+        return winLength;
+    }
+
+    public void setWinLength(int winLength) {
+        this.winLength = winLength;
+    }
+
+    public PlayerType getOpponentType() {
+        return opponentType;
+    }
+
+    public void setOpponentType(PlayerType opponentType) {
+        this.opponentType = opponentType;
+    }
 }
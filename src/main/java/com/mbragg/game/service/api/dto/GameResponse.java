@@ -1,9 +1,16 @@
 package com.mbragg.game.service.api.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.mbragg.game.service.api.domain.BoardMode;
 import com.mbragg.game.service.api.domain.GameStatus;
+import com.mbragg.game.service.api.domain.Mark;
+import com.mbragg.game.service.api.domain.PackedCells;
 import com.mbragg.game.service.api.domain.Player;
+import com.mbragg.game.service.api.domain.SparseCells;
 
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
 
 /**
@@ -15,18 +22,39 @@ public class GameResponse {
 
     private Character[][] board;
 
+    private int winLength;
+
     private List<Player> players = new ArrayList<>();
 
     private GameStatus gameStatus;
 
+    private Long version;
+
+    /**
+     * The cells of the board as the Board holds them, see {@link PackedCells} and {@link SparseCells}, from which each
+     * board format is produced only once the response is sent.
+     */
+    private byte[] packedCells;
+
+    private int boardSize;
+
+    private BoardMode boardMode = BoardMode.DENSE;
+
+    private BoardFormat boardFormat = BoardFormat.ARRAY;
+
     public GameResponse() {
     }
 
     private GameResponse(Builder builder) {
         setGameId(builder.gameId);
         setBoard(builder.board);
+        packedCells = builder.packedCells;
+        boardSize = builder.boardSize;
+        boardMode = builder.boardMode;
+        setWinLength(builder.winLength);
         setPlayers(builder.players);
         setGameStatus(builder.gameStatus);
+        setVersion(builder.version);
     }
 
     public static Builder newBuilder() {
@@ -41,7 +69,17 @@ public class GameResponse {
         this.gameId = gameId;
     }
 
+    /**
+     * @return The board as a two-dimensional array, or null if the board is sent in a compact format.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     public Character[][] getBoard() {
+        if (boardFormat != BoardFormat.ARRAY) {
+            return null;
+        }
+        if (board == null && packedCells != null) {
+            return PackedCells.toArray(densePackedCells(), boardSize);
+        }
         return board;
     }
 
@@ -49,6 +87,14 @@ public class GameResponse {
         this.board = board;
     }
 
+    public int getWinLength() {
+        return winLength;
+    }
+
+    public void setWinLength(int winLength) {
+        this.winLength = winLength;
+    }
+
     public List<Player> getPlayers() {
         return players;
     }
@@ -65,16 +111,126 @@ public class GameResponse {
         this.gameStatus = gameStatus;
     }
 
+    /**
+     * @return The version of the game, to send back with the next move so that stale moves are rejected.
+     */
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    /**
+     * @return The number of rows and columns on the board, sent alongside a compact board so that it can be decoded.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public Integer getBoardSize() {
+        return boardFormat == BoardFormat.ARRAY ? null : boardSize;
+    }
+
+    /**
+     * @return The board as one character per cell in row-major order, when requested in the STRING format.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public String getCells() {
+        if (boardFormat != BoardFormat.STRING || packedCells == null) {
+            return null;
+        }
+        return PackedCells.toCellString(densePackedCells(), boardSize * boardSize);
+    }
+
+    /**
+     * @return Base64 of the board at 2 bits per cell in row-major order, when requested in the PACKED format.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public String getPackedCells() {
+        if (boardFormat != BoardFormat.PACKED || packedCells == null) {
+            return null;
+        }
+        return Base64.getEncoder().encodeToString(densePackedCells());
+    }
+
+    /**
+     * @return The occupied cells of the board, when requested in the SPARSE format.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public List<PlacedCell> getOccupiedCells() {
+        if (boardFormat != BoardFormat.SPARSE || packedCells == null) {
+            return null;
+        }
+
+        List<PlacedCell> occupied = new ArrayList<>();
+        if (boardMode == BoardMode.SPARSE) {
+            for (int i = 0; i < SparseCells.count(packedCells); i++) {
+                occupied.add(new PlacedCell(SparseCells.row(packedCells, i), SparseCells.column(packedCells, i),
+                        SparseCells.mark(packedCells, i).getName(), null));
+            }
+        } else {
+            for (int i = 0; i < boardSize * boardSize; i++) {
+                Mark mark = PackedCells.get(packedCells, i);
+                if (mark != Mark.INITIAL) {
+                    occupied.add(new PlacedCell(i / boardSize, i % boardSize, mark.getName(), null));
+                }
+            }
+        }
+        return occupied;
+    }
+
+    @JsonIgnore
+    public BoardFormat getBoardFormat() {
+        return boardFormat;
+    }
+
+    /**
+     * Responses may be shared, e.g. once a Game is complete, so a copy is made rather than changing the format in
+     * place.
+     *
+     * @param format The format to send the board in.
+     * @return This response if already in the format, otherwise a copy sending the board in the format.
+     */
+    public GameResponse withBoardFormat(BoardFormat format) {
+        if (format == boardFormat) {
+            return this;
+        }
+
+        GameResponse copy = new GameResponse();
+        copy.setGameId(gameId);
+        copy.setBoard(board);
+        copy.setWinLength(winLength);
+        copy.setPlayers(players);
+        copy.setGameStatus(gameStatus);
+        copy.setVersion(version);
+        copy.packedCells = packedCells;
+        copy.boardSize = boardSize;
+        copy.boardMode = boardMode;
+        copy.boardFormat = format;
+        return copy;
+    }
+
     public void addPlayer(Player player) {
         players.add(player);
     }
 
+    /**
+     * Sparse boards are only expanded to every cell for the formats that send every cell.
+     */
+    private byte[] densePackedCells() {
+        return boardMode == BoardMode.SPARSE ? SparseCells.toPackedCells(packedCells, boardSize) : packedCells;
+    }
+
 
     public static final class Builder {
         private Long gameId;
         private Character[][] board;
+        private byte[] packedCells;
+        private int boardSize;
+        private BoardMode boardMode = BoardMode.DENSE;
+        private int winLength;
         private List<Player> players;
         private GameStatus gameStatus;
+        private Long version;
 
         private Builder() {
         }
@@ -89,6 +245,32 @@ public class GameResponse {
             return this;
         }
 
+        /**
+         * @param cells The packed cells of the board, which must not change once the response is built.
+         * @param size  The number of rows and columns on the board.
+         */
+        public Builder withPackedCells(byte[] cells, int size) {
+            return withCells(cells, size, BoardMode.DENSE);
+        }
+
+        /**
+         * @param cells The cells of the board as the Board holds them, which must not change once the response is
+         *              built.
+         * @param size  The number of rows and columns on the board.
+         * @param mode  How the cells are held.
+         */
+        public Builder withCells(byte[] cells, int size, BoardMode mode) {
+            packedCells = cells;
+            boardSize = size;
+            boardMode = mode;
+            return this;
+        }
+
+        public Builder withWinLength(int val) {
+            winLength = val;
+            return this;
+        }
+
         public Builder withPlayers(List<Player> val) {
             players = val;
             return this;
@@ -99,6 +281,11 @@ public class GameResponse {
             return this;
         }
 
+        public Builder withVersion(Long val) {
+            version = val;
+            return this;
+        }
+
         public GameResponse build() {
             return new GameResponse(this);
         }
@@ -2,6 +2,7 @@ package com.mbragg.game.service.api.dto;
 
 import com.mbragg.game.service.api.domain.GameStatus;
 
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -15,6 +16,20 @@ public class GameSummary {
 
     private GameStatus gameStatus;
 
+    public GameSummary() {
+        // Required no-args constructor
+    }
+
+    /**
+     * Projection of a game row and the users of its players, see {@link
+     * com.mbragg.game.service.api.dl.GameRepository#findSummaries}. Computer players have no user id.
+     */
+    public GameSummary(Long gameId, GameStatus gameStatus, Long userOneId, Long userTwoId) {
+        this.gameId = gameId;
+        this.gameStatus = gameStatus;
+        this.userIds = Arrays.asList(userOneId, userTwoId);
+    }
+
     public Long getGameId() {
         return gameId;
     }
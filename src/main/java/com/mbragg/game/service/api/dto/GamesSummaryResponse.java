@@ -4,12 +4,20 @@ import java.util.ArrayList;
 import java.util.List;
 
 /**
- * Collection of Game summaries
+ * A page of Game summaries
  */
 public class GamesSummaryResponse {
 
     private List<GameSummary> games = new ArrayList<>();
 
+    private int page;
+
+    private int size;
+
+    private long totalGames;
+
+    private int totalPages;
+
     public List<GameSummary> getGames() {
         return games;
     }
@@ -21,4 +29,39 @@ public class GamesSummaryResponse {
     public void setGames(List<GameSummary> games) {
         this.games = games;
     }
+
+    public int getPage() {
+        return page;
+    }
+
+    public void setPage(int page) {
+        this.page = page;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    /**
+     * @return The number of games matching the filters, across all pages.
+     */
+    public long getTotalGames() {
+        return totalGames;
+    }
+
+    public void setTotalGames(long totalGames) {
+        this.totalGames = totalGames;
+    }
+
+    public int getTotalPages() {
+        return totalPages;
+    }
+
+    public void setTotalPages(int totalPages) {
+        this.totalPages = totalPages;
+    }
 }
@@ -0,0 +1,62 @@
+package com.mbragg.game.service.api.dto;
+
+import com.mbragg.game.service.api.engine.Outcome;
+
+/**
+ * The suggested next move for the player whose turn it is in a Game.
+ */
+public class HintResponse {
+
+    private Long gameId;
+
+    private Long playerId;
+
+    private int row;
+
+    private int column;
+
+    private Outcome outcome;
+
+    public Long getGameId() {
+        return gameId;
+    }
+
+    public void setGameId(Long gameId) {
+        this.gameId = gameId;
+    }
+
+    public Long getPlayerId() {
+        return playerId;
+    }
+
+    public void setPlayerId(Long playerId) {
+        this.playerId = playerId;
+    }
+
+    public int getRow() {
+        return row;
+    }
+
+    public void setRow(int row) {
+        this.row = row;
+    }
+
+    public int getColumn() {
+        return column;
+    }
+
+    public void setColumn(int column) {
+        this.column = column;
+    }
+
+    /**
+     * @return The outcome the player can force by following the hint, or null if the position has not been solved.
+     */
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    public void setOutcome(Outcome outcome) {
+        this.outcome = outcome;
+    }
+}
@@ -0,0 +1,79 @@
+package com.mbragg.game.service.api.dto;
+
+import com.mbragg.game.service.api.domain.GameStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The change a move made to a Game, for clients that keep their own copy of the board. The cells are applied in
+ * order, and a client that finds the version is not one more than it last saw should fetch the whole game instead.
+ */
+public class MoveDelta {
+
+    public static final String MOVE_DELTA_VALUE = "application/vnd.game.move-delta+json";
+
+    private Long gameId;
+
+    private List<PlacedCell> cells = new ArrayList<>();
+
+    private Long playerTurn;
+
+    private GameStatus gameStatus;
+
+    private Long version;
+
+    public Long getGameId() {
+        return gameId;
+    }
+
+    public void setGameId(Long gameId) {
+        this.gameId = gameId;
+    }
+
+    /**
+     * @return The cells filled by the move, followed by the computer's reply if it played one.
+     */
+    public List<PlacedCell> getCells() {
+        return cells;
+    }
+
+    public void setCells(List<PlacedCell> cells) {
+        this.cells = cells;
+    }
+
+    /**
+     * @return The id of the player whose turn it now is, or null once the game is complete.
+     */
+    public Long getPlayerTurn() {
+        return playerTurn;
+    }
+
+    public void setPlayerTurn(Long playerTurn) {
+        this.playerTurn = playerTurn;
+    }
+
+    public GameStatus getGameStatus() {
+        return gameStatus;
+    }
+
+    public void setGameStatus(GameStatus gameStatus) {
+        this.gameStatus = gameStatus;
+    }
+
+    /**
+     * @return The version of the game after the move. It goes up by one for each delta rather than for each cell,
+     *         so a move answered by the computer player is one version holding both cells.
+     */
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public void addCell(PlacedCell cell) {
+        cells.add(cell);
+    }
+}
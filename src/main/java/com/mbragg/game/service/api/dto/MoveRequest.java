@@ -13,6 +13,8 @@ public class MoveRequest {
 
     private int column;
 
+    private Long expectedVersion;
+
     public Long getPlayerId() {
         return playerId;
     }
@@ -44,4 +46,15 @@ public class MoveRequest {
     public void setColumn(int column) {
         this.column = column;
     }
+
+    /**
+     * @return The game version the move was made against, or null to skip the check.
+     */
+    public Long getExpectedVersion() {
+        return expectedVersion;
+    }
+
+    public void setExpectedVersion(Long expectedVersion) {
+        this.expectedVersion = expectedVersion;
+    }
 }
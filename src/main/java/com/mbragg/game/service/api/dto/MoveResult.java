@@ -0,0 +1,80 @@
+package com.mbragg.game.service.api.dto;
+
+/**
+ * The result of one move in a batch of moves. Successful moves carry the game as it was left by the move, rejected
+ * moves carry the reason, and the current game when the move conflicted with it.
+ */
+public class MoveResult {
+
+    private int index;
+
+    private Long gameId;
+
+    private boolean success;
+
+    private String error;
+
+    private GameResponse game;
+
+    public static MoveResult success(int index, GameResponse game) {
+        MoveResult moveResult = new MoveResult();
+        moveResult.setIndex(index);
+        moveResult.setGameId(game.getGameId());
+        moveResult.setSuccess(true);
+        moveResult.setGame(game);
+        return moveResult;
+    }
+
+    public static MoveResult failure(int index, Long gameId, String error, GameResponse currentGame) {
+        MoveResult moveResult = new MoveResult();
+        moveResult.setIndex(index);
+        moveResult.setGameId(gameId);
+        moveResult.setSuccess(false);
+        moveResult.setError(error);
+        moveResult.setGame(currentGame);
+        return moveResult;
+    }
+
+    /**
+     * @return The position of the move in the submitted batch.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public Long getGameId() {
+        return gameId;
+    }
+
+    public void setGameId(Long gameId) {
+        this.gameId = gameId;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public void setSuccess(boolean success) {
+        this.success = success;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public GameResponse getGame() {
+        return game;
+    }
+
+    public void setGame(GameResponse game) {
+        this.game = game;
+    }
+}
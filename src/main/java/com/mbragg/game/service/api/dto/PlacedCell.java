@@ -0,0 +1,60 @@
+package com.mbragg.game.service.api.dto;
+
+/**
+ * A single cell filled by a move, as sent in a MoveDelta.
+ */
+public class PlacedCell {
+
+    private int row;
+
+    private int column;
+
+    private Character mark;
+
+    private Long playerId;
+
+    public PlacedCell() {
+    }
+
+    public PlacedCell(int row, int column, Character mark, Long playerId) {
+        this.row = row;
+        this.column = column;
+        this.mark = mark;
+        this.playerId = playerId;
+    }
+
+    public int getRow() {
+        return row;
+    }
+
+    public void setRow(int row) {
+        this.row = row;
+    }
+
+    public int getColumn() {
+        return column;
+    }
+
+    public void setColumn(int column) {
+        this.column = column;
+    }
+
+    /**
+     * @return The name of the 'Mark' placed in the cell, as used on the board.
+     */
+    public Character getMark() {
+        return mark;
+    }
+
+    public void setMark(Character mark) {
+        this.mark = mark;
+    }
+
+    public Long getPlayerId() {
+        return playerId;
+    }
+
+    public void setPlayerId(Long playerId) {
+        this.playerId = playerId;
+    }
+}
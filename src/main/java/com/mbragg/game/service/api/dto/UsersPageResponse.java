@@ -0,0 +1,35 @@
+package com.mbragg.game.service.api.dto;
+
+import com.mbragg.game.service.api.domain.User;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A page of Users in id order
+ */
+public class UsersPageResponse {
+
+    private List<User> users = new ArrayList<>();
+
+    private Long nextAfter;
+
+    public List<User> getUsers() {
+        return users;
+    }
+
+    public void setUsers(List<User> users) {
+        this.users = users;
+    }
+
+    /**
+     * @return The id to request the next page after, or null if this is the last page.
+     */
+    public Long getNextAfter() {
+        return nextAfter;
+    }
+
+    public void setNextAfter(Long nextAfter) {
+        this.nextAfter = nextAfter;
+    }
+}
@@ -0,0 +1,61 @@
+package com.mbragg.game.service.api.engine;
+
+import com.mbragg.game.service.api.domain.Symmetry;
+
+/**
+ * A position keyed so that it shares its key with all of its rotations and reflections. Moves stored against the key
+ * are kept in canonical coordinates and mapped back onto the board they are used on.
+ */
+public final class CanonicalPosition {
+
+    private final long key;
+
+    private final int symmetry;
+
+    private final int size;
+
+    public CanonicalPosition(long key, int symmetry, int size) {
+        this.key = key;
+        this.symmetry = symmetry;
+        this.size = size;
+    }
+
+    public long getKey() {
+        return key;
+    }
+
+    /**
+     * @return The symmetry taking the board to its canonical form.
+     */
+    public int getSymmetry() {
+        return symmetry;
+    }
+
+    /**
+     * @return The move on the canonical board matching a move on this board.
+     */
+    public Move toCanonical(Move move) {
+        return map(symmetry, move);
+    }
+
+    /**
+     * @return The move on this board matching a move on the canonical board.
+     */
+    public Move fromCanonical(Move move) {
+        return map(Symmetry.inverse(symmetry), move);
+    }
+
+    private Move map(int applied, Move move) {
+        long cell = Symmetry.map(applied, move.getRow(), move.getColumn(), size);
+        return new Move((int) (cell / size), (int) (cell % size));
+    }
+
+    @Override
+    public String toString() {
+        return "CanonicalPosition{" +
+                "key=" + Long.toHexString(key) +
+                ", symmetry=" + symmetry +
+                ", size=" + size +
+                '}';
+    }
+}
@@ -0,0 +1,35 @@
+package com.mbragg.game.service.api.engine;
+
+/**
+ * The move chosen for a position, with the outcome it leads to when that is known.
+ */
+public final class Evaluation {
+
+    private final Move move;
+
+    private final Outcome outcome;
+
+    public Evaluation(Move move, Outcome outcome) {
+        this.move = move;
+        this.outcome = outcome;
+    }
+
+    public Move getMove() {
+        return move;
+    }
+
+    /**
+     * @return The outcome of the position under perfect play, or null if the position was not solved.
+     */
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    @Override
+    public String toString() {
+        return "Evaluation{" +
+                "move=" + move +
+                ", outcome=" + outcome +
+                '}';
+    }
+}
@@ -0,0 +1,91 @@
+package com.mbragg.game.service.api.engine;
+
+import com.mbragg.game.service.api.domain.Board;
+import com.mbragg.game.service.api.domain.Mark;
+
+import java.util.SplittableRandom;
+
+/**
+ * MoveEngine that looks one move ahead: it completes a line when it can, otherwise blocks the opponent from
+ * completing one, otherwise plays a random empty cell next to a mark already on the board. Not thread safe, each
+ * thread needs its own engine.
+ */
+public class GreedyEngine implements MoveEngine {
+
+    private final SplittableRandom random;
+
+    public GreedyEngine(long seed) {
+        this.random = new SplittableRandom(seed);
+    }
+
+    @Override
+    public Move selectMove(Board board, Mark mark) {
+        SearchBoard searchBoard = SearchBoard.of(board);
+        byte player = SearchBoard.playerFor(mark);
+
+        int cell = winningCell(searchBoard, player);
+        if (cell < 0) {
+            cell = winningCell(searchBoard, SearchBoard.opponent(player));
+        }
+        if (cell < 0) {
+            cell = neighbouringCell(searchBoard);
+        }
+
+        return new Move(cell / board.getSize(), cell % board.getSize());
+    }
+
+    private static int winningCell(SearchBoard board, byte player) {
+        for (int cell = 0; cell < board.getCellCount(); cell++) {
+            if (board.isEmpty(cell)) {
+                board.play(cell, player);
+                boolean win = board.isWin(cell);
+                board.undo(cell);
+
+                if (win) {
+                    return cell;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Picks uniformly among the empty cells touching a mark, using reservoir sampling so no candidate list is built.
+     * Falls back to the empty cell nearest the centre, which opens an empty board in the centre.
+     */
+    private int neighbouringCell(SearchBoard board) {
+        int chosen = -1;
+        int candidates = 0;
+
+        for (int cell = 0; cell < board.getCellCount(); cell++) {
+            if (board.isEmpty(cell) && hasNeighbour(board, cell) && random.nextInt(++candidates) == 0) {
+                chosen = cell;
+            }
+        }
+
+        if (chosen >= 0) {
+            return chosen;
+        }
+        for (int cell : board.getCentreOrder()) {
+            if (board.isEmpty(cell)) {
+                return cell;
+            }
+        }
+        throw new IllegalArgumentException("Board must have an empty position to move to.");
+    }
+
+    private static boolean hasNeighbour(SearchBoard board, int cell) {
+        int size = board.getSize();
+        int row = cell / size;
+        int column = cell % size;
+
+        for (int i = Math.max(0, row - 1); i <= Math.min(size - 1, row + 1); i++) {
+            for (int j = Math.max(0, column - 1); j <= Math.min(size - 1, column + 1); j++) {
+                if (!board.isEmpty(i * size + j)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,163 @@
+package com.mbragg.game.service.api.engine;
+
+import com.mbragg.game.service.api.domain.Board;
+import com.mbragg.game.service.api.domain.Mark;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * MoveEngine for boards too large to search exhaustively. Uses root parallelism: every worker of a dedicated
+ * fork-join pool grows its own Monte Carlo tree from the position until the time budget runs out, and the move
+ * visited most across all the trees is played. Immediate wins and blocks are played without searching.
+ *
+ * Only a window of at most {@link #MAXIMUM_SEARCH_SIZE} rows and columns around the marks is searched, see
+ * {@link SearchBoard#window(Board, int)}, so the memory and time taken before the search starts are bounded however
+ * large the board is.
+ */
+@Component
+public class MonteCarloEngine implements MoveEngine {
+
+    /**
+     * The most rows and columns searched. Dense boards are never larger, so they are always searched whole.
+     */
+    public static final int MAXIMUM_SEARCH_SIZE = Board.SPARSE_BOARD_SIZE;
+
+    private static Logger logger = LoggerFactory.getLogger(MonteCarloEngine.class);
+
+    private static final AtomicLong SEEDS = new AtomicLong(System.nanoTime());
+
+    private final ForkJoinPool pool;
+
+    private final int workers;
+
+    private final long budgetNanos;
+
+    private final ThreadLocal<MonteCarloSearch> searches;
+
+    public MonteCarloEngine(@Value("${game.engine.search-budget-millis:200}") long budgetMillis,
+                            @Value("${game.engine.monte-carlo-threads:0}") int threads,
+                            @Value("${game.engine.monte-carlo-tree-size:65536}") int treeSize) {
+        this.workers = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.pool = new ForkJoinPool(workers);
+        this.budgetNanos = TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+        this.searches = ThreadLocal.withInitial(() ->
+                new MonteCarloSearch(treeSize, SEEDS.getAndAdd(0x9E3779B97F4A7C15L)));
+    }
+
+    @Override
+    public Move selectMove(Board board, Mark mark) {
+        SearchBoard root = SearchBoard.window(board, MAXIMUM_SEARCH_SIZE);
+        byte player = SearchBoard.playerFor(mark);
+
+        if (root.isFull()) {
+            return firstEmpty(board);
+        }
+
+        int cell = findWinningCell(root, player);
+        if (cell < 0) {
+            cell = findWinningCell(root, SearchBoard.opponent(player));
+        }
+        if (cell < 0) {
+            cell = search(root, player);
+        }
+
+        return root.toMove(cell);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private int search(SearchBoard root, byte player) {
+        long start = System.nanoTime();
+        long deadline = start + budgetNanos;
+        int[] visitsByCell = new int[root.getCellCount()];
+        LongAdder playouts = new LongAdder();
+
+        List<Callable<int[]>> tasks = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) {
+            tasks.add(() -> {
+                MonteCarloSearch search = searches.get();
+                playouts.add(search.search(root.copy(), player, deadline));
+
+                int[] visits = new int[root.getCellCount()];
+                search.addRootVisits(visits);
+                return visits;
+            });
+        }
+
+        try {
+            for (Future<int[]> result : pool.invokeAll(tasks)) {
+                int[] visits = result.get();
+                for (int i = 0; i < visits.length; i++) {
+                    visitsByCell[i] += visits[i];
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while searching for a computer move.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Monte Carlo search failed.", e.getCause());
+        }
+
+        int best = -1;
+        for (int cell : root.getCentreOrder()) {
+            if (root.isEmpty(cell) && (best < 0 || visitsByCell[cell] > visitsByCell[best])) {
+                best = cell;
+            }
+        }
+
+        long elapsedNanos = System.nanoTime() - start;
+        logger.debug("Monte Carlo selected cell {} after {} playouts on {} workers ({} playouts/s)", best,
+                playouts.sum(), workers, playouts.sum() * TimeUnit.SECONDS.toNanos(1) / Math.max(1, elapsedNanos));
+
+        return best;
+    }
+
+    /**
+     * @return An empty cell that completes a line for the player, or -1 if there is none.
+     */
+    private static int findWinningCell(SearchBoard board, byte player) {
+        for (int cell = 0; cell < board.getCellCount(); cell++) {
+            if (board.isEmpty(cell)) {
+                board.play(cell, player);
+                boolean win = board.isWin(cell);
+                board.undo(cell);
+
+                if (win) {
+                    return cell;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Only reached when every cell of the window around the most recent move is taken. Each occupied cell passed over
+     * is a move already played, so the scan ends within as many cells as there are marks.
+     */
+    private static Move firstEmpty(Board board) {
+        for (int row = 0; row < board.getSize(); row++) {
+            for (int column = 0; column < board.getSize(); column++) {
+                if (board.getMark(row, column) == Mark.INITIAL) {
+                    return new Move(row, column);
+                }
+            }
+        }
+        throw new IllegalStateException("Board has no empty position to move to.");
+    }
+}
@@ -0,0 +1,348 @@
+package com.mbragg.game.service.api.engine;
+
+import static org.springframework.util.Assert.isTrue;
+
+/**
+ * A single-threaded Monte Carlo tree search using UCT selection and uniformly random playouts. The tree is held in
+ * primitive arrays of bounded capacity and, like every other working array, is reused between searches, so neither
+ * growing the tree nor running a playout allocates.
+ *
+ * Moves are only considered inside a window around the marks already placed, extended by one less than the win
+ * length on every side, which keeps playouts short on large boards.
+ */
+public class MonteCarloSearch {
+
+    private static final double EXPLORATION = Math.sqrt(2);
+
+    private static final int NONE = -1;
+
+    private static final int ROOT = 0;
+
+    private static final int DEADLINE_CHECK_INTERVAL = 8;
+
+    private static final byte UNEVALUATED = 0;
+
+    private static final byte ONGOING = 1;
+
+    private static final byte DECISIVE = 2;
+
+    private static final byte DRAWN = 3;
+
+    private final int maxNodes;
+
+    private final int[] cell;
+
+    private final int[] firstChild;
+
+    private final int[] childCount;
+
+    private final int[] visits;
+
+    /**
+     * Score of each node for the player who moved into it: 1 per win and 0.5 per draw.
+     */
+    private final float[] score;
+
+    private final byte[] mover;
+
+    private final byte[] state;
+
+    private int nodeCount;
+
+    private int[] window = new int[0];
+
+    private int windowSize;
+
+    private int rootEmpty;
+
+    private int[] path = new int[0];
+
+    private int[] empties = new int[0];
+
+    private int[] played = new int[0];
+
+    private long random;
+
+    private long playouts;
+
+    public MonteCarloSearch(int maxNodes, long seed) {
+        isTrue(maxNodes > 1, "Monte Carlo tree must have room for more than the root.");
+        this.maxNodes = maxNodes;
+        this.cell = new int[maxNodes];
+        this.firstChild = new int[maxNodes];
+        this.childCount = new int[maxNodes];
+        this.visits = new int[maxNodes];
+        this.score = new float[maxNodes];
+        this.mover = new byte[maxNodes];
+        this.state = new byte[maxNodes];
+        this.random = seed == 0 ? 1 : seed;
+    }
+
+    /**
+     * Grows a new tree from the position until the deadline. The board is played on and restored in place, and must
+     * have at least one empty cell.
+     *
+     * @param board    The position to search from.
+     * @param player   The player to move.
+     * @param deadline The System.nanoTime() to stop at. At least one batch of playouts is always run.
+     * @return The number of playouts run.
+     */
+    public long search(SearchBoard board, byte player, long deadline) {
+        prepare(board, player);
+
+        do {
+            for (int i = 0; i < DEADLINE_CHECK_INTERVAL; i++) {
+                iterate(board);
+            }
+        } while (System.nanoTime() < deadline);
+
+        return playouts;
+    }
+
+    /**
+     * Runs a fixed number of iterations instead of searching to a deadline.
+     */
+    public long search(SearchBoard board, byte player, int iterations) {
+        prepare(board, player);
+
+        for (int i = 0; i < iterations; i++) {
+            iterate(board);
+        }
+
+        return playouts;
+    }
+
+    /**
+     * Adds the visit count of each move at the root of the last search to the counts indexed by cell, so trees grown
+     * on different threads can be combined.
+     */
+    public void addRootVisits(int[] visitsByCell) {
+        int first = firstChild[ROOT];
+        for (int child = first; child < first + childCount[ROOT]; child++) {
+            visitsByCell[cell[child]] += visits[child];
+        }
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    private void prepare(SearchBoard board, byte player) {
+        isTrue(!board.isFull(), "Board must have an empty position to move to.");
+
+        int cells = board.getCellCount();
+        if (window.length < cells) {
+            window = new int[cells];
+            empties = new int[cells];
+            played = new int[cells];
+            path = new int[cells + 1];
+        }
+        prepareWindow(board);
+
+        nodeCount = 1;
+        playouts = 0;
+        cell[ROOT] = NONE;
+        firstChild[ROOT] = NONE;
+        childCount[ROOT] = 0;
+        visits[ROOT] = 0;
+        score[ROOT] = 0;
+        mover[ROOT] = SearchBoard.opponent(player);
+        state[ROOT] = ONGOING;
+
+        expand(ROOT, board);
+    }
+
+    /**
+     * Selects down the tree, expands the leaf on its second visit, plays out from it and backs up the result.
+     */
+    private void iterate(SearchBoard board) {
+        int node = ROOT;
+        int depth = 0;
+        path[depth++] = ROOT;
+        byte winner;
+
+        while (true) {
+            if (state[node] == DECISIVE) {
+                winner = mover[node];
+                break;
+            }
+            if (state[node] == DRAWN) {
+                winner = SearchBoard.EMPTY;
+                break;
+            }
+            if (firstChild[node] == NONE && (visits[node] == 0 || !expand(node, board))) {
+                winner = playout(board, SearchBoard.opponent(mover[node]));
+                break;
+            }
+
+            node = select(node);
+            board.play(cell[node], mover[node]);
+            path[depth++] = node;
+
+            if (state[node] == UNEVALUATED) {
+                // Every move in the tree is inside the window, so the depth gives the empty cells left in it
+                state[node] = board.isWin(cell[node]) ? DECISIVE : rootEmpty == depth - 1 ? DRAWN : ONGOING;
+            }
+        }
+
+        for (int i = 0; i < depth; i++) {
+            int visited = path[i];
+            visits[visited]++;
+            if (winner == SearchBoard.EMPTY) {
+                score[visited] += 0.5f;
+            } else if (winner == mover[visited]) {
+                score[visited] += 1f;
+            }
+        }
+
+        for (int i = depth - 1; i > 0; i--) {
+            board.undo(cell[path[i]]);
+        }
+    }
+
+    /**
+     * @return The child with the highest upper confidence bound, or the first child not yet visited.
+     */
+    private int select(int node) {
+        double logVisits = Math.log(visits[node]);
+        int best = NONE;
+        double bestValue = Double.NEGATIVE_INFINITY;
+
+        int first = firstChild[node];
+        for (int child = first; child < first + childCount[node]; child++) {
+            if (visits[child] == 0) {
+                return child;
+            }
+
+            double value = score[child] / visits[child] + EXPLORATION * Math.sqrt(logVisits / visits[child]);
+            if (value > bestValue) {
+                bestValue = value;
+                best = child;
+            }
+        }
+
+        return best;
+    }
+
+    /**
+     * Adds a child for every empty cell in the window, if the tree has room for them all.
+     */
+    private boolean expand(int node, SearchBoard board) {
+        int count = 0;
+        for (int i = 0; i < windowSize; i++) {
+            if (board.isEmpty(window[i])) {
+                count++;
+            }
+        }
+        if (count == 0 || nodeCount + count > maxNodes) {
+            return false;
+        }
+
+        byte childMover = SearchBoard.opponent(mover[node]);
+        firstChild[node] = nodeCount;
+        childCount[node] = count;
+
+        for (int i = 0; i < windowSize; i++) {
+            if (board.isEmpty(window[i])) {
+                int child = nodeCount++;
+                cell[child] = window[i];
+                firstChild[child] = NONE;
+                childCount[child] = 0;
+                visits[child] = 0;
+                score[child] = 0;
+                mover[child] = childMover;
+                state[child] = UNEVALUATED;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Plays random moves in the window until a player wins or the window is full, then takes them all back.
+     *
+     * @return The winning player, or EMPTY for a draw.
+     */
+    private byte playout(SearchBoard board, byte player) {
+        int count = 0;
+        for (int i = 0; i < windowSize; i++) {
+            if (board.isEmpty(window[i])) {
+                empties[count++] = window[i];
+            }
+        }
+
+        int moves = 0;
+        byte winner = SearchBoard.EMPTY;
+
+        while (count > 0) {
+            int index = nextInt(count);
+            int move = empties[index];
+            empties[index] = empties[--count];
+
+            board.play(move, player);
+            played[moves++] = move;
+
+            if (board.isWin(move)) {
+                winner = player;
+                break;
+            }
+            player = SearchBoard.opponent(player);
+        }
+
+        while (moves > 0) {
+            board.undo(played[--moves]);
+        }
+
+        playouts++;
+        return winner;
+    }
+
+    private void prepareWindow(SearchBoard board) {
+        int size = board.getSize();
+        int minRow = size;
+        int maxRow = -1;
+        int minColumn = size;
+        int maxColumn = -1;
+
+        for (int i = 0; i < board.getCellCount(); i++) {
+            if (!board.isEmpty(i)) {
+                minRow = Math.min(minRow, i / size);
+                maxRow = Math.max(maxRow, i / size);
+                minColumn = Math.min(minColumn, i % size);
+                maxColumn = Math.max(maxColumn, i % size);
+            }
+        }
+        if (maxRow < 0) {
+            minRow = maxRow = minColumn = maxColumn = (size - 1) / 2;
+        }
+
+        int margin = board.getWinLength() - 1;
+        minRow = Math.max(0, minRow - margin);
+        maxRow = Math.min(size - 1, maxRow + margin);
+        minColumn = Math.max(0, minColumn - margin);
+        maxColumn = Math.min(size - 1, maxColumn + margin);
+
+        windowSize = 0;
+        rootEmpty = 0;
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int column = minColumn; column <= maxColumn; column++) {
+                int index = row * size + column;
+                window[windowSize++] = index;
+                if (board.isEmpty(index)) {
+                    rootEmpty++;
+                }
+            }
+        }
+    }
+
+    /**
+     * xorshift64* generator, kept inline so playouts do not allocate or contend on a shared Random.
+     */
+    private int nextInt(int bound) {
+        random ^= random >>> 12;
+        random ^= random << 25;
+        random ^= random >>> 27;
+        long next = random * 0x2545F4914F6CDD1DL;
+        return (int) (((next >>> 32) * bound) >>> 32);
+    }
+}
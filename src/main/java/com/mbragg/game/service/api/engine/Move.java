@@ -0,0 +1,52 @@
+package com.mbragg.game.service.api.engine;
+
+import java.util.Objects;
+
+/**
+ * A row/col coordinate chosen by a MoveEngine.
+ */
+public final class Move {
+
+    private final int row;
+
+    private final int column;
+
+    public Move(int row, int column) {
+        this.row = row;
+        this.column = column;
+    }
+
+    public int getRow() {
+        return row;
+    }
+
+    public int getColumn() {
+        return column;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        Move move = (Move) o;
+        return row == move.row
+                && column == move.column;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(row, column);
+    }
+
+    @Override
+    public String toString() {
+        return "Move{" +
+                "row=" + row +
+                ", column=" + column +
+                '}';
+    }
+}
@@ -0,0 +1,19 @@
+package com.mbragg.game.service.api.engine;
+
+import com.mbragg.game.service.api.domain.Board;
+import com.mbragg.game.service.api.domain.Mark;
+
+/**
+ * Chooses moves on behalf of a computer player.
+ */
+public interface MoveEngine {
+
+    /**
+     * Choose the next move to play
+     *
+     * @param board The board to play on, which must have at least one empty cell
+     * @param mark  The Mark of the player to move
+     * @return The row/col coordinate to place the mark at
+     */
+    Move selectMove(Board board, Mark mark);
+}
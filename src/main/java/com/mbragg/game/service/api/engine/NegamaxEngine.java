@@ -0,0 +1,43 @@
+package com.mbragg.game.service.api.engine;
+
+import com.mbragg.game.service.api.domain.Board;
+import com.mbragg.game.service.api.domain.Mark;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MoveEngine that searches the game tree with negamax and alpha-beta pruning, sharing one bounded transposition
+ * table between searches. Small boards are searched to the end of the game, larger ones until the time budget runs
+ * out.
+ */
+@Component
+public class NegamaxEngine implements MoveEngine {
+
+    private static Logger logger = LoggerFactory.getLogger(NegamaxEngine.class);
+
+    private final TranspositionTable table;
+
+    private final long budgetNanos;
+
+    public NegamaxEngine(@Value("${game.engine.search-budget-millis:200}") long budgetMillis,
+                         @Value("${game.engine.transposition-table-size:262144}") int tableSize) {
+        this.table = new TranspositionTable(tableSize);
+        this.budgetNanos = TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+    }
+
+    @Override
+    public Move selectMove(Board board, Mark mark) {
+        SearchBoard searchBoard = SearchBoard.of(board);
+        NegamaxSearch search = new NegamaxSearch(searchBoard, table, budgetNanos);
+
+        int cell = search.bestMove(SearchBoard.playerFor(mark));
+
+        logger.debug("Negamax selected cell {} for {} after {} nodes", cell, mark, search.getNodes());
+
+        return new Move(cell / board.getSize(), cell % board.getSize());
+    }
+}
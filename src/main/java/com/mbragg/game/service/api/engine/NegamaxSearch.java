@@ -0,0 +1,196 @@
+package com.mbragg.game.service.api.engine;
+
+/**
+ * A single iterative deepening negamax search with alpha-beta pruning. Results are shared between searches through a
+ * TranspositionTable. Each deepening pass starts from the best move of the one before, and the search stops at the
+ * deadline, keeping the best move of the deepest completed pass.
+ */
+public class NegamaxSearch {
+
+    static final int WIN_SCORE = 10_000;
+
+    private static final int INFINITY = WIN_SCORE + 1;
+
+    private static final int MAX_PLY = 1_000;
+
+    private static final int DEADLINE_CHECK_INTERVAL = 1024;
+
+    private final SearchBoard board;
+
+    private final TranspositionTable table;
+
+    private final long deadline;
+
+    private long nodes;
+
+    private boolean aborted;
+
+    private int rootMove;
+
+    public NegamaxSearch(SearchBoard board, TranspositionTable table, long budgetNanos) {
+        this.board = board;
+        this.table = table;
+        this.deadline = System.nanoTime() + budgetNanos;
+    }
+
+    /**
+     * Searches for the best cell for the player to move. The board must have at least one empty cell.
+     *
+     * @param player The player to move.
+     * @return The row-major index of the best cell found.
+     */
+    public int bestMove(byte player) {
+        int bestMove = firstEmptyCell();
+        int remaining = board.getCellCount() - board.getFilled();
+
+        table.newSearch();
+
+        for (int depth = 1; depth <= remaining; depth++) {
+            rootMove = -1;
+            int score = negamax(player, depth, -INFINITY, INFINITY, 0);
+
+            if (aborted) {
+                break;
+            }
+            if (rootMove >= 0) {
+                bestMove = rootMove;
+            }
+            if (Math.abs(score) >= WIN_SCORE - MAX_PLY) {
+                // The game is solved from here, searching deeper will not change the outcome
+                break;
+            }
+        }
+
+        return bestMove;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    private int negamax(byte player, int depth, int alpha, int beta, int ply) {
+        if (++nodes % DEADLINE_CHECK_INTERVAL == 0 && System.nanoTime() > deadline) {
+            aborted = true;
+        }
+        if (aborted) {
+            return 0;
+        }
+
+        int originalAlpha = alpha;
+        long key = board.getHash() ^ player;
+        long entry = table.probe(key);
+        int tableMove = -1;
+
+        if (entry != TranspositionTable.MISS) {
+            tableMove = TranspositionTable.move(entry);
+
+            if (TranspositionTable.depth(entry) >= depth && ply > 0) {
+                int score = fromTable(TranspositionTable.score(entry), ply);
+                int flag = TranspositionTable.flag(entry);
+
+                if (flag == TranspositionTable.EXACT) {
+                    return score;
+                } else if (flag == TranspositionTable.LOWER_BOUND) {
+                    alpha = Math.max(alpha, score);
+                } else {
+                    beta = Math.min(beta, score);
+                }
+                if (alpha >= beta) {
+                    return score;
+                }
+            }
+        }
+
+        if (depth == 0) {
+            return 0;
+        }
+
+        int best = -INFINITY;
+        int bestMove = -1;
+        int[] order = board.getCentreOrder();
+
+        for (int i = -1; i < order.length; i++) {
+            int cell = i < 0 ? tableMove : order[i];
+            if (cell < 0 || !board.isEmpty(cell) || (i >= 0 && cell == tableMove)) {
+                continue;
+            }
+
+            int score = scoreMove(cell, player, depth, alpha, beta, ply);
+            if (aborted) {
+                return 0;
+            }
+
+            if (score > best) {
+                best = score;
+                bestMove = cell;
+            }
+            if (score > alpha) {
+                alpha = score;
+            }
+            if (alpha >= beta) {
+                break;
+            }
+        }
+
+        int flag = best <= originalAlpha ? TranspositionTable.UPPER_BOUND
+                : best >= beta ? TranspositionTable.LOWER_BOUND
+                : TranspositionTable.EXACT;
+        table.store(key, depth, flag, toTable(best, ply), bestMove);
+
+        if (ply == 0) {
+            rootMove = bestMove;
+        }
+
+        return best;
+    }
+
+    private int scoreMove(int cell, byte player, int depth, int alpha, int beta, int ply) {
+        board.play(cell, player);
+
+        int score;
+        if (board.isWin(cell)) {
+            // Prefer the quickest win and the slowest loss
+            score = WIN_SCORE - ply;
+        } else if (board.isFull()) {
+            score = 0;
+        } else {
+            score = -negamax(SearchBoard.opponent(player), depth - 1, -beta, -alpha, ply + 1);
+        }
+
+        board.undo(cell);
+        return score;
+    }
+
+    private int firstEmptyCell() {
+        for (int cell : board.getCentreOrder()) {
+            if (board.isEmpty(cell)) {
+                return cell;
+            }
+        }
+        throw new IllegalArgumentException("The board must have an empty cell to search.");
+    }
+
+    /**
+     * Win scores are stored relative to the position rather than the root, so they stay correct when the position is
+     * reached again at a different ply.
+     */
+    private static int toTable(int score, int ply) {
+        if (score >= WIN_SCORE - MAX_PLY) {
+            return score + ply;
+        }
+        if (score <= -WIN_SCORE + MAX_PLY) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    private static int fromTable(int score, int ply) {
+        if (score >= WIN_SCORE - MAX_PLY) {
+            return score - ply;
+        }
+        if (score <= -WIN_SCORE + MAX_PLY) {
+            return score + ply;
+        }
+        return score;
+    }
+}
@@ -0,0 +1,10 @@
+package com.mbragg.game.service.api.engine;
+
+/**
+ * The result a player to move can force with perfect play from both sides.
+ */
+public enum Outcome {
+    WIN,
+    DRAW,
+    LOSS
+}
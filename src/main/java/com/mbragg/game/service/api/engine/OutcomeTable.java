@@ -0,0 +1,189 @@
+package com.mbragg.game.service.api.engine;
+
+import com.mbragg.game.service.api.domain.Board;
+import com.mbragg.game.service.api.domain.Mark;
+import com.mbragg.game.service.api.domain.Symmetry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+import static org.springframework.util.Assert.isTrue;
+import static org.springframework.util.Assert.notNull;
+
+/**
+ * The solved outcome and best move of every legal 3x3 position, loaded at startup into a primitive array. Positions
+ * are seen from the player to move, each cell being empty (0), the mover's (1) or the opponent's (2), and indexed by
+ * reading the cells as a base 3 number. Only the canonical position of each set of symmetric positions is stored,
+ * being the one with the lowest index, so a lookup maps the position onto its canonical form and the best move back.
+ */
+@Component
+public class OutcomeTable implements MoveEngine {
+
+    public static final int SIZE = 3;
+
+    static final String RESOURCE = "engine/outcomes-3x3.bin";
+
+    static final int CELLS = SIZE * SIZE;
+
+    static final int POSITIONS = 19_683;
+
+    static final int NO_MOVE = 0xF;
+
+    static final int EMPTY = 0;
+
+    static final int MOVER = 1;
+
+    static final int OPPONENT = 2;
+
+    private static final int MAGIC = 0x54545433;
+
+    private static final int[][] SYMMETRIES = Symmetry.permutations(SIZE);
+
+    private static final int[][] INVERSES = Symmetry.inverses(SYMMETRIES);
+
+    private static final int[] POWERS = {1, 3, 9, 27, 81, 243, 729, 2187, 6561};
+
+    private static Logger logger = LoggerFactory.getLogger(OutcomeTable.class);
+
+    private final byte[] entries;
+
+    public OutcomeTable() {
+        this(load());
+    }
+
+    OutcomeTable(byte[] entries) {
+        isTrue(entries.length == POSITIONS, "Outcome table must hold an entry for every 3x3 position.");
+        this.entries = entries;
+    }
+
+    /**
+     * Looks up the outcome and best move for the player to move.
+     *
+     * @param board A 3x3 board.
+     * @param mark  The Mark of the player to move.
+     * @return The evaluation of the position, or null if the position can not be reached in a legal game.
+     */
+    public Evaluation evaluate(Board board, Mark mark) {
+        isTrue(board.getSize() == SIZE, "The outcome table only holds 3x3 positions.");
+
+        int[] cells = new int[CELLS];
+        for (int cell = 0; cell < CELLS; cell++) {
+            Mark placed = board.getMark(cell / SIZE, cell % SIZE);
+            cells[cell] = placed == Mark.INITIAL ? EMPTY : placed == mark ? MOVER : OPPONENT;
+        }
+
+        int symmetry = canonicalSymmetry(cells);
+        int entry = entries[index(cells, SYMMETRIES[symmetry])];
+        if (entry == 0) {
+            return null;
+        }
+
+        int move = entry & NO_MOVE;
+        Move best = move == NO_MOVE ? null
+                : new Move(INVERSES[symmetry][move] / SIZE, INVERSES[symmetry][move] % SIZE);
+
+        return new Evaluation(best, outcomeOf(entry));
+    }
+
+    @Override
+    public Move selectMove(Board board, Mark mark) {
+        Evaluation evaluation = evaluate(board, mark);
+        notNull(evaluation, "The position can not be reached in a legal game.");
+
+        return evaluation.getMove();
+    }
+
+    /**
+     * @return The symmetry mapping the position onto its canonical form.
+     */
+    static int canonicalSymmetry(int[] cells) {
+        int best = 0;
+        int lowest = Integer.MAX_VALUE;
+
+        for (int symmetry = 0; symmetry < Symmetry.COUNT; symmetry++) {
+            int index = index(cells, SYMMETRIES[symmetry]);
+            if (index < lowest) {
+                lowest = index;
+                best = symmetry;
+            }
+        }
+
+        return best;
+    }
+
+    /**
+     * @return The base 3 index of the position after moving every cell by the permutation.
+     */
+    static int index(int[] cells, int[] permutation) {
+        int index = 0;
+        for (int cell = 0; cell < CELLS; cell++) {
+            index += cells[cell] * POWERS[permutation[cell]];
+        }
+        return index;
+    }
+
+    static int entryFor(Outcome outcome, int move) {
+        return ((outcome.ordinal() + 1) << 4) | (move & NO_MOVE);
+    }
+
+    static Outcome outcomeOf(int entry) {
+        return Outcome.values()[((entry >> 4) & 0b11) - 1];
+    }
+
+    /**
+     * Writes the stored entries as a count followed by (index, entry) pairs.
+     */
+    static void write(byte[] entries, OutputStream outputStream) throws IOException {
+        DataOutputStream output = new DataOutputStream(outputStream);
+        int count = 0;
+        for (byte entry : entries) {
+            if (entry != 0) {
+                count++;
+            }
+        }
+
+        output.writeInt(MAGIC);
+        output.writeInt(count);
+        for (int index = 0; index < entries.length; index++) {
+            if (entries[index] != 0) {
+                output.writeShort(index);
+                output.writeByte(entries[index]);
+            }
+        }
+        output.flush();
+    }
+
+    static byte[] read(InputStream inputStream) throws IOException {
+        DataInputStream input = new DataInputStream(inputStream);
+        isTrue(input.readInt() == MAGIC, "Outcome table resource is not in the expected format.");
+
+        byte[] entries = new byte[POSITIONS];
+        int count = input.readInt();
+        for (int i = 0; i < count; i++) {
+            int index = input.readUnsignedShort();
+            entries[index] = input.readByte();
+        }
+
+        return entries;
+    }
+
+    private static byte[] load() {
+        try (InputStream inputStream = OutcomeTable.class.getClassLoader().getResourceAsStream(RESOURCE)) {
+            notNull(inputStream, "Outcome table resource " + RESOURCE + " is missing.");
+            byte[] entries = read(inputStream);
+
+            logger.info("Loaded 3x3 outcome table from {}", RESOURCE);
+
+            return entries;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to load outcome table " + RESOURCE, e);
+        }
+    }
+}
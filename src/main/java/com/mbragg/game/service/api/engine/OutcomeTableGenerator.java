@@ -0,0 +1,166 @@
+package com.mbragg.game.service.api.engine;
+
+import com.mbragg.game.service.api.domain.Symmetry;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Solves every legal 3x3 position and writes the canonical entries of the OutcomeTable. The generated table is
+ * shipped as the OutcomeTable resource, and only needs regenerating if the table format changes.
+ *
+ * Usage: OutcomeTableGenerator src/main/resources/engine/outcomes-3x3.bin
+ */
+public final class OutcomeTableGenerator {
+
+    private static final int[][] LINES = {
+            {0, 1, 2}, {3, 4, 5}, {6, 7, 8},
+            {0, 3, 6}, {1, 4, 7}, {2, 5, 8},
+            {0, 4, 8}, {2, 4, 6}
+    };
+
+    private static final int WIN_SCORE = 100;
+
+    private static final int UNSOLVED = Integer.MIN_VALUE;
+
+    private static final int[][] SYMMETRIES = Symmetry.permutations(OutcomeTable.SIZE);
+
+    private static final int[] IDENTITY = SYMMETRIES[0];
+
+    private final int[] scores = new int[OutcomeTable.POSITIONS];
+
+    private final int[] bestMoves = new int[OutcomeTable.POSITIONS];
+
+    private int reachable;
+
+    private OutcomeTableGenerator() {
+        Arrays.fill(scores, UNSOLVED);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            throw new IllegalArgumentException("Usage: OutcomeTableGenerator <output file>");
+        }
+
+        try (OutputStream outputStream = new FileOutputStream(args[0])) {
+            OutcomeTable.write(solve(), outputStream);
+        }
+    }
+
+    /**
+     * @return The table entries of every canonical position reachable from the empty board, indexed by position.
+     */
+    public static byte[] solve() {
+        OutcomeTableGenerator generator = new OutcomeTableGenerator();
+        generator.search(new int[OutcomeTable.CELLS]);
+
+        byte[] entries = new byte[OutcomeTable.POSITIONS];
+        int[] cells = new int[OutcomeTable.CELLS];
+
+        for (int index = 0; index < OutcomeTable.POSITIONS; index++) {
+            if (generator.scores[index] == UNSOLVED) {
+                continue;
+            }
+
+            decode(index, cells);
+            if (OutcomeTable.index(cells, SYMMETRIES[OutcomeTable.canonicalSymmetry(cells)]) != index) {
+                continue;
+            }
+
+            int score = generator.scores[index];
+            Outcome outcome = score > 0 ? Outcome.WIN : score < 0 ? Outcome.LOSS : Outcome.DRAW;
+            entries[index] = (byte) OutcomeTable.entryFor(outcome, generator.bestMoves[index]);
+        }
+
+        return entries;
+    }
+
+    /**
+     * @return The number of positions reachable from the empty board, including finished games.
+     */
+    public static int countReachable() {
+        OutcomeTableGenerator generator = new OutcomeTableGenerator();
+        generator.search(new int[OutcomeTable.CELLS]);
+        return generator.reachable;
+    }
+
+    /**
+     * Negamax over the position seen by the player to move. Wins score higher the fewer moves they take.
+     */
+    private int search(int[] cells) {
+        int index = OutcomeTable.index(cells, IDENTITY);
+        if (scores[index] != UNSOLVED) {
+            return scores[index];
+        }
+        reachable++;
+
+        int score;
+        int bestMove = OutcomeTable.NO_MOVE;
+
+        if (hasLine(cells, OutcomeTable.OPPONENT)) {
+            score = -WIN_SCORE;
+        } else if (isFull(cells)) {
+            score = 0;
+        } else {
+            score = UNSOLVED;
+
+            for (int cell = 0; cell < OutcomeTable.CELLS; cell++) {
+                if (cells[cell] != OutcomeTable.EMPTY) {
+                    continue;
+                }
+
+                int[] child = swapSides(cells);
+                child[cell] = OutcomeTable.OPPONENT;
+
+                int value = -search(child);
+                value = value > 0 ? value - 1 : value < 0 ? value + 1 : 0;
+
+                if (value > score) {
+                    score = value;
+                    bestMove = cell;
+                }
+            }
+        }
+
+        scores[index] = score;
+        bestMoves[index] = bestMove;
+        return score;
+    }
+
+    private static int[] swapSides(int[] cells) {
+        int[] swapped = new int[cells.length];
+        for (int cell = 0; cell < cells.length; cell++) {
+            swapped[cell] = cells[cell] == OutcomeTable.MOVER ? OutcomeTable.OPPONENT
+                    : cells[cell] == OutcomeTable.OPPONENT ? OutcomeTable.MOVER
+                    : OutcomeTable.EMPTY;
+        }
+        return swapped;
+    }
+
+    private static boolean hasLine(int[] cells, int side) {
+        for (int[] line : LINES) {
+            if (cells[line[0]] == side && cells[line[1]] == side && cells[line[2]] == side) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isFull(int[] cells) {
+        for (int cell : cells) {
+            if (cell == OutcomeTable.EMPTY) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void decode(int index, int[] cells) {
+        for (int cell = 0; cell < cells.length; cell++) {
+            cells[cell] = index % 3;
+            index /= 3;
+        }
+    }
+}
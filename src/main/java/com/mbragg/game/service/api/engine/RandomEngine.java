@@ -0,0 +1,34 @@
+package com.mbragg.game.service.api.engine;
+
+import com.mbragg.game.service.api.domain.Board;
+import com.mbragg.game.service.api.domain.Mark;
+
+import java.util.SplittableRandom;
+
+/**
+ * MoveEngine that plays any empty cell with equal probability. Not thread safe, each thread needs its own engine.
+ */
+public class RandomEngine implements MoveEngine {
+
+    private final SplittableRandom random;
+
+    public RandomEngine(long seed) {
+        this.random = new SplittableRandom(seed);
+    }
+
+    @Override
+    public Move selectMove(Board board, Mark mark) {
+        int size = board.getSize();
+        int empty = size * size - board.getFilled();
+
+        // Pick the n-th empty cell in row-major order
+        int target = random.nextInt(empty);
+        for (int cell = 0; cell < size * size; cell++) {
+            if (board.getMark(cell / size, cell % size) == Mark.INITIAL && target-- == 0) {
+                return new Move(cell / size, cell % size);
+            }
+        }
+
+        throw new IllegalArgumentException("Board must have an empty position to move to.");
+    }
+}
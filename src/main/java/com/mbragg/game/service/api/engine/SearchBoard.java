@@ -0,0 +1,298 @@
+package com.mbragg.game.service.api.engine;
+
+import com.mbragg.game.service.api.domain.Board;
+import com.mbragg.game.service.api.domain.Mark;
+import com.mbragg.game.service.api.domain.Zobrist;
+
+import java.util.Arrays;
+
+import static org.springframework.util.Assert.isTrue;
+
+/**
+ * Primitive board used by the search engines. Cells are a flat byte array that moves are played on and taken back
+ * from in place, with a Zobrist hash of the position maintained incrementally.
+ *
+ * A search board may cover only a square window of a larger Board, see {@link #window(Board, int)}, in which case its
+ * cells are numbered within the window and {@link #toMove(int)} maps them back onto the Board.
+ */
+public class SearchBoard {
+
+    public static final byte EMPTY = 0;
+
+    public static final byte CROSS = 1;
+
+    public static final byte CIRCLE = 2;
+
+    private final int size;
+
+    private final int winLength;
+
+    private final byte[] cells;
+
+    private final int rowOffset;
+
+    private final int columnOffset;
+
+    private final int[] centreOrder;
+
+    private int filled;
+
+    private long hash;
+
+    public SearchBoard(int size, int winLength) {
+        this(size, winLength, 0, 0);
+    }
+
+    private SearchBoard(int size, int winLength, int rowOffset, int columnOffset) {
+        isTrue(winLength > 0 && winLength <= size, "The win length must be between 1 and the board size.");
+        this.size = size;
+        this.winLength = winLength;
+        this.rowOffset = rowOffset;
+        this.columnOffset = columnOffset;
+        this.cells = new byte[size * size];
+        this.hash = Zobrist.rulesKey(size, winLength);
+        this.centreOrder = centreOrder(size);
+    }
+
+    private SearchBoard(SearchBoard other) {
+        this.size = other.size;
+        this.winLength = other.winLength;
+        this.rowOffset = other.rowOffset;
+        this.columnOffset = other.columnOffset;
+        this.cells = Arrays.copyOf(other.cells, other.cells.length);
+        this.centreOrder = other.centreOrder;
+        this.filled = other.filled;
+        this.hash = other.hash;
+    }
+
+    /**
+     * Copies the cells of a Board.
+     */
+    public static SearchBoard of(Board board) {
+        SearchBoard searchBoard = new SearchBoard(board.getSize(), board.getWinLength());
+
+        board.forEachMark((row, column, mark) -> searchBoard.play(row * board.getSize() + column, playerFor(mark)));
+
+        return searchBoard;
+    }
+
+    /**
+     * Copies the cells of a Board inside a square window, so the cost of a search does not grow with the area of the
+     * board. The window covers the occupied cells extended by one less than the win length on every side, the cells
+     * any line through them can reach, and is clipped to the board. If the occupied cells are spread too far apart to
+     * fit in the largest window, it is centred on the most recent move instead, and lines leaving the window are not
+     * seen by the search.
+     *
+     * @param board       The board to copy.
+     * @param maximumSize The most rows and columns the window may have, at least the win length of the board.
+     * @return A search board of the window, numbering its cells within the window.
+     */
+    public static SearchBoard window(Board board, int maximumSize) {
+        isTrue(board.getWinLength() <= maximumSize, "The win length must fit in the search window.");
+
+        Bounds bounds = new Bounds(board.getSize());
+        board.forEachMark(bounds);
+
+        int margin = board.getWinLength() - 1;
+        int rowExtent = bounds.maxRow - bounds.minRow + 1 + 2 * margin;
+        int columnExtent = bounds.maxColumn - bounds.minColumn + 1 + 2 * margin;
+        int windowSize = Math.min(Math.min(board.getSize(), maximumSize), Math.max(rowExtent, columnExtent));
+
+        int rowOffset = windowStart(bounds.minRow - margin, bounds.lastRow, rowExtent, windowSize, board.getSize());
+        int columnOffset = windowStart(bounds.minColumn - margin, bounds.lastColumn, columnExtent, windowSize,
+                board.getSize());
+
+        SearchBoard searchBoard = new SearchBoard(windowSize, board.getWinLength(), rowOffset, columnOffset);
+
+        board.forEachMark((row, column, mark) -> {
+            int windowRow = row - rowOffset;
+            int windowColumn = column - columnOffset;
+            if (windowRow >= 0 && windowRow < windowSize && windowColumn >= 0 && windowColumn < windowSize) {
+                searchBoard.play(windowRow * windowSize + windowColumn, playerFor(mark));
+            }
+        });
+
+        return searchBoard;
+    }
+
+    public static byte playerFor(Mark mark) {
+        isTrue(mark == Mark.CROSS || mark == Mark.CIRCLE, "Only a CROSS or CIRCLE can be played.");
+        return mark == Mark.CROSS ? CROSS : CIRCLE;
+    }
+
+    public static byte opponent(byte player) {
+        return player == CROSS ? CIRCLE : CROSS;
+    }
+
+    /**
+     * @return The move on the Board the search board was copied from matching one of its cells.
+     */
+    public Move toMove(int cell) {
+        return new Move(rowOffset + cell / size, columnOffset + cell % size);
+    }
+
+    public SearchBoard copy() {
+        return new SearchBoard(this);
+    }
+
+    public void play(int cell, byte player) {
+        cells[cell] = player;
+        filled++;
+        hash ^= Zobrist.key(cell, player);
+    }
+
+    public void undo(int cell) {
+        hash ^= Zobrist.key(cell, cells[cell]);
+        filled--;
+        cells[cell] = EMPTY;
+    }
+
+    public boolean isEmpty(int cell) {
+        return cells[cell] == EMPTY;
+    }
+
+    public byte get(int cell) {
+        return cells[cell];
+    }
+
+    public boolean isFull() {
+        return filled == cells.length;
+    }
+
+    /**
+     * Checks whether the mark at the given cell is part of an unbroken line of 'win length' marks, scanning outward
+     * from the cell only.
+     */
+    public boolean isWin(int cell) {
+        int row = cell / size;
+        int column = cell % size;
+        byte player = cells[cell];
+
+        return countLine(row, column, player, 0, 1) >= winLength
+                || countLine(row, column, player, 1, 0) >= winLength
+                || countLine(row, column, player, 1, 1) >= winLength
+                || countLine(row, column, player, 1, -1) >= winLength;
+    }
+
+    /**
+     * @return Every cell ordered from the centre of the board outwards, the order moves are usually worth trying in.
+     */
+    public int[] getCentreOrder() {
+        return centreOrder;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getWinLength() {
+        return winLength;
+    }
+
+    public int getCellCount() {
+        return cells.length;
+    }
+
+    public int getFilled() {
+        return filled;
+    }
+
+    public long getHash() {
+        return hash;
+    }
+
+    /**
+     * Orders the cells by their distance from the centre, keeping row-major order between cells at the same distance.
+     * Distances are counted in half cells so they are whole numbers, and the cells are placed by a counting sort.
+     */
+    private static int[] centreOrder(int size) {
+        int cellCount = size * size;
+        int[] starts = new int[4 * size];
+
+        for (int cell = 0; cell < cellCount; cell++) {
+            starts[centreDistance(cell, size) + 1]++;
+        }
+        for (int i = 1; i < starts.length; i++) {
+            starts[i] += starts[i - 1];
+        }
+
+        int[] order = new int[cellCount];
+        for (int cell = 0; cell < cellCount; cell++) {
+            order[starts[centreDistance(cell, size)]++] = cell;
+        }
+        return order;
+    }
+
+    private static int centreDistance(int cell, int size) {
+        return Math.abs(2 * (cell / size) - (size - 1)) + Math.abs(2 * (cell % size) - (size - 1));
+    }
+
+    /**
+     * @param first The first row or column the window should cover.
+     * @param last  The row or column of the most recent move, centred on when the extent does not fit.
+     * @return The first row or column of the window along one axis, clipped to the board.
+     */
+    private static int windowStart(int first, int last, int extent, int windowSize, int boardSize) {
+        int start = extent <= windowSize ? first - (windowSize - extent) / 2 : last - windowSize / 2;
+        return Math.max(0, Math.min(boardSize - windowSize, start));
+    }
+
+    /**
+     * The rows and columns spanned by the occupied cells of a Board, and the cell visited last.
+     */
+    private static final class Bounds implements Board.MarkVisitor {
+
+        private int minRow;
+
+        private int maxRow;
+
+        private int minColumn;
+
+        private int maxColumn;
+
+        private int lastRow;
+
+        private int lastColumn;
+
+        private boolean empty = true;
+
+        private Bounds(int size) {
+            int centre = (size - 1) / 2;
+            minRow = maxRow = minColumn = maxColumn = lastRow = lastColumn = centre;
+        }
+
+        @Override
+        public void visit(int row, int column, Mark mark) {
+            if (empty) {
+                minRow = maxRow = row;
+                minColumn = maxColumn = column;
+                empty = false;
+            }
+            minRow = Math.min(minRow, row);
+            maxRow = Math.max(maxRow, row);
+            minColumn = Math.min(minColumn, column);
+            maxColumn = Math.max(maxColumn, column);
+            lastRow = row;
+            lastColumn = column;
+        }
+    }
+
+    private int countLine(int row, int column, byte player, int rowStep, int columnStep) {
+        return 1 + countDirection(row, column, player, rowStep, columnStep)
+                + countDirection(row, column, player, -rowStep, -columnStep);
+    }
+
+    private int countDirection(int row, int column, byte player, int rowStep, int columnStep) {
+        int count = 0;
+        int i = row + rowStep;
+        int j = column + columnStep;
+
+        while (count < winLength - 1 && i >= 0 && i < size && j >= 0 && j < size && cells[i * size + j] == player) {
+            count++;
+            i += rowStep;
+            j += columnStep;
+        }
+
+        return count;
+    }
+}
@@ -0,0 +1,119 @@
+package com.mbragg.game.service.api.engine;
+
+import static org.springframework.util.Assert.isTrue;
+
+/**
+ * Fixed size table of search results keyed by Zobrist hash. Each slot is a pair of longs, with the key stored xor-ed
+ * with the data so that a slot torn by concurrent writers is detected and treated as a miss instead of needing a lock.
+ * A slot is replaced when it is empty, was written by an earlier search, or holds a result searched no deeper than
+ * the new one.
+ */
+public class TranspositionTable {
+
+    public static final int EXACT = 0;
+
+    public static final int LOWER_BOUND = 1;
+
+    public static final int UPPER_BOUND = 2;
+
+    /**
+     * Returned from {@link #probe(long)} when the table holds nothing for a key.
+     */
+    public static final long MISS = 0L;
+
+    private static final long VALID_BIT = 1L << 26;
+
+    private final long[] keys;
+
+    private final long[] data;
+
+    private final int mask;
+
+    private volatile int generation;
+
+    public TranspositionTable(int capacity) {
+        isTrue(capacity > 0, "Transposition table capacity must be greater than zero.");
+        int slots = Integer.highestOneBit(capacity);
+        this.keys = new long[slots];
+        this.data = new long[slots];
+        this.mask = slots - 1;
+    }
+
+    /**
+     * Marks the start of a new search, so that results left by earlier searches become the first to be replaced.
+     */
+    public void newSearch() {
+        generation = (generation + 1) & 0xFF;
+    }
+
+    /**
+     * @param key Zobrist hash of the position.
+     * @return The packed data stored for the position, or {@link #MISS}.
+     */
+    public long probe(long key) {
+        int slot = slotFor(key);
+        long stored = data[slot];
+
+        if ((keys[slot] ^ stored) != key || (stored & VALID_BIT) == 0) {
+            return MISS;
+        }
+        return stored;
+    }
+
+    /**
+     * Stores a search result.
+     *
+     * @param key   Zobrist hash of the position.
+     * @param depth The depth the position was searched to.
+     * @param flag  Whether the score is EXACT, a LOWER_BOUND or an UPPER_BOUND.
+     * @param score The score of the position for the player to move.
+     * @param move  The best cell found, or -1.
+     */
+    public void store(long key, int depth, int flag, int score, int move) {
+        int slot = slotFor(key);
+        long stored = data[slot];
+        boolean sameKey = (keys[slot] ^ stored) == key;
+
+        if ((stored & VALID_BIT) != 0 && !sameKey && generationOf(stored) == generation && depth(stored) > depth) {
+            return;
+        }
+
+        long packed = (score & 0xFFFFL)
+                | ((long) Math.min(depth, 0xFF) << 16)
+                | ((long) (flag & 0b11) << 24)
+                | VALID_BIT
+                | ((long) generation << 27)
+                | ((long) (move + 1) << 35);
+
+        data[slot] = packed;
+        keys[slot] = key ^ packed;
+    }
+
+    public int capacity() {
+        return keys.length;
+    }
+
+    public static int score(long data) {
+        return (short) (data & 0xFFFFL);
+    }
+
+    public static int depth(long data) {
+        return (int) ((data >>> 16) & 0xFF);
+    }
+
+    public static int flag(long data) {
+        return (int) ((data >>> 24) & 0b11);
+    }
+
+    public static int move(long data) {
+        return (int) ((data >>> 35) & 0xFFFFFFL) - 1;
+    }
+
+    private static int generationOf(long data) {
+        return (int) ((data >>> 27) & 0xFF);
+    }
+
+    private int slotFor(long key) {
+        return (int) (key ^ (key >>> 32)) & mask;
+    }
+}
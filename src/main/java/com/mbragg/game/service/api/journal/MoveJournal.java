@@ -0,0 +1,332 @@
+package com.mbragg.game.service.api.journal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.springframework.util.Assert.isTrue;
+
+/**
+ * Append-only journal of the moves played, written to memory-mapped segment files. Each move is a fixed 28 byte
+ * record:
+ *
+ * <pre>
+ *   game id (8) | player id (8) | sequence (4) | row (4) | column (4)
+ * </pre>
+ *
+ * The sequence is the game's move count once the move was played, so it starts at 1 and a zero sequence marks the
+ * end of the records in a segment. It is written last, so a record cut short by a crash is never read back.
+ *
+ * A move taken back after it was journaled is withdrawn by a record with the negated sequence and no player or cell,
+ * which withdraws the game's records from that sequence on that come before it. A segment holding withdrawals is only
+ * deleted once no older segment is left, so it is never outlived by the records it withdraws.
+ *
+ * A move is journaled as it is played, before the hot game store writes the game to the database. The database
+ * rows are the snapshots the journal is replayed on top of: once a game has been written up to a sequence, its
+ * records up to that sequence are no longer needed, and segments holding no other records are deleted. Records
+ * left when the application starts are handed to the hot game store, which replays them onto the games.
+ *
+ * Writes to the mapped segments reach the operating system straight away, so they survive the application stopping
+ * unexpectedly. Segments are only forced to disk when they are filled and on shutdown.
+ *
+ * The journal is disabled, and every method does nothing, when no directory is configured.
+ */
+@Component
+public class MoveJournal {
+
+    public static final int RECORD_SIZE = 28;
+
+    private static final String SEGMENT_SUFFIX = ".journal";
+
+    private static Logger logger = LoggerFactory.getLogger(MoveJournal.class);
+
+    private final Path directory;
+
+    private final int segmentSize;
+
+    /**
+     * The highest sequence of each game in each segment not yet written to the database, by segment number.
+     */
+    private final TreeMap<Long, Map<Long, Integer>> outstanding = new TreeMap<>();
+
+    /**
+     * The segments holding withdrawals.
+     */
+    private final Set<Long> withdrawing = new HashSet<>();
+
+    private Map<Long, List<MoveRecord>> recovered = new LinkedHashMap<>();
+
+    private long segment;
+
+    private MappedByteBuffer buffer;
+
+    public MoveJournal(@Value("${game.journal.directory:}") String directory,
+                       @Value("${game.journal.segment-size-bytes:16777216}") int segmentSize) {
+        isTrue(segmentSize >= RECORD_SIZE, "Journal segments must hold at least one record.");
+
+        this.directory = directory == null || directory.isEmpty() ? null : Paths.get(directory);
+        this.segmentSize = segmentSize - segmentSize % RECORD_SIZE;
+    }
+
+    public boolean isEnabled() {
+        return directory != null;
+    }
+
+    /**
+     * Reads the records left in the existing segments and opens the last segment for appending.
+     */
+    @PostConstruct
+    public synchronized void open() throws IOException {
+        if (!isEnabled()) {
+            return;
+        }
+
+        Files.createDirectories(directory);
+
+        List<Long> segments = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                segments.add(Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())));
+            }
+        }
+        segments.sort(null);
+
+        int records = 0;
+        for (Long number : segments) {
+            segment = number;
+            buffer = map(number);
+            records += readSegment(number);
+        }
+
+        if (buffer == null) {
+            openSegment(0);
+        } else if (!buffer.hasRemaining()) {
+            openSegment(segment + 1);
+        }
+
+        logger.info("Move journal opened in {} with {} segments, {} moves to recover in {} games",
+                directory, outstanding.size(), records, recovered.size());
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (buffer != null) {
+            buffer.force();
+            buffer = null;
+        }
+    }
+
+    /**
+     * Records a move. Must be called holding the game's lock, so the moves of each game are journaled in order.
+     */
+    public synchronized void append(long gameId, long playerId, int row, int column, int sequence) {
+        if (!isEnabled()) {
+            return;
+        }
+        isTrue(sequence > 0, "Journaled moves must have a positive sequence.");
+
+        write(gameId, playerId, row, column, sequence);
+        outstanding.get(segment).merge(gameId, sequence, Math::max);
+    }
+
+    /**
+     * Withdraws the moves of a game journaled from a sequence on, so they are not recovered when the journal is
+     * opened again. Must be called holding the game's lock.
+     */
+    public synchronized void withdraw(long gameId, int sequence) {
+        if (!isEnabled()) {
+            return;
+        }
+        isTrue(sequence > 0, "Journaled moves must have a positive sequence.");
+
+        write(gameId, 0, 0, 0, -sequence);
+        withdrawing.add(segment);
+        withdrawOutstanding(gameId, sequence);
+        deleteWritten();
+    }
+
+    /**
+     * Hands over the records read when the journal was opened, grouped by game in the order they were played. Only
+     * returns them once.
+     */
+    public synchronized Map<Long, List<MoveRecord>> takeRecovered() {
+        Map<Long, List<MoveRecord>> records = recovered;
+        recovered = new LinkedHashMap<>();
+        return records;
+    }
+
+    /**
+     * Marks a game as written to the database up to a sequence, deleting any segment that no longer holds moves
+     * still to be written.
+     */
+    public synchronized void checkpoint(long gameId, int sequence) {
+        if (!isEnabled()) {
+            return;
+        }
+
+        for (Map<Long, Integer> games : outstanding.values()) {
+            Integer last = games.get(gameId);
+            if (last != null && last <= sequence) {
+                games.remove(gameId);
+            }
+        }
+        deleteWritten();
+    }
+
+    /**
+     * Withdraws every move journaled for a game, for when its journaled moves can no longer be applied.
+     */
+    public void discard(long gameId) {
+        withdraw(gameId, 1);
+    }
+
+    /**
+     * @return The number of segment files in the journal.
+     */
+    public synchronized int segmentCount() {
+        return outstanding.size();
+    }
+
+    private int readSegment(long number) {
+        Map<Long, Integer> games = new HashMap<>();
+        outstanding.put(number, games);
+        int records = 0;
+
+        while (buffer.remaining() >= RECORD_SIZE) {
+            int position = buffer.position();
+            int sequence = buffer.getInt(position + 16);
+            if (sequence == 0) {
+                break;
+            }
+            if (sequence < 0) {
+                withdrawRecovered(buffer.getLong(position), -sequence);
+                withdrawing.add(number);
+                buffer.position(position + RECORD_SIZE);
+                continue;
+            }
+
+            MoveRecord record = new MoveRecord(buffer.getLong(position), buffer.getLong(position + 8),
+                    buffer.getInt(position + 20), buffer.getInt(position + 24), sequence);
+            recovered.computeIfAbsent(record.getGameId(), id -> new ArrayList<>()).add(record);
+            games.merge(record.getGameId(), sequence, Math::max);
+
+            buffer.position(position + RECORD_SIZE);
+            records++;
+        }
+
+        return records;
+    }
+
+    private void withdrawRecovered(long gameId, int sequence) {
+        List<MoveRecord> records = recovered.get(gameId);
+        if (records != null) {
+            records.removeIf(record -> record.getSequence() >= sequence);
+            if (records.isEmpty()) {
+                recovered.remove(gameId);
+            }
+        }
+        withdrawOutstanding(gameId, sequence);
+    }
+
+    /**
+     * Withdrawn moves are no longer waiting to be written, so their segments are only held for the moves before them.
+     */
+    private void withdrawOutstanding(long gameId, int sequence) {
+        for (Map<Long, Integer> games : outstanding.values()) {
+            Integer last = games.get(gameId);
+            if (last != null && last >= sequence) {
+                if (sequence > 1) {
+                    games.put(gameId, sequence - 1);
+                } else {
+                    games.remove(gameId);
+                }
+            }
+        }
+    }
+
+    private void deleteWritten() {
+        boolean older = false;
+
+        Iterator<Map.Entry<Long, Map<Long, Integer>>> segments = outstanding.entrySet().iterator();
+        while (segments.hasNext()) {
+            Map.Entry<Long, Map<Long, Integer>> entry = segments.next();
+            long number = entry.getKey();
+
+            // A segment withdrawing moves is kept while an older segment may still hold them
+            if (entry.getValue().isEmpty() && number != segment && !(older && withdrawing.contains(number))) {
+                segments.remove();
+                withdrawing.remove(number);
+                delete(number);
+            } else {
+                older = true;
+            }
+        }
+    }
+
+    private void write(long gameId, long playerId, int row, int column, int sequence) {
+        if (!buffer.hasRemaining()) {
+            buffer.force();
+            openSegment(segment + 1);
+        }
+
+        int position = buffer.position();
+        buffer.putLong(position, gameId);
+        buffer.putLong(position + 8, playerId);
+        buffer.putInt(position + 20, row);
+        buffer.putInt(position + 24, column);
+        buffer.putInt(position + 16, sequence);
+        buffer.position(position + RECORD_SIZE);
+    }
+
+    private void openSegment(long number) {
+        segment = number;
+        buffer = map(number);
+        outstanding.put(number, new HashMap<>());
+    }
+
+    private MappedByteBuffer map(long number) {
+        try (FileChannel channel = FileChannel.open(fileFor(number), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // The mapping stays valid once the channel is closed
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to map journal segment " + number, e);
+        }
+    }
+
+    private void delete(long number) {
+        try {
+            Files.deleteIfExists(fileFor(number));
+            logger.debug("Deleted journal segment {}", number);
+        } catch (IOException e) {
+            logger.warn("Failed to delete journal segment {}", number, e);
+        }
+    }
+
+    private Path fileFor(long number) {
+        return directory.resolve(String.format("%016d%s", number, SEGMENT_SUFFIX));
+    }
+}
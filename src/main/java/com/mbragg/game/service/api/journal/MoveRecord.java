@@ -0,0 +1,82 @@
+package com.mbragg.game.service.api.journal;
+
+import java.util.Objects;
+
+/**
+ * A move read back from the MoveJournal.
+ */
+public final class MoveRecord {
+
+    private final long gameId;
+
+    private final long playerId;
+
+    private final int row;
+
+    private final int column;
+
+    private final int sequence;
+
+    public MoveRecord(long gameId, long playerId, int row, int column, int sequence) {
+        this.gameId = gameId;
+        this.playerId = playerId;
+        this.row = row;
+        this.column = column;
+        this.sequence = sequence;
+    }
+
+    public long getGameId() {
+        return gameId;
+    }
+
+    public long getPlayerId() {
+        return playerId;
+    }
+
+    public int getRow() {
+        return row;
+    }
+
+    public int getColumn() {
+        return column;
+    }
+
+    /**
+     * @return The move count of the game once this move was played, so the first move of a game is 1.
+     */
+    public int getSequence() {
+        return sequence;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        MoveRecord that = (MoveRecord) o;
+        return gameId == that.gameId
+                && playerId == that.playerId
+                && row == that.row
+                && column == that.column
+                && sequence == that.sequence;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(gameId, playerId, row, column, sequence);
+    }
+
+    @Override
+    public String toString() {
+        return "MoveRecord{" +
+                "gameId=" + gameId +
+                ", playerId=" + playerId +
+                ", row=" + row +
+                ", column=" + column +
+                ", sequence=" + sequence +
+                '}';
+    }
+}
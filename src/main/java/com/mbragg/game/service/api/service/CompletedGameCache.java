@@ -0,0 +1,17 @@
+package com.mbragg.game.service.api.service;
+
+import com.mbragg.game.service.api.dto.GameResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Responses for completed games by game id. A completed game never changes, so the response built for it can be
+ * served to every later request. The cached responses are shared, so must not be modified.
+ */
+@Component
+public class CompletedGameCache extends LookupCache<Long, GameResponse> {
+
+    public CompletedGameCache(@Value("${game.cache.completed-game-size:10000}") int capacity) {
+        super(capacity);
+    }
+}
@@ -0,0 +1,30 @@
+package com.mbragg.game.service.api.service;
+
+import com.mbragg.game.service.api.domain.Board;
+import com.mbragg.game.service.api.domain.Mark;
+import com.mbragg.game.service.api.engine.Evaluation;
+import com.mbragg.game.service.api.engine.Move;
+
+/**
+ * Service operations for choosing the moves of computer players
+ */
+public interface ComputerPlayerService {
+
+    /**
+     * Choose the next move for a computer player
+     *
+     * @param board The board being played on
+     * @param mark  The Mark of the computer player
+     * @return The row/col coordinate the computer player places its mark at
+     */
+    Move selectMove(Board board, Mark mark);
+
+    /**
+     * Evaluate the position for the player to move
+     *
+     * @param board The board being played on
+     * @param mark  The Mark of the player to move
+     * @return The best move for the player, with the outcome it leads to when the position is solved
+     */
+    Evaluation evaluate(Board board, Mark mark);
+}
@@ -0,0 +1,100 @@
+package com.mbragg.game.service.api.service;
+
+import com.mbragg.game.service.api.domain.Board;
+import com.mbragg.game.service.api.domain.Mark;
+import com.mbragg.game.service.api.engine.CanonicalPosition;
+import com.mbragg.game.service.api.engine.Evaluation;
+import com.mbragg.game.service.api.engine.MonteCarloEngine;
+import com.mbragg.game.service.api.engine.Move;
+import com.mbragg.game.service.api.engine.MoveEngine;
+import com.mbragg.game.service.api.engine.NegamaxEngine;
+import com.mbragg.game.service.api.engine.OutcomeTable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import static org.springframework.util.Assert.isTrue;
+import static org.springframework.util.Assert.notNull;
+
+@Service
+public class ComputerPlayerServiceImpl implements ComputerPlayerService {
+
+    private static Logger logger = LoggerFactory.getLogger(ComputerPlayerServiceImpl.class);
+
+    private final OutcomeTable outcomeTable;
+
+    private final NegamaxEngine negamaxEngine;
+
+    private final MonteCarloEngine monteCarloEngine;
+
+    private final PositionKeyService positionKeyService;
+
+    private final EvaluationCache evaluationCache;
+
+    private final int monteCarloMinimumSize;
+
+    public ComputerPlayerServiceImpl(OutcomeTable outcomeTable, NegamaxEngine negamaxEngine,
+                                     MonteCarloEngine monteCarloEngine, PositionKeyService positionKeyService,
+                                     EvaluationCache evaluationCache,
+                                     @Value("${game.engine.monte-carlo-minimum-size:9}") int monteCarloMinimumSize) {
+        this.outcomeTable = outcomeTable;
+        this.negamaxEngine = negamaxEngine;
+        this.monteCarloEngine = monteCarloEngine;
+        this.positionKeyService = positionKeyService;
+        this.evaluationCache = evaluationCache;
+        this.monteCarloMinimumSize = monteCarloMinimumSize;
+    }
+
+    @Override
+    public Move selectMove(Board board, Mark mark) {
+        return evaluate(board, mark).getMove();
+    }
+
+    @Override
+    public Evaluation evaluate(Board board, Mark mark) {
+        notNull(board, "Board can not be null");
+        isTrue(!board.isBoardFull(), "Board must have an empty position to move to.");
+        isTrue(board.getWinLength() <= MonteCarloEngine.MAXIMUM_SEARCH_SIZE,
+                "Computer players can not play a win length above " + MonteCarloEngine.MAXIMUM_SEARCH_SIZE + ".");
+
+        long start = System.nanoTime();
+        Evaluation evaluation = null;
+
+        if (board.getSize() == OutcomeTable.SIZE && board.getWinLength() == OutcomeTable.SIZE) {
+            evaluation = outcomeTable.evaluate(board, mark);
+        }
+        if (evaluation == null) {
+            evaluation = search(board, mark);
+        }
+
+        logger.debug("Computer selected {} for {} in {}us", evaluation, mark, (System.nanoTime() - start) / 1000);
+
+        return evaluation;
+    }
+
+    /**
+     * Searches positions outside the outcome table, without a proven outcome. Results are cached by canonical
+     * position so that rotated and reflected positions reuse the same search.
+     */
+    private Evaluation search(Board board, Mark mark) {
+        CanonicalPosition position = positionKeyService.canonicalPosition(board, mark);
+
+        Evaluation cached = evaluationCache.get(position.getKey());
+        if (cached != null) {
+            Move move = position.fromCanonical(cached.getMove());
+
+            // Guards against the rare hash collision handing back an occupied cell
+            if (board.getMark(move.getRow(), move.getColumn()) == Mark.INITIAL) {
+                return new Evaluation(move, cached.getOutcome());
+            }
+        }
+
+        MoveEngine engine = board.getSize() >= monteCarloMinimumSize ? monteCarloEngine : negamaxEngine;
+        Move move = engine.selectMove(board, mark);
+
+        evaluationCache.put(position.getKey(), new Evaluation(position.toCanonical(move), null));
+
+        return new Evaluation(move, null);
+    }
+}
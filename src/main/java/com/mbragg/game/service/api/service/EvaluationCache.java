@@ -0,0 +1,18 @@
+package com.mbragg.game.service.api.service;
+
+import com.mbragg.game.service.api.engine.CanonicalPosition;
+import com.mbragg.game.service.api.engine.Evaluation;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Engine evaluations keyed by canonical position, so a position and its rotations and reflections share a single
+ * entry. Entries hold moves in canonical coordinates, see {@link CanonicalPosition}.
+ */
+@Component
+public class EvaluationCache extends LookupCache<Long, Evaluation> {
+
+    public EvaluationCache(@Value("${game.engine.evaluation-cache-size:100000}") int capacity) {
+        super(capacity);
+    }
+}
@@ -0,0 +1,23 @@
+package com.mbragg.game.service.api.service;
+
+import com.mbragg.game.service.api.dto.GameResponse;
+
+/**
+ * Thrown when a move is made against a version of a Game that is no longer current. Carries the current state of the
+ * game so the client can retry without fetching it again.
+ */
+public class GameConflictException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final GameResponse currentGame;
+
+    public GameConflictException(String message, GameResponse currentGame) {
+        super(message);
+        this.currentGame = currentGame;
+    }
+
+    public GameResponse getCurrentGame() {
+        return currentGame;
+    }
+}
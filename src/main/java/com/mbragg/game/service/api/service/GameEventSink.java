@@ -0,0 +1,33 @@
+package com.mbragg.game.service.api.service;
+
+import com.mbragg.game.service.api.dto.GameResponse;
+import com.mbragg.game.service.api.dto.MoveDelta;
+
+import java.io.IOException;
+
+/**
+ * Where the events of a followed Game are written to, such as a Server-Sent Events stream or a WebSocket. A sink is
+ * only written to by one thread at a time, see {@link GameEventStream}.
+ */
+public interface GameEventSink {
+
+    /**
+     * @param game The whole game, sent when a client starts following it or has missed too many moves
+     */
+    void sendGame(GameResponse game) throws IOException;
+
+    /**
+     * @param delta The change a move made to the game
+     */
+    void sendMove(MoveDelta delta) throws IOException;
+
+    /**
+     * Sends something the client can ignore, so that a dead connection is found.
+     */
+    void sendHeartbeat() throws IOException;
+
+    /**
+     * Closes the connection, once the game is complete or the client has fallen too far behind.
+     */
+    void close();
+}
@@ -0,0 +1,500 @@
+package com.mbragg.game.service.api.service;
+
+import com.mbragg.game.service.api.domain.GameStatus;
+import com.mbragg.game.service.api.dto.GameResponse;
+import com.mbragg.game.service.api.dto.MoveDelta;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.springframework.util.Assert.isTrue;
+
+/**
+ * Pushes the moves made in each Game to the clients following it, as Server-Sent Events or through any other
+ * {@link GameEventSink}. Every game followed has its
+ * own list of subscribers and a short history of its latest moves, the id of each event being the version of the game
+ * after the move. A client reconnecting with the id of the last event it saw is sent only the moves it missed, or the
+ * whole game if they are no longer in the history.
+ *
+ * Moves are published while holding the game's lock, so they are never reordered, but events are written by a
+ * bounded pool of threads rather than by the thread making the move. A subscriber that falls too far behind, or that
+ * cannot be written to when the pool is full, is closed so that it reconnects and resumes. Subscribers are sent a
+ * heartbeat so that dead connections are found, and are closed once their game is complete or after the timeout.
+ */
+@Component
+public class GameEventStream {
+
+    public static final String GAME_EVENT = "game";
+
+    public static final String MOVE_EVENT = "move";
+
+    private static final int MAXIMUM_SNAPSHOTS = 3;
+
+    private static Logger logger = LoggerFactory.getLogger(GameEventStream.class);
+
+    private final ConcurrentMap<Long, Channel> channels = new ConcurrentHashMap<>();
+
+    private final ThreadPoolExecutor executor;
+
+    private final ScheduledExecutorService scheduler;
+
+    private final int historySize;
+
+    private final int maxPending;
+
+    private final long heartbeatMillis;
+
+    private final long timeoutMillis;
+
+    public GameEventStream(@Value("${game.events.threads:4}") int threads,
+                           @Value("${game.events.queue-size:10000}") int queueSize,
+                           @Value("${game.events.history-size:64}") int historySize,
+                           @Value("${game.events.max-pending:256}") int maxPending,
+                           @Value("${game.events.heartbeat-millis:15000}") long heartbeatMillis,
+                           @Value("${game.events.timeout-millis:1800000}") long timeoutMillis) {
+        isTrue(threads > 0, "Event threads must be greater than zero.");
+        isTrue(historySize > 0, "Event history size must be greater than zero.");
+        this.historySize = historySize;
+        this.maxPending = maxPending;
+        this.heartbeatMillis = heartbeatMillis;
+        this.timeoutMillis = timeoutMillis;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize), runnable -> {
+            Thread thread = new Thread(runnable, "game-events-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "game-events-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::heartbeat, heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Closes every subscriber, so that clients reconnect to another instance.
+     */
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+        for (Channel channel : channels.values()) {
+            for (Subscriber subscriber : channel.subscribers) {
+                subscriber.close();
+            }
+        }
+        channels.clear();
+        executor.shutdown();
+    }
+
+    /**
+     * Follow the moves made in a game.
+     *
+     * @param gameId      The identifier of a Game
+     * @param lastEventId The id of the last event the client saw, or null if it is not resuming
+     * @param snapshot    Reads the whole game, called when the client is not resuming or the moves it missed are no
+     *                    longer in the history
+     * @return An emitter sending an event for each move made from now on, after any the client missed
+     */
+    public SseEmitter subscribe(Long gameId, Long lastEventId, Supplier<GameResponse> snapshot) {
+        return subscribe(new SseEmitter(timeoutMillis), gameId, lastEventId, snapshot);
+    }
+
+    SseEmitter subscribe(SseEmitter emitter, Long gameId, Long lastEventId, Supplier<GameResponse> snapshot) {
+        Subscription subscription = subscribe(new SseEventSink(emitter), gameId, lastEventId, snapshot);
+
+        emitter.onCompletion(subscription::cancel);
+        emitter.onTimeout(() -> {
+            subscription.cancel();
+            emitter.complete();
+        });
+        return emitter;
+    }
+
+    /**
+     * Follow the moves made in a game, writing them to a sink.
+     *
+     * @param sink        Where the events are written to
+     * @param gameId      The identifier of a Game
+     * @param lastEventId The version of the game the client last saw, or null if it is not resuming
+     * @param snapshot    Reads the whole game, called when the client is not resuming or the moves it missed are no
+     *                    longer in the history
+     * @return The subscription, to be cancelled once the client goes away
+     */
+    public Subscription subscribe(GameEventSink sink, Long gameId, Long lastEventId,
+                                  Supplier<GameResponse> snapshot) {
+        Subscriber subscriber = new Subscriber(sink);
+
+        // The channel is opened before the game is read, so that no move made after reading it is missed
+        Channel channel = channels.computeIfAbsent(gameId, id -> new Channel());
+        if (lastEventId != null && resume(gameId, channel, lastEventId, subscriber)) {
+            return subscriber;
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            GameResponse game;
+            try {
+                // Read outside the channel's lock, as moves are published to the channel holding the game's lock
+                game = snapshot.get();
+            } catch (RuntimeException e) {
+                discardIfUnused(gameId, channel);
+                throw e;
+            }
+
+            if (follow(gameId, channel, game, subscriber, attempt >= MAXIMUM_SNAPSHOTS)) {
+                return subscriber;
+            }
+            channel = channels.computeIfAbsent(gameId, id -> new Channel());
+        }
+    }
+
+    /**
+     * Publish a move just applied to a game. Called holding the game's lock, so the moves of a game are published in
+     * the order they were made.
+     *
+     * @param delta The change the move made to the game
+     */
+    public void publish(MoveDelta delta) {
+        Channel channel = channels.get(delta.getGameId());
+        if (channel == null) {
+            return;
+        }
+
+        synchronized (channel) {
+            channel.record(delta, historySize);
+            for (Subscriber subscriber : channel.subscribers) {
+                subscriber.send(moveEvent(delta), isComplete(delta));
+            }
+        }
+    }
+
+    /**
+     * @return The number of clients following any game.
+     */
+    public int subscriberCount() {
+        int count = 0;
+        for (Channel channel : channels.values()) {
+            count += channel.subscribers.size();
+        }
+        return count;
+    }
+
+    /**
+     * Sends the moves a resuming client missed, if they are all in the history.
+     *
+     * @return true if the client was resumed from the history.
+     */
+    private boolean resume(Long gameId, Channel channel, Long lastEventId, Subscriber subscriber) {
+        synchronized (channel) {
+            List<MoveDelta> missed = channel.since(lastEventId);
+            if (missed == null || channels.get(gameId) != channel) {
+                return false;
+            }
+
+            add(gameId, channel, subscriber);
+            for (MoveDelta delta : missed) {
+                subscriber.send(moveEvent(delta), isComplete(delta));
+            }
+            if (missed.isEmpty() && channel.complete) {
+                subscriber.send(null, true);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Sends the whole game followed by any moves made since it was read.
+     *
+     * @param force true to send the game even if moves made since it was read are no longer in the history
+     * @return false if the game must be read again, as the channel was dropped or moves made since the game was read
+     * are no longer in the history.
+     */
+    private boolean follow(Long gameId, Channel channel, GameResponse game, Subscriber subscriber, boolean force) {
+        synchronized (channel) {
+            if (channels.get(gameId) != channel) {
+                return false;
+            }
+            if (channel.latestVersion == null) {
+                // Nothing was published since the channel was opened, so the game read is the latest
+                channel.latestVersion = game.getVersion();
+                channel.complete = game.getGameStatus() == GameStatus.COMPLETE;
+            }
+
+            List<MoveDelta> since = channel.since(game.getVersion());
+            if (since == null && !force) {
+                return false;
+            }
+            if (since == null) {
+                since = new ArrayList<>();
+            }
+
+            add(gameId, channel, subscriber);
+            boolean complete = game.getGameStatus() == GameStatus.COMPLETE;
+            subscriber.send(sink -> sink.sendGame(game), complete && since.isEmpty());
+            for (MoveDelta delta : since) {
+                subscriber.send(moveEvent(delta), isComplete(delta));
+            }
+            return true;
+        }
+    }
+
+    private void add(Long gameId, Channel channel, Subscriber subscriber) {
+        subscriber.channel = channel;
+        channel.subscribers.add(subscriber);
+        channel.touch();
+
+        logger.debug("Subscribed to game {}, {} subscribers", gameId, channel.subscribers.size());
+    }
+
+    /**
+     * Drops a channel opened for a game that could not be read.
+     */
+    private void discardIfUnused(Long gameId, Channel channel) {
+        synchronized (channel) {
+            if (channel.subscribers.isEmpty() && channel.latestVersion == null) {
+                channels.remove(gameId, channel);
+            }
+        }
+    }
+
+    /**
+     * Sends a heartbeat to every subscriber, and drops the channels of games nobody has followed for the timeout.
+     */
+    private void heartbeat() {
+        long idleSince = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+
+        for (Long gameId : channels.keySet()) {
+            Channel channel = channels.get(gameId);
+            if (channel == null) {
+                continue;
+            }
+
+            synchronized (channel) {
+                if (channel.subscribers.isEmpty() && channel.lastActive - idleSince < 0) {
+                    channels.remove(gameId, channel);
+                    continue;
+                }
+                for (Subscriber subscriber : channel.subscribers) {
+                    subscriber.send(GameEventSink::sendHeartbeat, false);
+                }
+            }
+        }
+    }
+
+    private static Event moveEvent(MoveDelta delta) {
+        return sink -> sink.sendMove(delta);
+    }
+
+    private static boolean isComplete(MoveDelta delta) {
+        return delta.getGameStatus() == GameStatus.COMPLETE;
+    }
+
+    /**
+     * A client's interest in a game.
+     */
+    public interface Subscription {
+
+        /**
+         * Stop sending events, without closing the sink.
+         */
+        void cancel();
+    }
+
+    /**
+     * An event waiting to be written to a subscriber's sink.
+     */
+    private interface Event {
+
+        void sendTo(GameEventSink sink) throws IOException;
+    }
+
+    /**
+     * The subscribers of one game and its latest moves, guarded by its own monitor.
+     */
+    private static final class Channel {
+
+        private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+        private final Deque<MoveDelta> history = new ArrayDeque<>();
+
+        private Long latestVersion;
+
+        private boolean complete;
+
+        private long lastActive = System.nanoTime();
+
+        private void record(MoveDelta delta, int historySize) {
+            history.addLast(delta);
+            if (history.size() > historySize) {
+                history.removeFirst();
+            }
+            latestVersion = delta.getVersion();
+            complete = isComplete(delta);
+            touch();
+        }
+
+        /**
+         * @return The moves made after a version of the game, or null if that is not known from the history.
+         */
+        private List<MoveDelta> since(Long version) {
+            if (latestVersion == null || version == null || version > latestVersion) {
+                return null;
+            }
+
+            List<MoveDelta> since = new ArrayList<>();
+            if (version.equals(latestVersion)) {
+                return since;
+            }
+            if (history.isEmpty() || history.getFirst().getVersion() > version + 1) {
+                return null;
+            }
+
+            for (MoveDelta delta : history) {
+                if (delta.getVersion() > version) {
+                    since.add(delta);
+                }
+            }
+            return since;
+        }
+
+        private void touch() {
+            lastActive = System.nanoTime();
+        }
+    }
+
+    /**
+     * One client following a game. Events are queued and written in order by one pool thread at a time.
+     */
+    private final class Subscriber implements Subscription {
+
+        private final GameEventSink sink;
+
+        private Channel channel;
+
+        private final Queue<Event> pending = new ConcurrentLinkedQueue<>();
+
+        private final AtomicInteger pendingCount = new AtomicInteger();
+
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private volatile boolean last;
+
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Subscriber(GameEventSink sink) {
+            this.sink = sink;
+        }
+
+        /**
+         * @param event The event to send, or null to only close the subscriber
+         * @param last  true to close the subscriber once the event is sent
+         */
+        private void send(Event event, boolean last) {
+            if (closed.get()) {
+                return;
+            }
+            if (event != null) {
+                if (pendingCount.incrementAndGet() > maxPending) {
+                    logger.debug("Closing subscriber more than {} events behind", maxPending);
+                    close();
+                    return;
+                }
+                pending.add(event);
+            }
+            if (last) {
+                this.last = true;
+            }
+            schedule();
+        }
+
+        private void schedule() {
+            if (!draining.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                executor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                logger.debug("Closing subscriber as the event pool is full");
+                draining.set(false);
+                close();
+            }
+        }
+
+        private void drain() {
+            Event event;
+            while (!closed.get() && (event = pending.poll()) != null) {
+                pendingCount.decrementAndGet();
+                try {
+                    event.sendTo(sink);
+                } catch (IOException | IllegalStateException e) {
+                    logger.debug("Dropping subscriber that could not be sent to: {}", e.getMessage());
+                    close();
+                }
+            }
+
+            if (!closed.get() && last && pending.isEmpty()) {
+                close();
+            }
+
+            draining.set(false);
+            if (!closed.get() && !pending.isEmpty()) {
+                schedule();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            if (closed.compareAndSet(false, true)) {
+                remove();
+            }
+        }
+
+        private void close() {
+            if (closed.compareAndSet(false, true)) {
+                remove();
+                sink.close();
+            }
+        }
+
+        private void remove() {
+            pending.clear();
+
+            if (channel != null) {
+                synchronized (channel) {
+                    channel.subscribers.remove(this);
+                    channel.touch();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.mbragg.game.service.api.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import static org.springframework.util.Assert.isTrue;
+
+/**
+ * Striped locks serializing the updates made to each Game. A game id always maps to the same lock, so updates to one
+ * game are applied one at a time, while games on different stripes are updated in parallel. The number of locks is
+ * fixed however many games there are, and consecutive game ids map to different stripes.
+ */
+@Component
+public class GameLocks {
+
+    private final Lock[] stripes;
+
+    private final int mask;
+
+    public GameLocks(@Value("${game.lock-stripes:1024}") int stripeCount) {
+        isTrue(stripeCount > 0 && Integer.bitCount(stripeCount) == 1, "Lock stripe count must be a power of two.");
+
+        this.stripes = new Lock[stripeCount];
+        this.mask = stripeCount - 1;
+
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * @return The lock guarding the game. Games without an id share the first stripe.
+     */
+    public Lock lockFor(Long gameId) {
+        if (gameId == null) {
+            return stripes[0];
+        }
+
+        long id = gameId;
+        return stripes[(int) (id ^ (id >>> 32)) & mask];
+    }
+
+    /**
+     * Runs the update while holding the game's lock.
+     */
+    public <T> T withLock(Long gameId, Supplier<T> update) {
+        Lock lock = lockFor(gameId);
+        lock.lock();
+
+        try {
+            return update.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.mbragg.game.service.api.service;
+
+import com.mbragg.game.service.api.domain.Game;
+import com.mbragg.game.service.api.domain.GameStatus;
+import com.mbragg.game.service.api.domain.MoveOutcome;
+import com.mbragg.game.service.api.domain.Player;
+import com.mbragg.game.service.api.domain.PlayerStatus;
+
+/**
+ * The rules for playing a move in a Game, free of any persistence so they can be shared by the GameService and
+ * anything else that plays games, such as the simulation harness.
+ */
+public final class GameRules {
+
+    private GameRules() {
+        // Static helpers only
+    }
+
+    /**
+     * Place the mover's mark on the board and update the players and game with the outcome of the move.
+     *
+     * @param game     The game being played
+     * @param mover    The player placing a mark
+     * @param opponent The other player in the game
+     * @param row      The row number where to add the mark to
+     * @param column   The column number where to add the mark to
+     * @return The outcome of the move
+     */
+    public static MoveOutcome applyMove(Game game, Player mover, Player opponent, int row, int column) {
+        MoveOutcome outcome = game.getBoard().addMove(row, column, mover.getMark());
+        game.setMoveCount(game.getMoveCount() + 1);
+
+        if (outcome == MoveOutcome.WIN) {
+            mover.setStatus(PlayerStatus.WINNER);
+            opponent.setStatus(PlayerStatus.LOOSE);
+            game.setStatus(GameStatus.COMPLETE);
+        } else if (outcome == MoveOutcome.DRAW) {
+            mover.setStatus(PlayerStatus.TIE);
+            opponent.setStatus(PlayerStatus.TIE);
+            game.setStatus(GameStatus.COMPLETE);
+        } else {
+            mover.setTurn(false);
+            opponent.setTurn(true);
+        }
+
+        return outcome;
+    }
+
+    /**
+     * Take back the mover's most recent mark, returning the players and game to how they were before the move.
+     *
+     * @param game     The game being played
+     * @param mover    The player who placed the mark
+     * @param opponent The other player in the game
+     * @param row      The row number the mark was added to
+     * @param column   The column number the mark was added to
+     */
+    public static void takeBack(Game game, Player mover, Player opponent, int row, int column) {
+        game.getBoard().takeBack(row, column);
+        game.setMoveCount(game.getMoveCount() - 1);
+        game.setStatus(GameStatus.IN_PROGRESS);
+
+        mover.setStatus(PlayerStatus.PLAYING);
+        opponent.setStatus(PlayerStatus.PLAYING);
+        mover.setTurn(true);
+        opponent.setTurn(false);
+    }
+
+    /**
+     * @return The player whose turn it is in the game
+     */
+    public static Player playerToMove(Game game) {
+        return game.getPlayerOne().isTurn() ? game.getPlayerOne() : game.getPlayerTwo();
+    }
+
+    /**
+     * @return The player waiting for the other to move
+     */
+    public static Player playerWaiting(Game game) {
+        return game.getPlayerOne().isTurn() ? game.getPlayerTwo() : game.getPlayerOne();
+    }
+}
@@ -1,10 +1,14 @@
 package com.mbragg.game.service.api.service;
 
+import com.mbragg.game.service.api.domain.GameStatus;
 import com.mbragg.game.service.api.domain.User;
 import com.mbragg.game.service.api.dto.CreateGameRequest;
 import com.mbragg.game.service.api.dto.GameResponse;
 import com.mbragg.game.service.api.dto.GamesSummaryResponse;
+import com.mbragg.game.service.api.dto.HintResponse;
+import com.mbragg.game.service.api.dto.MoveDelta;
 import com.mbragg.game.service.api.dto.MoveRequest;
+import com.mbragg.game.service.api.dto.MoveResult;
 
 import java.util.List;
 
@@ -21,6 +25,14 @@ public interface GameService {
      */
     GameResponse create(CreateGameRequest gameRequest);
 
+    /**
+     * Create many new Games at once. Either every game is created or, if any request is invalid, none are.
+     *
+     * @param gameRequests details of the games to be created
+     * @return A GameResponse for each new game, in the order they were requested
+     */
+    List<GameResponse> createAll(List<CreateGameRequest> gameRequests);
+
     /**
      * Find a specific Game
      *
@@ -29,6 +41,14 @@ public interface GameService {
      */
     GameResponse findOne(Long id);
 
+    /**
+     * Find the current version of a specific Game, without loading its board or building a response
+     *
+     * @param id The identifier of a Game
+     * @return The version of the game, which changes with every move
+     */
+    Long findVersion(Long id);
+
     /**
      * Perform a 'move' in a specific Game
      *
@@ -37,11 +57,41 @@ public interface GameService {
      */
     GameResponse move(MoveRequest move);
 
+    /**
+     * Perform a 'move' in a specific Game, answering with only what the move changed
+     *
+     * @param move Details of the proposed move
+     * @return A MoveDelta holding the cells filled, the player to move next, the status and the new version
+     */
+    MoveDelta moveDelta(MoveRequest move);
+
+    /**
+     * Perform a batch of moves across any number of Games. Moves for the same game are applied in the order they were
+     * submitted, and a rejected move does not stop the rest of the batch.
+     *
+     * @param moves Details of the proposed moves
+     * @return A MoveResult for each move, in the order they were submitted
+     */
+    List<MoveResult> moves(List<MoveRequest> moves);
+
+    /**
+     * Suggest the next move for the player whose turn it is in a specific Game
+     *
+     * @param id The identifier of a Game
+     * @return A HintResponse holding the suggested move
+     */
+    HintResponse hint(Long id);
+
 
     /**
-     * Find all games
+     * Find a page of game summaries, ordered by game id. Summaries are read from the database, so the status of a game
+     * being played can be behind by the hot game store's write delay.
      *
-     * @return A List of game responses.
+     * @param status Only games with this status, or null for any status
+     * @param userId Only games played by this user, or null for any user
+     * @param page   The page number, starting at 0
+     * @param size   The number of games on a page
+     * @return A page of game summaries.
      */
-    GamesSummaryResponse findAll();
+    GamesSummaryResponse findAll(GameStatus status, Long userId, int page, int size);
 }
@@ -3,13 +3,30 @@ package com.mbragg.game.service.api.service;
 import com.mbragg.game.service.api.dl.GameRepository;
 import com.mbragg.game.service.api.dto.*;
 import com.mbragg.game.service.api.domain.*;
+import com.mbragg.game.service.api.engine.Evaluation;
+import com.mbragg.game.service.api.engine.MonteCarloEngine;
+import com.mbragg.game.service.api.engine.Move;
+import com.mbragg.game.service.api.journal.MoveJournal;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
 
 import static org.springframework.util.Assert.isTrue;
 import static org.springframework.util.Assert.notNull;
@@ -19,6 +36,7 @@ public class GameServiceImpl implements GameService {
 
     private static final int MINIMUM_PLAYERS = 2;
     private static final int MINIMUM_BOARD_SIZE = 3;
+    private static final int MAXIMUM_PAGE_SIZE = 1000;
 
     private static Logger logger = LoggerFactory.getLogger(GameServiceImpl.class);
 
@@ -26,11 +44,35 @@ public class GameServiceImpl implements GameService {
 
     private final UserService userService;
 
+    private final ComputerPlayerService computerPlayerService;
+
+    private final GameLocks gameLocks;
+
+    private final HotGameStore hotGameStore;
+
+    private final MoveJournal moveJournal;
+
+    private final CompletedGameCache completedGameCache;
+
+    private final GameEventStream gameEventStream;
+
+    private final TransactionTemplate transactionTemplate;
+
     private final Random random;
 
-    public GameServiceImpl(GameRepository gameRepository, UserService userService) {
+    public GameServiceImpl(GameRepository gameRepository, UserService userService,
+                           ComputerPlayerService computerPlayerService, GameLocks gameLocks,
+                           HotGameStore hotGameStore, MoveJournal moveJournal, CompletedGameCache completedGameCache,
+                           GameEventStream gameEventStream, PlatformTransactionManager transactionManager) {
         this.gameRepository = gameRepository;
         this.userService = userService;
+        this.computerPlayerService = computerPlayerService;
+        this.gameLocks = gameLocks;
+        this.hotGameStore = hotGameStore;
+        this.moveJournal = moveJournal;
+        this.completedGameCache = completedGameCache;
+        this.gameEventStream = gameEventStream;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
         this.random = new Random();
     }
 
@@ -38,22 +80,107 @@ public class GameServiceImpl implements GameService {
     public GameResponse create(CreateGameRequest gameRequest) {
         notNull(gameRequest, "Create game request can not be null");
 
+        // The computer's opening move is searched for before the transaction, which only looks up the users, in the
+        // same transaction the game is saved in so the new players can reference them, and saves the game
+        Game game = newGame(gameRequest);
+        Game savedGame = transactionTemplate.execute(status -> {
+            assignUsers(game, gameRequest.getUserIds(), userService::findOne);
+            return gameRepository.save(game);
+        });
+        hotGameStore.put(savedGame);
+
+        logger.debug("Game {} saved successfully", savedGame.getId());
+
+        return getGameResponse(savedGame);
+    }
+
+    @Override
+    public List<GameResponse> createAll(List<CreateGameRequest> gameRequests) {
+        notNull(gameRequests, "Create game requests can not be null");
+
+        // Every game is built before any is saved, so an invalid request saves nothing. The computer's opening moves
+        // are played before the transaction is begun, so it is not held open for their searches
+        List<Game> games = new ArrayList<>(gameRequests.size());
+        for (CreateGameRequest gameRequest : gameRequests) {
+            notNull(gameRequest, "Create game request can not be null");
+            games.add(newGame(gameRequest));
+        }
+
+        List<Game> savedGames = transactionTemplate.execute(status -> {
+            Map<Long, User> users = findUsers(gameRequests);
+            for (int i = 0; i < games.size(); i++) {
+                assignUsers(games.get(i), gameRequests.get(i).getUserIds(), users::get);
+            }
+
+            return (List<Game>) gameRepository.save(games);
+        });
+
+        List<GameResponse> gameResponses = new ArrayList<>(savedGames.size());
+        for (Game savedGame : savedGames) {
+            hotGameStore.put(savedGame);
+            gameResponses.add(getGameResponse(savedGame));
+        }
+
+        logger.debug("{} games saved successfully", savedGames.size());
+
+        return gameResponses;
+    }
+
+    /**
+     * Load every user taking part in the requested games in one query.
+     *
+     * @param gameRequests details of the games to be created
+     * @return The users found, by id
+     */
+    private Map<Long, User> findUsers(List<CreateGameRequest> gameRequests) {
+        Set<Long> userIds = new HashSet<>();
+        for (CreateGameRequest gameRequest : gameRequests) {
+            if (gameRequest != null && gameRequest.getUserIds() != null) {
+                userIds.addAll(gameRequest.getUserIds());
+            }
+        }
+        userIds.remove(null);
+
+        Map<Long, User> users = new HashMap<>();
+        for (User user : userService.findAll(userIds)) {
+            users.put(user.getId(), user);
+        }
+        return users;
+    }
+
+    /**
+     * Set up a new game, playing the opening move straight away if it is the computer's. The users taking part are
+     * assigned once the game is about to be saved, see {@link #assignUsers(Game, List, Function)}.
+     *
+     * @param gameRequest details of the game to be created
+     * @return The new game, not yet saved
+     */
+    private Game newGame(CreateGameRequest gameRequest) {
         notNull(gameRequest.getUserIds(), "New Games require two users.");
 
         List<Long> userIds = gameRequest.getUserIds();
-        isTrue(userIds.size() == MINIMUM_PLAYERS, "New Games require two users.");
+        Player playerOne;
+        Player playerTwo;
+
+        if (gameRequest.getOpponentType() == PlayerType.COMPUTER) {
+            isTrue(userIds.size() == MINIMUM_PLAYERS - 1, "Games against the computer require one user.");
 
-        User userOne = userService.findOne(userIds.get(0));
-        User userTwo = userService.findOne(userIds.get(1));
+            playerOne = new Player();
+            playerTwo = new Player();
+            playerTwo.setType(PlayerType.COMPUTER);
+        } else {
+            isTrue(userIds.size() == MINIMUM_PLAYERS, "New Games require two users.");
 
-        notNull(userOne, "User one must exist.");
-        notNull(userTwo, "User two must exist.");
+            playerOne = new Player();
+            playerTwo = new Player();
+        }
 
         isTrue(gameRequest.getBoardSize() >= MINIMUM_BOARD_SIZE, "The minimum board size is 3.");
-        Board board = new Board(gameRequest.getBoardSize());
 
-        Player playerOne = new Player(userOne);
-        Player playerTwo = new Player(userTwo);
+        int winLength = gameRequest.getWinLength() > 0 ? gameRequest.getWinLength() : gameRequest.getBoardSize();
+        isTrue(!playerTwo.isComputer() || winLength <= MonteCarloEngine.MAXIMUM_SEARCH_SIZE,
+                "Computer players can not play a win length above " + MonteCarloEngine.MAXIMUM_SEARCH_SIZE + ".");
+        Board board = new Board(gameRequest.getBoardSize(), winLength);
 
         assignMark(playerOne, playerTwo);
         assignTurn(playerOne, playerTwo);
@@ -67,11 +194,33 @@ public class GameServiceImpl implements GameService {
         game.setPlayerTwo(playerTwo);
         game.setStatus(GameStatus.IN_PROGRESS);
 
-        Game savedGame = gameRepository.save(game);
+        playComputerTurn(game);
 
-        logger.debug("Game {} saved successfully", savedGame.getId());
+        return game;
+    }
 
-        return getGameResponse(savedGame);
+    /**
+     * Assign the users taking part to the players of a new game.
+     *
+     * @param game    The new game, not yet saved
+     * @param userIds The ids of the users taking part, checked by {@link #newGame(CreateGameRequest)}
+     * @param users   looks up the users taking part by id
+     */
+    private void assignUsers(Game game, List<Long> userIds, Function<Long, User> users) {
+        User userOne = users.apply(userIds.get(0));
+
+        if (game.getPlayerTwo().isComputer()) {
+            notNull(userOne, "User one must exist.");
+        } else {
+            User userTwo = users.apply(userIds.get(1));
+
+            notNull(userOne, "User one must exist.");
+            notNull(userTwo, "User two must exist.");
+
+            game.getPlayerTwo().setUser(userTwo);
+        }
+
+        game.getPlayerOne().setUser(userOne);
     }
 
     /**
@@ -110,37 +259,160 @@ public class GameServiceImpl implements GameService {
     public GameResponse findOne(Long id) {
         notNull(id, "Game id can not be null");
 
-        Game game = gameRepository.findOne(id);
-        notNull(game, "Game does not exist");
+        GameResponse completedGame = completedGameCache.get(id);
+        if (completedGame != null) {
+            return completedGame;
+        }
 
-        return getGameResponse(game);
+        // Games being played are read from memory, as their latest moves may not have been written yet
+        GameResponse gameResponse = gameLocks.withLock(id, () -> {
+            Game game = hotGameStore.peek(id);
+            return game == null ? null : getGameResponse(game);
+        });
+
+        if (gameResponse == null) {
+            Game game = gameRepository.findGame(id);
+            notNull(game, "Game does not exist");
+            gameResponse = getGameResponse(game);
+        }
+
+        if (gameResponse.getGameStatus() == GameStatus.COMPLETE) {
+            completedGameCache.put(id, gameResponse);
+        }
+
+        return gameResponse;
     }
 
     @Override
-    public GamesSummaryResponse findAll() {
-        List<Game> games = (List<Game>) gameRepository.findAll();
+    public Long findVersion(Long id) {
+        notNull(id, "Game id can not be null");
 
-        GamesSummaryResponse gamesSummaryResponse = new GamesSummaryResponse();
+        // Games being played are ahead of the database, so the version held in memory is checked first
+        Long version = gameLocks.withLock(id, () -> {
+            Game game = hotGameStore.peek(id);
+            return game == null ? null : game.getVersion();
+        });
 
-        for (Game game: games) {
-            GameSummary gameSummary = new GameSummary();
-            gameSummary.setGameId(game.getId());
-            gameSummary.setGameStatus(game.getStatus());
-            gameSummary.setUserIds(Arrays.asList(
-                    game.getPlayerOne().getUser().getId(),
-                    game.getPlayerTwo().getUser().getId()));
-            gamesSummaryResponse.addGameSummary(gameSummary);
+        if (version == null) {
+            GameResponse completedGame = completedGameCache.get(id);
+            version = completedGame == null ? gameRepository.findVersion(id) : completedGame.getVersion();
         }
 
+        notNull(version, "Game does not exist");
+        return version;
+    }
+
+    @Override
+    public GamesSummaryResponse findAll(GameStatus status, Long userId, int page, int size) {
+        isTrue(page >= 0, "Page number must not be negative.");
+        isTrue(size >= 1 && size <= MAXIMUM_PAGE_SIZE, "Page size must be between 1 and " + MAXIMUM_PAGE_SIZE + ".");
+
+        Page<GameSummary> summaries = gameRepository.findSummaries(status, userId,
+                new PageRequest(page, size, Sort.Direction.ASC, "id"));
+
+        GamesSummaryResponse gamesSummaryResponse = new GamesSummaryResponse();
+        gamesSummaryResponse.setGames(summaries.getContent());
+        gamesSummaryResponse.setPage(summaries.getNumber());
+        gamesSummaryResponse.setSize(summaries.getSize());
+        gamesSummaryResponse.setTotalGames(summaries.getTotalElements());
+        gamesSummaryResponse.setTotalPages(summaries.getTotalPages());
+
         return gamesSummaryResponse;
     }
 
     @Override
     public GameResponse move(MoveRequest move) {
         notNull(move, "Move request can not be null");
+        completedGameCache.invalidate(move.getGameId());
+
+        // Moves are applied to the game held in memory, the hot game store writes the change once the lock is released
+        GameResponse gameResponse = gameLocks.withLock(move.getGameId(), () -> {
+            Game game = applyMove(move, new MoveDelta());
+            return getGameResponse(game);
+        });
+        hotGameStore.markDirty(move.getGameId());
+
+        return gameResponse;
+    }
+
+    @Override
+    public MoveDelta moveDelta(MoveRequest move) {
+        notNull(move, "Move request can not be null");
+        completedGameCache.invalidate(move.getGameId());
+
+        MoveDelta moveDelta = gameLocks.withLock(move.getGameId(), () -> {
+            MoveDelta delta = new MoveDelta();
+            applyMove(move, delta);
+            return delta;
+        });
+        hotGameStore.markDirty(move.getGameId());
+
+        return moveDelta;
+    }
 
-        Game game = gameRepository.findOne(move.getGameId());
+    @Override
+    public List<MoveResult> moves(List<MoveRequest> moves) {
+        notNull(moves, "Move requests can not be null");
+
+        MoveResult[] results = new MoveResult[moves.size()];
+        Map<Long, List<Integer>> movesByGame = new LinkedHashMap<>();
+
+        for (int i = 0; i < moves.size(); i++) {
+            MoveRequest move = moves.get(i);
+            if (move == null || move.getGameId() == null) {
+                results[i] = MoveResult.failure(i, null, "Move request must have a game id.", null);
+            } else {
+                movesByGame.computeIfAbsent(move.getGameId(), id -> new ArrayList<>()).add(i);
+            }
+        }
+
+        // Each game is locked once for all of its moves, and written by the hot game store once they are all applied
+        for (Map.Entry<Long, List<Integer>> entry : movesByGame.entrySet()) {
+            completedGameCache.invalidate(entry.getKey());
+
+            AtomicBoolean moved = new AtomicBoolean();
+            try {
+                gameLocks.withLock(entry.getKey(), () -> {
+                    for (int i : entry.getValue()) {
+                        try {
+                            Game game = applyMove(moves.get(i), new MoveDelta());
+                            results[i] = MoveResult.success(i, getGameResponse(game));
+                            moved.set(true);
+                        } catch (GameConflictException e) {
+                            results[i] = MoveResult.failure(i, entry.getKey(), e.getMessage(), e.getCurrentGame());
+                        } catch (IllegalArgumentException e) {
+                            results[i] = MoveResult.failure(i, entry.getKey(), e.getMessage(), null);
+                        }
+                    }
+                    return null;
+                });
+            } finally {
+                // Moves applied before an unexpected failure are already journaled and published, so must be written
+                if (moved.get()) {
+                    hotGameStore.markDirty(entry.getKey());
+                }
+            }
+        }
+
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Find the game, apply the requested move and any computer reply, then publish the change to the game's
+     * followers. Called holding the game's lock.
+     *
+     * @param move  Details of the proposed move
+     * @param delta Filled in with the change the moves made to the game
+     * @return The updated game
+     */
+    private Game applyMove(MoveRequest move, MoveDelta delta) {
+        Game game = hotGameStore.get(move.getGameId());
         notNull(game, "Game does not exist");
+
+        if (move.getExpectedVersion() != null && !move.getExpectedVersion().equals(game.getVersion())) {
+            throw new GameConflictException("Move was made against version " + move.getExpectedVersion()
+                    + " of the game, the current version is " + game.getVersion() + ".", getGameResponse(game));
+        }
         isTrue(game.isInProgress(), "Game needs to be in Progress to make a new move.");
 
         Player playerOne = game.getPlayerOne();
@@ -149,6 +421,8 @@ public class GameServiceImpl implements GameService {
         notNull(playerOne, "Player one can not be null");
         notNull(playerTwo, "Player two can not be null");
 
+        notNull(move.getPlayerId(), "Player id can not be null");
+
         Player requestingPlayer;
         Player nonRequestingPlayer;
 
@@ -164,36 +438,136 @@ public class GameServiceImpl implements GameService {
             throw new IllegalArgumentException("Requesting player id must be part of the Game.");
         }
 
+        isTrue(!requestingPlayer.isComputer(), "Computer players can not be moved by request.");
         isTrue(requestingPlayer.isTurn(), "Must be the requesting players turn in the game.");
 
-        Board board = game.getBoard();
-        board.addMove(move.getRow(), move.getColumn(), requestingPlayer.getMark());
-
-        if (board.checkBoardForWin()) {
-            requestingPlayer.setStatus(PlayerStatus.WINNER);
-            nonRequestingPlayer.setStatus(PlayerStatus.LOOSE);
-            game.setStatus(GameStatus.COMPLETE);
-        } else if (board.isBoardFull()) {
-            requestingPlayer.setStatus(PlayerStatus.TIE);
-            nonRequestingPlayer.setStatus(PlayerStatus.TIE);
-            game.setStatus(GameStatus.COMPLETE);
-        } else {
-            requestingPlayer.setTurn(false);
-            nonRequestingPlayer.setTurn(true);
+        GameRules.applyMove(game, requestingPlayer, nonRequestingPlayer, move.getRow(), move.getColumn());
+        int sequence = game.getMoveCount();
+
+        // The game is changed in place, so if the computer reply or the journal fails the marks are taken back off it,
+        // rather than leaving the game held in memory ahead of the database without a new version
+        Move computerMove = null;
+        boolean journaled = false;
+        try {
+            computerMove = playComputerTurn(game);
+
+            moveJournal.append(game.getId(), requestingPlayer.getId(), move.getRow(), move.getColumn(), sequence);
+            journaled = true;
+            if (computerMove != null) {
+                moveJournal.append(game.getId(), nonRequestingPlayer.getId(), computerMove.getRow(),
+                        computerMove.getColumn(), game.getMoveCount());
+            }
+        } catch (RuntimeException e) {
+            takeBack(game, requestingPlayer, nonRequestingPlayer, move, computerMove, journaled);
+            throw e;
+        }
+
+        addCell(delta, requestingPlayer, move.getRow(), move.getColumn());
+        if (computerMove != null) {
+            addCell(delta, nonRequestingPlayer, computerMove.getRow(), computerMove.getColumn());
         }
 
-        Game save = gameRepository.save(game);
+        hotGameStore.update(game);
 
-        return getGameResponse(save);
+        delta.setGameId(game.getId());
+        delta.setPlayerTurn(game.isInProgress() ? GameRules.playerToMove(game).getId() : null);
+        delta.setGameStatus(game.getStatus());
+        delta.setVersion(game.getVersion());
+        gameEventStream.publish(delta);
+
+        return game;
+    }
+
+    /**
+     * Take back the moves of a request that could not be completed, newest first.
+     *
+     * @param computerMove The computer's reply, or null if it was not played
+     * @param journaled    Whether the requested move was journaled before the failure
+     */
+    private void takeBack(Game game, Player requestingPlayer, Player nonRequestingPlayer, MoveRequest move,
+                          Move computerMove, boolean journaled) {
+        if (computerMove != null) {
+            GameRules.takeBack(game, nonRequestingPlayer, requestingPlayer, computerMove.getRow(),
+                    computerMove.getColumn());
+        }
+        GameRules.takeBack(game, requestingPlayer, nonRequestingPlayer, move.getRow(), move.getColumn());
+
+        if (journaled) {
+            // A journaled move that was taken back must not be replayed, the moves journaled before it still are
+            logger.warn("Withdrawing move {} of game {} from the journal after it was taken back",
+                    game.getMoveCount() + 1, game.getId());
+            moveJournal.withdraw(game.getId(), game.getMoveCount() + 1);
+        }
+    }
+
+    private static void addCell(MoveDelta delta, Player mover, int row, int column) {
+        delta.addCell(new PlacedCell(row, column, mover.getMark().getName(), mover.getId()));
+    }
+
+    @Override
+    public HintResponse hint(Long id) {
+        notNull(id, "Game id can not be null");
+
+        // The search runs holding the lock, so the board is not moved underneath it
+        return gameLocks.withLock(id, () -> {
+            Game game = hotGameStore.get(id);
+            notNull(game, "Game does not exist");
+            isTrue(game.isInProgress(), "Game needs to be in Progress to request a hint.");
+
+            Player mover = GameRules.playerToMove(game);
+            Evaluation evaluation = computerPlayerService.evaluate(game.getBoard(), mover.getMark());
+
+            HintResponse hintResponse = new HintResponse();
+            hintResponse.setGameId(game.getId());
+            hintResponse.setPlayerId(mover.getId());
+            hintResponse.setRow(evaluation.getMove().getRow());
+            hintResponse.setColumn(evaluation.getMove().getColumn());
+            hintResponse.setOutcome(evaluation.getOutcome());
+
+            return hintResponse;
+        });
+    }
+
+    /**
+     * If the game is still in progress and it is a computer player's turn, play the computer's move straight away.
+     *
+     * @param game The game being played
+     * @return The computer's move, or null if it was not the computer's turn
+     */
+    private Move playComputerTurn(Game game) {
+        Player mover = GameRules.playerToMove(game);
+        Player opponent = GameRules.playerWaiting(game);
+
+        if (!game.isInProgress() || !mover.isComputer()) {
+            return null;
+        }
+
+        Move computerMove = computerPlayerService.selectMove(game.getBoard(), mover.getMark());
+        GameRules.applyMove(game, mover, opponent, computerMove.getRow(), computerMove.getColumn());
+
+        logger.debug("Computer played row: {} / column: {} in game {}",
+                computerMove.getRow(), computerMove.getColumn(), game.getId());
+
+        return computerMove;
     }
 
     private GameResponse getGameResponse(Game game) {
         return GameResponse.newBuilder()
                 .withGameId(game.getId())
                 .withGameStatus(game.getStatus())
-                .withPlayers(Arrays.asList(game.getPlayerOne(), game.getPlayerTwo()))
-                .withBoard(game.getBoard().to2dArray())
+                .withPlayers(Arrays.asList(copyOf(game.getPlayerOne()), copyOf(game.getPlayerTwo())))
+                .withCells(game.getBoard().copyCells(), game.getBoard().getSize(), game.getBoard().getMode())
+                .withWinLength(game.getBoard().getWinLength())
+                .withVersion(game.getVersion())
                 .build();
     }
 
+    /**
+     * Responses are written once the game's lock is released, so they hold copies of the players as the cells are
+     * copied, rather than the players held in memory and changed by later moves.
+     */
+    private static Player copyOf(Player player) {
+        return player == null ? null : player.copy();
+    }
+
 }
@@ -0,0 +1,61 @@
+package com.mbragg.game.service.api.service;
+
+import com.mbragg.game.service.api.domain.Game;
+import com.mbragg.game.service.api.domain.GameStatus;
+import com.mbragg.game.service.api.domain.Player;
+import com.mbragg.game.service.api.domain.PlayerStatus;
+
+/**
+ * The mutable columns of a Game, its Board and Players, copied while the game is locked so they can be written to
+ * the database after the lock is released.
+ */
+final class GameSnapshot {
+
+    final Long gameId;
+
+    final GameStatus status;
+
+    final int moveCount;
+
+    final Long version;
+
+    final Long persistedVersion;
+
+    final Long boardId;
+
+    final byte[] cells;
+
+    final Long boardVersion;
+
+    final Long playerOneId;
+
+    final boolean playerOneTurn;
+
+    final PlayerStatus playerOneStatus;
+
+    final Long playerTwoId;
+
+    final boolean playerTwoTurn;
+
+    final PlayerStatus playerTwoStatus;
+
+    GameSnapshot(Game game, Long persistedVersion) {
+        Player playerOne = game.getPlayerOne();
+        Player playerTwo = game.getPlayerTwo();
+
+        this.gameId = game.getId();
+        this.status = game.getStatus();
+        this.moveCount = game.getMoveCount();
+        this.version = game.getVersion();
+        this.persistedVersion = persistedVersion;
+        this.boardId = game.getBoard().getId();
+        this.cells = game.getBoard().copyCells();
+        this.boardVersion = game.getBoard().getVersion();
+        this.playerOneId = playerOne.getId();
+        this.playerOneTurn = playerOne.isTurn();
+        this.playerOneStatus = playerOne.getStatus();
+        this.playerTwoId = playerTwo.getId();
+        this.playerTwoTurn = playerTwo.isTurn();
+        this.playerTwoStatus = playerTwo.getStatus();
+    }
+}
@@ -0,0 +1,439 @@
+package com.mbragg.game.service.api.service;
+
+import com.mbragg.game.service.api.dl.BoardRepository;
+import com.mbragg.game.service.api.dl.GameRepository;
+import com.mbragg.game.service.api.dl.PlayerRepository;
+import com.mbragg.game.service.api.domain.Game;
+import com.mbragg.game.service.api.domain.Player;
+import com.mbragg.game.service.api.journal.MoveJournal;
+import com.mbragg.game.service.api.journal.MoveRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory store of the games being played. Moves are applied to the games held here and the changes are written
+ * to the database behind the players' backs: changed games are queued, and a single writer thread saves them in
+ * batches, each batch in one transaction, at most 'flush delay' after the first change in it was queued. The queue
+ * is bounded, so callers wait for the writer when it falls that far behind.
+ *
+ * Completed games are dropped once their final state is written, and games nobody has touched for the idle timeout
+ * are dropped once they are clean. All changes still waiting are written on shutdown.
+ *
+ * Games here are only changed while holding their lock from {@link GameLocks}. The store assumes it is the only
+ * writer of the games it holds, a write that finds the row was changed elsewhere drops the game from memory.
+ *
+ * When the {@link MoveJournal} is enabled the moves are journaled as they are played, and the database rows act as
+ * snapshots of the journal: each write checkpoints the journal, and on start up the moves journaled but never
+ * written are replayed onto the games loaded from the database.
+ */
+@Component
+public class HotGameStore {
+
+    private static Logger logger = LoggerFactory.getLogger(HotGameStore.class);
+
+    private final ConcurrentMap<Long, HotGame> games = new ConcurrentHashMap<>();
+
+    private final BlockingQueue<Long> pending;
+
+    private final Set<Long> queued = ConcurrentHashMap.newKeySet();
+
+    private final GameRepository gameRepository;
+
+    private final BoardRepository boardRepository;
+
+    private final PlayerRepository playerRepository;
+
+    private final GameLocks gameLocks;
+
+    private final MoveJournal moveJournal;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final long flushDelayNanos;
+
+    private final int batchSize;
+
+    private final long idleTimeoutNanos;
+
+    private volatile boolean running;
+
+    private Thread writer;
+
+    private long lastIdleCheck = System.nanoTime();
+
+    public HotGameStore(GameRepository gameRepository, BoardRepository boardRepository,
+                        PlayerRepository playerRepository, GameLocks gameLocks, MoveJournal moveJournal,
+                        PlatformTransactionManager transactionManager,
+                        @Value("${game.hot-store.flush-delay-millis:100}") long flushDelayMillis,
+                        @Value("${game.hot-store.queue-size:10000}") int queueSize,
+                        @Value("${game.hot-store.batch-size:500}") int batchSize,
+                        @Value("${game.hot-store.idle-timeout-millis:600000}") long idleTimeoutMillis) {
+        this.gameRepository = gameRepository;
+        this.boardRepository = boardRepository;
+        this.playerRepository = playerRepository;
+        this.gameLocks = gameLocks;
+        this.moveJournal = moveJournal;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.pending = new ArrayBlockingQueue<>(queueSize);
+        this.flushDelayNanos = TimeUnit.MILLISECONDS.toNanos(flushDelayMillis);
+        this.batchSize = batchSize;
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        writer = new Thread(this::writeBehind, "hot-game-writer");
+        writer.setDaemon(true);
+        writer.start();
+
+        recover();
+    }
+
+    /**
+     * Replays the moves left in the journal onto their games, holding the games that changed and queueing them to be
+     * written.
+     */
+    public void recover() {
+        Map<Long, List<MoveRecord>> recovered = moveJournal.takeRecovered();
+        int replayed = 0;
+
+        for (Map.Entry<Long, List<MoveRecord>> entry : recovered.entrySet()) {
+            Long id = entry.getKey();
+            int moves = gameLocks.withLock(id, () -> replay(id, entry.getValue()));
+
+            if (moves > 0) {
+                markDirty(id);
+                replayed += moves;
+            }
+        }
+
+        if (!recovered.isEmpty()) {
+            logger.info("Replayed {} journaled moves onto {} games", replayed, recovered.size());
+        }
+    }
+
+    /**
+     * Stops the writer thread and writes every change still held in memory.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (writer != null) {
+            writer.interrupt();
+            writer.join();
+        }
+
+        List<Long> dirty = new ArrayList<>();
+        games.forEach((id, hotGame) -> {
+            if (hotGame.isDirty()) {
+                dirty.add(id);
+            }
+        });
+        pending.clear();
+        queued.clear();
+
+        for (int from = 0; from < dirty.size(); from += batchSize) {
+            write(dirty.subList(from, Math.min(dirty.size(), from + batchSize)));
+        }
+
+        logger.info("Hot game store stopped, wrote {} games on shutdown", dirty.size());
+    }
+
+    /**
+     * Finds a game, loading it from the database if it is not already held. Games still in progress are kept in
+     * memory from then on. Must be called holding the game's lock.
+     *
+     * @return The game, or null if it does not exist.
+     */
+    public Game get(Long id) {
+        HotGame hotGame = games.get(id);
+        if (hotGame != null) {
+            hotGame.touch();
+            return hotGame.game;
+        }
+
+        Game game = gameRepository.findGame(id);
+        if (game != null && game.isInProgress()) {
+            games.put(id, new HotGame(game));
+        }
+        return game;
+    }
+
+    /**
+     * @return The game if it is held in memory, without loading it.
+     */
+    public Game peek(Long id) {
+        HotGame hotGame = games.get(id);
+        return hotGame == null ? null : hotGame.game;
+    }
+
+    /**
+     * Holds a game that has just been saved. Games without an id have not been saved, so are not held.
+     */
+    public void put(Game game) {
+        if (game.getId() != null && game.isInProgress()) {
+            games.put(game.getId(), new HotGame(game));
+        }
+    }
+
+    /**
+     * Moves a changed game to its next version. Must be called holding the game's lock, and followed by
+     * {@link #markDirty(Long)} once the lock is released.
+     */
+    public void update(Game game) {
+        game.setVersion(nextVersion(game.getVersion()));
+        game.getBoard().setVersion(nextVersion(game.getBoard().getVersion()));
+    }
+
+    /**
+     * Queues a changed game to be written. Waits for room if the queue is full, so must not be called holding a game
+     * lock, as the writer takes game locks to copy the games it writes.
+     */
+    public void markDirty(Long id) {
+        if (!queued.add(id)) {
+            return;
+        }
+
+        try {
+            pending.put(id);
+        } catch (InterruptedException e) {
+            queued.remove(id);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing game " + id + " to be written.", e);
+        }
+    }
+
+    public int size() {
+        return games.size();
+    }
+
+    /**
+     * @return The number of games queued to be written.
+     */
+    public int backlog() {
+        return pending.size();
+    }
+
+    /**
+     * Applies the journaled moves the game has not seen, in order, stopping at the first that does not follow on.
+     *
+     * @return The number of moves applied.
+     */
+    private int replay(Long id, List<MoveRecord> records) {
+        HotGame hotGame = games.get(id);
+        Game game = hotGame == null ? gameRepository.findGame(id) : hotGame.game;
+
+        if (game == null) {
+            logger.warn("Journaled moves found for game {}, which does not exist", id);
+            moveJournal.discard(id);
+            return 0;
+        }
+
+        int moves = 0;
+        for (MoveRecord record : records) {
+            if (record.getSequence() <= game.getMoveCount()) {
+                continue;
+            }
+            if (record.getSequence() != game.getMoveCount() + 1 || !game.isInProgress()) {
+                logger.warn("Journaled move {} does not follow on from game {} at move {}",
+                        record.getSequence(), id, game.getMoveCount());
+                break;
+            }
+
+            Player mover = game.getPlayerOne().getId() == record.getPlayerId()
+                    ? game.getPlayerOne() : game.getPlayerTwo();
+            Player opponent = mover == game.getPlayerOne() ? game.getPlayerTwo() : game.getPlayerOne();
+
+            try {
+                GameRules.applyMove(game, mover, opponent, record.getRow(), record.getColumn());
+            } catch (IllegalArgumentException e) {
+                logger.warn("Journaled move {} could not be replayed onto game {}", record.getSequence(), id, e);
+                break;
+            }
+            moves++;
+        }
+
+        if (moves == 0) {
+            // The database already holds everything journaled
+            moveJournal.checkpoint(id, game.getMoveCount());
+            return 0;
+        }
+
+        if (hotGame == null) {
+            games.put(id, new HotGame(game));
+        }
+        update(game);
+        return moves;
+    }
+
+    private void writeBehind() {
+        List<Long> batch = new ArrayList<>(batchSize);
+
+        while (running) {
+            try {
+                Long first = pending.poll(flushDelayNanos, TimeUnit.NANOSECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    long deadline = System.nanoTime() + flushDelayNanos;
+
+                    // Gather whatever else changes before the first change is due, up to a full batch
+                    while (batch.size() < batchSize) {
+                        Long next = pending.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                        if (next == null) {
+                            break;
+                        }
+                        batch.add(next);
+                    }
+
+                    write(batch);
+                    batch.clear();
+                }
+
+                evictIdle();
+            } catch (InterruptedException e) {
+                // Stopping, whatever is left is written by stop()
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                // The games stay dirty in memory and are written on their next change or on shutdown
+                logger.error("Failed to write {} games", batch.size(), e);
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Writes the current state of the games in one transaction, then drops the completed games that have not changed
+     * since.
+     */
+    private void write(List<Long> ids) {
+        List<GameSnapshot> snapshots = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            GameSnapshot snapshot = gameLocks.withLock(id, () -> {
+                queued.remove(id);
+                HotGame hotGame = games.get(id);
+                return hotGame == null || !hotGame.isDirty() ? null : new GameSnapshot(hotGame.game,
+                        hotGame.persistedVersion);
+            });
+            if (snapshot != null) {
+                snapshots.add(snapshot);
+            }
+        }
+        if (snapshots.isEmpty()) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        List<Long> conflicts = transactionTemplate.execute(status -> writeSnapshots(snapshots));
+
+        for (GameSnapshot snapshot : snapshots) {
+            gameLocks.withLock(snapshot.gameId, () -> {
+                HotGame hotGame = games.get(snapshot.gameId);
+                if (hotGame == null) {
+                    return null;
+                }
+
+                if (conflicts.contains(snapshot.gameId)) {
+                    games.remove(snapshot.gameId);
+                    moveJournal.discard(snapshot.gameId);
+                } else {
+                    hotGame.persistedVersion = snapshot.version;
+                    moveJournal.checkpoint(snapshot.gameId, snapshot.moveCount);
+                    if (!hotGame.game.isInProgress() && !hotGame.isDirty()) {
+                        games.remove(snapshot.gameId);
+                    }
+                }
+                return null;
+            });
+        }
+
+        logger.debug("Wrote {} games in {}us", snapshots.size(), (System.nanoTime() - start) / 1000);
+    }
+
+    private List<Long> writeSnapshots(List<GameSnapshot> snapshots) {
+        List<Long> conflicts = new ArrayList<>();
+
+        for (GameSnapshot snapshot : snapshots) {
+            int updated = gameRepository.updateState(snapshot.gameId, snapshot.status, snapshot.moveCount,
+                    snapshot.version, snapshot.persistedVersion);
+
+            if (updated == 0) {
+                logger.warn("Game {} was changed outside the hot store, dropping its in-memory state",
+                        snapshot.gameId);
+                conflicts.add(snapshot.gameId);
+                continue;
+            }
+
+            boardRepository.updateCells(snapshot.boardId, snapshot.cells, snapshot.boardVersion);
+            playerRepository.updateState(snapshot.playerOneId, snapshot.playerOneTurn, snapshot.playerOneStatus);
+            playerRepository.updateState(snapshot.playerTwoId, snapshot.playerTwoTurn, snapshot.playerTwoStatus);
+        }
+
+        return conflicts;
+    }
+
+    private void evictIdle() {
+        long now = System.nanoTime();
+        if (now - lastIdleCheck < idleTimeoutNanos / 10) {
+            return;
+        }
+        lastIdleCheck = now;
+
+        for (Long id : games.keySet()) {
+            gameLocks.withLock(id, () -> {
+                HotGame hotGame = games.get(id);
+                if (hotGame != null && !hotGame.isDirty() && now - hotGame.lastAccess > idleTimeoutNanos) {
+                    games.remove(id);
+                }
+                return null;
+            });
+        }
+    }
+
+    private static Long nextVersion(Long version) {
+        return version == null ? 1L : version + 1;
+    }
+
+    /**
+     * A game held in memory, with the version last written to the database.
+     */
+    private static final class HotGame {
+
+        private final Game game;
+
+        private volatile Long persistedVersion;
+
+        private volatile long lastAccess = System.nanoTime();
+
+        private HotGame(Game game) {
+            this.game = game;
+            this.persistedVersion = game.getVersion();
+        }
+
+        private void touch() {
+            lastAccess = System.nanoTime();
+        }
+
+        private boolean isDirty() {
+            return !Objects.equals(persistedVersion, game.getVersion());
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.mbragg.game.service.api.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.springframework.util.Assert.isTrue;
+
+/**
+ * Bounded cache in front of a lookup, evicting the least recently used entry once full. Counts hits and misses so
+ * the size can be tuned against real traffic.
+ */
+public class LookupCache<K, V> {
+
+    private final Map<K, V> entries;
+
+    private final int capacity;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    public LookupCache(int capacity) {
+        isTrue(capacity > 0, "Cache capacity must be greater than zero.");
+        this.capacity = capacity;
+
+        this.entries = new LinkedHashMap<K, V>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * @return The value cached for the key, or null if there is none.
+     */
+    public V get(K key) {
+        V value;
+        synchronized (entries) {
+            value = entries.get(key);
+        }
+
+        (value == null ? misses : hits).incrementAndGet();
+        return value;
+    }
+
+    public void put(K key, V value) {
+        synchronized (entries) {
+            entries.put(key, value);
+        }
+    }
+
+    /**
+     * Drops the value cached for the key, if any.
+     */
+    public void invalidate(K key) {
+        synchronized (entries) {
+            entries.remove(key);
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+}
@@ -0,0 +1,20 @@
+package com.mbragg.game.service.api.service;
+
+import com.mbragg.game.service.api.domain.Board;
+import com.mbragg.game.service.api.domain.Mark;
+import com.mbragg.game.service.api.engine.CanonicalPosition;
+
+/**
+ * Service operations for keying positions, for caches shared between games
+ */
+public interface PositionKeyService {
+
+    /**
+     * Key a position so that it shares its key with all of its rotations and reflections
+     *
+     * @param board The board being played on
+     * @param mark  The Mark of the player to move
+     * @return The canonical position, holding the key and the symmetry mapping moves to and from it
+     */
+    CanonicalPosition canonicalPosition(Board board, Mark mark);
+}
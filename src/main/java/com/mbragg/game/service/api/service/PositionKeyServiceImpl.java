@@ -0,0 +1,28 @@
+package com.mbragg.game.service.api.service;
+
+import com.mbragg.game.service.api.domain.Board;
+import com.mbragg.game.service.api.domain.Mark;
+import com.mbragg.game.service.api.domain.PositionKey;
+import com.mbragg.game.service.api.engine.CanonicalPosition;
+import org.springframework.stereotype.Service;
+
+import static org.springframework.util.Assert.notNull;
+
+@Service
+public class PositionKeyServiceImpl implements PositionKeyService {
+
+    /**
+     * Mixed into the key when CIRCLE is to move, so the same marks with a different player to move are kept apart.
+     */
+    private static final long CIRCLE_TO_MOVE = 0x6A09E667F3BCC909L;
+
+    @Override
+    public CanonicalPosition canonicalPosition(Board board, Mark mark) {
+        notNull(board, "Board can not be null");
+
+        PositionKey positionKey = board.getPositionKey();
+        long key = positionKey.getCanonicalKey() ^ (mark == Mark.CIRCLE ? CIRCLE_TO_MOVE : 0);
+
+        return new CanonicalPosition(key, positionKey.getCanonicalSymmetry(), board.getSize());
+    }
+}
@@ -0,0 +1,44 @@
+package com.mbragg.game.service.api.service;
+
+import com.mbragg.game.service.api.dto.GameResponse;
+import com.mbragg.game.service.api.dto.MoveDelta;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+
+/**
+ * Writes the events of a followed Game as Server-Sent Events, the id of each event being the version of the game.
+ */
+class SseEventSink implements GameEventSink {
+
+    private static final String HEARTBEAT = "heartbeat";
+
+    private final SseEmitter emitter;
+
+    SseEventSink(SseEmitter emitter) {
+        this.emitter = emitter;
+    }
+
+    @Override
+    public void sendGame(GameResponse game) throws IOException {
+        emitter.send(SseEmitter.event().id(String.valueOf(game.getVersion())).name(GameEventStream.GAME_EVENT)
+                .data(game, MediaType.APPLICATION_JSON));
+    }
+
+    @Override
+    public void sendMove(MoveDelta delta) throws IOException {
+        emitter.send(SseEmitter.event().id(String.valueOf(delta.getVersion())).name(GameEventStream.MOVE_EVENT)
+                .data(delta, MediaType.APPLICATION_JSON));
+    }
+
+    @Override
+    public void sendHeartbeat() throws IOException {
+        emitter.send(SseEmitter.event().comment(HEARTBEAT));
+    }
+
+    @Override
+    public void close() {
+        emitter.complete();
+    }
+}
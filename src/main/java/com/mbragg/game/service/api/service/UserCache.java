@@ -0,0 +1,16 @@
+package com.mbragg.game.service.api.service;
+
+import com.mbragg.game.service.api.domain.User;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Users by id. Users do not change once created, so they are only dropped when saved again or evicted.
+ */
+@Component
+public class UserCache extends LookupCache<Long, User> {
+
+    public UserCache(@Value("${game.cache.user-size:10000}") int capacity) {
+        super(capacity);
+    }
+}
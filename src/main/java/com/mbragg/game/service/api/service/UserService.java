@@ -1,8 +1,10 @@
 package com.mbragg.game.service.api.service;
 
 import com.mbragg.game.service.api.domain.User;
+import com.mbragg.game.service.api.dto.UsersPageResponse;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Service operations that can be performed on the Game User
@@ -26,9 +28,27 @@ public interface UserService {
     User findOne(Long id);
 
     /**
-     * Find all the users
+     * Find the users with the given ids in a single lookup
      *
-     * @return A list containing all of the users in the system
+     * @param ids The identifiers of the users
+     * @return A list containing the users that exist
      */
-    List<User> findAll();
+    List<User> findAll(Iterable<Long> ids);
+
+    /**
+     * Find a page of users in id order
+     *
+     * @param afterId Only users with an id greater than this, or null to start from the first user
+     * @param size    The number of users on a page
+     * @return A page of users, with the id to request the next page after
+     */
+    UsersPageResponse findPage(Long afterId, int size);
+
+    /**
+     * Pass every user, in id order, to the consumer straight from a database cursor, so that the users are never all
+     * held in memory at once
+     *
+     * @param consumer Called with each user in turn
+     */
+    void export(Consumer<User> consumer);
 }
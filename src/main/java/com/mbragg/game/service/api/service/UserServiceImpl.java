@@ -2,19 +2,35 @@ package com.mbragg.game.service.api.service;
 
 import com.mbragg.game.service.api.dl.UserRepository;
 import com.mbragg.game.service.api.domain.User;
+import com.mbragg.game.service.api.dto.UsersPageResponse;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import static org.springframework.util.Assert.*;
 
 @Service
 public class UserServiceImpl implements UserService {
 
+    private static final int MAXIMUM_PAGE_SIZE = 1000;
+
     private final UserRepository userRepository;
 
-    public UserServiceImpl(UserRepository userRepository) {
+    private final UserCache userCache;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public UserServiceImpl(UserRepository userRepository, UserCache userCache,
+                           PlatformTransactionManager transactionManager) {
         this.userRepository = userRepository;
+        this.userCache = userCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
     }
 
     @Override
@@ -22,18 +38,60 @@ public class UserServiceImpl implements UserService {
         notNull(user, "User must not be null.");
         hasText(user.getName(), "User name must not be null or empty.");
 
-        return userRepository.save(user);
+        User savedUser = userRepository.save(user);
+        userCache.invalidate(savedUser.getId());
+
+        return savedUser;
     }
 
     @Override
     public User findOne(Long id) {
         notNull(id, "User id must not be null.");
 
-        return userRepository.findOne(id);
+        User user = userCache.get(id);
+        if (user == null) {
+            user = userRepository.findOne(id);
+            if (user != null) {
+                userCache.put(id, user);
+            }
+        }
+
+        return user;
+    }
+
+    @Override
+    public List<User> findAll(Iterable<Long> ids) {
+        notNull(ids, "User ids must not be null.");
+
+        return (List<User>) userRepository.findAll(ids);
+    }
+
+    @Override
+    public UsersPageResponse findPage(Long afterId, int size) {
+        isTrue(size >= 1 && size <= MAXIMUM_PAGE_SIZE, "Page size must be between 1 and " + MAXIMUM_PAGE_SIZE + ".");
+
+        List<User> users = userRepository.findByIdGreaterThanOrderByIdAsc(afterId == null ? 0L : afterId,
+                new PageRequest(0, size));
+
+        UsersPageResponse usersPageResponse = new UsersPageResponse();
+        usersPageResponse.setUsers(users);
+        if (users.size() == size) {
+            usersPageResponse.setNextAfter(users.get(users.size() - 1).getId());
+        }
+
+        return usersPageResponse;
     }
 
     @Override
-    public List<User> findAll() {
-        return (List<User>) userRepository.findAll();
+    public void export(Consumer<User> consumer) {
+        notNull(consumer, "User consumer must not be null.");
+
+        // The cursor is only open for as long as the transaction
+        transactionTemplate.execute(status -> {
+            try (Stream<User> users = userRepository.streamAll()) {
+                users.forEach(consumer);
+            }
+            return null;
+        });
     }
 }
@@ -0,0 +1,80 @@
+package com.mbragg.game.service.api.simulation;
+
+import ch.qos.logback.classic.Level;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Locale;
+
+/**
+ * Command line entry point for the simulation harness. Runs without starting Spring, for example from the packaged
+ * jar with:
+ *
+ * java -cp target/tic-tac-toe-0.0.1-SNAPSHOT.jar
+ *      -Dloader.main=com.mbragg.game.service.api.simulation.SimulationApplication
+ *      org.springframework.boot.loader.PropertiesLauncher --games=100000 --size=3 --player-one=greedy
+ *
+ * Options: --games, --size, --win-length, --player-one, --player-two (random, greedy or search), --threads, --seed
+ * and --search-budget-millis.
+ */
+public final class SimulationApplication {
+
+    private SimulationApplication() {
+        // Entry point only
+    }
+
+    public static void main(String[] args) {
+        SimulationConfig config = parse(args);
+
+        // Without Spring Boot's logging setup logback logs everything, including a line per move
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.INFO);
+
+        System.out.println(config);
+        System.out.println(new Simulator().run(config));
+    }
+
+    static SimulationConfig parse(String[] args) {
+        SimulationConfig config = new SimulationConfig();
+
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Options must be given as --name=value, found " + arg);
+            }
+
+            String name = arg.substring(2, separator);
+            String value = arg.substring(separator + 1);
+
+            switch (name) {
+                case "games":
+                    config.setGames(Integer.parseInt(value));
+                    break;
+                case "size":
+                    config.setBoardSize(Integer.parseInt(value));
+                    break;
+                case "win-length":
+                    config.setWinLength(Integer.parseInt(value));
+                    break;
+                case "player-one":
+                    config.setPlayerOne(Strategy.valueOf(value.toUpperCase(Locale.ROOT)));
+                    break;
+                case "player-two":
+                    config.setPlayerTwo(Strategy.valueOf(value.toUpperCase(Locale.ROOT)));
+                    break;
+                case "threads":
+                    config.setThreads(Integer.parseInt(value));
+                    break;
+                case "seed":
+                    config.setSeed(Long.parseLong(value));
+                    break;
+                case "search-budget-millis":
+                    config.setSearchBudgetMillis(Long.parseLong(value));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option --" + name);
+            }
+        }
+
+        return config;
+    }
+}
@@ -0,0 +1,110 @@
+package com.mbragg.game.service.api.simulation;
+
+/**
+ * Settings for a simulation run.
+ */
+public class SimulationConfig {
+
+    private int games = 1000;
+
+    private int boardSize = 3;
+
+    private int winLength;
+
+    private Strategy playerOne = Strategy.RANDOM;
+
+    private Strategy playerTwo = Strategy.RANDOM;
+
+    private int threads;
+
+    private long seed = 1;
+
+    private long searchBudgetMillis = 10;
+
+    public int getGames() {
+        return games;
+    }
+
+    public void setGames(int games) {
+        this.games = games;
+    }
+
+    public int getBoardSize() {
+        return boardSize;
+    }
+
+    public void setBoardSize(int boardSize) {
+        this.boardSize = boardSize;
+    }
+
+    /**
+     * @return The number of marks in a row that wins, defaulting to the board size when 0.
+     */
+    public int getWinLength() {
+        return winLength > 0 ? winLength : boardSize;
+    }
+
+    public void setWinLength(int winLength) {
+        this.winLength = winLength;
+    }
+
+    public Strategy getPlayerOne() {
+        return playerOne;
+    }
+
+    public void setPlayerOne(Strategy playerOne) {
+        this.playerOne = playerOne;
+    }
+
+    public Strategy getPlayerTwo() {
+        return playerTwo;
+    }
+
+    public void setPlayerTwo(Strategy playerTwo) {
+        this.playerTwo = playerTwo;
+    }
+
+    /**
+     * @return The number of games played at once, defaulting to one per available processor when 0.
+     */
+    public int getThreads() {
+        return threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * @return The time budget for each move of a SEARCH player on boards it can not solve outright.
+     */
+    public long getSearchBudgetMillis() {
+        return searchBudgetMillis;
+    }
+
+    public void setSearchBudgetMillis(long searchBudgetMillis) {
+        this.searchBudgetMillis = searchBudgetMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "SimulationConfig{" +
+                "games=" + games +
+                ", boardSize=" + boardSize +
+                ", winLength=" + getWinLength() +
+                ", playerOne=" + playerOne +
+                ", playerTwo=" + playerTwo +
+                ", threads=" + getThreads() +
+                ", seed=" + seed +
+                ", searchBudgetMillis=" + searchBudgetMillis +
+                '}';
+    }
+}
@@ -0,0 +1,140 @@
+package com.mbragg.game.service.api.simulation;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Aggregate results of a simulation run. Reports are combined by adding their counts, so each worker can keep its
+ * own and they are merged at the end.
+ */
+public class SimulationReport {
+
+    private long games;
+
+    private long playerOneWins;
+
+    private long playerTwoWins;
+
+    private long draws;
+
+    private long firstMoverWins;
+
+    private long moves;
+
+    private long allocatedBytes;
+
+    private boolean allocationMeasured = true;
+
+    private long elapsedNanos;
+
+    void recordGame(int gameMoves, boolean playerOneWon, boolean playerTwoWon, boolean firstMoverWon) {
+        games++;
+        moves += gameMoves;
+        if (playerOneWon) {
+            playerOneWins++;
+        } else if (playerTwoWon) {
+            playerTwoWins++;
+        } else {
+            draws++;
+        }
+        if (firstMoverWon) {
+            firstMoverWins++;
+        }
+    }
+
+    void recordAllocation(long bytes) {
+        if (bytes < 0) {
+            allocationMeasured = false;
+        } else {
+            allocatedBytes += bytes;
+        }
+    }
+
+    void add(SimulationReport other) {
+        games += other.games;
+        playerOneWins += other.playerOneWins;
+        playerTwoWins += other.playerTwoWins;
+        draws += other.draws;
+        firstMoverWins += other.firstMoverWins;
+        moves += other.moves;
+        allocatedBytes += other.allocatedBytes;
+        allocationMeasured &= other.allocationMeasured;
+    }
+
+    void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long getGames() {
+        return games;
+    }
+
+    public long getPlayerOneWins() {
+        return playerOneWins;
+    }
+
+    public long getPlayerTwoWins() {
+        return playerTwoWins;
+    }
+
+    public long getDraws() {
+        return draws;
+    }
+
+    public long getFirstMoverWins() {
+        return firstMoverWins;
+    }
+
+    public long getMoves() {
+        return moves;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double getGamesPerSecond() {
+        return elapsedNanos == 0 ? 0 : games * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    public double getPlayerOneWinRate() {
+        return rate(playerOneWins);
+    }
+
+    public double getPlayerTwoWinRate() {
+        return rate(playerTwoWins);
+    }
+
+    public double getDrawRate() {
+        return rate(draws);
+    }
+
+    public double getFirstMoverWinRate() {
+        return rate(firstMoverWins);
+    }
+
+    public double getAverageLength() {
+        return games == 0 ? 0 : moves / (double) games;
+    }
+
+    /**
+     * @return Bytes allocated on the heap per game by the simulating threads, or -1 if the JVM can not measure it.
+     */
+    public long getAllocatedBytesPerGame() {
+        if (!allocationMeasured) {
+            return -1;
+        }
+        return games == 0 ? 0 : allocatedBytes / games;
+    }
+
+    private double rate(long count) {
+        return games == 0 ? 0 : count / (double) games;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("games=%d, games/s=%.1f, playerOneWins=%.3f, playerTwoWins=%.3f, draws=%.3f, "
+                        + "firstMoverWins=%.3f, averageLength=%.2f, bytes/game=%d",
+                games, getGamesPerSecond(), getPlayerOneWinRate(), getPlayerTwoWinRate(), getDrawRate(),
+                getFirstMoverWinRate(), getAverageLength(), getAllocatedBytesPerGame());
+    }
+}
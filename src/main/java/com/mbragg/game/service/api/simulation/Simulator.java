@@ -0,0 +1,187 @@
+package com.mbragg.game.service.api.simulation;
+
+import com.mbragg.game.service.api.domain.Board;
+import com.mbragg.game.service.api.domain.Game;
+import com.mbragg.game.service.api.domain.GameStatus;
+import com.mbragg.game.service.api.domain.Mark;
+import com.mbragg.game.service.api.domain.Player;
+import com.mbragg.game.service.api.domain.PlayerStatus;
+import com.mbragg.game.service.api.domain.PlayerType;
+import com.mbragg.game.service.api.engine.GreedyEngine;
+import com.mbragg.game.service.api.engine.MonteCarloEngine;
+import com.mbragg.game.service.api.engine.Move;
+import com.mbragg.game.service.api.engine.MoveEngine;
+import com.mbragg.game.service.api.engine.NegamaxEngine;
+import com.mbragg.game.service.api.engine.OutcomeTable;
+import com.mbragg.game.service.api.engine.RandomEngine;
+import com.mbragg.game.service.api.service.ComputerPlayerService;
+import com.mbragg.game.service.api.service.ComputerPlayerServiceImpl;
+import com.mbragg.game.service.api.service.EvaluationCache;
+import com.mbragg.game.service.api.service.GameRules;
+import com.mbragg.game.service.api.service.PositionKeyServiceImpl;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import static org.springframework.util.Assert.isTrue;
+import static org.springframework.util.Assert.notNull;
+
+/**
+ * Plays games between two strategies straight through the domain objects and GameRules, without the web stack or the
+ * database. Games are shared out between worker threads, each playing its share one after another with its own
+ * engines, and the per worker results are added together at the end.
+ */
+public class Simulator {
+
+    private static final int MONTE_CARLO_MINIMUM_SIZE = 9;
+
+    private static final int SEARCH_TABLE_SIZE = 1 << 16;
+
+    private static final int EVALUATION_CACHE_SIZE = 10_000;
+
+    private OutcomeTable outcomeTable;
+
+    public SimulationReport run(SimulationConfig config) {
+        notNull(config, "Simulation config can not be null");
+        isTrue(config.getGames() > 0, "A simulation must play at least one game.");
+        isTrue(config.getBoardSize() >= 3, "The minimum board size is 3.");
+
+        if ((config.getPlayerOne() == Strategy.SEARCH || config.getPlayerTwo() == Strategy.SEARCH)
+                && outcomeTable == null) {
+            outcomeTable = new OutcomeTable();
+        }
+
+        int threads = Math.min(config.getThreads(), config.getGames());
+        ForkJoinPool pool = new ForkJoinPool(threads);
+
+        List<Callable<SimulationReport>> workers = new ArrayList<>(threads);
+        for (int worker = 0; worker < threads; worker++) {
+            int first = worker;
+            workers.add(() -> playShare(config, first, threads));
+        }
+
+        SimulationReport report = new SimulationReport();
+        long start = System.nanoTime();
+
+        try {
+            for (Future<SimulationReport> result : pool.invokeAll(workers)) {
+                report.add(result.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while simulating games.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Simulated game failed.", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+
+        report.setElapsedNanos(System.nanoTime() - start);
+        return report;
+    }
+
+    /**
+     * Plays every game whose number is 'first' plus a multiple of 'step'.
+     */
+    private SimulationReport playShare(SimulationConfig config, int first, int step) {
+        List<MonteCarloEngine> searchPools = new ArrayList<>();
+        MoveEngine playerOneEngine = engineFor(config.getPlayerOne(), config, config.getSeed() * 31 + first * 2,
+                searchPools);
+        MoveEngine playerTwoEngine = engineFor(config.getPlayerTwo(), config, config.getSeed() * 31 + first * 2 + 1,
+                searchPools);
+
+        SimulationReport report = new SimulationReport();
+        long allocatedBefore = allocatedBytes();
+
+        try {
+            for (int gameNumber = first; gameNumber < config.getGames(); gameNumber += step) {
+                // Alternate who opens so neither strategy gets the first move advantage
+                playGame(config, playerOneEngine, playerTwoEngine, gameNumber % 2 == 0, report);
+            }
+        } finally {
+            searchPools.forEach(MonteCarloEngine::shutdown);
+        }
+
+        long allocatedAfter = allocatedBytes();
+        report.recordAllocation(allocatedBefore < 0 ? -1 : allocatedAfter - allocatedBefore);
+
+        return report;
+    }
+
+    private void playGame(SimulationConfig config, MoveEngine playerOneEngine, MoveEngine playerTwoEngine,
+                          boolean playerOneOpens, SimulationReport report) {
+        Player playerOne = newPlayer(playerOneOpens);
+        Player playerTwo = newPlayer(!playerOneOpens);
+
+        Game game = new Game();
+        game.setBoard(new Board(config.getBoardSize(), config.getWinLength()));
+        game.setPlayerOne(playerOne);
+        game.setPlayerTwo(playerTwo);
+        game.setStatus(GameStatus.IN_PROGRESS);
+
+        int moves = 0;
+        while (game.getStatus() == GameStatus.IN_PROGRESS) {
+            Player mover = GameRules.playerToMove(game);
+            MoveEngine engine = mover == playerOne ? playerOneEngine : playerTwoEngine;
+
+            Move move = engine.selectMove(game.getBoard(), mover.getMark());
+            GameRules.applyMove(game, mover, GameRules.playerWaiting(game), move.getRow(), move.getColumn());
+            moves++;
+        }
+
+        boolean playerOneWon = playerOne.getStatus() == PlayerStatus.WINNER;
+        boolean playerTwoWon = playerTwo.getStatus() == PlayerStatus.WINNER;
+        report.recordGame(moves, playerOneWon, playerTwoWon, playerOneOpens ? playerOneWon : playerTwoWon);
+    }
+
+    private static Player newPlayer(boolean opens) {
+        Player player = new Player();
+        player.setType(PlayerType.COMPUTER);
+        player.setMark(opens ? Mark.CROSS : Mark.CIRCLE);
+        player.setTurn(opens);
+        player.setStatus(PlayerStatus.PLAYING);
+        return player;
+    }
+
+    private MoveEngine engineFor(Strategy strategy, SimulationConfig config, long seed,
+                                 List<MonteCarloEngine> searchPools) {
+        switch (strategy) {
+            case RANDOM:
+                return new RandomEngine(seed);
+            case GREEDY:
+                return new GreedyEngine(seed);
+            case SEARCH:
+                MonteCarloEngine monteCarloEngine = new MonteCarloEngine(config.getSearchBudgetMillis(), 1,
+                        SEARCH_TABLE_SIZE);
+                searchPools.add(monteCarloEngine);
+
+                ComputerPlayerService computerPlayerService = new ComputerPlayerServiceImpl(outcomeTable,
+                        new NegamaxEngine(config.getSearchBudgetMillis(), SEARCH_TABLE_SIZE), monteCarloEngine,
+                        new PositionKeyServiceImpl(), new EvaluationCache(EVALUATION_CACHE_SIZE),
+                        MONTE_CARLO_MINIMUM_SIZE);
+                return computerPlayerService::selectMove;
+            default:
+                throw new IllegalArgumentException("Unknown strategy " + strategy);
+        }
+    }
+
+    /**
+     * @return The bytes allocated so far by the current thread, or -1 if the JVM does not track it.
+     */
+    private static long allocatedBytes() {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) threadMXBean;
+            if (allocationBean.isThreadAllocatedMemorySupported() && allocationBean.isThreadAllocatedMemoryEnabled()) {
+                return allocationBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,19 @@
+package com.mbragg.game.service.api.simulation;
+
+/**
+ * How a simulated player chooses its moves.
+ */
+public enum Strategy {
+    /**
+     * Any empty cell with equal probability.
+     */
+    RANDOM,
+    /**
+     * Win or block when possible, otherwise a random cell next to a mark.
+     */
+    GREEDY,
+    /**
+     * The engines used for computer players in real games.
+     */
+    SEARCH
+}
@@ -0,0 +1,154 @@
+package com.mbragg.game.service.api.socket;
+
+import com.mbragg.game.service.api.domain.GameStatus;
+import com.mbragg.game.service.api.domain.Player;
+import com.mbragg.game.service.api.dto.BoardFormat;
+import com.mbragg.game.service.api.dto.GameResponse;
+import com.mbragg.game.service.api.dto.MoveDelta;
+import com.mbragg.game.service.api.dto.PlacedCell;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Encodes the binary frames sent over the game WebSocket. Every frame starts with a one byte type, followed by its
+ * fields in big-endian order:
+ *
+ * <pre>
+ * JOIN  (client)  game id (8), player id (8, 0 to spectate), last version seen (8, 0 if none)
+ * MOVE  (client)  game id (8), row (4), column (4), sequence (4)
+ * GAME  (server)  game id (8), version (8), status (1), player turn (8, 0 if none), board size (4), win length (4),
+ *                 cells packed at 2 bits per cell as in the PACKED board format
+ * MOVED (server)  game id (8), version (8), status (1), player turn (8, 0 if none), cell count (1), then for each cell
+ *                 row (4), column (4), mark (1, the character of the 'Mark'), player id (8)
+ * ACK   (server)  game id (8), sequence (4), version (8)
+ * ERROR (server)  game id (8, 0 if unknown), sequence (4, 0 if none), UTF-8 message
+ * </pre>
+ *
+ * Statuses are sent as the ordinal of {@link GameStatus}.
+ */
+public final class GameFrames {
+
+    public static final byte JOIN = 1;
+
+    public static final byte MOVE = 2;
+
+    public static final byte GAME = 10;
+
+    public static final byte MOVED = 11;
+
+    public static final byte ACK = 12;
+
+    public static final byte ERROR = 13;
+
+    public static final int JOIN_BYTES = 1 + Long.BYTES + Long.BYTES + Long.BYTES;
+
+    public static final int MOVE_BYTES = 1 + Long.BYTES + Integer.BYTES + Integer.BYTES + Integer.BYTES;
+
+    private static final int STATE_BYTES = 1 + Long.BYTES + Long.BYTES + 1 + Long.BYTES;
+
+    private static final int CELL_BYTES = Integer.BYTES + Integer.BYTES + 1 + Long.BYTES;
+
+    private GameFrames() {
+        // Static helpers only
+    }
+
+    public static ByteBuffer join(long gameId, long playerId, long lastVersion) {
+        ByteBuffer frame = ByteBuffer.allocate(JOIN_BYTES)
+                .put(JOIN)
+                .putLong(gameId)
+                .putLong(playerId)
+                .putLong(lastVersion);
+        frame.flip();
+        return frame;
+    }
+
+    public static ByteBuffer move(long gameId, int row, int column, int sequence) {
+        ByteBuffer frame = ByteBuffer.allocate(MOVE_BYTES)
+                .put(MOVE)
+                .putLong(gameId)
+                .putInt(row)
+                .putInt(column)
+                .putInt(sequence);
+        frame.flip();
+        return frame;
+    }
+
+    public static ByteBuffer game(GameResponse game) {
+        GameResponse packed = game.withBoardFormat(BoardFormat.PACKED);
+        byte[] cells = packed.getPackedCells() == null
+                ? new byte[0] : Base64.getDecoder().decode(packed.getPackedCells());
+        int boardSize = packed.getBoardSize() == null ? 0 : packed.getBoardSize();
+
+        ByteBuffer frame = ByteBuffer.allocate(STATE_BYTES + Integer.BYTES + Integer.BYTES + cells.length);
+        putState(frame, GAME, game.getGameId(), game.getVersion(), game.getGameStatus(), playerTurn(game));
+        frame.putInt(boardSize)
+                .putInt(game.getWinLength())
+                .put(cells);
+        frame.flip();
+        return frame;
+    }
+
+    public static ByteBuffer moved(MoveDelta delta) {
+        ByteBuffer frame = ByteBuffer.allocate(STATE_BYTES + 1 + CELL_BYTES * delta.getCells().size());
+        putState(frame, MOVED, delta.getGameId(), delta.getVersion(), delta.getGameStatus(), delta.getPlayerTurn());
+        frame.put((byte) delta.getCells().size());
+
+        for (PlacedCell cell : delta.getCells()) {
+            frame.putInt(cell.getRow())
+                    .putInt(cell.getColumn())
+                    .put((byte) cell.getMark().charValue())
+                    .putLong(cell.getPlayerId());
+        }
+        frame.flip();
+        return frame;
+    }
+
+    public static ByteBuffer ack(long gameId, int sequence, long version) {
+        ByteBuffer frame = ByteBuffer.allocate(1 + Long.BYTES + Integer.BYTES + Long.BYTES)
+                .put(ACK)
+                .putLong(gameId)
+                .putInt(sequence)
+                .putLong(version);
+        frame.flip();
+        return frame;
+    }
+
+    public static ByteBuffer error(long gameId, int sequence, String message) {
+        byte[] text = String.valueOf(message).getBytes(StandardCharsets.UTF_8);
+
+        ByteBuffer frame = ByteBuffer.allocate(1 + Long.BYTES + Integer.BYTES + text.length)
+                .put(ERROR)
+                .putLong(gameId)
+                .putInt(sequence)
+                .put(text);
+        frame.flip();
+        return frame;
+    }
+
+    private static void putState(ByteBuffer frame, byte type, Long gameId, Long version, GameStatus status,
+                                 Long playerTurn) {
+        frame.put(type)
+                .putLong(valueOf(gameId))
+                .putLong(valueOf(version))
+                .put((byte) (status == null ? 0 : status.ordinal()))
+                .putLong(valueOf(playerTurn));
+    }
+
+    private static Long playerTurn(GameResponse game) {
+        if (game.getGameStatus() != GameStatus.IN_PROGRESS || game.getPlayers() == null) {
+            return null;
+        }
+        for (Player player : game.getPlayers()) {
+            if (player != null && player.isTurn()) {
+                return player.getId();
+            }
+        }
+        return null;
+    }
+
+    private static long valueOf(Long value) {
+        return value == null ? 0 : value;
+    }
+}
@@ -0,0 +1,192 @@
+package com.mbragg.game.service.api.socket;
+
+import com.mbragg.game.service.api.domain.GameStatus;
+import com.mbragg.game.service.api.dto.GameResponse;
+import com.mbragg.game.service.api.dto.MoveDelta;
+import com.mbragg.game.service.api.service.GameEventSink;
+import com.mbragg.game.service.api.service.GameEventStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.websocket.CloseReason;
+import javax.websocket.Session;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static org.springframework.util.Assert.isTrue;
+
+/**
+ * The games one WebSocket connection has joined. Frames are written to the connection both by the thread receiving
+ * its frames and by the threads of the {@link GameEventStream}, so every write holds the connection's monitor.
+ */
+class GameSocket {
+
+    static final String BEHIND_MESSAGE = "Fell too far behind the game, join it again to resume.";
+
+    private static final ByteBuffer PING = ByteBuffer.allocate(0);
+
+    private static Logger logger = LoggerFactory.getLogger(GameSocket.class);
+
+    private final Session session;
+
+    private final ConcurrentMap<Long, Joined> games = new ConcurrentHashMap<>();
+
+    GameSocket(Session session) {
+        this.session = session;
+    }
+
+    /**
+     * Joins a game, leaving it first if already joined.
+     *
+     * @param playerId The player joining, or 0 for a spectator
+     */
+    Joined join(long gameId, long playerId) {
+        Joined joined = new Joined(gameId, playerId);
+        Joined previous = games.put(gameId, joined);
+        if (previous != null) {
+            previous.cancel();
+        }
+        return joined;
+    }
+
+    Joined joined(long gameId) {
+        return games.get(gameId);
+    }
+
+    void leave(long gameId) {
+        Joined joined = games.remove(gameId);
+        if (joined != null) {
+            joined.cancel();
+        }
+    }
+
+    /**
+     * Stops following every game, once the connection is closed.
+     */
+    void close() {
+        for (Long gameId : games.keySet()) {
+            leave(gameId);
+        }
+    }
+
+    private synchronized void disconnect(CloseReason closeReason) {
+        try {
+            session.close(closeReason);
+        } catch (IOException e) {
+            logger.debug("Could not close game socket {}: {}", session.getId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Writes a frame, dropping it if the connection is closed. Writes that fail are left to close the connection.
+     */
+    void send(ByteBuffer frame) {
+        try {
+            write(frame);
+        } catch (IOException e) {
+            logger.debug("Could not write to game socket {}: {}", session.getId(), e.getMessage());
+        }
+    }
+
+    private synchronized void write(ByteBuffer frame) throws IOException {
+        if (session.isOpen()) {
+            session.getBasicRemote().sendBinary(frame);
+        }
+    }
+
+    private synchronized void ping() throws IOException {
+        if (session.isOpen()) {
+            session.getBasicRemote().sendPing(PING.duplicate());
+        }
+    }
+
+    /**
+     * One game joined by the connection, receiving its events from the {@link GameEventStream}.
+     */
+    final class Joined implements GameEventSink {
+
+        private final long gameId;
+
+        private final long playerId;
+
+        private volatile int lastSequence;
+
+        private volatile boolean complete;
+
+        private volatile GameEventStream.Subscription subscription;
+
+        private volatile boolean cancelled;
+
+        private Joined(long gameId, long playerId) {
+            this.gameId = gameId;
+            this.playerId = playerId;
+        }
+
+        long getPlayerId() {
+            return playerId;
+        }
+
+        void follow(GameEventStream.Subscription subscription) {
+            this.subscription = subscription;
+            if (cancelled) {
+                subscription.cancel();
+            }
+        }
+
+        /**
+         * Moves are numbered by the client, so a move sent twice over the connection is not played twice. Numbering
+         * starts again each time the game is joined; a move sent again after joining is rejected by the game itself,
+         * as its cell is taken.
+         */
+        void checkSequence(int sequence) {
+            isTrue(sequence > lastSequence, "Move sequence must increase, the last move was " + lastSequence + ".");
+        }
+
+        /**
+         * Records the sequence of a move once it has been played, so a move that was rejected can be sent again
+         * with the same sequence.
+         */
+        void moved(int sequence) {
+            lastSequence = sequence;
+        }
+
+        private void cancel() {
+            cancelled = true;
+            if (subscription != null) {
+                subscription.cancel();
+            }
+        }
+
+        @Override
+        public void sendGame(GameResponse game) throws IOException {
+            complete = game.getGameStatus() != GameStatus.IN_PROGRESS;
+            write(GameFrames.game(game));
+        }
+
+        @Override
+        public void sendMove(MoveDelta delta) throws IOException {
+            complete = delta.getGameStatus() != GameStatus.IN_PROGRESS;
+            write(GameFrames.moved(delta));
+        }
+
+        @Override
+        public void sendHeartbeat() throws IOException {
+            ping();
+        }
+
+        /**
+         * Leaves a complete game. Otherwise the connection fell too far behind with the game, or could not be
+         * written to, so it is sent an error and closed for the client to join again and resume.
+         */
+        @Override
+        public void close() {
+            games.remove(gameId, this);
+            if (!complete) {
+                send(GameFrames.error(gameId, 0, BEHIND_MESSAGE));
+                disconnect(new CloseReason(CloseReason.CloseCodes.TRY_AGAIN_LATER, BEHIND_MESSAGE));
+            }
+        }
+    }
+}
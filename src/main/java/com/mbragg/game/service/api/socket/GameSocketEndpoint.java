@@ -0,0 +1,143 @@
+package com.mbragg.game.service.api.socket;
+
+import com.mbragg.game.service.api.domain.Player;
+import com.mbragg.game.service.api.dto.GameResponse;
+import com.mbragg.game.service.api.dto.MoveDelta;
+import com.mbragg.game.service.api.dto.MoveRequest;
+import com.mbragg.game.service.api.service.GameConflictException;
+import com.mbragg.game.service.api.service.GameEventStream;
+import com.mbragg.game.service.api.service.GameService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.websocket.CloseReason;
+import javax.websocket.Endpoint;
+import javax.websocket.EndpointConfig;
+import javax.websocket.MessageHandler;
+import javax.websocket.Session;
+import java.nio.ByteBuffer;
+
+import static org.springframework.util.Assert.isTrue;
+import static org.springframework.util.Assert.notNull;
+
+/**
+ * WebSocket endpoint for playing and watching games with small binary frames, see {@link GameFrames}. A connection
+ * joins a game as one of its players, or as a spectator, and from then on is sent the whole game followed by every
+ * move made in it, whoever made the move and however it was made. Players send their moves over the same connection,
+ * and they are applied through the {@link GameService} by the same rules as a move made by request.
+ *
+ * A connection may join any number of games, joining a game it already follows starts following it again.
+ */
+@Component
+public class GameSocketEndpoint extends Endpoint {
+
+    public static final String PATH = "/game/socket";
+
+    private static final int MAXIMUM_FRAME_BYTES = 64;
+
+    private static final String SOCKET = GameSocket.class.getName();
+
+    private static Logger logger = LoggerFactory.getLogger(GameSocketEndpoint.class);
+
+    private final GameService gameService;
+
+    private final GameEventStream gameEventStream;
+
+    public GameSocketEndpoint(GameService gameService, GameEventStream gameEventStream) {
+        this.gameService = gameService;
+        this.gameEventStream = gameEventStream;
+    }
+
+    @Override
+    public void onOpen(Session session, EndpointConfig config) {
+        GameSocket socket = new GameSocket(session);
+        session.getUserProperties().put(SOCKET, socket);
+        session.setMaxBinaryMessageBufferSize(MAXIMUM_FRAME_BYTES);
+
+        // JSR-356 finds the message type from the handler's generic interface, which a lambda does not keep
+        session.addMessageHandler(new MessageHandler.Whole<ByteBuffer>() {
+            @Override
+            public void onMessage(ByteBuffer frame) {
+                receive(socket, frame);
+            }
+        });
+    }
+
+    @Override
+    public void onClose(Session session, CloseReason closeReason) {
+        GameSocket socket = (GameSocket) session.getUserProperties().get(SOCKET);
+        if (socket != null) {
+            socket.close();
+        }
+    }
+
+    @Override
+    public void onError(Session session, Throwable throwable) {
+        logger.debug("Game socket {} failed: {}", session.getId(), throwable.getMessage());
+    }
+
+    private void receive(GameSocket socket, ByteBuffer frame) {
+        if (!frame.hasRemaining()) {
+            socket.send(GameFrames.error(0, 0, "Frame must not be empty."));
+            return;
+        }
+
+        byte type = frame.get();
+        if (type == GameFrames.JOIN && frame.remaining() == GameFrames.JOIN_BYTES - 1) {
+            join(socket, frame.getLong(), frame.getLong(), frame.getLong());
+        } else if (type == GameFrames.MOVE && frame.remaining() == GameFrames.MOVE_BYTES - 1) {
+            move(socket, frame.getLong(), frame.getInt(), frame.getInt(), frame.getInt());
+        } else {
+            socket.send(GameFrames.error(0, 0, "Unknown frame of type " + type + " and " + (frame.remaining() + 1)
+                    + " bytes."));
+        }
+    }
+
+    private void join(GameSocket socket, long gameId, long playerId, long lastVersion) {
+        try {
+            if (playerId != 0) {
+                isTrue(isPlayer(gameService.findOne(gameId), playerId),
+                        "Requesting player id must be part of the Game.");
+            }
+
+            GameSocket.Joined joined = socket.join(gameId, playerId);
+            joined.follow(gameEventStream.subscribe(joined, gameId, lastVersion == 0 ? null : lastVersion,
+                    () -> gameService.findOne(gameId)));
+        } catch (IllegalArgumentException e) {
+            socket.leave(gameId);
+            socket.send(GameFrames.error(gameId, 0, e.getMessage()));
+        }
+    }
+
+    private void move(GameSocket socket, long gameId, int row, int column, int sequence) {
+        try {
+            GameSocket.Joined joined = socket.joined(gameId);
+            notNull(joined, "Join the game before moving.");
+            isTrue(joined.getPlayerId() != 0, "Spectators can not move.");
+            joined.checkSequence(sequence);
+
+            MoveRequest moveRequest = new MoveRequest();
+            moveRequest.setGameId(gameId);
+            moveRequest.setPlayerId(joined.getPlayerId());
+            moveRequest.setRow(row);
+            moveRequest.setColumn(column);
+
+            // Followers of the game, including this connection, are sent the move by the game event stream
+            MoveDelta moveDelta = gameService.moveDelta(moveRequest);
+            joined.moved(sequence);
+            socket.send(GameFrames.ack(gameId, sequence, moveDelta.getVersion()));
+        } catch (IllegalArgumentException | GameConflictException e) {
+            socket.send(GameFrames.error(gameId, sequence, e.getMessage()));
+        }
+    }
+
+    private static boolean isPlayer(GameResponse game, long playerId) {
+        for (Player player : game.getPlayers()) {
+            if (player != null && player.getId() != null && player.getId() == playerId) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,53 @@
+package com.mbragg.game.service.api.socket;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.servlet.ServletContext;
+import javax.websocket.DeploymentException;
+import javax.websocket.server.ServerContainer;
+import javax.websocket.server.ServerEndpointConfig;
+
+/**
+ * Adds the {@link GameSocketEndpoint} to the servlet container's WebSocket support, using the Spring managed endpoint
+ * for every connection. Without a WebSocket container, e.g. in tests using a mock servlet environment, nothing is
+ * added.
+ */
+@Component
+public class GameSocketRegistrar {
+
+    private static Logger logger = LoggerFactory.getLogger(GameSocketRegistrar.class);
+
+    private final GameSocketEndpoint endpoint;
+
+    private final ServletContext servletContext;
+
+    public GameSocketRegistrar(GameSocketEndpoint endpoint, ServletContext servletContext) {
+        this.endpoint = endpoint;
+        this.servletContext = servletContext;
+    }
+
+    @PostConstruct
+    public void register() throws DeploymentException {
+        ServerContainer serverContainer = (ServerContainer) servletContext.getAttribute(ServerContainer.class.getName());
+        if (serverContainer == null) {
+            logger.info("No WebSocket container, {} is not available", GameSocketEndpoint.PATH);
+            return;
+        }
+
+        ServerEndpointConfig config = ServerEndpointConfig.Builder
+                .create(GameSocketEndpoint.class, GameSocketEndpoint.PATH)
+                .configurator(new ServerEndpointConfig.Configurator() {
+                    @Override
+                    public <T> T getEndpointInstance(Class<T> endpointClass) {
+                        return endpointClass.cast(endpoint);
+                    }
+                })
+                .build();
+        serverContainer.addEndpoint(config);
+
+        logger.info("Game socket listening on {}", GameSocketEndpoint.PATH);
+    }
+}
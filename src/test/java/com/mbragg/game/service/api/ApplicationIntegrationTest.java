@@ -3,7 +3,9 @@ package com.mbragg.game.service.api;
 import com.mbragg.game.service.api.domain.*;
 import com.mbragg.game.service.api.dto.CreateGameRequest;
 import com.mbragg.game.service.api.dto.GameResponse;
+import com.mbragg.game.service.api.dto.GamesSummaryResponse;
 import com.mbragg.game.service.api.dto.MoveRequest;
+import com.mbragg.game.service.api.dto.UsersPageResponse;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,8 +15,13 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.junit4.SpringRunner;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import static org.hamcrest.Matchers.isOneOf;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
@@ -63,9 +70,40 @@ public class ApplicationIntegrationTest {
     public void findAllUsers() {
         restTemplate.postForEntity("/user/", new User("Foo"), User.class);
 
-        List forObject = restTemplate.getForObject("/user/", List.class);
+        UsersPageResponse forObject = restTemplate.getForObject("/user/", UsersPageResponse.class);
 
-        assertTrue("Should contain more than one User", forObject.size() >= 1);
+        assertTrue("Should contain more than one User", forObject.getUsers().size() >= 1);
+    }
+
+    @Test
+    public void pageThroughUsers() {
+        User first = createPreExistingUser();
+        createPreExistingUser();
+        createPreExistingUser();
+
+        UsersPageResponse page = restTemplate.getForObject(
+                "/user/?after=" + (first.getId() - 1) + "&size=2", UsersPageResponse.class);
+
+        assertEquals(2, page.getUsers().size());
+        assertEquals(first.getId(), page.getUsers().get(0).getId());
+        assertEquals(page.getUsers().get(1).getId(), page.getNextAfter());
+
+        UsersPageResponse nextPage = restTemplate.getForObject(
+                "/user/?after=" + page.getNextAfter() + "&size=2", UsersPageResponse.class);
+
+        assertTrue(nextPage.getUsers().get(0).getId() > page.getNextAfter());
+    }
+
+    @Test
+    public void exportUsers() {
+        User user = createPreExistingUser();
+
+        String export = restTemplate.getForObject("/user/export", String.class);
+        String[] lines = export.split("\n");
+
+        assertTrue(lines.length >= 1);
+        assertTrue(export.endsWith("\n"));
+        assertTrue(export.contains("{\"id\":" + user.getId() + ",\"name\":\"Foo 1\"}\n"));
     }
 
     @Test
@@ -163,6 +201,204 @@ public class ApplicationIntegrationTest {
         assertPlayers(userOne, userTwo, gameResponse);
     }
 
+    @Test
+    public void moveAgainstComputer() {
+        User user = createPreExistingUser();
+
+        CreateGameRequest createGameRequest = new CreateGameRequest();
+        createGameRequest.setUserIds(Collections.singletonList(user.getId()));
+        createGameRequest.setBoardSize(BOARD_SIZE);
+        createGameRequest.setOpponentType(PlayerType.COMPUTER);
+
+        ResponseEntity<GameResponse> createResponseEntity =
+                restTemplate.postForEntity("/game/", createGameRequest, GameResponse.class);
+
+        assertEquals(HttpStatus.CREATED, createResponseEntity.getStatusCode());
+        GameResponse createdGame = createResponseEntity.getBody();
+        Player human = createdGame.getPlayers().get(0);
+
+        assertEquals(PlayerType.COMPUTER, createdGame.getPlayers().get(1).getType());
+        assertTrue("It should be the human's turn once the game is created", human.isTurn());
+
+        MoveRequest moveRequest = new MoveRequest();
+        moveRequest.setGameId(createdGame.getGameId());
+        moveRequest.setPlayerId(human.getId());
+        moveRequest.setRow(createdGame.getBoard()[0][0] == '-' ? 0 : 2);
+        moveRequest.setColumn(0);
+
+        ResponseEntity<GameResponse> moveResponseEntity = restTemplate.postForEntity(
+                "/game/" + createdGame.getGameId() + "/move", moveRequest, GameResponse.class);
+
+        assertEquals(HttpStatus.OK, moveResponseEntity.getStatusCode());
+        GameResponse gameResponse = moveResponseEntity.getBody();
+
+        assertEquals(GameStatus.IN_PROGRESS, gameResponse.getGameStatus());
+        assertTrue("The computer should have answered the move", gameResponse.getPlayers().get(0).isTurn());
+        assertEquals(countMarks(createdGame.getBoard()) + 2, countMarks(gameResponse.getBoard()));
+    }
+
+    @Test
+    public void moveAgainstStaleVersionConflicts() {
+        User userOne = createPreExistingUser();
+        User userTwo = createPreExistingUser();
+
+        CreateGameRequest createGameRequest = new CreateGameRequest();
+        createGameRequest.setUserIds(Arrays.asList(userOne.getId(), userTwo.getId()));
+        createGameRequest.setBoardSize(BOARD_SIZE);
+
+        GameResponse createdGame = restTemplate.postForEntity("/game/", createGameRequest, GameResponse.class)
+                .getBody();
+        Player firstPlayer = createdGame.getPlayers().stream().filter(Player::isTurn).findFirst().get();
+        Player secondPlayer = createdGame.getPlayers().stream().filter(player -> !player.isTurn()).findFirst().get();
+
+        MoveRequest firstMove = new MoveRequest();
+        firstMove.setGameId(createdGame.getGameId());
+        firstMove.setPlayerId(firstPlayer.getId());
+        firstMove.setExpectedVersion(createdGame.getVersion());
+
+        GameResponse afterFirstMove = restTemplate.postForEntity(
+                "/game/" + createdGame.getGameId() + "/move", firstMove, GameResponse.class).getBody();
+
+        assertTrue("Each move should advance the version", afterFirstMove.getVersion() > createdGame.getVersion());
+
+        // The second player moves against the state from before the first move
+        MoveRequest staleMove = new MoveRequest();
+        staleMove.setGameId(createdGame.getGameId());
+        staleMove.setPlayerId(secondPlayer.getId());
+        staleMove.setRow(1);
+        staleMove.setColumn(1);
+        staleMove.setExpectedVersion(createdGame.getVersion());
+
+        ResponseEntity<GameResponse> conflict = restTemplate.postForEntity(
+                "/game/" + createdGame.getGameId() + "/move", staleMove, GameResponse.class);
+
+        assertEquals(HttpStatus.CONFLICT, conflict.getStatusCode());
+        assertEquals(afterFirstMove.getVersion(), conflict.getBody().getVersion());
+        assertMarkOnBoard(conflict.getBody().getBoard(), 0, 0, firstPlayer.getMark());
+
+        staleMove.setExpectedVersion(conflict.getBody().getVersion());
+        ResponseEntity<GameResponse> retry = restTemplate.postForEntity(
+                "/game/" + createdGame.getGameId() + "/move", staleMove, GameResponse.class);
+
+        assertEquals(HttpStatus.OK, retry.getStatusCode());
+    }
+
+    @Test
+    public void concurrentMovesOnOneGameAreSerialized() throws Exception {
+        User userOne = createPreExistingUser();
+        User userTwo = createPreExistingUser();
+
+        CreateGameRequest createGameRequest = new CreateGameRequest();
+        createGameRequest.setUserIds(Arrays.asList(userOne.getId(), userTwo.getId()));
+        createGameRequest.setBoardSize(BOARD_SIZE);
+
+        GameResponse createdGame = restTemplate.postForEntity("/game/", createGameRequest, GameResponse.class)
+                .getBody();
+        Player activePlayer = createdGame.getPlayers().stream().filter(Player::isTurn).findFirst().get();
+
+        // The same player submits a move to every cell at once, as a double click or retry storm would
+        ExecutorService executorService = Executors.newFixedThreadPool(BOARD_SIZE * BOARD_SIZE);
+        List<Future<ResponseEntity<String>>> responses = new ArrayList<>();
+
+        for (int cell = 0; cell < BOARD_SIZE * BOARD_SIZE; cell++) {
+            MoveRequest moveRequest = new MoveRequest();
+            moveRequest.setGameId(createdGame.getGameId());
+            moveRequest.setPlayerId(activePlayer.getId());
+            moveRequest.setRow(cell / BOARD_SIZE);
+            moveRequest.setColumn(cell % BOARD_SIZE);
+
+            responses.add(executorService.submit(() -> restTemplate.postForEntity(
+                    "/game/" + createdGame.getGameId() + "/move", moveRequest, String.class)));
+        }
+
+        int accepted = 0;
+        for (Future<ResponseEntity<String>> response : responses) {
+            if (response.get().getStatusCode() == HttpStatus.OK) {
+                accepted++;
+            }
+        }
+        executorService.shutdown();
+
+        GameResponse gameResponse = restTemplate.getForObject("/game/" + createdGame.getGameId(), GameResponse.class);
+
+        assertEquals(1, accepted);
+        assertEquals(1, countMarks(gameResponse.getBoard()));
+    }
+
+    @Test
+    public void bulkCreateGames() {
+        User userOne = createPreExistingUser();
+        User userTwo = createPreExistingUser();
+
+        List<CreateGameRequest> createGameRequests = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            CreateGameRequest createGameRequest = new CreateGameRequest();
+            createGameRequest.setUserIds(Arrays.asList(userOne.getId(), userTwo.getId()));
+            createGameRequest.setBoardSize(BOARD_SIZE);
+            createGameRequests.add(createGameRequest);
+        }
+
+        ResponseEntity<GameResponse[]> responseEntity =
+                restTemplate.postForEntity("/game/bulk", createGameRequests, GameResponse[].class);
+
+        assertEquals(HttpStatus.CREATED, responseEntity.getStatusCode());
+        GameResponse[] gameResponses = responseEntity.getBody();
+        assertEquals(120, gameResponses.length);
+        assertEquals(120, Arrays.stream(gameResponses).map(GameResponse::getGameId).distinct().count());
+
+        GameResponse lastGame = gameResponses[gameResponses.length - 1];
+        ResponseEntity<GameResponse> findResponseEntity =
+                restTemplate.getForEntity("/game/" + lastGame.getGameId(), GameResponse.class);
+
+        assertEquals(HttpStatus.OK, findResponseEntity.getStatusCode());
+        assertPlayers(userOne, userTwo, findResponseEntity.getBody());
+    }
+
+    @Test
+    public void findGamesByStatusAndUser() {
+        User userOne = createPreExistingUser();
+        User userTwo = createPreExistingUser();
+        User userThree = createPreExistingUser();
+
+        CreateGameRequest humanGame = new CreateGameRequest();
+        humanGame.setUserIds(Arrays.asList(userOne.getId(), userTwo.getId()));
+        humanGame.setBoardSize(BOARD_SIZE);
+
+        CreateGameRequest computerGame = new CreateGameRequest();
+        computerGame.setUserIds(Collections.singletonList(userOne.getId()));
+        computerGame.setOpponentType(PlayerType.COMPUTER);
+        computerGame.setBoardSize(BOARD_SIZE);
+
+        restTemplate.postForEntity("/game/bulk", Arrays.asList(humanGame, humanGame, computerGame),
+                GameResponse[].class);
+
+        GamesSummaryResponse userOneGames = restTemplate.getForObject(
+                "/game/?userId=" + userOne.getId() + "&status=IN_PROGRESS&size=2", GamesSummaryResponse.class);
+
+        assertEquals(3, userOneGames.getTotalGames());
+        assertEquals(2, userOneGames.getTotalPages());
+        assertEquals(2, userOneGames.getGames().size());
+        assertTrue(userOneGames.getGames().get(0).getGameId() < userOneGames.getGames().get(1).getGameId());
+
+        GamesSummaryResponse lastPage = restTemplate.getForObject(
+                "/game/?userId=" + userOne.getId() + "&size=2&page=1", GamesSummaryResponse.class);
+
+        assertEquals(1, lastPage.getGames().size());
+        assertEquals(Arrays.asList(userOne.getId(), null), lastPage.getGames().get(0).getUserIds());
+
+        GamesSummaryResponse userTwoGames =
+                restTemplate.getForObject("/game/?userId=" + userTwo.getId(), GamesSummaryResponse.class);
+        assertEquals(2, userTwoGames.getTotalGames());
+
+        GamesSummaryResponse userThreeGames =
+                restTemplate.getForObject("/game/?userId=" + userThree.getId(), GamesSummaryResponse.class);
+        assertEquals(0, userThreeGames.getTotalGames());
+
+        GamesSummaryResponse completeGames = restTemplate.getForObject(
+                "/game/?userId=" + userOne.getId() + "&status=COMPLETE", GamesSummaryResponse.class);
+        assertEquals(0, completeGames.getTotalGames());
+    }
+
     private User createPreExistingUser() {
         ResponseEntity<User> UserOneResponseEntity =
                 restTemplate.postForEntity("/user/", new User("Foo 1"), User.class);
@@ -197,6 +433,18 @@ public class ApplicationIntegrationTest {
         assertEquals(userTwo.getId(), playerTwo.getUser().getId());
     }
 
+    private int countMarks(Character[][] board) {
+        int count = 0;
+        for (Character[] row : board) {
+            for (Character character : row) {
+                if (character != '-') {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
     private void assertEmptyBoard(Character[][] board) {
         for (int i = 0; i < BOARD_SIZE; i++) {
             for (int j = 0; j < BOARD_SIZE; j++) {
@@ -0,0 +1,49 @@
+package com.mbragg.game.service.api.controller;
+
+import com.mbragg.game.service.api.domain.User;
+import com.mbragg.game.service.api.service.CompletedGameCache;
+import com.mbragg.game.service.api.service.EvaluationCache;
+import com.mbragg.game.service.api.service.UserCache;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@WebMvcTest(CacheController.class)
+public class CacheControllerTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @SpyBean
+    private UserCache userCache;
+
+    @SpyBean
+    private CompletedGameCache completedGameCache;
+
+    @SpyBean
+    private EvaluationCache evaluationCache;
+
+    @Test
+    public void testStats() throws Exception {
+        userCache.put(1L, new User(1L, "name"));
+        userCache.get(1L);
+        userCache.get(2L);
+
+        this.mvc.perform(get("/cache/")
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"users\":{\"size\":1,\"capacity\":10000,\"hits\":1,\"misses\":1,"
+                        + "\"hitRate\":0.5},\"completedGames\":{\"size\":0,\"hits\":0,\"misses\":0},"
+                        + "\"evaluations\":{\"size\":0}}"));
+    }
+}
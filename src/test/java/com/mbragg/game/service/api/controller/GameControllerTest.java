@@ -1,23 +1,40 @@
 package com.mbragg.game.service.api.controller;
 
+import com.mbragg.game.service.api.domain.BoardMode;
 import com.mbragg.game.service.api.domain.GameStatus;
+import com.mbragg.game.service.api.domain.Mark;
+import com.mbragg.game.service.api.domain.PackedCells;
+import com.mbragg.game.service.api.domain.SparseCells;
 import com.mbragg.game.service.api.dto.*;
+import com.mbragg.game.service.api.engine.Outcome;
+import com.mbragg.game.service.api.service.GameConflictException;
+import com.mbragg.game.service.api.service.GameEventStream;
 import com.mbragg.game.service.api.service.GameService;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.Arrays;
 
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @RunWith(SpringRunner.class)
@@ -30,6 +47,9 @@ public class GameControllerTest {
     @MockBean
     private GameService gameService;
 
+    @MockBean
+    private GameEventStream gameEventStream;
+
     @Test
     public void testMove() throws Exception {
         GameResponse gameResponse = GameResponse.newBuilder()
@@ -39,12 +59,13 @@ public class GameControllerTest {
         MoveRequest moveRequest = new MoveRequest();
         moveRequest.setGameId(1L);
 
-        given(this.gameService.move(moveRequest)).willReturn(gameResponse);
+        given(this.gameService.move(any(MoveRequest.class))).willReturn(gameResponse);
 
         this.mvc.perform(post("/game/1/move")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content("{\"gameId\": 1}"))
-                .andExpect(status().isOk());
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"gameId\":1}"));
     }
 
     @Test
@@ -70,7 +91,7 @@ public class GameControllerTest {
         gameSummary.setUserIds(Arrays.asList(1L, 2L));
         gamesSummaryResponse.addGameSummary(gameSummary);
 
-        given(this.gameService.findAll()).willReturn(gamesSummaryResponse);
+        given(this.gameService.findAll(null, null, 0, 50)).willReturn(gamesSummaryResponse);
 
         this.mvc.perform(get("/game/")
                 .accept(MediaType.APPLICATION_JSON))
@@ -78,6 +99,117 @@ public class GameControllerTest {
                 .andExpect(content().json("{\"games\":[{\"gameId\":1,\"userIds\":[1,2],\"gameStatus\":\"IN_PROGRESS\"}]}"));
     }
 
+    @Test
+    public void testFindAllFiltered() throws Exception {
+        GamesSummaryResponse gamesSummaryResponse = new GamesSummaryResponse();
+        gamesSummaryResponse.addGameSummary(new GameSummary(7L, GameStatus.COMPLETE, 3L, null));
+        gamesSummaryResponse.setPage(2);
+        gamesSummaryResponse.setSize(10);
+        gamesSummaryResponse.setTotalGames(21);
+        gamesSummaryResponse.setTotalPages(3);
+
+        given(this.gameService.findAll(GameStatus.COMPLETE, 3L, 2, 10)).willReturn(gamesSummaryResponse);
+
+        this.mvc.perform(get("/game/?status=COMPLETE&userId=3&page=2&size=10")
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"games\":[{\"gameId\":7,\"userIds\":[3,null]}],"
+                        + "\"page\":2,\"size\":10,\"totalGames\":21,\"totalPages\":3}"));
+    }
+
+    @Test
+    public void testMoveConflict() throws Exception {
+        GameResponse currentGame = GameResponse.newBuilder()
+                .withGameId(1L)
+                .withVersion(5L)
+                .build();
+
+        given(this.gameService.move(any(MoveRequest.class)))
+                .willThrow(new GameConflictException("Stale version", currentGame));
+
+        this.mvc.perform(post("/game/1/move")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"gameId\": 1, \"expectedVersion\": 4}"))
+                .andExpect(status().isConflict())
+                .andExpect(content().json("{\"gameId\":1,\"version\":5}"));
+    }
+
+    @Test
+    public void testMoveConflictInRequestedBoardFormat() throws Exception {
+        given(this.gameService.move(any(MoveRequest.class)))
+                .willThrow(new GameConflictException("Stale version", xoGame()));
+
+        this.mvc.perform(post("/game/1/move")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.valueOf(BoardFormat.BOARD_PACKED_VALUE))
+                .content("{\"gameId\": 1, \"expectedVersion\": 4}"))
+                .andExpect(status().isConflict())
+                .andExpect(content().contentTypeCompatibleWith(BoardFormat.BOARD_PACKED_VALUE))
+                .andExpect(jsonPath("$.packedCells").value("IQAA"))
+                .andExpect(jsonPath("$.board").doesNotExist());
+    }
+
+    @Test
+    public void testMoveConflictWithBoardParameter() throws Exception {
+        given(this.gameService.move(any(MoveRequest.class)))
+                .willThrow(new GameConflictException("Stale version", xoGame()));
+
+        this.mvc.perform(post("/game/1/move?board=string")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"gameId\": 1, \"expectedVersion\": 4}"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.cells").value("X-O------"))
+                .andExpect(jsonPath("$.board").doesNotExist());
+    }
+
+    @Test
+    public void testMoves() throws Exception {
+        GameResponse gameResponse = GameResponse.newBuilder()
+                .withGameId(1L)
+                .build();
+
+        given(this.gameService.moves(any()))
+                .willReturn(Arrays.asList(MoveResult.success(0, gameResponse),
+                        MoveResult.failure(1, 2L, "Game does not exist", null)));
+
+        this.mvc.perform(post("/game/moves")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"gameId\": 1}, {\"gameId\": 2}]"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[{\"index\":0,\"gameId\":1,\"success\":true,\"game\":{\"gameId\":1}},"
+                        + "{\"index\":1,\"gameId\":2,\"success\":false,\"error\":\"Game does not exist\"}]"));
+    }
+
+    @Test
+    public void testSaveAll() throws Exception {
+        given(this.gameService.createAll(any()))
+                .willReturn(Arrays.asList(GameResponse.newBuilder().withGameId(1L).build(),
+                        GameResponse.newBuilder().withGameId(2L).build()));
+
+        this.mvc.perform(post("/game/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"userIds\": [1, 2], \"boardSize\": 3}, {\"userIds\": [3, 4], \"boardSize\": 3}]"))
+                .andExpect(status().isCreated())
+                .andExpect(content().json("[{\"gameId\":1},{\"gameId\":2}]"));
+    }
+
+    @Test
+    public void testHint() throws Exception {
+        HintResponse hintResponse = new HintResponse();
+        hintResponse.setGameId(1L);
+        hintResponse.setPlayerId(2L);
+        hintResponse.setRow(0);
+        hintResponse.setColumn(2);
+        hintResponse.setOutcome(Outcome.DRAW);
+
+        given(this.gameService.hint(1L)).willReturn(hintResponse);
+
+        this.mvc.perform(get("/game/1/hint")
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"gameId\":1,\"playerId\":2,\"row\":0,\"column\":2,\"outcome\":\"DRAW\"}"));
+    }
+
     @Test
     public void testSaveGame() throws Exception {
 
@@ -89,11 +221,201 @@ public class GameControllerTest {
                 .withGameId(1L)
                 .build();
 
-        given(this.gameService.create(createGameRequest)).willReturn(gameResponse);
+        given(this.gameService.create(any(CreateGameRequest.class))).willReturn(gameResponse);
 
         this.mvc.perform(post("/game/")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content("{\"boardSize\": 1, \"userIds\": [1, 2]}"))
-                .andExpect(status().isCreated());
+                .andExpect(status().isCreated())
+                .andExpect(content().json("{\"gameId\":1}"));
+    }
+
+    @Test
+    public void testFindOneWithStringBoard() throws Exception {
+        given(this.gameService.findOne(1L)).willReturn(xoGame());
+
+        this.mvc.perform(get("/game/1?board=string")
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cells").value("X-O------"))
+                .andExpect(jsonPath("$.boardSize").value(3))
+                .andExpect(jsonPath("$.board").doesNotExist());
+    }
+
+    @Test
+    public void testFindOneWithPackedBoardAccepted() throws Exception {
+        given(this.gameService.findOne(1L)).willReturn(xoGame());
+
+        this.mvc.perform(get("/game/1")
+                .accept(MediaType.valueOf(BoardFormat.BOARD_PACKED_VALUE)))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(BoardFormat.BOARD_PACKED_VALUE))
+                .andExpect(jsonPath("$.packedCells").value("IQAA"))
+                .andExpect(jsonPath("$.boardSize").value(3))
+                .andExpect(jsonPath("$.board").doesNotExist());
+    }
+
+    @Test
+    public void testFindOneWithSparseBoardAccepted() throws Exception {
+        given(this.gameService.findOne(1L)).willReturn(xoGame());
+
+        this.mvc.perform(get("/game/1")
+                .accept(MediaType.valueOf(BoardFormat.BOARD_SPARSE_VALUE)))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(BoardFormat.BOARD_SPARSE_VALUE))
+                .andExpect(content().json("{\"occupiedCells\":[{\"row\":0,\"column\":0,\"mark\":\"X\"},"
+                        + "{\"row\":0,\"column\":2,\"mark\":\"O\"}]}"))
+                .andExpect(jsonPath("$.occupiedCells[0].playerId").doesNotExist())
+                .andExpect(jsonPath("$.boardSize").value(3))
+                .andExpect(jsonPath("$.board").doesNotExist());
+    }
+
+    @Test
+    public void testFindOneOfSparseBoard() throws Exception {
+        byte[] cells = SparseCells.append(SparseCells.create(), 69, 1, Mark.CIRCLE);
+        given(this.gameService.findOne(1L)).willReturn(GameResponse.newBuilder()
+                .withGameId(1L)
+                .withCells(cells, 70, BoardMode.SPARSE)
+                .build());
+
+        this.mvc.perform(get("/game/1?board=sparse")
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"occupiedCells\":[{\"row\":69,\"column\":1,\"mark\":\"O\"}]}"));
+
+        this.mvc.perform(get("/game/1")
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.board[69][1]").value("O"))
+                .andExpect(jsonPath("$.board[69][0]").value("-"));
+    }
+
+    @Test
+    public void testFindOneWithArrayBoardByDefault() throws Exception {
+        given(this.gameService.findOne(1L)).willReturn(xoGame());
+
+        this.mvc.perform(get("/game/1")
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"board\":[[\"X\",\"-\",\"O\"],[\"-\",\"-\",\"-\"],[\"-\",\"-\",\"-\"]]}"))
+                .andExpect(jsonPath("$.cells").doesNotExist())
+                .andExpect(jsonPath("$.boardSize").doesNotExist());
+    }
+
+    @Test
+    public void testMoveDeltaAccepted() throws Exception {
+        given(this.gameService.moveDelta(any(MoveRequest.class))).willReturn(moveDelta());
+
+        this.mvc.perform(post("/game/1/move")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.valueOf(MoveDelta.MOVE_DELTA_VALUE))
+                .content("{\"gameId\": 1, \"row\": 0, \"column\": 2}"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MoveDelta.MOVE_DELTA_VALUE))
+                .andExpect(content().json("{\"gameId\":1,\"cells\":[{\"row\":0,\"column\":2,\"mark\":\"X\","
+                        + "\"playerId\":3}],\"playerTurn\":4,\"gameStatus\":\"IN_PROGRESS\",\"version\":7}"));
+    }
+
+    @Test
+    public void testMoveDeltaByParam() throws Exception {
+        given(this.gameService.moveDelta(any(MoveRequest.class))).willReturn(moveDelta());
+
+        this.mvc.perform(post("/game/1/move?response=delta")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"gameId\": 1, \"row\": 0, \"column\": 2}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(7))
+                .andExpect(jsonPath("$.board").doesNotExist());
+    }
+
+    private static MoveDelta moveDelta() {
+        MoveDelta moveDelta = new MoveDelta();
+        moveDelta.setGameId(1L);
+        moveDelta.addCell(new PlacedCell(0, 2, 'X', 3L));
+        moveDelta.setPlayerTurn(4L);
+        moveDelta.setGameStatus(GameStatus.IN_PROGRESS);
+        moveDelta.setVersion(7L);
+        return moveDelta;
+    }
+
+    @Test
+    public void testFindOneSendsETag() throws Exception {
+        given(this.gameService.findVersion(1L)).willReturn(5L);
+        given(this.gameService.findOne(1L)).willReturn(xoGame());
+
+        this.mvc.perform(get("/game/1")
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"5-array\""));
+    }
+
+    @Test
+    public void testFindOneNotModified() throws Exception {
+        given(this.gameService.findVersion(1L)).willReturn(5L);
+
+        this.mvc.perform(get("/game/1")
+                .accept(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.IF_NONE_MATCH, "\"5-array\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(this.gameService, never()).findOne(1L);
+    }
+
+    @Test
+    public void testFindOneModifiedSinceETag() throws Exception {
+        given(this.gameService.findVersion(1L)).willReturn(6L);
+        given(this.gameService.findOne(1L)).willReturn(xoGame());
+
+        this.mvc.perform(get("/game/1")
+                .accept(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.IF_NONE_MATCH, "\"5-array\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"6-array\""))
+                .andExpect(content().json("{\"gameId\":1}"));
+    }
+
+    @Test
+    public void testFindOneETagDependsOnBoardFormat() throws Exception {
+        given(this.gameService.findVersion(1L)).willReturn(5L);
+        given(this.gameService.findOne(1L)).willReturn(xoGame());
+
+        this.mvc.perform(get("/game/1?board=packed")
+                .accept(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.IF_NONE_MATCH, "\"5-array\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"5-packed\""));
+    }
+
+    @Test
+    public void testEvents() throws Exception {
+        given(this.gameEventStream.subscribe(eq(1L), eq(5L), any())).willReturn(new SseEmitter());
+
+        this.mvc.perform(get("/game/1/events")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .header("Last-Event-ID", "5"))
+                .andExpect(request().asyncStarted());
+
+        verify(this.gameEventStream).subscribe(eq(1L), eq(5L), any());
+    }
+
+    @Test
+    public void testEventsWithoutLastEventId() throws Exception {
+        given(this.gameEventStream.subscribe(eq(1L), isNull(Long.class), any())).willReturn(new SseEmitter());
+
+        this.mvc.perform(get("/game/1/events")
+                .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted());
+    }
+
+    private static GameResponse xoGame() {
+        byte[] cells = PackedCells.create(9);
+        PackedCells.set(cells, 0, Mark.CROSS);
+        PackedCells.set(cells, 2, Mark.CIRCLE);
+
+        return GameResponse.newBuilder()
+                .withGameId(1L)
+                .withPackedCells(cells, 3)
+                .build();
     }
 }
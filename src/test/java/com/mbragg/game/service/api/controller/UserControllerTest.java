@@ -1,6 +1,7 @@
 package com.mbragg.game.service.api.controller;
 
 import com.mbragg.game.service.api.domain.User;
+import com.mbragg.game.service.api.dto.UsersPageResponse;
 import com.mbragg.game.service.api.service.UserService;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -10,10 +11,14 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.util.Collections;
+import java.util.function.Consumer;
 
+import static org.junit.Assert.assertEquals;
 import static org.mockito.BDDMockito.*;
+import static org.mockito.Matchers.any;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -40,13 +45,48 @@ public class UserControllerTest {
 
     @Test
     public void testFindAll() throws Exception {
-        given(this.userService.findAll())
-                .willReturn(Collections.singletonList(new User(1L, "name")));
+        UsersPageResponse usersPageResponse = new UsersPageResponse();
+        usersPageResponse.setUsers(Collections.singletonList(new User(1L, "name")));
+        usersPageResponse.setNextAfter(1L);
+
+        given(this.userService.findPage(null, 100)).willReturn(usersPageResponse);
 
         this.mvc.perform(get("/user/")
                 .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
-                .andExpect(content().json("[{\"id\":1,\"name\":\"name\"}]"));
+                .andExpect(content().json("{\"users\":[{\"id\":1,\"name\":\"name\"}],\"nextAfter\":1}"));
+    }
+
+    @Test
+    public void testFindAllAfter() throws Exception {
+        given(this.userService.findPage(1L, 10)).willReturn(new UsersPageResponse());
+
+        this.mvc.perform(get("/user/?after=1&size=10")
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"users\":[]}"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testExport() throws Exception {
+        willAnswer(invocation -> {
+            Consumer<User> consumer = (Consumer<User>) invocation.getArguments()[0];
+            consumer.accept(new User(1L, "one"));
+            consumer.accept(new User(2L, "two"));
+            return null;
+        }).given(this.userService).export(any());
+
+        MvcResult mvcResult = this.mvc.perform(get("/user/export")
+                .accept(UserController.NDJSON_VALUE))
+                .andExpect(request().asyncStarted())
+                .andExpect(content().contentType(UserController.NDJSON_VALUE))
+                .andReturn();
+        mvcResult.getAsyncResult();
+
+        // The body is streamed to the original response rather than the async dispatch
+        assertEquals("{\"id\":1,\"name\":\"one\"}\n{\"id\":2,\"name\":\"two\"}\n",
+                mvcResult.getResponse().getContentAsString());
     }
 
     @Test
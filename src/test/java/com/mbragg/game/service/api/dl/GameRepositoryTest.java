@@ -0,0 +1,141 @@
+package com.mbragg.game.service.api.dl;
+
+import com.mbragg.game.service.api.domain.*;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class GameRepositoryTest {
+
+    private static final int BOARD_SIZE = 10;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private GameRepository gameRepository;
+
+    private Statistics statistics;
+
+    private Long gameId;
+
+    @Before
+    public void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        Player playerOne = new Player(entityManager.persist(new User("John")));
+        playerOne.setMark(Mark.CROSS);
+        playerOne.setTurn(true);
+        Player playerTwo = new Player(entityManager.persist(new User("Jane")));
+        playerTwo.setMark(Mark.CIRCLE);
+
+        Board board = new Board(BOARD_SIZE, 5);
+        board.addMove(0, 0, Mark.CROSS);
+        board.addMove(9, 9, Mark.CIRCLE);
+
+        Game game = new Game();
+        game.setBoard(board);
+        game.setPlayerOne(playerOne);
+        game.setPlayerTwo(playerTwo);
+        game.setStatus(GameStatus.IN_PROGRESS);
+
+        gameId = entityManager.persistAndFlush(game).getId();
+        entityManager.clear();
+        statistics.clear();
+    }
+
+    @Test
+    public void testFindGameInOneStatement() {
+        Game game = gameRepository.findGame(gameId);
+
+        // Reading the whole aggregate must not go back to the database
+        assertEquals(Mark.CROSS, game.getBoard().getMark(0, 0));
+        assertEquals(Mark.CIRCLE, game.getBoard().getMark(9, 9));
+        assertEquals("John", game.getPlayerOne().getUser().getName());
+        assertEquals("Jane", game.getPlayerTwo().getUser().getName());
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testFindGameAgainstComputer() {
+        Player human = new Player(entityManager.persist(new User("John")));
+        Player computer = new Player();
+        computer.setType(PlayerType.COMPUTER);
+
+        Game game = new Game();
+        game.setBoard(new Board(3));
+        game.setPlayerOne(human);
+        game.setPlayerTwo(computer);
+        game.setStatus(GameStatus.IN_PROGRESS);
+
+        Long computerGameId = entityManager.persistAndFlush(game).getId();
+        entityManager.clear();
+        statistics.clear();
+
+        Game found = gameRepository.findGame(computerGameId);
+
+        assertEquals(PlayerType.COMPUTER, found.getPlayerTwo().getType());
+        assertNull(found.getPlayerTwo().getUser());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testSparseBoardIsSavedWithoutRoomForMoreCells() {
+        Board board = new Board(Board.SPARSE_BOARD_SIZE + 1, 5);
+        board.addMove(0, 0, Mark.CROSS);
+        board.addMove(1, 1, Mark.CIRCLE);
+
+        Game game = new Game();
+        game.setBoard(board);
+        game.setPlayerOne(new Player(entityManager.persist(new User("John"))));
+        game.setPlayerTwo(new Player(entityManager.persist(new User("Jane"))));
+        game.setStatus(GameStatus.IN_PROGRESS);
+
+        Long sparseGameId = entityManager.persistAndFlush(game).getId();
+        entityManager.clear();
+
+        Board found = gameRepository.findGame(sparseGameId).getBoard();
+
+        assertEquals(2, SparseCells.count(found.getCells()));
+        assertEquals(4 + 2 * 9, found.getCells().length);
+        assertEquals(Mark.CIRCLE, found.getMark(1, 1));
+    }
+
+    @Test
+    public void testFindMissingGame() {
+        assertNull(gameRepository.findGame(gameId + 1000));
+    }
+
+    @Test
+    public void testFindVersionWithoutLoadingGame() {
+        Long version = gameRepository.findVersion(gameId);
+
+        assertEquals(Long.valueOf(0L), version);
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    public void testFindVersionOfMissingGame() {
+        assertNull(gameRepository.findVersion(gameId + 1000));
+    }
+}
@@ -0,0 +1,45 @@
+package com.mbragg.game.service.api.domain;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static org.junit.Assert.assertEquals;
+
+public class BitBoardTest {
+
+    private static final int LARGE_BOARD_SIZE = 15;
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    @Test
+    public void testInitiallyEmpty() {
+        BitBoard bitBoard = new BitBoard(3);
+
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < 3; j++) {
+                assertEquals(Mark.INITIAL, bitBoard.get(i, j));
+            }
+        }
+    }
+
+    @Test
+    public void testSetAndGet() {
+        BitBoard bitBoard = new BitBoard(LARGE_BOARD_SIZE);
+        bitBoard.set(14, 14, Mark.CIRCLE);
+        bitBoard.set(4, 4, Mark.CROSS);
+
+        assertEquals(Mark.CIRCLE, bitBoard.get(14, 14));
+        assertEquals(Mark.CROSS, bitBoard.get(4, 4));
+        assertEquals(Mark.INITIAL, bitBoard.get(4, 5));
+    }
+
+    @Test
+    public void testSetInitialMark() {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Only a CROSS or CIRCLE can be placed on the board.");
+
+        new BitBoard(3).set(0, 0, Mark.INITIAL);
+    }
+}
@@ -5,6 +5,10 @@ import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.springframework.util.Assert.*;
 
 public class BoardTest {
@@ -19,14 +23,15 @@ public class BoardTest {
         Board board = new Board(EXPECTED_BOARD_SIZE);
 
         assertEquals(EXPECTED_BOARD_SIZE, board.getSize());
-        assertEquals(EXPECTED_BOARD_SIZE, board.getRows().size());
+        assertEquals(3, board.getCells().length);
 
-        for (int i = 0; i < EXPECTED_BOARD_SIZE; i++) {
-            BoardRow boardRow = board.getRows().get(i);
+        Character[][] characters = board.to2dArray();
+        assertEquals(EXPECTED_BOARD_SIZE, characters.length);
 
-            assertEquals(EXPECTED_BOARD_SIZE, boardRow.getCharacters().size());
+        for (int i = 0; i < EXPECTED_BOARD_SIZE; i++) {
+            assertEquals(EXPECTED_BOARD_SIZE, characters[i].length);
             for (int j = 0; j < EXPECTED_BOARD_SIZE; j++) {
-                assertEquals('-', boardRow.getCharacters().get(j).charValue());
+                assertEquals('-', characters[i][j].charValue());
             }
         }
     }
@@ -58,12 +63,12 @@ public class BoardTest {
     public void testAddMove() {
         Board board = new Board(EXPECTED_BOARD_SIZE);
 
-        Character character = board.getRows().get(0).getCharacters().get(0);
+        Character character = board.to2dArray()[0][0];
 
         assertEquals('-', character.charValue());
 
         board.addMove(0, 0, Mark.CIRCLE);
-        character = board.getRows().get(0).getCharacters().get(0);
+        character = board.to2dArray()[0][0];
 
         assertEquals(Mark.CIRCLE.getName(), character);
     }
@@ -75,7 +80,7 @@ public class BoardTest {
 
         Board board = new Board(EXPECTED_BOARD_SIZE);
         board.addMove(0, 0, Mark.CIRCLE);
-        assertEquals(Mark.CIRCLE.getName(), board.getRows().get(0).getCharacters().get(0));
+        assertEquals(Mark.CIRCLE.getName(), board.to2dArray()[0][0]);
 
         board.addMove(0, 0, Mark.CROSS);
     }
@@ -176,4 +181,257 @@ public class BoardTest {
         }
         isTrue(board.checkBoardForWin(), "Game should be won.");
     }
+
+    @Test
+    public void testAddMoveOutcome() {
+        Board board = new Board(EXPECTED_BOARD_SIZE);
+
+        assertEquals(MoveOutcome.CONTINUE, board.addMove(0, 0, Mark.CROSS));
+        assertEquals(MoveOutcome.CONTINUE, board.addMove(1, 1, Mark.CIRCLE));
+        assertEquals(MoveOutcome.CONTINUE, board.addMove(0, 1, Mark.CROSS));
+        assertEquals(MoveOutcome.CONTINUE, board.addMove(0, 2, Mark.CIRCLE));
+        assertEquals(MoveOutcome.CONTINUE, board.addMove(2, 0, Mark.CROSS));
+        assertEquals(MoveOutcome.CONTINUE, board.addMove(1, 0, Mark.CIRCLE));
+        assertEquals(MoveOutcome.CONTINUE, board.addMove(1, 2, Mark.CROSS));
+        assertEquals(MoveOutcome.CONTINUE, board.addMove(2, 2, Mark.CIRCLE));
+        assertEquals(MoveOutcome.DRAW, board.addMove(2, 1, Mark.CROSS));
+    }
+
+    @Test
+    public void testAddMoveOutcomeWin() {
+        Board board = new Board(EXPECTED_BOARD_SIZE);
+
+        assertEquals(MoveOutcome.CONTINUE, board.addMove(0, 2, Mark.CIRCLE));
+        assertEquals(MoveOutcome.CONTINUE, board.addMove(1, 1, Mark.CIRCLE));
+        assertEquals(MoveOutcome.WIN, board.addMove(2, 0, Mark.CIRCLE));
+    }
+
+    @Test
+    public void testCellsReloadedFromPackedForm() {
+        Board board = new Board(EXPECTED_BOARD_SIZE);
+        board.addMove(0, 2, Mark.CIRCLE);
+        board.addMove(1, 1, Mark.CIRCLE);
+        board.addMove(2, 2, Mark.CROSS);
+
+        Board reloaded = new Board();
+        reloaded.setSize(EXPECTED_BOARD_SIZE);
+        reloaded.setWinLength(EXPECTED_BOARD_SIZE);
+        reloaded.setMode(BoardMode.DENSE);
+        reloaded.setCells(board.getCells().clone());
+
+        assertEquals(Mark.CIRCLE.getName(), reloaded.to2dArray()[0][2]);
+        assertEquals(Mark.CROSS.getName(), reloaded.to2dArray()[2][2]);
+        assertEquals(MoveOutcome.WIN, reloaded.addMove(2, 0, Mark.CIRCLE));
+    }
+
+    @Test
+    public void testInvalidWinLength() {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("The win length must be between 3 and the board size.");
+
+        new Board(EXPECTED_BOARD_SIZE, 4);
+    }
+
+    @Test
+    public void testWinLengthRowAndColumn() {
+        Board board = new Board(15, 5);
+
+        for (int i = 3; i < 7; i++) {
+            assertEquals(MoveOutcome.CONTINUE, board.addMove(7, i, Mark.CROSS));
+            assertEquals(MoveOutcome.CONTINUE, board.addMove(i, 0, Mark.CIRCLE));
+        }
+
+        // Fill the gap in the middle of a broken row of crosses
+        assertEquals(MoveOutcome.CONTINUE, board.addMove(7, 8, Mark.CROSS));
+        assertEquals(MoveOutcome.WIN, board.addMove(7, 7, Mark.CROSS));
+        assertEquals(MoveOutcome.WIN, board.addMove(7, 0, Mark.CIRCLE));
+    }
+
+    @Test
+    public void testWinLengthDiagonals() {
+        Board board = new Board(15, 5);
+
+        for (int i = 0; i < 4; i++) {
+            assertEquals(MoveOutcome.CONTINUE, board.addMove(10 + i, 10 + i, Mark.CIRCLE));
+            assertEquals(MoveOutcome.CONTINUE, board.addMove(i, 14 - i, Mark.CROSS));
+        }
+
+        assertEquals(MoveOutcome.WIN, board.addMove(14, 14, Mark.CIRCLE));
+        assertEquals(MoveOutcome.WIN, board.addMove(4, 10, Mark.CROSS));
+    }
+
+    @Test
+    public void testWinLengthNotReachedAcrossEdge() {
+        Board board = new Board(5, 3);
+
+        // (0, 4) and (1, 0) are adjacent in row-major order but not on the board
+        board.addMove(0, 3, Mark.CROSS);
+        board.addMove(0, 4, Mark.CROSS);
+
+        assertEquals(MoveOutcome.CONTINUE, board.addMove(1, 0, Mark.CROSS));
+        assertFalse(board.checkBoardForWin());
+    }
+
+    @Test
+    public void testWinLengthReloadedFromPackedForm() {
+        Board board = new Board(15, 5);
+        for (int i = 0; i < 5; i++) {
+            board.addMove(2, 2 + i, Mark.CROSS);
+        }
+
+        Board reloaded = new Board();
+        reloaded.setSize(15);
+        reloaded.setWinLength(5);
+        reloaded.setMode(BoardMode.DENSE);
+        reloaded.setCells(board.getCells().clone());
+
+        assertTrue(reloaded.checkBoardForWin());
+    }
+
+    @Test
+    public void testLargeBoardIsSparse() {
+        Board board = new Board(2000, 5);
+
+        assertEquals(BoardMode.SPARSE, board.getMode());
+        assertEquals(4, board.getCells().length);
+
+        board.addMove(1000, 1000, Mark.CROSS);
+        board.addMove(1999, 1999, Mark.CIRCLE);
+
+        assertEquals(22, board.copyCells().length);
+    }
+
+    @Test
+    public void testSparseBoardAppendsWithoutCopyingEveryMove() {
+        Board board = new Board(2000, 5);
+        board.addMove(0, 0, Mark.CROSS);
+        byte[] cells = board.getCells();
+
+        for (int i = 1; i < 8; i++) {
+            board.addMove(i, 0, Mark.CIRCLE);
+        }
+        assertSame(cells, board.getCells());
+
+        board.addMove(8, 0, Mark.CROSS);
+        assertNotSame(cells, board.getCells());
+        assertEquals(9, SparseCells.count(board.getCells()));
+        assertEquals(8, SparseCells.row(board.getCells(), 8));
+        assertEquals(Mark.CROSS, SparseCells.mark(board.getCells(), 8));
+    }
+
+    @Test
+    public void testSparseBoardTrimmedBeforeSaving() {
+        Board board = new Board(2000, 5);
+        board.addMove(0, 0, Mark.CROSS);
+        board.addMove(1, 0, Mark.CIRCLE);
+
+        board.trimCells();
+        assertEquals(4 + 2 * 9, board.getCells().length);
+
+        byte[] trimmed = board.getCells();
+        board.trimCells();
+        assertSame(trimmed, board.getCells());
+
+        assertEquals(MoveOutcome.CONTINUE, board.addMove(2, 0, Mark.CROSS));
+        assertEquals(3, SparseCells.count(board.getCells()));
+        assertEquals(Mark.CIRCLE, board.getMark(1, 0));
+    }
+
+    @Test
+    public void testSparseBoardWin() {
+        Board board = new Board(2000, 5);
+
+        for (int i = 0; i < 4; i++) {
+            assertEquals(MoveOutcome.CONTINUE, board.addMove(1995 + i, 1995 + i, Mark.CIRCLE));
+        }
+        assertEquals(MoveOutcome.WIN, board.addMove(1999, 1999, Mark.CIRCLE));
+    }
+
+    @Test
+    public void testSparseBoardReloadedFromPackedForm() {
+        Board board = new Board(2000, 5);
+        for (int i = 0; i < 4; i++) {
+            board.addMove(i, 1000, Mark.CROSS);
+        }
+
+        Board reloaded = new Board();
+        reloaded.setSize(2000);
+        reloaded.setWinLength(5);
+        reloaded.setMode(BoardMode.SPARSE);
+        reloaded.setCells(board.getCells().clone());
+
+        assertFalse(reloaded.checkBoardForWin());
+        assertEquals(MoveOutcome.WIN, reloaded.addMove(4, 1000, Mark.CROSS));
+    }
+
+    @Test
+    public void testCopyCellsIsUnaffectedByLaterMoves() {
+        Board board = new Board(3);
+        board.addMove(0, 0, Mark.CROSS);
+
+        byte[] packed = board.copyCells();
+        board.addMove(2, 2, Mark.CIRCLE);
+
+        assertEquals("X--------", PackedCells.toCellString(packed, 9));
+    }
+
+    @Test
+    public void testCopyCellsOfSparseBoardHoldsOnlyOccupiedCells() {
+        Board board = new Board(70, 5);
+        board.addMove(1, 2, Mark.CROSS);
+        board.addMove(69, 69, Mark.CIRCLE);
+
+        byte[] cells = board.copyCells();
+        board.addMove(3, 3, Mark.CROSS);
+
+        assertEquals(2, SparseCells.count(cells));
+        assertEquals(4 + 2 * 9, cells.length);
+
+        byte[] packed = SparseCells.toPackedCells(cells, 70);
+        assertEquals(PackedCells.create(70 * 70).length, packed.length);
+        assertEquals(Mark.CROSS, PackedCells.get(packed, 72));
+        assertEquals(Mark.CIRCLE, PackedCells.get(packed, 70 * 70 - 1));
+        assertEquals(Mark.INITIAL, PackedCells.get(packed, 3 * 70 + 3));
+    }
+
+    @Test
+    public void testTakeBack() {
+        Board board = new Board(3);
+        board.addMove(0, 0, Mark.CROSS);
+        board.addMove(0, 1, Mark.CROSS);
+
+        board.takeBack(0, 1);
+
+        assertEquals(Mark.INITIAL, board.getMark(0, 1));
+        assertEquals(1, board.getFilled());
+        assertEquals(MoveOutcome.CONTINUE, board.addMove(0, 1, Mark.CIRCLE));
+    }
+
+    @Test
+    public void testTakeBackOnSparseBoard() {
+        Board board = new Board(2000, 5);
+        for (int i = 0; i < 4; i++) {
+            board.addMove(i, 0, Mark.CROSS);
+        }
+        board.addMove(4, 0, Mark.CROSS);
+        assertTrue(board.checkBoardForWin());
+
+        board.takeBack(4, 0);
+
+        assertFalse(board.checkBoardForWin());
+        assertEquals(4, SparseCells.count(board.getCells()));
+        assertEquals(Mark.INITIAL, board.getMark(4, 0));
+    }
+
+    @Test
+    public void testTakeBackOnlyMostRecentMoveOnSparseBoard() {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Only the most recent move can be taken back.");
+
+        Board board = new Board(2000, 5);
+        board.addMove(0, 0, Mark.CROSS);
+        board.addMove(1, 1, Mark.CIRCLE);
+
+        board.takeBack(0, 0);
+    }
 }
@@ -0,0 +1,68 @@
+package com.mbragg.game.service.api.domain;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LineCountersTest {
+
+    private static final int LARGE_BOARD_SIZE = 15;
+
+    @Test
+    public void testRowLine() {
+        LineCounters lineCounters = new LineCounters(LARGE_BOARD_SIZE);
+
+        for (int i = 0; i < LARGE_BOARD_SIZE - 1; i++) {
+            assertFalse(lineCounters.record(4, i, Mark.CROSS));
+        }
+        assertTrue(lineCounters.record(4, LARGE_BOARD_SIZE - 1, Mark.CROSS));
+    }
+
+    @Test
+    public void testColumnLine() {
+        LineCounters lineCounters = new LineCounters(LARGE_BOARD_SIZE);
+
+        for (int i = 0; i < LARGE_BOARD_SIZE - 1; i++) {
+            assertFalse(lineCounters.record(i, 13, Mark.CIRCLE));
+        }
+        assertTrue(lineCounters.record(LARGE_BOARD_SIZE - 1, 13, Mark.CIRCLE));
+    }
+
+    @Test
+    public void testDiagonalLines() {
+        LineCounters diagonal = new LineCounters(LARGE_BOARD_SIZE);
+        LineCounters antiDiagonal = new LineCounters(LARGE_BOARD_SIZE);
+
+        for (int i = 0; i < LARGE_BOARD_SIZE - 1; i++) {
+            assertFalse(diagonal.record(i, i, Mark.CROSS));
+            assertFalse(antiDiagonal.record(i, LARGE_BOARD_SIZE - 1 - i, Mark.CIRCLE));
+        }
+        assertTrue(diagonal.record(LARGE_BOARD_SIZE - 1, LARGE_BOARD_SIZE - 1, Mark.CROSS));
+        assertTrue(antiDiagonal.record(LARGE_BOARD_SIZE - 1, 0, Mark.CIRCLE));
+    }
+
+    @Test
+    public void testMixedLineIsNotAWin() {
+        LineCounters lineCounters = new LineCounters(3);
+
+        assertFalse(lineCounters.record(0, 0, Mark.CROSS));
+        assertFalse(lineCounters.record(0, 1, Mark.CIRCLE));
+        assertFalse(lineCounters.record(0, 2, Mark.CROSS));
+    }
+
+    @Test
+    public void testIsFull() {
+        LineCounters lineCounters = new LineCounters(3);
+
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < 3; j++) {
+                assertFalse(lineCounters.isFull());
+                lineCounters.record(i, j, (i + j) % 2 == 0 ? Mark.CROSS : Mark.CIRCLE);
+            }
+        }
+        assertTrue(lineCounters.isFull());
+        assertEquals(9, lineCounters.getFilled());
+    }
+}
@@ -0,0 +1,65 @@
+package com.mbragg.game.service.api.domain;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class PackedCellsTest {
+
+    @Test
+    public void testCreateSizedForTwoBitsPerCell() {
+        assertEquals(3, PackedCells.create(9).length);
+        assertEquals(57, PackedCells.create(225).length);
+    }
+
+    @Test
+    public void testSetAndGet() {
+        byte[] cells = PackedCells.create(9);
+
+        PackedCells.set(cells, 0, Mark.CROSS);
+        PackedCells.set(cells, 3, Mark.CIRCLE);
+        PackedCells.set(cells, 8, Mark.CIRCLE);
+
+        assertEquals(Mark.CROSS, PackedCells.get(cells, 0));
+        assertEquals(Mark.INITIAL, PackedCells.get(cells, 1));
+        assertEquals(Mark.CIRCLE, PackedCells.get(cells, 3));
+        assertEquals(Mark.CIRCLE, PackedCells.get(cells, 8));
+    }
+
+    @Test
+    public void testOverwriteOnlyChangesOneCell() {
+        byte[] cells = PackedCells.create(4);
+
+        PackedCells.set(cells, 0, Mark.CIRCLE);
+        PackedCells.set(cells, 1, Mark.CIRCLE);
+        PackedCells.set(cells, 2, Mark.CIRCLE);
+        PackedCells.set(cells, 3, Mark.CIRCLE);
+        PackedCells.set(cells, 2, Mark.CROSS);
+
+        assertEquals(Mark.CIRCLE, PackedCells.get(cells, 1));
+        assertEquals(Mark.CROSS, PackedCells.get(cells, 2));
+        assertEquals(Mark.CIRCLE, PackedCells.get(cells, 3));
+    }
+
+    @Test
+    public void testToCellString() {
+        byte[] cells = PackedCells.create(9);
+        PackedCells.set(cells, 0, Mark.CROSS);
+        PackedCells.set(cells, 2, Mark.CIRCLE);
+
+        assertEquals("X-O------", PackedCells.toCellString(cells, 9));
+    }
+
+    @Test
+    public void testToArray() {
+        byte[] cells = PackedCells.create(9);
+        PackedCells.set(cells, 4, Mark.CROSS);
+        PackedCells.set(cells, 5, Mark.CIRCLE);
+
+        Character[][] board = PackedCells.toArray(cells, 3);
+
+        assertEquals(Character.valueOf('X'), board[1][1]);
+        assertEquals(Character.valueOf('O'), board[1][2]);
+        assertEquals(Character.valueOf('-'), board[2][2]);
+    }
+}
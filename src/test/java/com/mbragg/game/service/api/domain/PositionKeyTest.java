@@ -0,0 +1,80 @@
+package com.mbragg.game.service.api.domain;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class PositionKeyTest {
+
+    private static final int SIZE = 5;
+
+    @Test
+    public void testSymmetricPositionsShareCanonicalKey() {
+        int[][] moves = {{0, 1}, {2, 2}, {3, 0}, {4, 4}};
+        long canonicalKey = positionKey(moves, 0).getCanonicalKey();
+
+        for (int symmetry = 1; symmetry < Symmetry.COUNT; symmetry++) {
+            assertEquals(canonicalKey, positionKey(moves, symmetry).getCanonicalKey());
+        }
+    }
+
+    @Test
+    public void testDifferentPositionsHaveDifferentKeys() {
+        PositionKey corner = positionKey(new int[][]{{0, 0}}, 0);
+        PositionKey edge = positionKey(new int[][]{{0, 1}}, 0);
+
+        assertNotEquals(corner.getCanonicalKey(), edge.getCanonicalKey());
+    }
+
+    @Test
+    public void testCanonicalSymmetryMapsOntoCanonicalKey() {
+        PositionKey positionKey = positionKey(new int[][]{{4, 3}, {1, 1}}, 0);
+        int canonicalSymmetry = positionKey.getCanonicalSymmetry();
+
+        PositionKey transformed = positionKey(new int[][]{{4, 3}, {1, 1}}, canonicalSymmetry);
+
+        assertEquals(positionKey.getCanonicalKey(), transformed.getKey());
+    }
+
+    @Test
+    public void testBoardKeepsKeyAcrossReload() {
+        Board board = new Board(SIZE, 4);
+        board.addMove(1, 2, Mark.CROSS);
+        board.addMove(3, 3, Mark.CIRCLE);
+
+        Board reloaded = new Board();
+        reloaded.setSize(board.getSize());
+        reloaded.setMode(board.getMode());
+        reloaded.setWinLength(board.getWinLength());
+        reloaded.setCells(board.getCells().clone());
+
+        assertEquals(board.getPositionKey().getKey(), reloaded.getPositionKey().getKey());
+    }
+
+    @Test
+    public void testInverseUndoesSymmetry() {
+        for (int symmetry = 0; symmetry < Symmetry.COUNT; symmetry++) {
+            long cell = Symmetry.map(symmetry, 1, 3, SIZE);
+            long back = Symmetry.map(Symmetry.inverse(symmetry), (int) (cell / SIZE), (int) (cell % SIZE), SIZE);
+
+            assertEquals(1 * SIZE + 3, back);
+        }
+    }
+
+    /**
+     * Places alternating marks, with every move moved by the symmetry first.
+     */
+    private static PositionKey positionKey(int[][] moves, int symmetry) {
+        PositionKey positionKey = new PositionKey(SIZE, 4);
+        Mark mark = Mark.CROSS;
+
+        for (int[] move : moves) {
+            long cell = Symmetry.map(symmetry, move[0], move[1], SIZE);
+            positionKey.place((int) (cell / SIZE), (int) (cell % SIZE), mark);
+            mark = mark == Mark.CROSS ? Mark.CIRCLE : Mark.CROSS;
+        }
+
+        return positionKey;
+    }
+}
@@ -0,0 +1,57 @@
+package com.mbragg.game.service.api.domain;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static org.junit.Assert.assertEquals;
+
+public class SparseBoardTest {
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    @Test
+    public void testInitiallyEmpty() {
+        SparseBoard sparseBoard = new SparseBoard();
+
+        assertEquals(0, sparseBoard.getCount());
+        assertEquals(Mark.INITIAL, sparseBoard.get(0, 0));
+        assertEquals(Mark.INITIAL, sparseBoard.get(1999, 1999));
+    }
+
+    @Test
+    public void testSetAndGet() {
+        SparseBoard sparseBoard = new SparseBoard();
+        sparseBoard.set(1999, 0, Mark.CROSS);
+        sparseBoard.set(0, 1999, Mark.CIRCLE);
+
+        assertEquals(2, sparseBoard.getCount());
+        assertEquals(Mark.CROSS, sparseBoard.get(1999, 0));
+        assertEquals(Mark.CIRCLE, sparseBoard.get(0, 1999));
+        assertEquals(Mark.INITIAL, sparseBoard.get(0, 0));
+    }
+
+    @Test
+    public void testGrowsPastInitialCapacity() {
+        SparseBoard sparseBoard = new SparseBoard();
+
+        for (int i = 0; i < 1000; i++) {
+            sparseBoard.set(i, i * 2, i % 2 == 0 ? Mark.CROSS : Mark.CIRCLE);
+        }
+
+        assertEquals(1000, sparseBoard.getCount());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i % 2 == 0 ? Mark.CROSS : Mark.CIRCLE, sparseBoard.get(i, i * 2));
+            assertEquals(Mark.INITIAL, sparseBoard.get(i, i * 2 + 1));
+        }
+    }
+
+    @Test
+    public void testSetInitialMark() {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Only a CROSS or CIRCLE can be placed on the board.");
+
+        new SparseBoard().set(0, 0, Mark.INITIAL);
+    }
+}
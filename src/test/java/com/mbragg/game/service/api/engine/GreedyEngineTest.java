@@ -0,0 +1,50 @@
+package com.mbragg.game.service.api.engine;
+
+import com.mbragg.game.service.api.domain.Board;
+import com.mbragg.game.service.api.domain.Mark;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class GreedyEngineTest {
+
+    private final GreedyEngine engine = new GreedyEngine(1);
+
+    @Test
+    public void testTakesWinBeforeBlocking() {
+        Board board = new Board(3);
+        board.addMove(0, 0, Mark.CROSS);
+        board.addMove(1, 0, Mark.CIRCLE);
+        board.addMove(0, 1, Mark.CROSS);
+        board.addMove(1, 1, Mark.CIRCLE);
+
+        assertEquals(new Move(0, 2), engine.selectMove(board, Mark.CROSS));
+    }
+
+    @Test
+    public void testBlocksOpponentWin() {
+        Board board = new Board(3);
+        board.addMove(0, 0, Mark.CROSS);
+        board.addMove(1, 1, Mark.CIRCLE);
+        board.addMove(2, 2, Mark.CROSS);
+        board.addMove(0, 1, Mark.CIRCLE);
+
+        assertEquals(new Move(2, 1), engine.selectMove(board, Mark.CROSS));
+    }
+
+    @Test
+    public void testOpensInCentre() {
+        assertEquals(new Move(3, 3), engine.selectMove(new Board(7, 4), Mark.CROSS));
+    }
+
+    @Test
+    public void testPlaysNextToExistingMark() {
+        Board board = new Board(9, 5);
+        board.addMove(4, 4, Mark.CIRCLE);
+
+        Move move = engine.selectMove(board, Mark.CROSS);
+
+        assertTrue(Math.abs(move.getRow() - 4) <= 1 && Math.abs(move.getColumn() - 4) <= 1);
+    }
+}
@@ -0,0 +1,88 @@
+package com.mbragg.game.service.api.engine;
+
+import com.mbragg.game.service.api.domain.Board;
+import com.mbragg.game.service.api.domain.Mark;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MonteCarloEngineTest {
+
+    private final MonteCarloEngine engine = new MonteCarloEngine(50, 2, 1 << 14);
+
+    @After
+    public void tearDown() {
+        engine.shutdown();
+    }
+
+    @Test
+    public void testTakesImmediateWin() {
+        Board board = new Board(9, 5);
+        for (int column = 0; column < 4; column++) {
+            board.addMove(0, column, Mark.CROSS);
+            board.addMove(8, column, Mark.CIRCLE);
+        }
+
+        assertEquals(new Move(0, 4), engine.selectMove(board, Mark.CROSS));
+    }
+
+    @Test
+    public void testBlocksOpponentWin() {
+        Board board = new Board(9, 5);
+        for (int row = 0; row < 4; row++) {
+            board.addMove(row, 8, Mark.CIRCLE);
+        }
+        board.addMove(4, 4, Mark.CROSS);
+        board.addMove(2, 2, Mark.CROSS);
+
+        assertEquals(new Move(4, 8), engine.selectMove(board, Mark.CROSS));
+    }
+
+    @Test
+    public void testSelectsEmptyCell() {
+        Board board = new Board(15, 5);
+        board.addMove(7, 7, Mark.CIRCLE);
+
+        Move move = engine.selectMove(board, Mark.CROSS);
+
+        assertEquals(Mark.INITIAL, board.getMark(move.getRow(), move.getColumn()));
+    }
+
+    @Test
+    public void testTakesImmediateWinOnSparseBoard() {
+        Board board = new Board(2000, 5);
+        board.addMove(1500, 1499, Mark.CIRCLE);
+        for (int column = 1500; column < 1504; column++) {
+            board.addMove(1500, column, Mark.CROSS);
+        }
+
+        assertEquals(new Move(1500, 1504), engine.selectMove(board, Mark.CROSS));
+    }
+
+    @Test
+    public void testSearchesAroundMarksOnSparseBoard() {
+        Board board = new Board(2000, 5);
+        board.addMove(1999, 0, Mark.CIRCLE);
+
+        Move move = engine.selectMove(board, Mark.CROSS);
+
+        assertTrue(move.getRow() >= 1995 && move.getColumn() <= 4);
+    }
+
+    @Test
+    public void testSearchesAroundLatestMoveWhenMarksAreSpread() {
+        Board board = new Board(2000, 5);
+        board.addMove(0, 0, Mark.CIRCLE);
+        board.addMove(1999, 1999, Mark.CIRCLE);
+        for (int column = 1000; column < 1004; column++) {
+            board.addMove(1000, column, Mark.CROSS);
+        }
+
+        Move move = engine.selectMove(board, Mark.CIRCLE);
+
+        assertEquals(1000, move.getRow());
+        assertTrue(move.getColumn() == 999 || move.getColumn() == 1004);
+    }
+}
@@ -0,0 +1,102 @@
+package com.mbragg.game.service.api.engine;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MonteCarloSearchTest {
+
+    private static final int ITERATIONS = 20_000;
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    @Test
+    public void testPrefersWinningMove() {
+        SearchBoard board = new SearchBoard(9, 5);
+        for (int column = 2; column < 6; column++) {
+            board.play(4 * 9 + column, SearchBoard.CROSS);
+        }
+        board.play(4 * 9 + 1, SearchBoard.CIRCLE);
+        board.play(0, SearchBoard.CIRCLE);
+        board.play(80, SearchBoard.CIRCLE);
+
+        // Cross only has one way to complete the line, circle has blocked the other end
+        assertEquals(4 * 9 + 6, mostVisited(board, SearchBoard.CROSS));
+    }
+
+    @Test
+    public void testBoardIsRestored() {
+        SearchBoard board = new SearchBoard(9, 5);
+        board.play(40, SearchBoard.CROSS);
+        board.play(41, SearchBoard.CIRCLE);
+        long hash = board.getHash();
+
+        new MonteCarloSearch(1 << 16, 1).search(board, SearchBoard.CROSS, 1_000);
+
+        assertEquals(hash, board.getHash());
+        assertEquals(2, board.getFilled());
+    }
+
+    @Test
+    public void testVisitsAddUpToIterations() {
+        SearchBoard board = new SearchBoard(9, 5);
+        MonteCarloSearch search = new MonteCarloSearch(1 << 16, 1);
+
+        long playouts = search.search(board, SearchBoard.CROSS, 1_000);
+
+        int[] visits = new int[board.getCellCount()];
+        search.addRootVisits(visits);
+        int total = 0;
+        for (int count : visits) {
+            total += count;
+        }
+
+        assertEquals(1_000, total);
+        assertTrue(playouts <= 1_000);
+    }
+
+    @Test
+    public void testTreeStaysWithinCapacity() {
+        SearchBoard board = new SearchBoard(9, 5);
+        MonteCarloSearch search = new MonteCarloSearch(200, 1);
+
+        search.search(board, SearchBoard.CROSS, ITERATIONS);
+
+        assertTrue(search.getNodeCount() <= 200);
+    }
+
+    @Test
+    public void testFullBoard() {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Board must have an empty position to move to.");
+
+        SearchBoard board = new SearchBoard(3, 3);
+        byte player = SearchBoard.CROSS;
+        for (int cell = 0; cell < board.getCellCount(); cell++) {
+            board.play(cell, player);
+            player = SearchBoard.opponent(player);
+        }
+
+        new MonteCarloSearch(16, 1).search(board, SearchBoard.CROSS, 1);
+    }
+
+    private static int mostVisited(SearchBoard board, byte player) {
+        MonteCarloSearch search = new MonteCarloSearch(1 << 16, 1);
+        search.search(board, player, ITERATIONS);
+
+        int[] visits = new int[board.getCellCount()];
+        search.addRootVisits(visits);
+
+        int best = 0;
+        for (int cell = 1; cell < visits.length; cell++) {
+            if (visits[cell] > visits[best]) {
+                best = cell;
+            }
+        }
+        return best;
+    }
+}
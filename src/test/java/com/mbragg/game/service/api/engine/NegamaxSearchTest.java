@@ -0,0 +1,78 @@
+package com.mbragg.game.service.api.engine;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class NegamaxSearchTest {
+
+    private static final long BUDGET = TimeUnit.SECONDS.toNanos(5);
+
+    private final TranspositionTable table = new TranspositionTable(1 << 16);
+
+    @Test
+    public void testTakesImmediateWin() {
+        SearchBoard board = new SearchBoard(3, 3);
+        board.play(0, SearchBoard.CROSS);
+        board.play(1, SearchBoard.CROSS);
+        board.play(3, SearchBoard.CIRCLE);
+        board.play(4, SearchBoard.CIRCLE);
+
+        assertEquals(2, new NegamaxSearch(board, table, BUDGET).bestMove(SearchBoard.CROSS));
+    }
+
+    @Test
+    public void testBlocksOpponentWin() {
+        SearchBoard board = new SearchBoard(3, 3);
+        board.play(0, SearchBoard.CROSS);
+        board.play(4, SearchBoard.CIRCLE);
+        board.play(8, SearchBoard.CROSS);
+        board.play(2, SearchBoard.CIRCLE);
+
+        // Circle threatens the anti-diagonal through 6
+        assertEquals(6, new NegamaxSearch(board, table, BUDGET).bestMove(SearchBoard.CROSS));
+    }
+
+    @Test
+    public void testPerfectPlayAlwaysDraws() {
+        SearchBoard board = new SearchBoard(3, 3);
+        byte player = SearchBoard.CROSS;
+
+        while (!board.isFull()) {
+            int cell = new NegamaxSearch(board, table, BUDGET).bestMove(player);
+            board.play(cell, player);
+
+            assertTrue("Perfect play should never win at 3x3", !board.isWin(cell));
+            player = SearchBoard.opponent(player);
+        }
+    }
+
+    @Test
+    public void testSearchBoardCopyKeepsHash() {
+        SearchBoard board = new SearchBoard(4, 4);
+        board.play(5, SearchBoard.CIRCLE);
+
+        SearchBoard copy = board.copy();
+        copy.play(6, SearchBoard.CROSS);
+        copy.undo(6);
+
+        assertEquals(board.getHash(), copy.getHash());
+        assertEquals(1, copy.getFilled());
+    }
+
+    @Test
+    public void testReturnsWithinBudget() {
+        SearchBoard board = new SearchBoard(5, 5);
+        long budget = TimeUnit.MILLISECONDS.toNanos(100);
+
+        long start = System.nanoTime();
+        int cell = new NegamaxSearch(board, table, budget).bestMove(SearchBoard.CROSS);
+        long elapsed = System.nanoTime() - start;
+
+        assertTrue(board.isEmpty(cell));
+        assertTrue("Search should stop close to its budget", elapsed < budget * 5);
+    }
+}
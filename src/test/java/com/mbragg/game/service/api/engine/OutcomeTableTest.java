@@ -0,0 +1,113 @@
+package com.mbragg.game.service.api.engine;
+
+import com.mbragg.game.service.api.domain.Board;
+import com.mbragg.game.service.api.domain.Mark;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class OutcomeTableTest {
+
+    private static final int CANONICAL_POSITIONS = 765;
+
+    private static final int REACHABLE_POSITIONS = 5478;
+
+    private final OutcomeTable outcomeTable = new OutcomeTable();
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    @Test
+    public void testShippedTableMatchesSolver() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        OutcomeTable.write(OutcomeTableGenerator.solve(), output);
+
+        byte[] shipped;
+        try (InputStream input = getClass().getClassLoader().getResourceAsStream(OutcomeTable.RESOURCE)) {
+            shipped = OutcomeTable.read(input);
+        }
+
+        assertArrayEquals(OutcomeTable.read(new ByteArrayInputStream(output.toByteArray())), shipped);
+    }
+
+    @Test
+    public void testPositionCounts() {
+        int canonical = 0;
+        for (byte entry : OutcomeTableGenerator.solve()) {
+            if (entry != 0) {
+                canonical++;
+            }
+        }
+
+        assertEquals(REACHABLE_POSITIONS, OutcomeTableGenerator.countReachable());
+        assertEquals(CANONICAL_POSITIONS, canonical);
+    }
+
+    @Test
+    public void testEmptyBoardIsDraw() {
+        assertEquals(Outcome.DRAW, outcomeTable.evaluate(new Board(3), Mark.CROSS).getOutcome());
+    }
+
+    @Test
+    public void testTakesImmediateWinInEveryOrientation() {
+        // Two in a row along the top edge, rotated to each side of the board
+        int[][][] threats = {
+                {{0, 0}, {0, 1}, {0, 2}},
+                {{0, 2}, {1, 2}, {2, 2}},
+                {{2, 2}, {2, 1}, {2, 0}},
+                {{2, 0}, {1, 0}, {0, 0}}
+        };
+
+        for (int[][] threat : threats) {
+            Board board = new Board(3);
+            board.addMove(threat[0][0], threat[0][1], Mark.CROSS);
+            board.addMove(1, 1, Mark.CIRCLE);
+            board.addMove(threat[1][0], threat[1][1], Mark.CROSS);
+            board.addMove(threat[0][0] == 0 && threat[0][1] == 0 ? 2 : 0, 1, Mark.CIRCLE);
+
+            Evaluation evaluation = outcomeTable.evaluate(board, Mark.CROSS);
+
+            assertEquals(Outcome.WIN, evaluation.getOutcome());
+            assertEquals(new Move(threat[2][0], threat[2][1]), evaluation.getMove());
+        }
+    }
+
+    @Test
+    public void testLostPosition() {
+        Board board = new Board(3);
+        board.addMove(0, 0, Mark.CROSS);
+        board.addMove(0, 1, Mark.CIRCLE);
+        board.addMove(1, 1, Mark.CROSS);
+        board.addMove(2, 2, Mark.CIRCLE);
+        board.addMove(2, 0, Mark.CROSS);
+
+        // Cross threatens both (1, 0) and (0, 2)
+        assertEquals(Outcome.LOSS, outcomeTable.evaluate(board, Mark.CIRCLE).getOutcome());
+    }
+
+    @Test
+    public void testUnreachablePosition() {
+        Board board = new Board(3);
+        board.addMove(0, 0, Mark.CROSS);
+        board.addMove(0, 1, Mark.CROSS);
+        board.addMove(0, 2, Mark.CROSS);
+
+        assertNull(outcomeTable.evaluate(board, Mark.CIRCLE));
+    }
+
+    @Test
+    public void testLargerBoard() {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("The outcome table only holds 3x3 positions.");
+
+        outcomeTable.evaluate(new Board(4), Mark.CROSS);
+    }
+}
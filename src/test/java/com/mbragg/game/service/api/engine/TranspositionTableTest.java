@@ -0,0 +1,65 @@
+package com.mbragg.game.service.api.engine;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class TranspositionTableTest {
+
+    @Test
+    public void testStoreAndProbe() {
+        TranspositionTable table = new TranspositionTable(1024);
+        table.newSearch();
+        table.store(42L, 7, TranspositionTable.LOWER_BOUND, -9_990, 24);
+
+        long entry = table.probe(42L);
+
+        assertEquals(7, TranspositionTable.depth(entry));
+        assertEquals(TranspositionTable.LOWER_BOUND, TranspositionTable.flag(entry));
+        assertEquals(-9_990, TranspositionTable.score(entry));
+        assertEquals(24, TranspositionTable.move(entry));
+    }
+
+    @Test
+    public void testMissForUnknownKey() {
+        TranspositionTable table = new TranspositionTable(1024);
+
+        assertEquals(TranspositionTable.MISS, table.probe(42L));
+    }
+
+    @Test
+    public void testNoBestMove() {
+        TranspositionTable table = new TranspositionTable(1024);
+        table.store(42L, 1, TranspositionTable.EXACT, 0, -1);
+
+        assertEquals(-1, TranspositionTable.move(table.probe(42L)));
+    }
+
+    @Test
+    public void testCapacityRoundedToPowerOfTwo() {
+        assertEquals(512, new TranspositionTable(1000).capacity());
+    }
+
+    @Test
+    public void testDeeperResultIsKeptInSameSearch() {
+        TranspositionTable table = new TranspositionTable(1);
+        table.newSearch();
+        table.store(1L, 9, TranspositionTable.EXACT, 5, 1);
+        table.store(2L, 3, TranspositionTable.EXACT, 6, 2);
+
+        assertEquals(TranspositionTable.MISS, table.probe(2L));
+        assertEquals(9, TranspositionTable.depth(table.probe(1L)));
+    }
+
+    @Test
+    public void testOlderSearchResultIsReplaced() {
+        TranspositionTable table = new TranspositionTable(1);
+        table.newSearch();
+        table.store(1L, 9, TranspositionTable.EXACT, 5, 1);
+        table.newSearch();
+        table.store(2L, 3, TranspositionTable.EXACT, 6, 2);
+
+        assertEquals(TranspositionTable.MISS, table.probe(1L));
+        assertEquals(3, TranspositionTable.depth(table.probe(2L)));
+    }
+}
@@ -0,0 +1,221 @@
+package com.mbragg.game.service.api.journal;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MoveJournalTest {
+
+    // Room for four moves in each segment
+    private static final int SEGMENT_SIZE = 4 * MoveJournal.RECORD_SIZE;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    private MoveJournal moveJournal;
+
+    @Before
+    public void setUp() throws IOException {
+        moveJournal = open();
+    }
+
+    @After
+    public void tearDown() {
+        moveJournal.close();
+    }
+
+    @Test
+    public void testEmptyJournal() {
+        assertTrue(moveJournal.isEnabled());
+        assertTrue(moveJournal.takeRecovered().isEmpty());
+        assertEquals(1, moveJournal.segmentCount());
+    }
+
+    @Test
+    public void testMovesAreRecoveredWhenReopened() throws IOException {
+        moveJournal.append(1L, 10L, 0, 0, 1);
+        moveJournal.append(2L, 20L, 70, 300, 1);
+        moveJournal.append(1L, 11L, 1, 1, 2);
+        moveJournal.close();
+
+        Map<Long, List<MoveRecord>> recovered = open().takeRecovered();
+
+        assertEquals(Arrays.asList(new MoveRecord(1L, 10L, 0, 0, 1), new MoveRecord(1L, 11L, 1, 1, 2)),
+                recovered.get(1L));
+        assertEquals(Arrays.asList(new MoveRecord(2L, 20L, 70, 300, 1)), recovered.get(2L));
+    }
+
+    @Test
+    public void testCellsBeyondShortAreRecovered() throws IOException {
+        moveJournal.append(1L, 10L, 40000, 1999999, 1);
+        moveJournal.close();
+
+        Map<Long, List<MoveRecord>> recovered = open().takeRecovered();
+
+        assertEquals(Arrays.asList(new MoveRecord(1L, 10L, 40000, 1999999, 1)), recovered.get(1L));
+    }
+
+    @Test
+    public void testRecoveredMovesAreOnlyTakenOnce() throws IOException {
+        moveJournal.append(1L, 10L, 0, 0, 1);
+        moveJournal.close();
+
+        MoveJournal reopened = open();
+
+        assertEquals(1, reopened.takeRecovered().size());
+        assertTrue(reopened.takeRecovered().isEmpty());
+    }
+
+    @Test
+    public void testAppendsContinueAfterRecoveredMoves() throws IOException {
+        moveJournal.append(1L, 10L, 0, 0, 1);
+        moveJournal.close();
+
+        MoveJournal reopened = open();
+        reopened.append(1L, 11L, 1, 1, 2);
+        reopened.close();
+
+        assertEquals(2, open().takeRecovered().get(1L).size());
+    }
+
+    @Test
+    public void testFullSegmentsRollOver() throws IOException {
+        for (int i = 1; i <= 9; i++) {
+            moveJournal.append(1L, 10L, i, i, i);
+        }
+
+        assertEquals(3, moveJournal.segmentCount());
+
+        moveJournal.close();
+        List<MoveRecord> recovered = open().takeRecovered().get(1L);
+
+        assertEquals(9, recovered.size());
+        assertEquals(9, recovered.get(8).getSequence());
+    }
+
+    @Test
+    public void testCheckpointDeletesWrittenSegments() throws IOException {
+        for (int i = 1; i <= 4; i++) {
+            moveJournal.append(1L, 10L, i, i, i);
+        }
+        moveJournal.append(2L, 20L, 0, 0, 1);
+        moveJournal.append(1L, 10L, 5, 5, 5);
+
+        moveJournal.checkpoint(1L, 3);
+        assertEquals(2, moveJournal.segmentCount());
+
+        moveJournal.checkpoint(1L, 4);
+        assertEquals(1, moveJournal.segmentCount());
+        assertEquals(1, folder.getRoot().listFiles().length);
+
+        moveJournal.close();
+        Map<Long, List<MoveRecord>> recovered = open().takeRecovered();
+
+        assertFalse(recovered.get(1L).isEmpty());
+        assertEquals(5, recovered.get(1L).get(0).getSequence());
+    }
+
+    @Test
+    public void testWithdrawnMoveIsNotRecovered() throws IOException {
+        moveJournal.append(1L, 10L, 0, 0, 1);
+        moveJournal.append(2L, 20L, 0, 0, 1);
+        moveJournal.append(1L, 11L, 1, 1, 2);
+        moveJournal.withdraw(1L, 2);
+        moveJournal.close();
+
+        Map<Long, List<MoveRecord>> recovered = open().takeRecovered();
+
+        assertEquals(Arrays.asList(new MoveRecord(1L, 10L, 0, 0, 1)), recovered.get(1L));
+        assertEquals(Arrays.asList(new MoveRecord(2L, 20L, 0, 0, 1)), recovered.get(2L));
+    }
+
+    @Test
+    public void testMoveJournaledAfterWithdrawalIsRecovered() throws IOException {
+        moveJournal.append(1L, 10L, 0, 0, 1);
+        moveJournal.withdraw(1L, 1);
+        moveJournal.append(1L, 10L, 2, 2, 1);
+        moveJournal.close();
+
+        assertEquals(Arrays.asList(new MoveRecord(1L, 10L, 2, 2, 1)), open().takeRecovered().get(1L));
+    }
+
+    @Test
+    public void testDiscardedGameIsNotRecovered() throws IOException {
+        moveJournal.append(1L, 10L, 0, 0, 1);
+        moveJournal.append(1L, 11L, 1, 1, 2);
+        moveJournal.discard(1L);
+        moveJournal.close();
+
+        assertTrue(open().takeRecovered().isEmpty());
+    }
+
+    @Test
+    public void testWithdrawalIsKeptWhileWithdrawnMovesAre() throws IOException {
+        moveJournal.append(2L, 20L, 0, 0, 1);
+        for (int i = 1; i <= 3; i++) {
+            moveJournal.append(1L, 10L, i, i, i);
+        }
+        moveJournal.withdraw(1L, 3);
+        for (int i = 1; i <= 3; i++) {
+            moveJournal.append(3L, 30L, i, i, i);
+        }
+        moveJournal.append(3L, 30L, 4, 4, 4);
+
+        moveJournal.checkpoint(1L, 2);
+        moveJournal.checkpoint(3L, 3);
+        assertEquals(3, moveJournal.segmentCount());
+
+        moveJournal.close();
+        MoveJournal reopened = open();
+        List<MoveRecord> recovered = reopened.takeRecovered().get(1L);
+
+        assertEquals(2, recovered.size());
+        assertEquals(2, recovered.get(1).getSequence());
+
+        reopened.checkpoint(1L, 2);
+        reopened.checkpoint(2L, 1);
+        reopened.checkpoint(3L, 4);
+        assertEquals(1, reopened.segmentCount());
+        reopened.close();
+    }
+
+    @Test
+    public void testDisabledWithoutDirectory() throws IOException {
+        MoveJournal disabled = new MoveJournal("", SEGMENT_SIZE);
+        disabled.open();
+        disabled.append(1L, 10L, 0, 0, 1);
+        disabled.checkpoint(1L, 1);
+
+        assertFalse(disabled.isEnabled());
+        assertTrue(disabled.takeRecovered().isEmpty());
+    }
+
+    @Test
+    public void testAppendWithoutSequence() {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Journaled moves must have a positive sequence.");
+
+        moveJournal.append(1L, 10L, 0, 0, 0);
+    }
+
+    private MoveJournal open() throws IOException {
+        MoveJournal journal = new MoveJournal(folder.getRoot().getAbsolutePath(), SEGMENT_SIZE);
+        journal.open();
+        return journal;
+    }
+}
@@ -0,0 +1,106 @@
+package com.mbragg.game.service.api.service;
+
+import com.mbragg.game.service.api.domain.Board;
+import com.mbragg.game.service.api.domain.Mark;
+import com.mbragg.game.service.api.engine.*;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ComputerPlayerServiceImplTest {
+
+    private ComputerPlayerService computerPlayerService;
+
+    private EvaluationCache evaluationCache;
+
+    @Mock
+    private OutcomeTable outcomeTable;
+
+    @Mock
+    private NegamaxEngine negamaxEngine;
+
+    @Mock
+    private MonteCarloEngine monteCarloEngine;
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    @Before
+    public void setUp() {
+        this.evaluationCache = new EvaluationCache(100);
+        this.computerPlayerService = new ComputerPlayerServiceImpl(outcomeTable, negamaxEngine, monteCarloEngine,
+                new PositionKeyServiceImpl(), evaluationCache, 9);
+    }
+
+    @Test
+    public void testClassicBoardUsesOutcomeTable() {
+        Board board = new Board(3);
+        Evaluation evaluation = new Evaluation(new Move(1, 1), Outcome.DRAW);
+        when(outcomeTable.evaluate(board, Mark.CROSS)).thenReturn(evaluation);
+
+        assertEquals(evaluation, computerPlayerService.evaluate(board, Mark.CROSS));
+        verify(negamaxEngine, never()).selectMove(any(Board.class), any(Mark.class));
+    }
+
+    @Test
+    public void testLargeBoardUsesMonteCarlo() {
+        Board board = new Board(9, 5);
+        when(monteCarloEngine.selectMove(board, Mark.CROSS)).thenReturn(new Move(4, 4));
+
+        assertEquals(new Move(4, 4), computerPlayerService.selectMove(board, Mark.CROSS));
+        verify(negamaxEngine, never()).selectMove(any(Board.class), any(Mark.class));
+    }
+
+    @Test
+    public void testWinLengthTooLongToSearch() {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Computer players can not play a win length above 64.");
+
+        computerPlayerService.evaluate(new Board(2000, 65), Mark.CROSS);
+    }
+
+    @Test
+    public void testMirroredPositionReusesSearch() {
+        Board left = new Board(5, 4);
+        left.addMove(2, 0, Mark.CROSS);
+
+        Board right = new Board(5, 4);
+        right.addMove(2, 4, Mark.CROSS);
+
+        when(negamaxEngine.selectMove(left, Mark.CIRCLE)).thenReturn(new Move(2, 1));
+
+        assertEquals(new Move(2, 1), computerPlayerService.selectMove(left, Mark.CIRCLE));
+        assertEquals(new Move(2, 3), computerPlayerService.selectMove(right, Mark.CIRCLE));
+
+        verify(negamaxEngine, times(1)).selectMove(any(Board.class), any(Mark.class));
+        assertEquals(1, evaluationCache.getHits());
+        assertEquals(1, evaluationCache.size());
+    }
+
+    @Test
+    public void testFullBoard() {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Board must have an empty position to move to.");
+
+        Board board = new Board(3);
+        Mark mark = Mark.CROSS;
+        for (int cell : new int[]{0, 1, 2, 4, 3, 5, 7, 6, 8}) {
+            board.addMove(cell / 3, cell % 3, mark);
+            mark = mark == Mark.CROSS ? Mark.CIRCLE : Mark.CROSS;
+        }
+
+        computerPlayerService.evaluate(board, Mark.CROSS);
+    }
+}
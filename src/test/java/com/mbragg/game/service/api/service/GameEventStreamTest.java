@@ -0,0 +1,213 @@
+package com.mbragg.game.service.api.service;
+
+import com.mbragg.game.service.api.domain.GameStatus;
+import com.mbragg.game.service.api.dto.GameResponse;
+import com.mbragg.game.service.api.dto.MoveDelta;
+import com.mbragg.game.service.api.dto.PlacedCell;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class GameEventStreamTest {
+
+    private static final long WAIT_SECONDS = 5;
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    private GameEventStream gameEventStream;
+
+    @Before
+    public void setUp() {
+        gameEventStream = new GameEventStream(2, 100, 4, 16, 60000, 60000);
+    }
+
+    @After
+    public void tearDown() {
+        gameEventStream.stop();
+    }
+
+    @Test
+    public void testSubscriberIsSentGameThenMoves() throws Exception {
+        RecordingEmitter emitter = new RecordingEmitter();
+        gameEventStream.subscribe(emitter, 1L, null, () -> game(3L, GameStatus.IN_PROGRESS));
+
+        gameEventStream.publish(delta(4L, GameStatus.IN_PROGRESS));
+        gameEventStream.publish(delta(5L, GameStatus.IN_PROGRESS));
+
+        assertEvent(emitter.next(), "3", GameEventStream.GAME_EVENT);
+        assertEvent(emitter.next(), "4", GameEventStream.MOVE_EVENT);
+        assertEvent(emitter.next(), "5", GameEventStream.MOVE_EVENT);
+        assertEquals(1, gameEventStream.subscriberCount());
+    }
+
+    @Test
+    public void testResumeSendsOnlyMissedMoves() throws Exception {
+        RecordingEmitter first = new RecordingEmitter();
+        gameEventStream.subscribe(first, 1L, null, () -> game(3L, GameStatus.IN_PROGRESS));
+        gameEventStream.publish(delta(4L, GameStatus.IN_PROGRESS));
+        gameEventStream.publish(delta(5L, GameStatus.IN_PROGRESS));
+
+        RecordingEmitter resumed = new RecordingEmitter();
+        gameEventStream.subscribe(resumed, 1L, 4L, () -> {
+            throw new AssertionError("A resumed subscriber should not read the game");
+        });
+
+        assertEvent(resumed.next(), "5", GameEventStream.MOVE_EVENT);
+        assertNull(resumed.events.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testResumeBeyondHistorySendsGame() throws Exception {
+        gameEventStream.subscribe(new RecordingEmitter(), 1L, null, () -> game(3L, GameStatus.IN_PROGRESS));
+        for (long version = 4; version <= 10; version++) {
+            gameEventStream.publish(delta(version, GameStatus.IN_PROGRESS));
+        }
+
+        AtomicInteger reads = new AtomicInteger();
+        RecordingEmitter resumed = new RecordingEmitter();
+        gameEventStream.subscribe(resumed, 1L, 4L, () -> {
+            reads.incrementAndGet();
+            return game(10L, GameStatus.IN_PROGRESS);
+        });
+
+        assertEvent(resumed.next(), "10", GameEventStream.GAME_EVENT);
+        assertEquals(1, reads.get());
+    }
+
+    @Test
+    public void testSubscriberClosedWhenGameCompletes() throws Exception {
+        RecordingEmitter emitter = new RecordingEmitter();
+        gameEventStream.subscribe(emitter, 1L, null, () -> game(3L, GameStatus.IN_PROGRESS));
+
+        gameEventStream.publish(delta(4L, GameStatus.COMPLETE));
+
+        assertEvent(emitter.next(), "3", GameEventStream.GAME_EVENT);
+        assertEvent(emitter.next(), "4", GameEventStream.MOVE_EVENT);
+        assertTrue(emitter.completed.await(WAIT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(0, gameEventStream.subscriberCount());
+    }
+
+    @Test
+    public void testSubscriberToCompletedGameIsClosed() throws Exception {
+        RecordingEmitter emitter = new RecordingEmitter();
+        gameEventStream.subscribe(emitter, 1L, null, () -> game(9L, GameStatus.COMPLETE));
+
+        assertEvent(emitter.next(), "9", GameEventStream.GAME_EVENT);
+        assertTrue(emitter.completed.await(WAIT_SECONDS, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testSlowSubscriberIsClosed() throws Exception {
+        CountDownLatch blocked = new CountDownLatch(1);
+        RecordingEmitter slow = new RecordingEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) {
+                try {
+                    blocked.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        gameEventStream.subscribe(slow, 1L, null, () -> game(3L, GameStatus.IN_PROGRESS));
+
+        for (long version = 4; version < 30; version++) {
+            gameEventStream.publish(delta(version, GameStatus.IN_PROGRESS));
+        }
+        blocked.countDown();
+
+        assertTrue(slow.completed.await(WAIT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(0, gameEventStream.subscriberCount());
+    }
+
+    @Test
+    public void testMovesOfUnfollowedGamesAreDropped() {
+        gameEventStream.publish(delta(4L, GameStatus.IN_PROGRESS));
+
+        assertEquals(0, gameEventStream.subscriberCount());
+    }
+
+    @Test
+    public void testSubscribeToNonExistentGame() {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Game does not exist");
+
+        gameEventStream.subscribe(new RecordingEmitter(), 1L, null, () -> {
+            throw new IllegalArgumentException("Game does not exist");
+        });
+    }
+
+    @Test
+    public void testInvalidHistorySize() {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Event history size must be greater than zero.");
+
+        new GameEventStream(1, 10, 0, 10, 1000, 1000);
+    }
+
+    private static void assertEvent(String event, String id, String name) {
+        assertTrue(event, event.startsWith("id:" + id + "\nevent:" + name + "\ndata:"));
+    }
+
+    private static GameResponse game(Long version, GameStatus status) {
+        return GameResponse.newBuilder()
+                .withGameId(1L)
+                .withVersion(version)
+                .withGameStatus(status)
+                .build();
+    }
+
+    private static MoveDelta delta(Long version, GameStatus status) {
+        MoveDelta delta = new MoveDelta();
+        delta.setGameId(1L);
+        delta.addCell(new PlacedCell(0, 0, 'X', 1L));
+        delta.setGameStatus(status);
+        delta.setVersion(version);
+        return delta;
+    }
+
+    /**
+     * Records the text of each event sent, as no response is written to outside of a request.
+     */
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+
+        private final CountDownLatch completed = new CountDownLatch(1);
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            StringBuilder text = new StringBuilder();
+            for (ResponseBodyEmitter.DataWithMediaType data : builder.build()) {
+                text.append(data.getData() instanceof String ? data.getData() : "{}");
+            }
+            events.add(text.toString());
+        }
+
+        @Override
+        public synchronized void complete() {
+            completed.countDown();
+        }
+
+        private String next() throws InterruptedException {
+            String event = events.poll(WAIT_SECONDS, TimeUnit.SECONDS);
+            assertTrue("Expected another event", event != null);
+            return event;
+        }
+    }
+}
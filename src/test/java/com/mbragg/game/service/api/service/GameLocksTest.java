@@ -0,0 +1,82 @@
+package com.mbragg.game.service.api.service;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class GameLocksTest {
+
+    private static final int THREADS = 8;
+
+    private static final int UPDATES = 10_000;
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    @Test
+    public void testSameGameSharesLock() {
+        GameLocks gameLocks = new GameLocks(64);
+
+        assertSame(gameLocks.lockFor(7L), gameLocks.lockFor(7L));
+        assertSame(gameLocks.lockFor(7L), gameLocks.lockFor(71L));
+    }
+
+    @Test
+    public void testConsecutiveGamesUseDifferentLocks() {
+        GameLocks gameLocks = new GameLocks(64);
+
+        for (long id = 1; id < 64; id++) {
+            assertNotSame(gameLocks.lockFor(id), gameLocks.lockFor(id + 1));
+        }
+    }
+
+    @Test
+    public void testUpdatesToOneGameAreSerialized() throws Exception {
+        GameLocks gameLocks = new GameLocks(64);
+        ExecutorService executorService = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        int[] counter = new int[1];
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executorService.submit(() -> {
+                start.await();
+                for (int j = 0; j < UPDATES; j++) {
+                    // Unsynchronized read-modify-write, only safe under the game's lock
+                    gameLocks.withLock(1L, () -> counter[0]++);
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executorService.shutdown();
+        assertTrue(executorService.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(THREADS * UPDATES, counter[0]);
+    }
+
+    @Test
+    public void testStripeCountMustBePowerOfTwo() {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Lock stripe count must be a power of two.");
+
+        new GameLocks(100);
+    }
+}
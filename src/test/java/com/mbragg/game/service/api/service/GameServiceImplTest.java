@@ -1,8 +1,14 @@
 package com.mbragg.game.service.api.service;
 
+import com.mbragg.game.service.api.dl.BoardRepository;
 import com.mbragg.game.service.api.dl.GameRepository;
+import com.mbragg.game.service.api.dl.PlayerRepository;
 import com.mbragg.game.service.api.domain.*;
 import com.mbragg.game.service.api.dto.*;
+import com.mbragg.game.service.api.engine.Evaluation;
+import com.mbragg.game.service.api.engine.Move;
+import com.mbragg.game.service.api.engine.Outcome;
+import com.mbragg.game.service.api.journal.MoveJournal;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -12,15 +18,35 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 @RunWith(MockitoJUnitRunner.class)
 public class GameServiceImplTest {
@@ -33,6 +59,28 @@ public class GameServiceImplTest {
     @Mock
     private UserService userService;
 
+    @Mock
+    private ComputerPlayerService computerPlayerService;
+
+    @Mock
+    private BoardRepository boardRepository;
+
+    @Mock
+    private PlayerRepository playerRepository;
+
+    @Mock
+    private MoveJournal moveJournal;
+
+    @Mock
+    private GameEventStream gameEventStream;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private HotGameStore hotGameStore;
+
+    private CompletedGameCache completedGameCache;
+
     @Rule
     public ExpectedException expectedException = ExpectedException.none();
 
@@ -41,7 +89,14 @@ public class GameServiceImplTest {
 
     @Before
     public void setUp() {
-        this.gameService = new GameServiceImpl(gameRepository, userService);
+        GameLocks gameLocks = new GameLocks(16);
+        this.completedGameCache = new CompletedGameCache(16);
+
+        // Not started, so moves are queued but never written
+        this.hotGameStore = new HotGameStore(gameRepository, boardRepository, playerRepository, gameLocks,
+                moveJournal, transactionManager, 100, 16, 10, 60000);
+        this.gameService = new GameServiceImpl(gameRepository, userService, computerPlayerService, gameLocks,
+                hotGameStore, moveJournal, completedGameCache, gameEventStream, transactionManager);
     }
 
     @Test
@@ -126,6 +181,22 @@ public class GameServiceImplTest {
         gameService.create(createGameRequest);
     }
 
+    @Test
+    public void testCreateGameWithInvalidWinLength() {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("The win length must be between 3 and the board size.");
+
+        CreateGameRequest createGameRequest = new CreateGameRequest();
+        createGameRequest.setBoardSize(3);
+        createGameRequest.setWinLength(5);
+        createGameRequest.setUserIds(Arrays.asList(1L, 2L));
+
+        when(userService.findOne(1L)).thenReturn(new User(1L, "user one"));
+        when(userService.findOne(2L)).thenReturn(new User(2L, "user two"));
+
+        gameService.create(createGameRequest);
+    }
+
     @Test
     public void testCreateGame() {
         CreateGameRequest createGameRequest = new CreateGameRequest();
@@ -156,6 +227,73 @@ public class GameServiceImplTest {
         assertEquals(GameStatus.IN_PROGRESS, gameResponse.getGameStatus());
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testCreateAll() {
+        CreateGameRequest humanGame = new CreateGameRequest();
+        humanGame.setBoardSize(3);
+        humanGame.setUserIds(Arrays.asList(1L, 2L));
+
+        CreateGameRequest computerGame = new CreateGameRequest();
+        computerGame.setBoardSize(4);
+        computerGame.setUserIds(Collections.singletonList(2L));
+        computerGame.setOpponentType(PlayerType.COMPUTER);
+
+        when(userService.findAll(any(Iterable.class)))
+                .thenReturn(Arrays.asList(new User(1L, "user one"), new User(2L, "user two")));
+        when(computerPlayerService.selectMove(any(Board.class), any(Mark.class))).thenReturn(new Move(0, 0));
+        when(gameRepository.save(any(Iterable.class))).thenAnswer(invocation -> {
+            long id = 1;
+            for (Game game : (Iterable<Game>) invocation.getArguments()[0]) {
+                game.setId(id++);
+            }
+            return invocation.getArguments()[0];
+        });
+
+        List<GameResponse> gameResponses = gameService.createAll(Arrays.asList(humanGame, computerGame));
+
+        assertEquals(2, gameResponses.size());
+        assertEquals(Long.valueOf(1L), gameResponses.get(0).getGameId());
+        assertEquals(3, gameResponses.get(0).getBoard().length);
+        assertEquals(Long.valueOf(2L), gameResponses.get(1).getGameId());
+        assertEquals(4, gameResponses.get(1).getBoard().length);
+
+        // Users are loaded once for every game, and the games are saved together
+        verify(userService).findAll(any(Iterable.class));
+        verify(userService, never()).findOne(any(Long.class));
+        verify(gameRepository).save(any(Iterable.class));
+        verify(gameRepository, never()).save(any(Game.class));
+
+        assertEquals(2, hotGameStore.size());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testCreateAllWithNonExistentUser() {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("User two must exist.");
+
+        CreateGameRequest createGameRequest = new CreateGameRequest();
+        createGameRequest.setBoardSize(3);
+        createGameRequest.setUserIds(Arrays.asList(1L, 2L));
+
+        when(userService.findAll(any(Iterable.class))).thenReturn(Collections.singletonList(new User(1L, "one")));
+
+        try {
+            gameService.createAll(Collections.singletonList(createGameRequest));
+        } finally {
+            verify(gameRepository, never()).save(any(Iterable.class));
+        }
+    }
+
+    @Test
+    public void testNullCreateAllRequest() {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Create game requests can not be null");
+
+        gameService.createAll(null);
+    }
+
     @Test
     public void testFindOne() {
         Player playerOne = new Player();
@@ -172,7 +310,7 @@ public class GameServiceImplTest {
         game.setPlayerTwo(playerTwo);
         game.setBoard(board);
 
-        when(gameRepository.findOne(3L)).thenReturn(game);
+        when(gameRepository.findGame(3L)).thenReturn(game);
         GameResponse gameResponse = gameService.findOne(3L);
 
         assertEquals(3L, gameResponse.getGameId().longValue());
@@ -180,6 +318,59 @@ public class GameServiceImplTest {
         assertEquals(2, gameResponse.getPlayers().size());
     }
 
+    @Test
+    public void testFoundGameIsNotChangedByLaterMoves() {
+        Game game = inProgressGame();
+        when(gameRepository.findGame(1L)).thenReturn(game);
+
+        GameResponse gameResponse = gameService.findOne(1L);
+        gameService.move(moveRequest(1L, 1L, 0, 0));
+
+        assertNotSame(game.getPlayerOne(), gameResponse.getPlayers().get(0));
+        assertTrue(gameResponse.getPlayers().get(0).isTurn());
+        assertFalse(gameResponse.getPlayers().get(1).isTurn());
+        assertEquals(Mark.INITIAL.getName(), gameResponse.getBoard()[0][0]);
+    }
+
+    @Test
+    public void testCompletedGameIsCached() {
+        Game game = inProgressGame();
+        game.setStatus(GameStatus.COMPLETE);
+
+        when(gameRepository.findGame(1L)).thenReturn(game);
+
+        GameResponse first = gameService.findOne(1L);
+        GameResponse second = gameService.findOne(1L);
+
+        assertSame(first, second);
+        verify(gameRepository, times(1)).findGame(1L);
+        assertEquals(1, completedGameCache.getHits());
+    }
+
+    @Test
+    public void testGameInProgressIsNotCached() {
+        when(gameRepository.findGame(1L)).thenReturn(inProgressGame());
+
+        gameService.findOne(1L);
+        gameService.findOne(1L);
+
+        verify(gameRepository, times(2)).findGame(1L);
+        assertEquals(0, completedGameCache.size());
+    }
+
+    @Test
+    public void testMoveInvalidatesCachedGame() {
+        completedGameCache.put(1L, GameResponse.newBuilder().withGameId(1L).build());
+        when(gameRepository.findGame(1L)).thenReturn(inProgressGame());
+
+        MoveRequest moveRequest = new MoveRequest();
+        moveRequest.setGameId(1L);
+        moveRequest.setPlayerId(1L);
+        gameService.move(moveRequest);
+
+        assertEquals(0, completedGameCache.size());
+    }
+
     @Test
     public void testFindNullGame() {
         expectedException.expect(IllegalArgumentException.class);
@@ -198,36 +389,43 @@ public class GameServiceImplTest {
 
     @Test
     public void testFindAll() {
-        GamesSummaryResponse expectedGamesSummaryResponse = new GamesSummaryResponse();
-        GameSummary expectedGameSummary = new GameSummary();
-        expectedGameSummary.setGameId(1L);
-        expectedGameSummary.setGameStatus(GameStatus.IN_PROGRESS);
-        expectedGameSummary.setUserIds(Arrays.asList(1L, 2L));
-        expectedGamesSummaryResponse.addGameSummary(expectedGameSummary);
+        GameSummary expectedGameSummary = new GameSummary(1L, GameStatus.IN_PROGRESS, 1L, 2L);
+        PageRequest pageRequest = new PageRequest(1, 1, Sort.Direction.ASC, "id");
 
-        Game game = new Game();
-        game.setId(1L);
-        game.setStatus(GameStatus.IN_PROGRESS);
-
-        Player playerOne = new Player();
-        Player playerTwo = new Player();
-        User userOne = new User(1L, "John");
-        User userTwo = new User(2L, "Jim");
-        playerOne.setUser(userOne);
-        playerTwo.setUser(userTwo);
-
-        game.setPlayerOne(playerOne);
-        game.setPlayerTwo(playerTwo);
-
-        when(gameRepository.findAll()).thenReturn(Collections.singletonList(game));
-        GamesSummaryResponse actualGamesSummaryResponse = gameService.findAll();
+        when(gameRepository.findSummaries(GameStatus.IN_PROGRESS, 2L, pageRequest))
+                .thenReturn(new PageImpl<>(Collections.singletonList(expectedGameSummary), pageRequest, 3));
+        GamesSummaryResponse actualGamesSummaryResponse = gameService.findAll(GameStatus.IN_PROGRESS, 2L, 1, 1);
 
         assertEquals(1, actualGamesSummaryResponse.getGames().size());
 
         GameSummary gameSummary1 = actualGamesSummaryResponse.getGames().get(0);
         assertEquals(expectedGameSummary.getGameId(), gameSummary1.getGameId());
         assertEquals(expectedGameSummary.getGameStatus(), gameSummary1.getGameStatus());
-        assertEquals(2, gameSummary1.getUserIds().size());
+        assertEquals(Arrays.asList(1L, 2L), gameSummary1.getUserIds());
+
+        assertEquals(1, actualGamesSummaryResponse.getPage());
+        assertEquals(1, actualGamesSummaryResponse.getSize());
+        assertEquals(3, actualGamesSummaryResponse.getTotalGames());
+        assertEquals(3, actualGamesSummaryResponse.getTotalPages());
+
+        // Games are summarised by projection, without loading the entities
+        verify(gameRepository, never()).findAll();
+    }
+
+    @Test
+    public void testFindAllWithInvalidPageSize() {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Page size must be between 1 and 1000.");
+
+        gameService.findAll(null, null, 0, 1001);
+    }
+
+    @Test
+    public void testFindAllWithNegativePage() {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Page number must not be negative.");
+
+        gameService.findAll(null, null, -1, 10);
     }
 
     @Test
@@ -259,7 +457,7 @@ public class GameServiceImplTest {
 
         Game game = new Game();
         game.setStatus(GameStatus.COMPLETE);
-        when(gameRepository.findOne(1L)).thenReturn(game);
+        when(gameRepository.findGame(1L)).thenReturn(game);
 
         gameService.move(moveRequest);
     }
@@ -273,7 +471,7 @@ public class GameServiceImplTest {
         moveRequest.setGameId(1L);
 
         Game game = new Game();
-        when(gameRepository.findOne(1L)).thenReturn(game);
+        when(gameRepository.findGame(1L)).thenReturn(game);
 
         gameService.move(moveRequest);
     }
@@ -291,7 +489,7 @@ public class GameServiceImplTest {
         game.setPlayerOne(null);
         game.setPlayerTwo(new Player());
 
-        when(gameRepository.findOne(1L)).thenReturn(game);
+        when(gameRepository.findGame(1L)).thenReturn(game);
 
         gameService.move(moveRequest);
     }
@@ -309,7 +507,7 @@ public class GameServiceImplTest {
         game.setPlayerOne(new Player());
         game.setPlayerTwo(null);
 
-        when(gameRepository.findOne(1L)).thenReturn(game);
+        when(gameRepository.findGame(1L)).thenReturn(game);
 
         gameService.move(moveRequest);
     }
@@ -328,7 +526,7 @@ public class GameServiceImplTest {
         game.setPlayerOne(new Player());
         game.setPlayerTwo(new Player());
 
-        when(gameRepository.findOne(1L)).thenReturn(game);
+        when(gameRepository.findGame(1L)).thenReturn(game);
 
         gameService.move(moveRequest);
     }
@@ -359,7 +557,7 @@ public class GameServiceImplTest {
         expectedGame.setPlayerOne(playerOne);
         expectedGame.setPlayerTwo(playerTwo);
 
-        when(gameRepository.findOne(1L)).thenReturn(expectedGame);
+        when(gameRepository.findGame(1L)).thenReturn(expectedGame);
 
         gameService.move(moveRequest);
     }
@@ -393,17 +591,13 @@ public class GameServiceImplTest {
         expectedGame.setBoard(new Board(3));
         expectedGame.setId(1L);
 
-        when(gameRepository.findOne(1L)).thenReturn(expectedGame);
-
-        Game savedGame = new Game();
-        savedGame.setBoard(new Board(3));
-        when(gameRepository.save(expectedGame)).thenReturn(savedGame);
+        when(gameRepository.findGame(1L)).thenReturn(expectedGame);
 
         gameService.move(moveRequest);
 
-        verify(gameRepository).save(saveGameArgumentCaptor.capture());
+        verify(gameRepository, never()).save(any(Game.class));
 
-        Game caseArgument = saveGameArgumentCaptor.getValue();
+        Game caseArgument = hotGameStore.peek(1L);
         assertEquals(false, caseArgument.getPlayerOne().isTurn());
         assertEquals(true, caseArgument.getPlayerTwo().isTurn());
         assertEquals(GameStatus.IN_PROGRESS, caseArgument.getStatus());
@@ -438,35 +632,22 @@ public class GameServiceImplTest {
 
         Board board = new Board(3);
 
-        List<BoardRow> rows = board.getRows();
-
-        // Set the board in a winning state for Circle
-        for (int i = 0; i < 3; i++) {
-            List<Character> boardRow = rows.get(i).getCharacters();
-            for (int j = 0; j < 3; j++) {
-                if (((i + j) % 2) == 0) {
-                    boardRow.set(j, Mark.CIRCLE.getName());
-                } else {
-                    boardRow.set(j, Mark.CROSS.getName());
-                }
-            }
-        }
-        rows.get(0).getCharacters().set(0, Mark.INITIAL.getName());
+        // Set the board one move away from a winning state for Circle
+        board.addMove(0, 1, Mark.CROSS);
+        board.addMove(1, 1, Mark.CIRCLE);
+        board.addMove(1, 0, Mark.CROSS);
+        board.addMove(2, 2, Mark.CIRCLE);
 
         expectedGame.setBoard(board);
         expectedGame.setId(1L);
 
-        when(gameRepository.findOne(1L)).thenReturn(expectedGame);
-
-        Game savedGame = new Game();
-        savedGame.setBoard(new Board(3));
-        when(gameRepository.save(expectedGame)).thenReturn(savedGame);
+        when(gameRepository.findGame(1L)).thenReturn(expectedGame);
 
         gameService.move(moveRequest);
 
-        verify(gameRepository).save(saveGameArgumentCaptor.capture());
+        verify(gameRepository, never()).save(any(Game.class));
 
-        Game caseArgument = saveGameArgumentCaptor.getValue();
+        Game caseArgument = hotGameStore.peek(1L);
 
         assertEquals(true, caseArgument.getPlayerOne().isTurn());
         assertEquals(PlayerStatus.WINNER, caseArgument.getPlayerOne().getStatus());
@@ -504,35 +685,28 @@ public class GameServiceImplTest {
 
         Board board = new Board(3);
 
-        List<BoardRow> rows = board.getRows();
-
         // Set the board in a tie state
-        rows.get(0).getCharacters().set(0, Mark.INITIAL.getName());
-        rows.get(0).getCharacters().set(1, Mark.CROSS.getName());
-        rows.get(0).getCharacters().set(2, Mark.CIRCLE.getName());
+        board.addMove(0, 1, Mark.CROSS);
+        board.addMove(0, 2, Mark.CIRCLE);
 
-        rows.get(1).getCharacters().set(0, Mark.CIRCLE.getName());
-        rows.get(1).getCharacters().set(1, Mark.CIRCLE.getName());
-        rows.get(1).getCharacters().set(2, Mark.CROSS.getName());
+        board.addMove(1, 0, Mark.CIRCLE);
+        board.addMove(1, 1, Mark.CIRCLE);
+        board.addMove(1, 2, Mark.CROSS);
 
-        rows.get(2).getCharacters().set(0, Mark.CROSS.getName());
-        rows.get(2).getCharacters().set(1, Mark.CIRCLE.getName());
-        rows.get(2).getCharacters().set(2, Mark.CROSS.getName());
+        board.addMove(2, 0, Mark.CROSS);
+        board.addMove(2, 1, Mark.CIRCLE);
+        board.addMove(2, 2, Mark.CROSS);
 
         expectedGame.setBoard(board);
         expectedGame.setId(1L);
 
-        when(gameRepository.findOne(1L)).thenReturn(expectedGame);
-
-        Game savedGame = new Game();
-        savedGame.setBoard(new Board(3));
-        when(gameRepository.save(expectedGame)).thenReturn(savedGame);
+        when(gameRepository.findGame(1L)).thenReturn(expectedGame);
 
         gameService.move(moveRequest);
 
-        verify(gameRepository).save(saveGameArgumentCaptor.capture());
+        verify(gameRepository, never()).save(any(Game.class));
 
-        Game caseArgument = saveGameArgumentCaptor.getValue();
+        Game caseArgument = hotGameStore.peek(1L);
 
         assertEquals(true, caseArgument.getPlayerOne().isTurn());
         assertEquals(PlayerStatus.TIE, caseArgument.getPlayerOne().getStatus());
@@ -541,4 +715,624 @@ public class GameServiceImplTest {
         assertEquals(GameStatus.COMPLETE, caseArgument.getStatus());
     }
 
+    @Test
+    public void testCreateComputerGameWithTwoUsers() {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Games against the computer require one user.");
+
+        CreateGameRequest createGameRequest = new CreateGameRequest();
+        createGameRequest.setBoardSize(3);
+        createGameRequest.setOpponentType(PlayerType.COMPUTER);
+        createGameRequest.setUserIds(Arrays.asList(1L, 2L));
+
+        gameService.create(createGameRequest);
+    }
+
+    @Test
+    public void testCreateComputerGameWithWinLengthTooLongToSearch() {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Computer players can not play a win length above 64.");
+
+        CreateGameRequest createGameRequest = new CreateGameRequest();
+        createGameRequest.setBoardSize(2000);
+        createGameRequest.setOpponentType(PlayerType.COMPUTER);
+        createGameRequest.setUserIds(Collections.singletonList(1L));
+
+        when(userService.findOne(1L)).thenReturn(new User(1L, "user one"));
+
+        gameService.create(createGameRequest);
+    }
+
+    @Test
+    public void testCreateComputerGame() {
+        CreateGameRequest createGameRequest = new CreateGameRequest();
+        createGameRequest.setBoardSize(3);
+        createGameRequest.setOpponentType(PlayerType.COMPUTER);
+        createGameRequest.setUserIds(Collections.singletonList(1L));
+
+        when(userService.findOne(1L)).thenReturn(new User(1L, "user one"));
+        when(computerPlayerService.selectMove(any(Board.class), any(Mark.class))).thenReturn(new Move(1, 1));
+        when(gameRepository.save(any(Game.class))).thenAnswer(invocation -> invocation.getArguments()[0]);
+
+        gameService.create(createGameRequest);
+
+        verify(gameRepository).save(saveGameArgumentCaptor.capture());
+        Game caseArgument = saveGameArgumentCaptor.getValue();
+
+        assertEquals(PlayerType.HUMAN, caseArgument.getPlayerOne().getType());
+        assertEquals(PlayerType.COMPUTER, caseArgument.getPlayerTwo().getType());
+        assertEquals(null, caseArgument.getPlayerTwo().getUser());
+
+        // Whoever was given the first turn, it is now the human's turn
+        assertEquals(true, caseArgument.getPlayerOne().isTurn());
+        assertEquals(false, caseArgument.getPlayerTwo().isTurn());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testComputerOpeningsArePlayedOutsideTransaction() {
+        // The computer is given the first turn in about half the games
+        List<CreateGameRequest> createGameRequests = new ArrayList<>();
+        for (int i = 0; i < 32; i++) {
+            CreateGameRequest createGameRequest = new CreateGameRequest();
+            createGameRequest.setBoardSize(3);
+            createGameRequest.setOpponentType(PlayerType.COMPUTER);
+            createGameRequest.setUserIds(Collections.singletonList(1L));
+            createGameRequests.add(createGameRequest);
+        }
+
+        when(userService.findAll(any(Iterable.class))).thenReturn(Collections.singletonList(new User(1L, "one")));
+        when(computerPlayerService.selectMove(any(Board.class), any(Mark.class))).thenAnswer(invocation -> {
+            verifyZeroInteractions(transactionManager);
+            return new Move(1, 1);
+        });
+        when(gameRepository.save(any(Iterable.class))).thenAnswer(invocation -> invocation.getArguments()[0]);
+
+        gameService.createAll(createGameRequests);
+
+        verify(computerPlayerService, atLeastOnce()).selectMove(any(Board.class), any(Mark.class));
+        verify(transactionManager).getTransaction(any(TransactionDefinition.class));
+    }
+
+    @Test
+    public void testMoveForComputerPlayer() {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Computer players can not be moved by request.");
+
+        MoveRequest moveRequest = new MoveRequest();
+        moveRequest.setGameId(1L);
+        moveRequest.setPlayerId(2L);
+
+        Player playerOne = new Player(new User("John"));
+        playerOne.setId(1L);
+        Player playerTwo = new Player();
+        playerTwo.setId(2L);
+        playerTwo.setType(PlayerType.COMPUTER);
+        playerTwo.setTurn(true);
+
+        Game game = new Game();
+        game.setStatus(GameStatus.IN_PROGRESS);
+        game.setPlayerOne(playerOne);
+        game.setPlayerTwo(playerTwo);
+
+        when(gameRepository.findGame(1L)).thenReturn(game);
+
+        gameService.move(moveRequest);
+    }
+
+    @Test
+    public void testMoveAnsweredByComputer() {
+        MoveRequest moveRequest = new MoveRequest();
+        moveRequest.setGameId(1L);
+        moveRequest.setPlayerId(1L);
+        moveRequest.setColumn(0);
+        moveRequest.setRow(0);
+
+        Player playerOne = new Player(new User("John"));
+        playerOne.setId(1L);
+        playerOne.setTurn(true);
+        playerOne.setMark(Mark.CIRCLE);
+
+        Player playerTwo = new Player();
+        playerTwo.setId(2L);
+        playerTwo.setType(PlayerType.COMPUTER);
+        playerTwo.setTurn(false);
+        playerTwo.setMark(Mark.CROSS);
+
+        Game game = new Game();
+        game.setId(1L);
+        game.setStatus(GameStatus.IN_PROGRESS);
+        game.setPlayerOne(playerOne);
+        game.setPlayerTwo(playerTwo);
+        game.setBoard(new Board(3));
+
+        when(gameRepository.findGame(1L)).thenReturn(game);
+        when(computerPlayerService.selectMove(game.getBoard(), Mark.CROSS)).thenReturn(new Move(1, 1));
+
+        GameResponse gameResponse = gameService.move(moveRequest);
+
+        assertEquals(Mark.CIRCLE.getName(), gameResponse.getBoard()[0][0]);
+        assertEquals(Mark.CROSS.getName(), gameResponse.getBoard()[1][1]);
+        assertEquals(true, playerOne.isTurn());
+        assertEquals(false, playerTwo.isTurn());
+
+        verify(moveJournal).append(1L, 1L, 0, 0, 1);
+        verify(moveJournal).append(1L, 2L, 1, 1, 2);
+    }
+
+    @Test
+    public void testMoveTakenBackWhenComputerReplyFails() {
+        Game game = computerGame();
+        when(gameRepository.findGame(1L)).thenReturn(game);
+        when(computerPlayerService.selectMove(game.getBoard(), Mark.CROSS))
+                .thenThrow(new IllegalStateException("Monte Carlo search failed."));
+
+        try {
+            gameService.move(moveRequest(1L, 1L, 0, 0));
+            fail("Expected the computer reply to fail");
+        } catch (IllegalStateException e) {
+            assertEquals("Monte Carlo search failed.", e.getMessage());
+        }
+
+        assertEquals(Mark.INITIAL, game.getBoard().getMark(0, 0));
+        assertEquals(0, game.getBoard().getFilled());
+        assertEquals(0, game.getMoveCount());
+        assertEquals(null, game.getVersion());
+        assertTrue(game.getPlayerOne().isTurn());
+        assertFalse(game.getPlayerTwo().isTurn());
+        verify(moveJournal, never()).append(anyLong(), anyLong(), anyInt(), anyInt(), anyInt());
+        verify(gameEventStream, never()).publish(any(MoveDelta.class));
+
+        // The game held in memory carries on from where it was
+        doReturn(new Move(1, 1)).when(computerPlayerService).selectMove(game.getBoard(), Mark.CROSS);
+        GameResponse gameResponse = gameService.move(moveRequest(1L, 1L, 0, 0));
+
+        assertEquals(Mark.CIRCLE.getName(), gameResponse.getBoard()[0][0]);
+        assertEquals(Mark.CROSS.getName(), gameResponse.getBoard()[1][1]);
+        assertEquals(Long.valueOf(1L), gameResponse.getVersion());
+        verify(moveJournal).append(1L, 1L, 0, 0, 1);
+        verify(moveJournal).append(1L, 2L, 1, 1, 2);
+    }
+
+    @Test
+    public void testMovesTakenBackWhenJournalFails() {
+        Game game = computerGame();
+        when(gameRepository.findGame(1L)).thenReturn(game);
+        when(computerPlayerService.selectMove(game.getBoard(), Mark.CROSS)).thenReturn(new Move(1, 1));
+        doThrow(new IllegalStateException("Journal segment could not be mapped."))
+                .when(moveJournal).append(1L, 2L, 1, 1, 2);
+
+        try {
+            gameService.move(moveRequest(1L, 1L, 0, 0));
+            fail("Expected the journal to fail");
+        } catch (IllegalStateException e) {
+            assertEquals("Journal segment could not be mapped.", e.getMessage());
+        }
+
+        assertEquals(Mark.INITIAL, game.getBoard().getMark(0, 0));
+        assertEquals(Mark.INITIAL, game.getBoard().getMark(1, 1));
+        assertEquals(0, game.getMoveCount());
+        assertEquals(GameStatus.IN_PROGRESS, game.getStatus());
+        assertTrue(game.getPlayerOne().isTurn());
+        verify(moveJournal).withdraw(1L, 1);
+    }
+
+    @Test
+    public void testWinningMoveIsNotAnsweredByComputer() {
+        MoveRequest moveRequest = new MoveRequest();
+        moveRequest.setGameId(1L);
+        moveRequest.setPlayerId(1L);
+        moveRequest.setColumn(2);
+        moveRequest.setRow(0);
+
+        Player playerOne = new Player(new User("John"));
+        playerOne.setId(1L);
+        playerOne.setTurn(true);
+        playerOne.setMark(Mark.CIRCLE);
+
+        Player playerTwo = new Player();
+        playerTwo.setId(2L);
+        playerTwo.setType(PlayerType.COMPUTER);
+        playerTwo.setMark(Mark.CROSS);
+
+        Board board = new Board(3);
+        board.addMove(0, 0, Mark.CIRCLE);
+        board.addMove(0, 1, Mark.CIRCLE);
+
+        Game game = new Game();
+        game.setId(1L);
+        game.setStatus(GameStatus.IN_PROGRESS);
+        game.setPlayerOne(playerOne);
+        game.setPlayerTwo(playerTwo);
+        game.setBoard(board);
+
+        when(gameRepository.findGame(1L)).thenReturn(game);
+
+        gameService.move(moveRequest);
+
+        verify(computerPlayerService, never()).selectMove(any(Board.class), any(Mark.class));
+        assertEquals(GameStatus.COMPLETE, game.getStatus());
+    }
+
+    @Test
+    public void testHint() {
+        Player playerOne = new Player(new User("John"));
+        playerOne.setId(1L);
+        playerOne.setTurn(false);
+        playerOne.setMark(Mark.CIRCLE);
+
+        Player playerTwo = new Player(new User("Jane"));
+        playerTwo.setId(2L);
+        playerTwo.setTurn(true);
+        playerTwo.setMark(Mark.CROSS);
+
+        Game game = new Game();
+        game.setId(1L);
+        game.setStatus(GameStatus.IN_PROGRESS);
+        game.setPlayerOne(playerOne);
+        game.setPlayerTwo(playerTwo);
+        game.setBoard(new Board(3));
+
+        when(gameRepository.findGame(1L)).thenReturn(game);
+        when(computerPlayerService.evaluate(game.getBoard(), Mark.CROSS))
+                .thenReturn(new Evaluation(new Move(0, 2), Outcome.DRAW));
+
+        HintResponse hintResponse = gameService.hint(1L);
+
+        assertEquals(Long.valueOf(1L), hintResponse.getGameId());
+        assertEquals(Long.valueOf(2L), hintResponse.getPlayerId());
+        assertEquals(0, hintResponse.getRow());
+        assertEquals(2, hintResponse.getColumn());
+        assertEquals(Outcome.DRAW, hintResponse.getOutcome());
+    }
+
+    @Test
+    public void testHintForCompletedGame() {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Game needs to be in Progress to request a hint.");
+
+        Game game = new Game();
+        game.setStatus(GameStatus.COMPLETE);
+
+        when(gameRepository.findGame(1L)).thenReturn(game);
+
+        gameService.hint(1L);
+    }
+
+    @Test
+    public void testMoveAgainstStaleVersion() {
+        MoveRequest moveRequest = new MoveRequest();
+        moveRequest.setGameId(1L);
+        moveRequest.setPlayerId(1L);
+        moveRequest.setExpectedVersion(3L);
+
+        Game game = inProgressGame();
+        game.setVersion(4L);
+
+        when(gameRepository.findGame(1L)).thenReturn(game);
+
+        try {
+            gameService.move(moveRequest);
+            fail("A move against a stale version should conflict");
+        } catch (GameConflictException e) {
+            assertEquals(Long.valueOf(4L), e.getCurrentGame().getVersion());
+            assertEquals(Long.valueOf(1L), e.getCurrentGame().getGameId());
+        }
+
+        verify(gameRepository, never()).save(any(Game.class));
+    }
+
+    @Test
+    public void testMoveAgainstCurrentVersion() {
+        MoveRequest moveRequest = new MoveRequest();
+        moveRequest.setGameId(1L);
+        moveRequest.setPlayerId(1L);
+        moveRequest.setExpectedVersion(4L);
+
+        Game game = inProgressGame();
+        game.setVersion(4L);
+
+        when(gameRepository.findGame(1L)).thenReturn(game);
+
+        gameService.move(moveRequest);
+
+        assertEquals(1, game.getMoveCount());
+    }
+
+    @Test
+    public void testMovesAreWrittenBehind() {
+        MoveRequest moveRequest = new MoveRequest();
+        moveRequest.setGameId(1L);
+        moveRequest.setPlayerId(1L);
+
+        Game game = inProgressGame();
+        game.setVersion(0L);
+
+        when(gameRepository.findGame(1L)).thenReturn(game);
+
+        GameResponse gameResponse = gameService.move(moveRequest);
+
+        assertEquals(Long.valueOf(1L), gameResponse.getVersion());
+        assertEquals(1, hotGameStore.backlog());
+        verify(gameRepository, never()).save(any(Game.class));
+
+        // Later reads see the move before it is written
+        assertEquals(Mark.CIRCLE.getName(), gameService.findOne(1L).getBoard()[0][0]);
+        verify(gameRepository, times(1)).findGame(1L);
+    }
+
+    @Test
+    public void testMovesKeepOrderWithinEachGame() {
+        Game gameOne = inProgressGame();
+        gameOne.setVersion(0L);
+        Game gameTwo = inProgressGame();
+        gameTwo.setId(2L);
+        gameTwo.setVersion(0L);
+
+        when(gameRepository.findGame(1L)).thenReturn(gameOne);
+        when(gameRepository.findGame(2L)).thenReturn(gameTwo);
+
+        List<MoveResult> results = gameService.moves(Arrays.asList(
+                moveRequest(1L, 1L, 0, 0),
+                moveRequest(2L, 1L, 1, 1),
+                moveRequest(1L, 2L, 2, 2),
+                moveRequest(1L, 1L, 0, 1)));
+
+        assertEquals(4, results.size());
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(i, results.get(i).getIndex());
+            assertTrue(results.get(i).isSuccess());
+        }
+
+        assertEquals(3, gameOne.getMoveCount());
+        assertEquals(Long.valueOf(3L), results.get(3).getGame().getVersion());
+        assertEquals(1, gameTwo.getMoveCount());
+
+        // Each game is queued to be written once
+        assertEquals(2, hotGameStore.backlog());
+        verify(gameRepository, never()).save(any(Game.class));
+    }
+
+    @Test
+    public void testMovesReportMoveWithoutPlayer() {
+        Game game = inProgressGame();
+        when(gameRepository.findGame(1L)).thenReturn(game);
+
+        List<MoveResult> results = gameService.moves(Arrays.asList(
+                moveRequest(1L, 1L, 0, 0),
+                moveRequest(1L, null, 1, 1)));
+
+        assertTrue(results.get(0).isSuccess());
+        assertFalse(results.get(1).isSuccess());
+        assertEquals("Player id can not be null", results.get(1).getError());
+
+        assertEquals(1, game.getMoveCount());
+        assertEquals(1, hotGameStore.backlog());
+    }
+
+    @Test
+    public void testMovesAppliedBeforeFailureAreWritten() {
+        Game game = inProgressGame();
+        when(gameRepository.findGame(1L)).thenReturn(game);
+        doThrow(new IllegalStateException("Journal segment could not be mapped."))
+                .when(moveJournal).append(1L, 2L, 1, 1, 2);
+
+        try {
+            gameService.moves(Arrays.asList(
+                    moveRequest(1L, 1L, 0, 0),
+                    moveRequest(1L, 2L, 1, 1)));
+            fail("Expected the journal to fail");
+        } catch (IllegalStateException e) {
+            assertEquals("Journal segment could not be mapped.", e.getMessage());
+        }
+
+        assertEquals(1, game.getMoveCount());
+        assertEquals(Mark.CIRCLE, game.getBoard().getMark(0, 0));
+        assertEquals(1, hotGameStore.backlog());
+    }
+
+    @Test
+    public void testMovesReportRejectedMoves() {
+        Game game = inProgressGame();
+        game.setVersion(0L);
+
+        when(gameRepository.findGame(1L)).thenReturn(game);
+
+        MoveRequest staleMove = moveRequest(1L, 2L, 1, 1);
+        staleMove.setExpectedVersion(7L);
+
+        List<MoveResult> results = gameService.moves(Arrays.asList(
+                moveRequest(1L, 2L, 0, 0),
+                moveRequest(1L, 1L, 0, 0),
+                staleMove,
+                null,
+                moveRequest(3L, 1L, 0, 0)));
+
+        assertFalse(results.get(0).isSuccess());
+        assertEquals("Must be the requesting players turn in the game.", results.get(0).getError());
+
+        assertTrue(results.get(1).isSuccess());
+
+        assertFalse(results.get(2).isSuccess());
+        assertEquals(Long.valueOf(1L), results.get(2).getGame().getVersion());
+
+        assertFalse(results.get(3).isSuccess());
+        assertEquals("Move request must have a game id.", results.get(3).getError());
+
+        assertFalse(results.get(4).isSuccess());
+        assertEquals(Long.valueOf(3L), results.get(4).getGameId());
+        assertEquals("Game does not exist", results.get(4).getError());
+    }
+
+    @Test
+    public void testMoveDelta() {
+        Game game = inProgressGame();
+        game.setVersion(4L);
+        when(gameRepository.findGame(1L)).thenReturn(game);
+
+        MoveDelta moveDelta = gameService.moveDelta(moveRequest(1L, 1L, 2, 1));
+
+        assertEquals(Long.valueOf(1L), moveDelta.getGameId());
+        assertEquals(1, moveDelta.getCells().size());
+        assertEquals(2, moveDelta.getCells().get(0).getRow());
+        assertEquals(1, moveDelta.getCells().get(0).getColumn());
+        assertEquals(Mark.CIRCLE.getName(), moveDelta.getCells().get(0).getMark());
+        assertEquals(Long.valueOf(1L), moveDelta.getCells().get(0).getPlayerId());
+        assertEquals(Long.valueOf(2L), moveDelta.getPlayerTurn());
+        assertEquals(GameStatus.IN_PROGRESS, moveDelta.getGameStatus());
+        assertEquals(Long.valueOf(5L), moveDelta.getVersion());
+
+        verify(gameEventStream).publish(moveDelta);
+    }
+
+    @Test
+    public void testMovesArePublished() {
+        when(gameRepository.findGame(1L)).thenReturn(inProgressGame());
+
+        gameService.move(moveRequest(1L, 1L, 0, 0));
+
+        ArgumentCaptor<MoveDelta> published = ArgumentCaptor.forClass(MoveDelta.class);
+        verify(gameEventStream).publish(published.capture());
+        assertEquals(Long.valueOf(1L), published.getValue().getGameId());
+        assertEquals(0, published.getValue().getCells().get(0).getRow());
+        assertEquals(Long.valueOf(2L), published.getValue().getPlayerTurn());
+    }
+
+    @Test
+    public void testRejectedMoveIsNotPublished() {
+        when(gameRepository.findGame(1L)).thenReturn(inProgressGame());
+
+        try {
+            gameService.move(moveRequest(1L, 2L, 0, 0));
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("Must be the requesting players turn in the game.", e.getMessage());
+        }
+
+        verify(gameEventStream, never()).publish(any(MoveDelta.class));
+    }
+
+    @Test
+    public void testMoveDeltaIncludesComputerReply() {
+        Game game = inProgressGame();
+        game.getPlayerTwo().setType(PlayerType.COMPUTER);
+        when(gameRepository.findGame(1L)).thenReturn(game);
+        when(computerPlayerService.selectMove(game.getBoard(), Mark.CROSS)).thenReturn(new Move(1, 1));
+
+        MoveDelta moveDelta = gameService.moveDelta(moveRequest(1L, 1L, 0, 0));
+
+        assertEquals(2, moveDelta.getCells().size());
+        assertEquals(Mark.CROSS.getName(), moveDelta.getCells().get(1).getMark());
+        assertEquals(Long.valueOf(2L), moveDelta.getCells().get(1).getPlayerId());
+        assertEquals(Long.valueOf(1L), moveDelta.getPlayerTurn());
+    }
+
+    @Test
+    public void testMoveDeltaForCompletedGame() {
+        Game game = inProgressGame();
+        game.getBoard().addMove(0, 0, Mark.CIRCLE);
+        game.getBoard().addMove(0, 1, Mark.CIRCLE);
+        when(gameRepository.findGame(1L)).thenReturn(game);
+
+        MoveDelta moveDelta = gameService.moveDelta(moveRequest(1L, 1L, 0, 2));
+
+        assertEquals(GameStatus.COMPLETE, moveDelta.getGameStatus());
+        assertNull(moveDelta.getPlayerTurn());
+    }
+
+    @Test
+    public void testNullMoveDelta() {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Move request can not be null");
+
+        gameService.moveDelta(null);
+    }
+
+    @Test
+    public void testFindVersionOfGameBeingPlayed() {
+        Game game = inProgressGame();
+        game.setVersion(3L);
+        when(gameRepository.findGame(1L)).thenReturn(game);
+
+        gameService.move(moveRequest(1L, 1L, 0, 0));
+
+        assertEquals(Long.valueOf(4L), gameService.findVersion(1L));
+        verify(gameRepository, never()).findVersion(anyLong());
+    }
+
+    @Test
+    public void testFindVersionDoesNotLoadGame() {
+        when(gameRepository.findVersion(1L)).thenReturn(7L);
+
+        assertEquals(Long.valueOf(7L), gameService.findVersion(1L));
+        verify(gameRepository, never()).findGame(anyLong());
+    }
+
+    @Test
+    public void testFindVersionOfCachedGame() {
+        completedGameCache.put(1L, GameResponse.newBuilder().withGameId(1L).withVersion(9L).build());
+
+        assertEquals(Long.valueOf(9L), gameService.findVersion(1L));
+        verify(gameRepository, never()).findVersion(anyLong());
+    }
+
+    @Test
+    public void testFindVersionOfNonExistentGame() {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Game does not exist");
+
+        when(gameRepository.findVersion(1L)).thenReturn(null);
+
+        gameService.findVersion(1L);
+    }
+
+    private static MoveRequest moveRequest(Long gameId, Long playerId, int row, int column) {
+        MoveRequest moveRequest = new MoveRequest();
+        moveRequest.setGameId(gameId);
+        moveRequest.setPlayerId(playerId);
+        moveRequest.setRow(row);
+        moveRequest.setColumn(column);
+        return moveRequest;
+    }
+
+    private static Game computerGame() {
+        Player playerOne = new Player(new User("John"));
+        playerOne.setId(1L);
+        playerOne.setTurn(true);
+        playerOne.setMark(Mark.CIRCLE);
+        playerOne.setStatus(PlayerStatus.PLAYING);
+
+        Player playerTwo = new Player();
+        playerTwo.setId(2L);
+        playerTwo.setType(PlayerType.COMPUTER);
+        playerTwo.setMark(Mark.CROSS);
+        playerTwo.setStatus(PlayerStatus.PLAYING);
+
+        Game game = new Game();
+        game.setId(1L);
+        game.setStatus(GameStatus.IN_PROGRESS);
+        game.setPlayerOne(playerOne);
+        game.setPlayerTwo(playerTwo);
+        game.setBoard(new Board(3));
+        return game;
+    }
+
+    private static Game inProgressGame() {
+        Player playerOne = new Player(new User("John"));
+        playerOne.setId(1L);
+        playerOne.setTurn(true);
+        playerOne.setMark(Mark.CIRCLE);
+
+        Player playerTwo = new Player(new User("Jane"));
+        playerTwo.setId(2L);
+        playerTwo.setMark(Mark.CROSS);
+
+        Game game = new Game();
+        game.setId(1L);
+        game.setStatus(GameStatus.IN_PROGRESS);
+        game.setPlayerOne(playerOne);
+        game.setPlayerTwo(playerTwo);
+        game.setBoard(new Board(3));
+        return game;
+    }
 }
@@ -0,0 +1,281 @@
+package com.mbragg.game.service.api.service;
+
+import com.mbragg.game.service.api.dl.BoardRepository;
+import com.mbragg.game.service.api.dl.GameRepository;
+import com.mbragg.game.service.api.dl.PlayerRepository;
+import com.mbragg.game.service.api.domain.*;
+import com.mbragg.game.service.api.journal.MoveJournal;
+import com.mbragg.game.service.api.journal.MoveRecord;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class HotGameStoreTest {
+
+    @Mock
+    private GameRepository gameRepository;
+
+    @Mock
+    private BoardRepository boardRepository;
+
+    @Mock
+    private PlayerRepository playerRepository;
+
+    @Mock
+    private MoveJournal moveJournal;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private HotGameStore hotGameStore;
+
+    @Before
+    public void setUp() {
+        hotGameStore = new HotGameStore(gameRepository, boardRepository, playerRepository, new GameLocks(16),
+                moveJournal, transactionManager, 10, 16, 10, 60000);
+
+        when(gameRepository.updateState(anyLong(), any(GameStatus.class), anyInt(), anyLong(), anyLong()))
+                .thenReturn(1);
+    }
+
+    @Test
+    public void testGetKeepsGamesInProgress() {
+        Game game = game(1L, GameStatus.IN_PROGRESS);
+        when(gameRepository.findGame(1L)).thenReturn(game);
+
+        assertSame(game, hotGameStore.get(1L));
+        assertSame(game, hotGameStore.get(1L));
+
+        verify(gameRepository, times(1)).findGame(1L);
+        assertEquals(1, hotGameStore.size());
+    }
+
+    @Test
+    public void testGetDoesNotKeepCompletedGames() {
+        when(gameRepository.findGame(1L)).thenReturn(game(1L, GameStatus.COMPLETE));
+
+        hotGameStore.get(1L);
+
+        assertNull(hotGameStore.peek(1L));
+    }
+
+    @Test
+    public void testUpdateMovesToNextVersion() {
+        Game game = game(1L, GameStatus.IN_PROGRESS);
+
+        hotGameStore.update(game);
+
+        assertEquals(Long.valueOf(1L), game.getVersion());
+        assertEquals(Long.valueOf(1L), game.getBoard().getVersion());
+    }
+
+    @Test
+    public void testChangesAreWrittenBehind() throws InterruptedException {
+        Game game = game(1L, GameStatus.IN_PROGRESS);
+        hotGameStore.put(game);
+        hotGameStore.start();
+
+        try {
+            game.getBoard().addMove(1, 1, Mark.CROSS);
+            game.setMoveCount(1);
+            hotGameStore.update(game);
+            hotGameStore.markDirty(1L);
+
+            verify(gameRepository, timeout(2000)).updateState(1L, GameStatus.IN_PROGRESS, 1, 1L, 0L);
+            verify(boardRepository, timeout(2000)).updateCells(eq(10L), any(byte[].class), eq(1L));
+            verify(playerRepository, timeout(2000)).updateState(eq(1L), anyBoolean(), any(PlayerStatus.class));
+            verify(playerRepository, timeout(2000)).updateState(eq(2L), anyBoolean(), any(PlayerStatus.class));
+            verify(moveJournal, timeout(2000)).checkpoint(1L, 1);
+        } finally {
+            hotGameStore.stop();
+        }
+
+        assertSame(game, hotGameStore.peek(1L));
+    }
+
+    @Test
+    public void testRepeatedChangesAreCoalesced() throws InterruptedException {
+        Game game = game(1L, GameStatus.IN_PROGRESS);
+        hotGameStore.put(game);
+
+        hotGameStore.update(game);
+        hotGameStore.markDirty(1L);
+        hotGameStore.update(game);
+        hotGameStore.markDirty(1L);
+
+        assertEquals(1, hotGameStore.backlog());
+
+        hotGameStore.stop();
+
+        verify(gameRepository).updateState(1L, GameStatus.IN_PROGRESS, 0, 2L, 0L);
+    }
+
+    @Test
+    public void testCompletedGamesAreDroppedOnceWritten() throws InterruptedException {
+        Game game = game(1L, GameStatus.IN_PROGRESS);
+        hotGameStore.put(game);
+        hotGameStore.start();
+
+        try {
+            game.setStatus(GameStatus.COMPLETE);
+            hotGameStore.update(game);
+            hotGameStore.markDirty(1L);
+
+            verify(gameRepository, timeout(2000)).updateState(1L, GameStatus.COMPLETE, 0, 1L, 0L);
+        } finally {
+            hotGameStore.stop();
+        }
+
+        assertNull(hotGameStore.peek(1L));
+    }
+
+    @Test
+    public void testStopWritesPendingChanges() throws InterruptedException {
+        Game game = game(1L, GameStatus.IN_PROGRESS);
+        hotGameStore.put(game);
+        hotGameStore.update(game);
+
+        hotGameStore.stop();
+
+        verify(gameRepository).updateState(1L, GameStatus.IN_PROGRESS, 0, 1L, 0L);
+
+        // Nothing is left to write
+        hotGameStore.stop();
+        verify(gameRepository, times(1)).updateState(anyLong(), any(GameStatus.class), anyInt(), anyLong(), anyLong());
+    }
+
+    @Test
+    public void testGameChangedElsewhereIsDropped() throws InterruptedException {
+        Game game = game(1L, GameStatus.IN_PROGRESS);
+        hotGameStore.put(game);
+        hotGameStore.update(game);
+
+        when(gameRepository.updateState(1L, GameStatus.IN_PROGRESS, 0, 1L, 0L)).thenReturn(0);
+
+        hotGameStore.stop();
+
+        verify(boardRepository, never()).updateCells(anyLong(), any(byte[].class), anyLong());
+        verify(moveJournal).discard(1L);
+        assertNull(hotGameStore.peek(1L));
+    }
+
+    @Test
+    public void testRecoverReplaysJournaledMoves() throws InterruptedException {
+        Game game = game(1L, GameStatus.IN_PROGRESS);
+        game.getBoard().addMove(0, 0, Mark.CIRCLE);
+        game.setMoveCount(1);
+        game.getPlayerOne().setTurn(false);
+        game.getPlayerTwo().setTurn(true);
+
+        when(gameRepository.findGame(1L)).thenReturn(game);
+        when(moveJournal.takeRecovered()).thenReturn(recovered(
+                new MoveRecord(1L, 1L, 0, 0, 1),
+                new MoveRecord(1L, 2L, 1, 1, 2),
+                new MoveRecord(1L, 1L, 0, 1, 3)));
+
+        hotGameStore.recover();
+
+        assertSame(game, hotGameStore.peek(1L));
+        assertEquals(3, game.getMoveCount());
+        assertEquals(Mark.CROSS, game.getBoard().getMark(1, 1));
+        assertEquals(Mark.CIRCLE, game.getBoard().getMark(0, 1));
+        assertEquals(true, game.getPlayerTwo().isTurn());
+        assertEquals(1, hotGameStore.backlog());
+
+        hotGameStore.stop();
+
+        verify(gameRepository).updateState(1L, GameStatus.IN_PROGRESS, 3, 1L, 0L);
+    }
+
+    @Test
+    public void testRecoverStopsAtGap() {
+        Game game = game(1L, GameStatus.IN_PROGRESS);
+
+        when(gameRepository.findGame(1L)).thenReturn(game);
+        when(moveJournal.takeRecovered()).thenReturn(recovered(
+                new MoveRecord(1L, 1L, 0, 0, 1),
+                new MoveRecord(1L, 1L, 2, 2, 3)));
+
+        hotGameStore.recover();
+
+        assertEquals(1, game.getMoveCount());
+        assertEquals(Mark.INITIAL, game.getBoard().getMark(2, 2));
+    }
+
+    @Test
+    public void testRecoverCheckpointsGamesAlreadyWritten() {
+        Game game = game(1L, GameStatus.IN_PROGRESS);
+        game.setMoveCount(1);
+
+        when(gameRepository.findGame(1L)).thenReturn(game);
+        when(moveJournal.takeRecovered()).thenReturn(recovered(new MoveRecord(1L, 1L, 0, 0, 1)));
+
+        hotGameStore.recover();
+
+        verify(moveJournal).checkpoint(1L, 1);
+        assertNull(hotGameStore.peek(1L));
+        assertEquals(0, hotGameStore.backlog());
+    }
+
+    @Test
+    public void testRecoverDiscardsMissingGames() {
+        when(moveJournal.takeRecovered()).thenReturn(recovered(new MoveRecord(1L, 1L, 0, 0, 1)));
+
+        hotGameStore.recover();
+
+        verify(moveJournal).discard(1L);
+    }
+
+    private static Map<Long, List<MoveRecord>> recovered(MoveRecord... records) {
+        Map<Long, List<MoveRecord>> recovered = new HashMap<>();
+        recovered.put(records[0].getGameId(), Arrays.asList(records));
+        return recovered;
+    }
+
+    private static Game game(Long id, GameStatus status) {
+        Player playerOne = new Player(new User("John"));
+        playerOne.setId(1L);
+        playerOne.setTurn(true);
+        playerOne.setMark(Mark.CIRCLE);
+
+        Player playerTwo = new Player(new User("Jane"));
+        playerTwo.setId(2L);
+        playerTwo.setMark(Mark.CROSS);
+
+        Board board = new Board(3);
+        board.setId(10L);
+        board.setVersion(0L);
+
+        Game game = new Game();
+        game.setId(id);
+        game.setStatus(status);
+        game.setPlayerOne(playerOne);
+        game.setPlayerTwo(playerTwo);
+        game.setBoard(board);
+        game.setVersion(0L);
+        return game;
+    }
+}
@@ -0,0 +1,58 @@
+package com.mbragg.game.service.api.service;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class LookupCacheTest {
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    @Test
+    public void testHitsAndMisses() {
+        LookupCache<Long, String> cache = new LookupCache<>(4);
+        cache.put(1L, "one");
+
+        assertEquals("one", cache.get(1L));
+        assertNull(cache.get(2L));
+
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() {
+        LookupCache<Long, String> cache = new LookupCache<>(2);
+        cache.put(1L, "one");
+        cache.put(2L, "two");
+        cache.get(1L);
+        cache.put(3L, "three");
+
+        assertEquals(2, cache.size());
+        assertEquals("one", cache.get(1L));
+        assertNull(cache.get(2L));
+        assertEquals("three", cache.get(3L));
+    }
+
+    @Test
+    public void testInvalidate() {
+        LookupCache<Long, String> cache = new LookupCache<>(2);
+        cache.put(1L, "one");
+        cache.invalidate(1L);
+
+        assertNull(cache.get(1L));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testInvalidCapacity() {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Cache capacity must be greater than zero.");
+
+        new LookupCache<Long, String>(0);
+    }
+}
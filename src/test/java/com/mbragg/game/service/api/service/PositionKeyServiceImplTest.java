@@ -0,0 +1,64 @@
+package com.mbragg.game.service.api.service;
+
+import com.mbragg.game.service.api.domain.Board;
+import com.mbragg.game.service.api.domain.Mark;
+import com.mbragg.game.service.api.engine.CanonicalPosition;
+import com.mbragg.game.service.api.engine.Move;
+import com.mbragg.game.service.api.engine.SearchBoard;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class PositionKeyServiceImplTest {
+
+    private final PositionKeyService positionKeyService = new PositionKeyServiceImpl();
+
+    @Test
+    public void testMirroredOpeningsShareKey() {
+        Board left = new Board(7, 4);
+        left.addMove(3, 0, Mark.CROSS);
+
+        Board right = new Board(7, 4);
+        right.addMove(3, 6, Mark.CROSS);
+
+        assertEquals(positionKeyService.canonicalPosition(left, Mark.CIRCLE).getKey(),
+                positionKeyService.canonicalPosition(right, Mark.CIRCLE).getKey());
+    }
+
+    @Test
+    public void testPlayerToMoveChangesKey() {
+        Board board = new Board(7, 4);
+        board.addMove(3, 3, Mark.CROSS);
+
+        assertNotEquals(positionKeyService.canonicalPosition(board, Mark.CROSS).getKey(),
+                positionKeyService.canonicalPosition(board, Mark.CIRCLE).getKey());
+    }
+
+    @Test
+    public void testMovesMapBetweenMirroredBoards() {
+        Board left = new Board(7, 4);
+        left.addMove(3, 0, Mark.CROSS);
+
+        Board right = new Board(7, 4);
+        right.addMove(3, 6, Mark.CROSS);
+
+        CanonicalPosition leftPosition = positionKeyService.canonicalPosition(left, Mark.CIRCLE);
+        CanonicalPosition rightPosition = positionKeyService.canonicalPosition(right, Mark.CIRCLE);
+
+        // The reply next to the mark on one board is the reply next to the mark on the other
+        Move canonical = leftPosition.toCanonical(new Move(3, 1));
+
+        assertEquals(new Move(3, 1), leftPosition.fromCanonical(canonical));
+        assertEquals(new Move(3, 5), rightPosition.fromCanonical(canonical));
+    }
+
+    @Test
+    public void testKeyMatchesSearchBoardHash() {
+        Board board = new Board(5, 4);
+        board.addMove(0, 3, Mark.CROSS);
+        board.addMove(4, 1, Mark.CIRCLE);
+
+        assertEquals(SearchBoard.of(board).getHash(), board.getPositionKey().getKey());
+    }
+}
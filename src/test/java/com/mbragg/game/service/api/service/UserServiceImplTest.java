@@ -2,6 +2,7 @@ package com.mbragg.game.service.api.service;
 
 import com.mbragg.game.service.api.dl.UserRepository;
 import com.mbragg.game.service.api.domain.*;
+import com.mbragg.game.service.api.dto.UsersPageResponse;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -11,11 +12,18 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -24,9 +32,14 @@ public class UserServiceImplTest {
 
     private UserService userService;
 
+    private UserCache userCache;
+
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @Rule
     public ExpectedException expectedException = ExpectedException.none();
 
@@ -35,7 +48,8 @@ public class UserServiceImplTest {
 
     @Before
     public void setUp() {
-        this.userService = new UserServiceImpl(userRepository);
+        this.userCache = new UserCache(16);
+        this.userService = new UserServiceImpl(userRepository, userCache, transactionManager);
     }
 
     @Test
@@ -108,16 +122,99 @@ public class UserServiceImplTest {
     }
 
     @Test
-    public void testFindAll() {
-        User expectedUser = new User();
-        expectedUser.setName("John");
-        expectedUser.setId(1L);
+    public void testFindOneIsCached() {
+        when(userRepository.findOne(1L)).thenReturn(new User(1L, "John"));
+
+        userService.findOne(1L);
+        User foundUser = userService.findOne(1L);
+
+        assertEquals("John", foundUser.getName());
+        verify(userRepository, times(1)).findOne(1L);
+        assertEquals(1, userCache.getHits());
+        assertEquals(1, userCache.getMisses());
+    }
+
+    @Test
+    public void testMissingUserIsNotCached() {
+        userService.findOne(1L);
+        userService.findOne(1L);
+
+        verify(userRepository, times(2)).findOne(1L);
+        assertEquals(0, userCache.size());
+    }
+
+    @Test
+    public void testSaveInvalidatesCachedUser() {
+        when(userRepository.findOne(1L)).thenReturn(new User(1L, "John"));
+        userService.findOne(1L);
+
+        User renamed = new User(1L, "Johnny");
+        when(userRepository.save(renamed)).thenReturn(renamed);
+        userService.save(renamed);
 
-        when(userRepository.findAll()).thenReturn(Collections.singletonList(expectedUser));
-        List<User> foundUsers = userService.findAll();
+        assertEquals(0, userCache.size());
+        userService.findOne(1L);
+        verify(userRepository, times(2)).findOne(1L);
+    }
+
+    @Test
+    public void testFindAllByIds() {
+        User expectedUser = new User(1L, "John");
+        List<Long> ids = Arrays.asList(1L, 2L);
+
+        when(userRepository.findAll(ids)).thenReturn(Collections.singletonList(expectedUser));
+        List<User> foundUsers = userService.findAll(ids);
 
         assertEquals(1, foundUsers.size());
         assertEquals("John", foundUsers.get(0).getName());
-        assertEquals(1L, foundUsers.get(0).getId().longValue());
+    }
+
+    @Test
+    public void testFindAllByNullIds() {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("User ids must not be null.");
+
+        userService.findAll(null);
+    }
+
+    @Test
+    public void testFindPage() {
+        when(userRepository.findByIdGreaterThanOrderByIdAsc(5L, new PageRequest(0, 2)))
+                .thenReturn(Arrays.asList(new User(6L, "John"), new User(8L, "Jim")));
+
+        UsersPageResponse page = userService.findPage(5L, 2);
+
+        assertEquals(2, page.getUsers().size());
+        assertEquals(Long.valueOf(8L), page.getNextAfter());
+    }
+
+    @Test
+    public void testFindLastPage() {
+        when(userRepository.findByIdGreaterThanOrderByIdAsc(0L, new PageRequest(0, 2)))
+                .thenReturn(Collections.singletonList(new User(1L, "John")));
+
+        UsersPageResponse page = userService.findPage(null, 2);
+
+        assertEquals(1, page.getUsers().size());
+        assertNull(page.getNextAfter());
+    }
+
+    @Test
+    public void testFindPageWithInvalidSize() {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Page size must be between 1 and 1000.");
+
+        userService.findPage(null, 0);
+    }
+
+    @Test
+    public void testExport() {
+        when(userRepository.streamAll()).thenReturn(Stream.of(new User(1L, "John"), new User(2L, "Jim")));
+
+        List<User> exported = new ArrayList<>();
+        userService.export(exported::add);
+
+        assertEquals(2, exported.size());
+        assertEquals("Jim", exported.get(1).getName());
     }
 }
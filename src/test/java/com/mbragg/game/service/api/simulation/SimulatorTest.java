@@ -0,0 +1,76 @@
+package com.mbragg.game.service.api.simulation;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SimulatorTest {
+
+    private final Simulator simulator = new Simulator();
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    @Test
+    public void testEveryGameIsCounted() {
+        SimulationReport report = simulator.run(config(Strategy.RANDOM, Strategy.RANDOM, 3, 0, 500));
+
+        assertEquals(500, report.getGames());
+        assertEquals(500, report.getPlayerOneWins() + report.getPlayerTwoWins() + report.getDraws());
+        assertTrue(report.getAverageLength() >= 5 && report.getAverageLength() <= 9);
+        assertTrue(report.getGamesPerSecond() > 0);
+    }
+
+    @Test
+    public void testFirstMoverAdvantageWithRandomPlay() {
+        SimulationReport report = simulator.run(config(Strategy.RANDOM, Strategy.RANDOM, 3, 0, 2000));
+
+        // Random play on 3x3 is won by the opening player about 58% of the time and lost about 29%
+        assertTrue(report.getFirstMoverWinRate() > 0.5 && report.getFirstMoverWinRate() < 0.66);
+    }
+
+    @Test
+    public void testGreedyBeatsRandom() {
+        SimulationReport report = simulator.run(config(Strategy.GREEDY, Strategy.RANDOM, 5, 4, 200));
+
+        assertTrue(report.getPlayerOneWins() > 2 * report.getPlayerTwoWins());
+    }
+
+    @Test
+    public void testPerfectPlayDraws() {
+        SimulationReport report = simulator.run(config(Strategy.SEARCH, Strategy.SEARCH, 3, 0, 20));
+
+        assertEquals(20, report.getDraws());
+        assertEquals(9.0, report.getAverageLength(), 0);
+    }
+
+    @Test
+    public void testSearchNeverLosesToRandom() {
+        SimulationReport report = simulator.run(config(Strategy.SEARCH, Strategy.RANDOM, 3, 0, 100));
+
+        assertEquals(0, report.getPlayerTwoWins());
+    }
+
+    @Test
+    public void testNoGames() {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("A simulation must play at least one game.");
+
+        simulator.run(config(Strategy.RANDOM, Strategy.RANDOM, 3, 0, 0));
+    }
+
+    private static SimulationConfig config(Strategy playerOne, Strategy playerTwo, int size, int winLength,
+                                           int games) {
+        SimulationConfig config = new SimulationConfig();
+        config.setPlayerOne(playerOne);
+        config.setPlayerTwo(playerTwo);
+        config.setBoardSize(size);
+        config.setWinLength(winLength);
+        config.setGames(games);
+        config.setThreads(2);
+        return config;
+    }
+}
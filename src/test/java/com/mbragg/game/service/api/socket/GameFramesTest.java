@@ -0,0 +1,116 @@
+package com.mbragg.game.service.api.socket;
+
+import com.mbragg.game.service.api.domain.GameStatus;
+import com.mbragg.game.service.api.domain.Mark;
+import com.mbragg.game.service.api.domain.PackedCells;
+import com.mbragg.game.service.api.domain.Player;
+import com.mbragg.game.service.api.dto.GameResponse;
+import com.mbragg.game.service.api.dto.MoveDelta;
+import com.mbragg.game.service.api.dto.PlacedCell;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class GameFramesTest {
+
+    private static final int BOARD_SIZE = 3;
+
+    @Test
+    public void testJoin() {
+        ByteBuffer frame = GameFrames.join(1L, 2L, 3L);
+
+        assertEquals(GameFrames.JOIN_BYTES, frame.remaining());
+        assertEquals(GameFrames.JOIN, frame.get());
+        assertEquals(1L, frame.getLong());
+        assertEquals(2L, frame.getLong());
+        assertEquals(3L, frame.getLong());
+    }
+
+    @Test
+    public void testMove() {
+        ByteBuffer frame = GameFrames.move(1L, 2, 0, 7);
+
+        assertEquals(GameFrames.MOVE_BYTES, frame.remaining());
+        assertEquals(GameFrames.MOVE, frame.get());
+        assertEquals(1L, frame.getLong());
+        assertEquals(2, frame.getInt());
+        assertEquals(0, frame.getInt());
+        assertEquals(7, frame.getInt());
+    }
+
+    @Test
+    public void testGame() {
+        byte[] cells = PackedCells.create(BOARD_SIZE * BOARD_SIZE);
+        PackedCells.set(cells, 4, Mark.CROSS);
+
+        Player waiting = new Player();
+        waiting.setId(10L);
+        Player turn = new Player();
+        turn.setId(11L);
+        turn.setTurn(true);
+
+        GameResponse game = GameResponse.newBuilder()
+                .withGameId(1L)
+                .withPackedCells(cells, BOARD_SIZE)
+                .withWinLength(BOARD_SIZE)
+                .withPlayers(Arrays.asList(waiting, turn))
+                .withGameStatus(GameStatus.IN_PROGRESS)
+                .withVersion(4L)
+                .build();
+
+        ByteBuffer frame = GameFrames.game(game);
+
+        assertEquals(GameFrames.GAME, frame.get());
+        assertEquals(1L, frame.getLong());
+        assertEquals(4L, frame.getLong());
+        assertEquals(GameStatus.IN_PROGRESS.ordinal(), frame.get());
+        assertEquals(11L, frame.getLong());
+        assertEquals(BOARD_SIZE, frame.getInt());
+        assertEquals(BOARD_SIZE, frame.getInt());
+
+        byte[] sent = new byte[frame.remaining()];
+        frame.get(sent);
+        assertArrayEquals(cells, sent);
+    }
+
+    @Test
+    public void testMovedOfCompleteGame() {
+        MoveDelta delta = new MoveDelta();
+        delta.setGameId(1L);
+        delta.setVersion(5L);
+        delta.setGameStatus(GameStatus.COMPLETE);
+        delta.addCell(new PlacedCell(2, 1, Mark.CIRCLE.getName(), 10L));
+
+        ByteBuffer frame = GameFrames.moved(delta);
+
+        assertEquals(GameFrames.MOVED, frame.get());
+        assertEquals(1L, frame.getLong());
+        assertEquals(5L, frame.getLong());
+        assertEquals(GameStatus.COMPLETE.ordinal(), frame.get());
+        assertEquals(0L, frame.getLong());
+        assertEquals(1, frame.get());
+        assertEquals(2, frame.getInt());
+        assertEquals(1, frame.getInt());
+        assertEquals('O', (char) frame.get());
+        assertEquals(10L, frame.getLong());
+        assertEquals(0, frame.remaining());
+    }
+
+    @Test
+    public void testError() {
+        ByteBuffer frame = GameFrames.error(1L, 3, "Spectators can not move.");
+
+        assertEquals(GameFrames.ERROR, frame.get());
+        assertEquals(1L, frame.getLong());
+        assertEquals(3, frame.getInt());
+
+        byte[] text = new byte[frame.remaining()];
+        frame.get(text);
+        assertEquals("Spectators can not move.", new String(text, StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,247 @@
+package com.mbragg.game.service.api.socket;
+
+import com.mbragg.game.service.api.domain.GameStatus;
+import com.mbragg.game.service.api.domain.Player;
+import com.mbragg.game.service.api.domain.User;
+import com.mbragg.game.service.api.dto.CreateGameRequest;
+import com.mbragg.game.service.api.dto.GameResponse;
+import com.mbragg.game.service.api.dto.MoveRequest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.embedded.LocalServerPort;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import javax.websocket.ClientEndpointConfig;
+import javax.websocket.ContainerProvider;
+import javax.websocket.Endpoint;
+import javax.websocket.EndpointConfig;
+import javax.websocket.MessageHandler;
+import javax.websocket.Session;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@DirtiesContext
+public class GameSocketEndpointTest {
+
+    private static final long WAIT_SECONDS = 5;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    private final List<Session> sessions = new ArrayList<>();
+
+    private GameResponse game;
+
+    private Player mover;
+
+    private Player waiting;
+
+    @Before
+    public void setUp() {
+        User userOne = restTemplate.postForObject("/user/", new User("Socket 1"), User.class);
+        User userTwo = restTemplate.postForObject("/user/", new User("Socket 2"), User.class);
+
+        CreateGameRequest createGameRequest = new CreateGameRequest();
+        createGameRequest.setUserIds(Arrays.asList(userOne.getId(), userTwo.getId()));
+        createGameRequest.setBoardSize(3);
+        game = restTemplate.postForObject("/game/", createGameRequest, GameResponse.class);
+
+        boolean playerOneTurn = game.getPlayers().get(0).isTurn();
+        mover = game.getPlayers().get(playerOneTurn ? 0 : 1);
+        waiting = game.getPlayers().get(playerOneTurn ? 1 : 0);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        for (Session session : sessions) {
+            session.close();
+        }
+    }
+
+    @Test
+    public void testMoveIsBroadcastToPlayersAndSpectators() throws Exception {
+        BlockingQueue<ByteBuffer> player = connect();
+        BlockingQueue<ByteBuffer> spectator = connect();
+
+        send(GameFrames.join(game.getGameId(), mover.getId(), 0));
+        ByteBuffer joined = next(player);
+        assertEquals(GameFrames.GAME, joined.get());
+        assertEquals(game.getGameId().longValue(), joined.getLong());
+
+        send(1, GameFrames.join(game.getGameId(), 0, 0));
+        assertEquals(GameFrames.GAME, next(spectator).get());
+
+        send(GameFrames.move(game.getGameId(), 1, 2, 1));
+
+        // The ACK and the MOVED frame are written by different threads, so may arrive in either order
+        Map<Byte, ByteBuffer> replies = nextByType(player, 2);
+
+        ByteBuffer ack = replies.get(GameFrames.ACK);
+        assertEquals(GameFrames.ACK, ack.get());
+        assertEquals(game.getGameId().longValue(), ack.getLong());
+        assertEquals(1, ack.getInt());
+        assertEquals(game.getVersion() + 1, ack.getLong());
+
+        assertMoved(replies.get(GameFrames.MOVED));
+        assertMoved(next(spectator));
+
+        send(GameFrames.move(game.getGameId(), 1, 2, 1));
+        assertError(next(player), 1, "Move sequence must increase, the last move was 1.");
+    }
+
+    @Test
+    public void testMoveByRequestIsBroadcast() throws Exception {
+        BlockingQueue<ByteBuffer> spectator = connect();
+        send(GameFrames.join(game.getGameId(), 0, 0));
+        assertEquals(GameFrames.GAME, next(spectator).get());
+
+        MoveRequest moveRequest = new MoveRequest();
+        moveRequest.setGameId(game.getGameId());
+        moveRequest.setPlayerId(mover.getId());
+        moveRequest.setRow(1);
+        moveRequest.setColumn(2);
+        assertEquals(HttpStatus.OK, restTemplate.postForEntity("/game/" + game.getGameId() + "/move", moveRequest,
+                GameResponse.class).getStatusCode());
+
+        assertMoved(next(spectator));
+    }
+
+    @Test
+    public void testRejectedMoves() throws Exception {
+        BlockingQueue<ByteBuffer> player = connect();
+
+        send(GameFrames.move(game.getGameId(), 0, 0, 1));
+        assertError(next(player), 1, "Join the game before moving.");
+
+        send(GameFrames.join(game.getGameId(), waiting.getId(), 0));
+        assertEquals(GameFrames.GAME, next(player).get());
+
+        send(GameFrames.move(game.getGameId(), 0, 0, 1));
+        assertError(next(player), 1, "Must be the requesting players turn in the game.");
+
+        // A rejected move does not use up its sequence
+        send(GameFrames.move(game.getGameId(), 0, 0, 1));
+        assertError(next(player), 1, "Must be the requesting players turn in the game.");
+    }
+
+    @Test
+    public void testJoinAsPlayerOfAnotherGame() throws Exception {
+        BlockingQueue<ByteBuffer> player = connect();
+
+        send(GameFrames.join(game.getGameId(), Long.MAX_VALUE, 0));
+
+        ByteBuffer error = next(player);
+        assertEquals(GameFrames.ERROR, error.get());
+        assertEquals(game.getGameId().longValue(), error.getLong());
+        assertEquals(0, error.getInt());
+        assertEquals("Requesting player id must be part of the Game.", text(error));
+    }
+
+    @Test
+    public void testUnknownFrame() throws Exception {
+        BlockingQueue<ByteBuffer> player = connect();
+
+        send(ByteBuffer.wrap(new byte[]{GameFrames.MOVE, 1, 2}));
+
+        ByteBuffer error = next(player);
+        assertEquals(GameFrames.ERROR, error.get());
+        assertEquals(0L, error.getLong());
+        assertEquals(0, error.getInt());
+        assertEquals("Unknown frame of type 2 and 3 bytes.", text(error));
+    }
+
+    private void assertMoved(ByteBuffer moved) {
+        assertEquals(GameFrames.MOVED, moved.get());
+        assertEquals(game.getGameId().longValue(), moved.getLong());
+        assertEquals(game.getVersion() + 1, moved.getLong());
+        assertEquals(GameStatus.IN_PROGRESS.ordinal(), moved.get());
+        assertEquals(waiting.getId().longValue(), moved.getLong());
+        assertEquals(1, moved.get());
+        assertEquals(1, moved.getInt());
+        assertEquals(2, moved.getInt());
+        assertEquals(mover.getMark().getName().charValue(), (char) moved.get());
+        assertEquals(mover.getId().longValue(), moved.getLong());
+    }
+
+    private static void assertError(ByteBuffer error, int sequence, String message) {
+        assertEquals(GameFrames.ERROR, error.get());
+        error.getLong();
+        assertEquals(sequence, error.getInt());
+        assertEquals(message, text(error));
+    }
+
+    private BlockingQueue<ByteBuffer> connect() throws Exception {
+        BlockingQueue<ByteBuffer> frames = new LinkedBlockingQueue<>();
+
+        Session session = ContainerProvider.getWebSocketContainer().connectToServer(new Endpoint() {
+            @Override
+            public void onOpen(Session session, EndpointConfig config) {
+                session.addMessageHandler(new MessageHandler.Whole<ByteBuffer>() {
+                    @Override
+                    public void onMessage(ByteBuffer frame) {
+                        frames.add(frame);
+                    }
+                });
+            }
+        }, ClientEndpointConfig.Builder.create().build(),
+                URI.create("ws://localhost:" + port + GameSocketEndpoint.PATH));
+
+        sessions.add(session);
+        return frames;
+    }
+
+    private void send(ByteBuffer frame) throws Exception {
+        send(0, frame);
+    }
+
+    private void send(int session, ByteBuffer frame) throws Exception {
+        sessions.get(session).getBasicRemote().sendBinary(frame);
+    }
+
+    private static ByteBuffer next(BlockingQueue<ByteBuffer> frames) throws InterruptedException {
+        ByteBuffer frame = frames.poll(WAIT_SECONDS, TimeUnit.SECONDS);
+        assertNotNull("Expected another frame", frame);
+        return frame;
+    }
+
+    private static Map<Byte, ByteBuffer> nextByType(BlockingQueue<ByteBuffer> frames, int count)
+            throws InterruptedException {
+        Map<Byte, ByteBuffer> byType = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            ByteBuffer frame = next(frames);
+            byType.put(frame.get(0), frame);
+        }
+        assertEquals(count, byType.size());
+        return byType;
+    }
+
+    private static String text(ByteBuffer frame) {
+        byte[] text = new byte[frame.remaining()];
+        frame.get(text);
+        return new String(text, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,99 @@
+package com.mbragg.game.service.api.socket;
+
+import com.mbragg.game.service.api.domain.GameStatus;
+import com.mbragg.game.service.api.dto.MoveDelta;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.mockito.ArgumentCaptor;
+
+import javax.websocket.CloseReason;
+import javax.websocket.RemoteEndpoint;
+import javax.websocket.Session;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class GameSocketTest {
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    private Session session;
+
+    private RemoteEndpoint.Basic remote;
+
+    private GameSocket gameSocket;
+
+    @Before
+    public void setUp() {
+        session = mock(Session.class);
+        remote = mock(RemoteEndpoint.Basic.class);
+        when(session.isOpen()).thenReturn(true);
+        when(session.getBasicRemote()).thenReturn(remote);
+
+        gameSocket = new GameSocket(session);
+    }
+
+    @Test
+    public void testClosedSubscriberIsSentErrorAndDisconnected() throws Exception {
+        GameSocket.Joined joined = gameSocket.join(1L, 2L);
+
+        joined.close();
+
+        ArgumentCaptor<ByteBuffer> frame = ArgumentCaptor.forClass(ByteBuffer.class);
+        verify(remote).sendBinary(frame.capture());
+        ByteBuffer error = frame.getValue();
+        assertEquals(GameFrames.ERROR, error.get());
+        assertEquals(1L, error.getLong());
+        assertEquals(0, error.getInt());
+        byte[] text = new byte[error.remaining()];
+        error.get(text);
+        assertEquals(GameSocket.BEHIND_MESSAGE, new String(text, StandardCharsets.UTF_8));
+
+        ArgumentCaptor<CloseReason> closeReason = ArgumentCaptor.forClass(CloseReason.class);
+        verify(session).close(closeReason.capture());
+        assertEquals(CloseReason.CloseCodes.TRY_AGAIN_LATER, closeReason.getValue().getCloseCode());
+        assertNull(gameSocket.joined(1L));
+    }
+
+    @Test
+    public void testCompleteGameIsLeftWithoutDisconnecting() throws Exception {
+        GameSocket.Joined joined = gameSocket.join(1L, 2L);
+        GameSocket.Joined other = gameSocket.join(3L, 2L);
+
+        MoveDelta delta = new MoveDelta();
+        delta.setGameId(1L);
+        delta.setVersion(5L);
+        delta.setGameStatus(GameStatus.COMPLETE);
+        joined.sendMove(delta);
+        joined.close();
+
+        verify(session, never()).close(any(CloseReason.class));
+        assertNull(gameSocket.joined(1L));
+        assertSame(other, gameSocket.joined(3L));
+    }
+
+    @Test
+    public void testRejectedMoveDoesNotUseSequence() {
+        GameSocket.Joined joined = gameSocket.join(1L, 2L);
+
+        joined.checkSequence(1);
+        joined.checkSequence(1);
+        joined.moved(1);
+
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Move sequence must increase, the last move was 1.");
+
+        joined.checkSequence(1);
+    }
+}